@@ -4,8 +4,15 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import com.kado24.kafka.config.KafkaBatchConsumerConfig;
 
 @SpringBootApplication
+@EnableKafka
+@EnableScheduling
+@Import(KafkaBatchConsumerConfig.class)
 public class AdminPortalBackendApplication extends SpringBootServletInitializer {
 
     @Override
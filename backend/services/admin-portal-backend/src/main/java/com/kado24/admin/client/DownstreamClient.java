@@ -0,0 +1,120 @@
+package com.kado24.admin.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Calls to merchant-service and order-service on behalf of the admin controllers.
+ *
+ * Downstream responses are {@code ApiResponse} JSON already in the shape the admin portal reads,
+ * so they are passed on as bytes instead of being parsed into maps and written out again:
+ * {@link #passThrough} streams a successful body straight to the caller, and {@link #fetchRaw}
+ * returns it as a {@link RawValue} to embed in a larger response. Fetches run on a dedicated pool
+ * so an aggregate view can wait on several services at once.
+ */
+@Slf4j
+@Component
+public class DownstreamClient {
+
+    private final RestClient restClient;
+    private final Executor fanOutExecutor;
+    private final ObjectMapper objectMapper;
+    private final long streamStartTimeoutMs;
+
+    public DownstreamClient(RestClient downstreamRestClient,
+                            @Qualifier("downstreamFanOutExecutor") Executor fanOutExecutor,
+                            ObjectMapper objectMapper,
+                            @Value("${services.http.read-timeout-ms:10000}") long streamStartTimeoutMs) {
+        this.restClient = downstreamRestClient;
+        this.fanOutExecutor = fanOutExecutor;
+        this.objectMapper = objectMapper;
+        this.streamStartTimeoutMs = streamStartTimeoutMs;
+    }
+
+    public RestClient.RequestHeadersSpec<?> get(String uriTemplate, Object... uriVariables) {
+        return restClient.get().uri(uriTemplate, uriVariables).accept(MediaType.APPLICATION_JSON);
+    }
+
+    public RestClient.RequestHeadersSpec<?> post(String uriTemplate, Object... uriVariables) {
+        return restClient.post().uri(uriTemplate, uriVariables).accept(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Streams a 2xx response body to the caller unchanged; for any other status or a failed call,
+     * answers 200 with {@code onError} applied to the reason, as the admin portal expects.
+     * The open response (its connection and per-host permit) is released once streamed, on any
+     * failure, and also if the body has not started streaming within the read timeout.
+     */
+    public ResponseEntity<StreamingResponseBody> passThrough(RestClient.RequestHeadersSpec<?> request,
+                                                             Function<String, Map<String, Object>> onError) {
+        try {
+            return request.exchange((clientRequest, response) -> {
+                try {
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        String reason = response.getStatusCode() + " from " + clientRequest.getURI().getPath();
+                        response.close();
+                        return json(onError.apply(reason));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    response.close();
+                    throw e;
+                }
+                AtomicBoolean claimed = new AtomicBoolean();
+                CompletableFuture.delayedExecutor(streamStartTimeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+                    if (claimed.compareAndSet(false, true)) {
+                        response.close();
+                    }
+                });
+                StreamingResponseBody body = out -> {
+                    if (!claimed.compareAndSet(false, true)) {
+                        throw new IOException("Downstream response released before it was streamed");
+                    }
+                    try (response) {
+                        response.getBody().transferTo(out);
+                    }
+                };
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+            }, false);
+        } catch (RestClientException e) {
+            log.warn("Downstream call failed: {}", e.getMessage());
+            return json(onError.apply(e.getMessage()));
+        }
+    }
+
+    /**
+     * The 2xx response body, unparsed, fetched on the fan-out pool (JSON {@code null} when empty);
+     * fails on any other status
+     */
+    public CompletableFuture<RawValue> fetchRaw(RestClient.RequestHeadersSpec<?> request) {
+        return CompletableFuture.supplyAsync(() -> {
+            String body = request.retrieve().body(String.class);
+            return new RawValue(body != null && !body.isBlank() ? body : "null");
+        }, fanOutExecutor);
+    }
+
+    private ResponseEntity<StreamingResponseBody> json(Map<String, Object> body) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialize fallback response", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.kado24.admin.config;
+
+import com.kado24.admin.client.HostConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared HTTP client for calls to other services.
+ *
+ * The JDK client keeps idle HTTP/1.1 connections alive and reuses them per host. How long is a
+ * JVM-wide setting, {@code -Djdk.httpclient.keepalive.timeout}, passed in the Dockerfile below
+ * Tomcat's 20 s default so a pooled connection is not reused after the server has closed it.
+ * Connect and read timeouts bound every call, and {@link HostConcurrencyLimiter} caps
+ * concurrent requests per host.
+ */
+@Configuration
+public class DownstreamClientConfig {
+
+    @Value("${services.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${services.http.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    @Value("${services.http.max-connections-per-host:20}")
+    private int maxConnectionsPerHost;
+
+    @Value("${services.http.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    @Value("${services.http.fan-out-threads:16}")
+    private int fanOutThreads;
+
+    @Bean
+    public RestClient downstreamRestClient(RestClient.Builder builder) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return builder
+                .requestFactory(requestFactory)
+                .requestInterceptor(new HostConcurrencyLimiter(maxConnectionsPerHost, acquireTimeoutMs))
+                .build();
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService downstreamFanOutExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(fanOutThreads, runnable -> {
+            Thread thread = new Thread(runnable, "downstream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
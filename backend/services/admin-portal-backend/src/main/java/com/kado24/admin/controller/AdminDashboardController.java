@@ -1,19 +1,24 @@
 package com.kado24.admin.controller;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.Query;
+import com.kado24.admin.client.DownstreamClient;
+import com.kado24.admin.dashboard.DashboardCounter;
+import com.kado24.admin.dashboard.DashboardCounterService;
+import com.kado24.admin.dashboard.DashboardSnapshot;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/admin")
+@RequiredArgsConstructor
 @CrossOrigin(
     origins = {"http://localhost:4200", "http://localhost:9080"}, 
     allowCredentials = "true", 
@@ -22,90 +27,78 @@ import java.util.Map;
 )
 public class AdminDashboardController {
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    private static final int MAX_OVERVIEW_ROWS = 50;
 
+    private final DashboardCounterService dashboardCounterService;
+    private final DownstreamClient downstreamClient;
+
+    @Value("${services.merchant.base-url:http://kado24-merchant-service:8088}")
+    private String merchantServiceUrl;
+
+    @Value("${services.order.base-url:http://kado24-order-service:8084}")
+    private String orderServiceUrl;
+
+    /**
+     * Platform totals, served from memory (see {@link DashboardCounterService}); {@code asOf}
+     * and {@code reconciledAt} tell how fresh they are
+     */
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getDashboard() {
         Map<String, Object> response = new HashMap<>();
-        Map<String, Object> data = new HashMap<>();
-        
-        // Get total users (excluding admin) - independent query
-        try {
-            Query userQuery = entityManager.createNativeQuery(
-                "SELECT COUNT(*) FROM auth_schema.users WHERE role != 'ADMIN'"
-            );
-            long totalUsers = ((Number) userQuery.getSingleResult()).longValue();
-            log.info("Dashboard query - Total users: {}", totalUsers);
-            data.put("totalUsers", totalUsers);
-        } catch (Exception e) {
-            log.error("Error querying total users: {}", e.getMessage(), e);
-            data.put("totalUsers", 0);
-        }
-        
-        // Get total merchants - independent query
-        try {
-            Query merchantQuery = entityManager.createNativeQuery(
-                "SELECT COUNT(*) FROM merchant_schema.merchants"
-            );
-            long totalMerchants = ((Number) merchantQuery.getSingleResult()).longValue();
-            log.info("Dashboard query - Total merchants: {}", totalMerchants);
-            data.put("totalMerchants", totalMerchants);
-        } catch (Exception e) {
-            log.error("Error querying total merchants: {}", e.getMessage(), e);
-            data.put("totalMerchants", 0);
-        }
-        
-        // Get total vouchers - independent query
-        try {
-            Query voucherQuery = entityManager.createNativeQuery(
-                "SELECT COUNT(*) FROM voucher_schema.vouchers"
-            );
-            long totalVouchers = ((Number) voucherQuery.getSingleResult()).longValue();
-            log.info("Dashboard query - Total vouchers: {}", totalVouchers);
-            data.put("totalVouchers", totalVouchers);
-        } catch (Exception e) {
-            log.error("Error querying total vouchers: {}", e.getMessage(), e);
-            data.put("totalVouchers", 0);
-        }
-        
-        // Get total orders - independent query
-        try {
-            Query orderQuery = entityManager.createNativeQuery(
-                "SELECT COUNT(*) FROM order_schema.orders"
-            );
-            long totalOrders = ((Number) orderQuery.getSingleResult()).longValue();
-            log.info("Dashboard query - Total orders: {}", totalOrders);
-            data.put("totalOrders", totalOrders);
-        } catch (Exception e) {
-            log.error("Error querying total orders: {}", e.getMessage(), e);
-            data.put("totalOrders", 0);
-        }
-        
-        // Get platform revenue (sum of commission from completed orders) - independent query
-        try {
-            Query revenueQuery = entityManager.createNativeQuery(
-                "SELECT COALESCE(SUM(platform_commission), 0) FROM order_schema.orders WHERE status = 'COMPLETED'"
-            );
-            Object revenueResult = revenueQuery.getSingleResult();
-            double platformRevenue = 0.0;
-            if (revenueResult != null) {
-                if (revenueResult instanceof BigDecimal) {
-                    platformRevenue = ((BigDecimal) revenueResult).doubleValue();
-                } else if (revenueResult instanceof Number) {
-                    platformRevenue = ((Number) revenueResult).doubleValue();
-                }
-            }
-            log.info("Dashboard query - Platform revenue: {}", platformRevenue);
-            data.put("platformRevenue", platformRevenue);
-        } catch (Exception e) {
-            log.error("Error querying platform revenue: {}", e.getMessage(), e);
-            data.put("platformRevenue", 0.0);
-        }
+        response.put("success", true);
+        response.put("data", counters());
         
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Counters, pending merchants and latest transactions in one call. Both services are queried
+     * at once and their responses embedded as received; a failed part carries its own
+     * {@code success: false} without failing the rest.
+     */
+    @GetMapping("/dashboard/overview")
+    public ResponseEntity<Map<String, Object>> getOverview(
+            @RequestParam(defaultValue = "5") int pendingMerchants,
+            @RequestParam(defaultValue = "10") int recentTransactions) {
+
+        CompletableFuture<Object> merchants = part(downstreamClient.fetchRaw(downstreamClient.get(
+                merchantServiceUrl + "/api/v1/merchants/admin/pending?page=0&size={size}",
+                Math.max(1, Math.min(pendingMerchants, MAX_OVERVIEW_ROWS)))));
+        CompletableFuture<Object> transactions = part(downstreamClient.fetchRaw(downstreamClient.get(
+                orderServiceUrl + "/api/v1/orders/admin/all?page=0&size={size}",
+                Math.max(1, Math.min(recentTransactions, MAX_OVERVIEW_ROWS)))));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("counters", counters());
+        data.put("pendingMerchants", merchants.join());
+        data.put("recentTransactions", transactions.join());
+
+        Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("data", data);
-        
         return ResponseEntity.ok(response);
     }
+
+    private Map<String, Object> counters() {
+        Map<String, Object> data = new HashMap<>();
+        DashboardSnapshot snapshot = dashboardCounterService.snapshot();
+        snapshot.counters().forEach((counter, value) -> data.put(counter.getKey(),
+                counter == DashboardCounter.PLATFORM_REVENUE_CENTS ? BigDecimal.valueOf(value, 2).doubleValue() : value));
+        data.put("asOf", snapshot.asOf());
+        data.put("reconciledAt", snapshot.reconciledAt());
+        return data;
+    }
+
+    private static CompletableFuture<Object> part(CompletableFuture<?> fetch) {
+        return fetch.handle((body, error) -> {
+            if (error == null) {
+                return body;
+            }
+            log.warn("Dashboard overview part failed: {}", error.getMessage());
+            Map<String, Object> failed = new HashMap<>();
+            failed.put("success", false);
+            failed.put("message", error.getMessage());
+            return failed;
+        });
+    }
 }
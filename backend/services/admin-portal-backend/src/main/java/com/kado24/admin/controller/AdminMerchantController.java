@@ -1,9 +1,10 @@
 package com.kado24.admin.controller;
 
+import com.kado24.admin.client.DownstreamClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -19,118 +20,59 @@ import java.util.Map;
 )
 public class AdminMerchantController {
 
-    private final RestTemplate restTemplate;
+    private final DownstreamClient downstreamClient;
     
     @Value("${services.merchant.base-url:http://kado24-merchant-service:8088}")
     private String merchantServiceUrl;
 
-    public AdminMerchantController(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public AdminMerchantController(DownstreamClient downstreamClient) {
+        this.downstreamClient = downstreamClient;
     }
 
     @GetMapping("/merchants/pending")
-    public ResponseEntity<Map<String, Object>> getPendingMerchants(
+    public ResponseEntity<StreamingResponseBody> getPendingMerchants(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            String url = merchantServiceUrl + "/api/v1/merchants/admin/pending?page=" + page + "&size=" + size;
-            
-            ResponseEntity<Map> merchantResponse = restTemplate.getForEntity(url, Map.class);
-            
-            if (merchantResponse.getBody() != null) {
-                response.put("success", true);
-                response.put("data", merchantResponse.getBody().get("data"));
-                response.put("pagination", merchantResponse.getBody().get("pagination"));
-            } else {
-                response.put("success", false);
-                response.put("message", "Failed to fetch pending merchants");
-            }
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error fetching pending merchants: " + e.getMessage());
-            response.put("data", Map.of("content", List.of())); // Return empty list on error
-        }
-        
-        return ResponseEntity.ok(response);
+        return downstreamClient.passThrough(
+                downstreamClient.get(merchantServiceUrl + "/api/v1/merchants/admin/pending?page={page}&size={size}", page, size),
+                reason -> {
+                    Map<String, Object> response = failure("Error fetching pending merchants: " + reason);
+                    response.put("data", Map.of("content", List.of())); // Return empty list on error
+                    return response;
+                });
     }
 
     @PostMapping("/merchants/{merchantId}/approve")
-    public ResponseEntity<Map<String, Object>> approveMerchant(@PathVariable Long merchantId) {
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            String url = merchantServiceUrl + "/api/v1/merchants/admin/" + merchantId + "/approve";
-            ResponseEntity<Map> merchantResponse = restTemplate.postForEntity(url, null, Map.class);
-            
-            if (merchantResponse.getBody() != null) {
-                response.put("success", true);
-                response.put("message", "Merchant approved successfully");
-                response.put("data", merchantResponse.getBody().get("data"));
-            } else {
-                response.put("success", false);
-                response.put("message", "Failed to approve merchant");
-            }
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error approving merchant: " + e.getMessage());
-        }
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StreamingResponseBody> approveMerchant(@PathVariable Long merchantId) {
+        return downstreamClient.passThrough(
+                downstreamClient.post(merchantServiceUrl + "/api/v1/merchants/admin/{merchantId}/approve", merchantId),
+                reason -> failure("Error approving merchant: " + reason));
     }
 
     @PostMapping("/merchants/{merchantId}/reject")
-    public ResponseEntity<Map<String, Object>> rejectMerchant(
+    public ResponseEntity<StreamingResponseBody> rejectMerchant(
             @PathVariable Long merchantId,
             @RequestParam String reason) {
         
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            String url = merchantServiceUrl + "/api/v1/merchants/admin/" + merchantId + "/reject?reason=" + reason;
-            ResponseEntity<Map> merchantResponse = restTemplate.postForEntity(url, null, Map.class);
-            
-            if (merchantResponse.getBody() != null) {
-                response.put("success", true);
-                response.put("message", "Merchant rejected");
-                response.put("data", merchantResponse.getBody().get("data"));
-            } else {
-                response.put("success", false);
-                response.put("message", "Failed to reject merchant");
-            }
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error rejecting merchant: " + e.getMessage());
-        }
-        
-        return ResponseEntity.ok(response);
+        return downstreamClient.passThrough(
+                downstreamClient.post(merchantServiceUrl + "/api/v1/merchants/admin/{merchantId}/reject?reason={reason}",
+                        merchantId, reason),
+                error -> failure("Error rejecting merchant: " + error));
     }
 
     @GetMapping("/merchants/{merchantId}")
-    public ResponseEntity<Map<String, Object>> getMerchantDetails(@PathVariable Long merchantId) {
+    public ResponseEntity<StreamingResponseBody> getMerchantDetails(@PathVariable Long merchantId) {
+        // Use admin endpoint that doesn't require authentication
+        return downstreamClient.passThrough(
+                downstreamClient.get(merchantServiceUrl + "/api/v1/merchants/admin/{merchantId}", merchantId),
+                reason -> failure("Error fetching merchant: " + reason));
+    }
+
+    private static Map<String, Object> failure(String message) {
         Map<String, Object> response = new HashMap<>();
-        
-        try {
-            // Use admin endpoint that doesn't require authentication
-            String url = merchantServiceUrl + "/api/v1/merchants/admin/" + merchantId;
-            ResponseEntity<Map> merchantResponse = restTemplate.getForEntity(url, Map.class);
-            
-            if (merchantResponse.getBody() != null) {
-                response.put("success", true);
-                response.put("data", merchantResponse.getBody().get("data"));
-            } else {
-                response.put("success", false);
-                response.put("message", "Merchant not found");
-            }
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error fetching merchant: " + e.getMessage());
-        }
-        
-        return ResponseEntity.ok(response);
+        response.put("success", false);
+        response.put("message", message);
+        return response;
     }
 }
-
-
@@ -1,9 +1,10 @@
 package com.kado24.admin.controller;
 
+import com.kado24.admin.client.DownstreamClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -19,71 +20,46 @@ import java.util.Map;
 )
 public class AdminTransactionController {
 
-    private final RestTemplate restTemplate;
+    private final DownstreamClient downstreamClient;
     
     @Value("${services.order.base-url:http://kado24-order-service:8084}")
     private String orderServiceUrl;
 
-    public AdminTransactionController(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public AdminTransactionController(DownstreamClient downstreamClient) {
+        this.downstreamClient = downstreamClient;
     }
 
     @GetMapping("/transactions")
-    public ResponseEntity<Map<String, Object>> getAllTransactions(
+    public ResponseEntity<StreamingResponseBody> getAllTransactions(
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            // Fetch orders from order-service
-            String url = orderServiceUrl + "/api/v1/orders/admin/all?page=" + page + "&size=" + size;
-            if (status != null && !status.equals("all")) {
-                url += "&status=" + status;
-            }
-            
-            ResponseEntity<Map> orderResponse = restTemplate.getForEntity(url, Map.class);
-            
-            if (orderResponse.getBody() != null) {
-                response.put("success", true);
-                response.put("data", orderResponse.getBody().get("data"));
-                response.put("pagination", orderResponse.getBody().get("pagination"));
-            } else {
-                response.put("success", false);
-                response.put("message", "Failed to fetch transactions");
-            }
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error fetching transactions: " + e.getMessage());
-            response.put("data", List.of()); // Return empty list on error
-        }
-        
-        return ResponseEntity.ok(response);
+        // Fetch orders from order-service
+        String url = orderServiceUrl + "/api/v1/orders/admin/all?page={page}&size={size}";
+        boolean filtered = status != null && !status.equals("all");
+        return downstreamClient.passThrough(
+                filtered
+                        ? downstreamClient.get(url + "&status={status}", page, size, status)
+                        : downstreamClient.get(url, page, size),
+                reason -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", false);
+                    response.put("message", "Error fetching transactions: " + reason);
+                    response.put("data", List.of()); // Return empty list on error
+                    return response;
+                });
     }
 
     @GetMapping("/transactions/{orderId}")
-    public ResponseEntity<Map<String, Object>> getTransactionDetails(@PathVariable Long orderId) {
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            String url = orderServiceUrl + "/api/v1/orders/" + orderId;
-            ResponseEntity<Map> orderResponse = restTemplate.getForEntity(url, Map.class);
-            
-            if (orderResponse.getBody() != null) {
-                response.put("success", true);
-                response.put("data", orderResponse.getBody().get("data"));
-            } else {
-                response.put("success", false);
-                response.put("message", "Transaction not found");
-            }
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error fetching transaction: " + e.getMessage());
-        }
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StreamingResponseBody> getTransactionDetails(@PathVariable Long orderId) {
+        return downstreamClient.passThrough(
+                downstreamClient.get(orderServiceUrl + "/api/v1/orders/{orderId}", orderId),
+                reason -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", false);
+                    response.put("message", "Error fetching transaction: " + reason);
+                    return response;
+                });
     }
 }
-
-
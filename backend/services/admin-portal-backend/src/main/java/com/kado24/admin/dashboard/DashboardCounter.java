@@ -0,0 +1,34 @@
+package com.kado24.admin.dashboard;
+
+import lombok.Getter;
+
+/**
+ * Totals shown on the admin dashboard, with the query that recomputes each from its source table.
+ * Money is counted in cents so every counter is a long. Each query also returns, in its second
+ * column, the high-water mark of the events the value already includes: the largest user,
+ * merchant or order id, or the latest {@code paid_at} in epoch microseconds (null for counters
+ * that no event moves).
+ */
+@Getter
+public enum DashboardCounter {
+    TOTAL_USERS("totalUsers", "SELECT COUNT(*), MAX(id) FROM auth_schema.users WHERE role != 'ADMIN'"),
+    TOTAL_MERCHANTS("totalMerchants", "SELECT COUNT(*), MAX(id) FROM merchant_schema.merchants"),
+    TOTAL_VOUCHERS("totalVouchers", "SELECT COUNT(*), NULL FROM voucher_schema.vouchers"),
+    TOTAL_ORDERS("totalOrders", "SELECT COUNT(*), MAX(id) FROM order_schema.orders"),
+    /** Commission of paid orders; refunded orders leave the total */
+    PLATFORM_REVENUE_CENTS("platformRevenue",
+            "SELECT COALESCE(SUM(platform_commission), 0) * 100, "
+                    + "CAST(EXTRACT(EPOCH FROM MAX(paid_at)) * 1000000 AS BIGINT) "
+                    + "FROM order_schema.orders WHERE payment_status = 'COMPLETED'");
+
+    /**
+     * Key of the counter in the dashboard response
+     */
+    private final String key;
+    private final String reconcileSql;
+
+    DashboardCounter(String key, String reconcileSql) {
+        this.key = key;
+        this.reconcileSql = reconcileSql;
+    }
+}
@@ -0,0 +1,255 @@
+package com.kado24.admin.dashboard;
+
+import com.kado24.kafka.event.AnalyticsEvent;
+import com.kado24.kafka.event.BaseEvent;
+import com.kado24.kafka.event.OrderEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admin dashboard totals kept in memory, so serving them costs the same whatever the table sizes.
+ *
+ * Each counter is the value of its last reconciliation plus the events applied since. A
+ * reconciliation recomputes all counters from the source tables, one query per counter in
+ * parallel, and each query also captures the high-water mark of the rows it counted (see
+ * {@link DashboardCounter}). The events applied before it started are parked meanwhile and
+ * dropped once the new base lands, since the queries include their rows. Events applied while the
+ * queries run, and any that arrive later, are kept only when their key (user, merchant or order
+ * id, or payment time) is above the mark, so an event whose row the query already counted is not
+ * added twice. A row committed after the query with a key below the mark is missed until the next
+ * reconciliation. Counters without events (vouchers, and merchants until merchant-service
+ * publishes sign-ups) move only on reconciliation, so the reconcile interval bounds how stale a
+ * counter can be.
+ */
+@Slf4j
+@Service
+public class DashboardCounterService {
+
+    private static final long NO_MARK = Long.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService reconcilePool;
+    private final Map<DashboardCounter, Counter> counters = new EnumMap<>(DashboardCounter.class);
+
+    private volatile LocalDateTime asOf;
+    private volatile LocalDateTime reconciledAt;
+
+    public DashboardCounterService(JdbcTemplate jdbcTemplate,
+                                   @Value("${admin.dashboard.reconcile-parallelism:3}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        AtomicInteger threads = new AtomicInteger();
+        this.reconcilePool = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-reconcile-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (DashboardCounter counter : DashboardCounter.values()) {
+            counters.put(counter, new Counter());
+        }
+    }
+
+    /**
+     * Current counters; the very first call waits for the initial reconciliation
+     */
+    public DashboardSnapshot snapshot() {
+        if (reconciledAt == null) {
+            reconcile();
+        }
+        Map<DashboardCounter, Long> values = new EnumMap<>(DashboardCounter.class);
+        counters.forEach((counter, state) -> values.put(counter, state.value()));
+        return new DashboardSnapshot(values, asOf, reconciledAt);
+    }
+
+    /**
+     * Apply one batch of domain events
+     */
+    public void record(List<BaseEvent> events) {
+        boolean changed = false;
+        for (BaseEvent event : events) {
+            changed |= apply(event);
+        }
+        if (changed) {
+            asOf = LocalDateTime.now();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${admin.dashboard.reconcile-ms:300000}",
+            initialDelayString = "${admin.dashboard.reconcile-ms:300000}")
+    public synchronized void reconcile() {
+        long started = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<DashboardCounter, CompletableFuture<Reconciled>> results = new EnumMap<>(DashboardCounter.class);
+        for (DashboardCounter counter : DashboardCounter.values()) {
+            counters.get(counter).beginReconcile();
+            results.put(counter, CompletableFuture.supplyAsync(() -> count(counter), reconcilePool));
+        }
+        int failed = 0;
+        for (Map.Entry<DashboardCounter, CompletableFuture<Reconciled>> result : results.entrySet()) {
+            Counter counter = counters.get(result.getKey());
+            try {
+                Reconciled reconciled = result.getValue().join();
+                counter.endReconcile(reconciled.value(), reconciled.mark());
+            } catch (Exception e) {
+                counter.abandonReconcile();
+                failed++;
+                log.warn("Could not reconcile dashboard counter {}: {}", result.getKey(), e.getMessage());
+            }
+        }
+        if (failed < results.size()) {
+            reconciledAt = startedAt;
+            asOf = startedAt;
+        }
+        log.debug("Reconciled dashboard counters in {} ms ({} failed)", (System.nanoTime() - started) / 1_000_000, failed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconcilePool.shutdownNow();
+    }
+
+    private Reconciled count(DashboardCounter counter) {
+        return jdbcTemplate.queryForObject(counter.getReconcileSql(), (rs, rowNum) -> {
+            BigDecimal value = rs.getBigDecimal(1);
+            long mark = rs.getLong(2);
+            return new Reconciled(value != null ? value.longValue() : 0, rs.wasNull() ? NO_MARK : mark);
+        });
+    }
+
+    private boolean apply(BaseEvent event) {
+        String eventType = event.getEventType();
+        if (eventType == null) {
+            return false;
+        }
+        if (event instanceof AnalyticsEvent analytics) {
+            if (AnalyticsEvent.USER_REGISTERED.equals(eventType)) {
+                counters.get(DashboardCounter.TOTAL_USERS).add(1, analytics.getUserId());
+                return true;
+            }
+            if (AnalyticsEvent.MERCHANT_REGISTERED.equals(eventType)) {
+                counters.get(DashboardCounter.TOTAL_MERCHANTS).add(1, analytics.getMerchantId());
+                return true;
+            }
+        } else if (event instanceof OrderEvent order) {
+            if (OrderEvent.ORDER_CREATED.equals(eventType)) {
+                counters.get(DashboardCounter.TOTAL_ORDERS).add(1, order.getOrderId());
+                return true;
+            }
+            if (OrderEvent.ORDER_CONFIRMED.equals(eventType) && order.getPlatformFee() != null) {
+                counters.get(DashboardCounter.PLATFORM_REVENUE_CENTS)
+                        .add(cents(order.getPlatformFee()), epochMicros(order.getPaidAt()));
+                return true;
+            }
+            if (OrderEvent.ORDER_REFUNDED.equals(eventType) && order.getPlatformFee() != null) {
+                counters.get(DashboardCounter.PLATFORM_REVENUE_CENTS).add(-cents(order.getPlatformFee()), null);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValue();
+    }
+
+    /**
+     * Same scale as the revenue mark; Postgres keeps timestamps to the microsecond
+     */
+    private static Long epochMicros(LocalDateTime time) {
+        if (time == null) {
+            return null;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private record Reconciled(long value, long mark) {
+    }
+
+    /**
+     * One counter. Events go to {@code delta}; while a reconciliation runs, the deltas from
+     * before it started are parked in {@code carry} so the value does not dip meanwhile, and
+     * keyed events are held in {@code pending} until the new mark says whether the query saw them.
+     * An event with no key (from a publisher that does not send one) is always applied.
+     */
+    private static final class Counter {
+
+        private long base;
+        private long mark = NO_MARK;
+        private long carry;
+        private long delta;
+        private boolean reconciling;
+        private final List<Pending> pending = new ArrayList<>();
+        private long pendingTotal;
+
+        synchronized void add(long amount, Long key) {
+            if (key != null && key <= mark) {
+                return;
+            }
+            if (reconciling && key != null) {
+                pending.add(new Pending(key, amount));
+                pendingTotal += amount;
+            } else {
+                delta += amount;
+            }
+        }
+
+        synchronized long value() {
+            return base + carry + pendingTotal + delta;
+        }
+
+        synchronized void beginReconcile() {
+            carry = delta;
+            delta = 0;
+            reconciling = true;
+        }
+
+        synchronized void endReconcile(long base, long mark) {
+            this.base = base;
+            this.mark = mark;
+            for (Pending event : pending) {
+                if (event.key() > mark) {
+                    delta += event.amount();
+                }
+            }
+            carry = 0;
+            clearPending();
+        }
+
+        synchronized void abandonReconcile() {
+            delta += carry + pendingTotal;
+            carry = 0;
+            clearPending();
+        }
+
+        private void clearPending() {
+            pending.clear();
+            pendingTotal = 0;
+            reconciling = false;
+        }
+
+        private record Pending(long key, long amount) {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.kado24.admin.dashboard;
+
+import com.kado24.kafka.config.KafkaBatchConsumerConfig;
+import com.kado24.kafka.constants.KafkaTopics;
+import com.kado24.kafka.event.BaseEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds registration and order events into {@link DashboardCounterService}.
+ *
+ * Each instance joins its own consumer group, named after its host (the pod name), so it sees every
+ * event and a restart rejoins the same group rather than leaving an abandoned one behind. A new
+ * group starts from the latest offset: totals from before the start come from the startup
+ * reconciliation.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardEventConsumer {
+
+    private final DashboardCounterService dashboardCounterService;
+
+    @KafkaListener(topics = {KafkaTopics.ANALYTICS_EVENTS, KafkaTopics.ORDER_EVENTS},
+            groupId = "${admin.dashboard.consumer-group:admin-dashboard-${HOSTNAME:local}}",
+            containerFactory = KafkaBatchConsumerConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "1",
+            properties = "auto.offset.reset=latest")
+    public void consume(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        List<BaseEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() instanceof BaseEvent event) {
+                events.add(event);
+            }
+        }
+        dashboardCounterService.record(events);
+        acknowledgment.acknowledge();
+        log.debug("Applied {} events to dashboard counters", events.size());
+    }
+}
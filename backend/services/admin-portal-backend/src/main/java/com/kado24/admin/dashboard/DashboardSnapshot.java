@@ -0,0 +1,11 @@
+package com.kado24.admin.dashboard;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Dashboard counters as of {@code asOf}, the last event or reconciliation applied to them.
+ * {@code reconciledAt} is when they were last recomputed from the source tables.
+ */
+public record DashboardSnapshot(Map<DashboardCounter, Long> counters, LocalDateTime asOf, LocalDateTime reconciledAt) {
+}
@@ -4,10 +4,16 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.context.annotation.Import;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import com.kado24.kafka.config.KafkaBatchConsumerConfig;
+import com.kado24.kafka.dedupe.DeduplicationConfiguration;
 
 @SpringBootApplication
 @EnableKafka
+@EnableScheduling
+@Import({KafkaBatchConsumerConfig.class, DeduplicationConfiguration.class})
 public class AnalyticsServiceApplication extends SpringBootServletInitializer {
 
     @Override
@@ -0,0 +1,136 @@
+package com.kado24.analytics.columnar;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Recent days of the day × merchant × category rollup held in memory as {@link DaySegment}s.
+ *
+ * Days from {@link #getCoveredFrom()} on are authoritative here: a day without a segment had no
+ * rows. A query touches one segment per day in its range, a merchant's rows in a segment are
+ * found by binary search, and all sums run over primitive arrays, so the cost depends on the
+ * rows in the range (or of the merchant), never on the history behind it. Segments are replaced
+ * whole, so a reader always sees a consistent day. Thread-safe.
+ */
+public class ColumnarMetricStore {
+
+    private final IdDictionary merchants = new IdDictionary();
+    private final IdDictionary categories = new IdDictionary();
+    private final ConcurrentSkipListMap<LocalDate, DaySegment> days = new ConcurrentSkipListMap<>();
+    private volatile LocalDate coveredFrom;
+
+    /**
+     * First day answered from memory, or null before the initial load
+     */
+    public LocalDate getCoveredFrom() {
+        return coveredFrom;
+    }
+
+    /**
+     * Start answering from {@code day} and drop the segments before it
+     */
+    public void setCoveredFrom(LocalDate day) {
+        coveredFrom = day;
+        days.headMap(day).clear();
+    }
+
+    public DayLoader load(LocalDate day) {
+        return new DayLoader(day);
+    }
+
+    public int rowCount() {
+        int rows = 0;
+        for (DaySegment segment : days.values()) {
+            rows += segment.size();
+        }
+        return rows;
+    }
+
+    /**
+     * Sums over [from, to], per group key (epoch day, merchant or category id) or under key 0
+     * when {@code groupBy} is null; values are indexed by {@link Metric#ordinal()}. Groups with no
+     * rows are left out. Only meaningful for days from {@link #getCoveredFrom()} on.
+     */
+    public Map<Long, double[]> aggregate(LocalDate from, LocalDate to, Dimension groupBy, Long merchantId, Long categoryId) {
+        Map<Long, double[]> groups = new LinkedHashMap<>();
+        int merchant = merchantId != null ? merchants.lookup(merchantId) : IdDictionary.ABSENT;
+        int category = categoryId != null ? categories.lookup(categoryId) : IdDictionary.ABSENT;
+        if ((merchantId != null && merchant == IdDictionary.ABSENT) || (categoryId != null && category == IdDictionary.ABSENT)) {
+            return groups;
+        }
+        Collection<Map.Entry<LocalDate, DaySegment>> segments = days.subMap(from, true, to, true).entrySet();
+
+        if (groupBy == Dimension.MERCHANT || groupBy == Dimension.CATEGORY) {
+            boolean byMerchant = groupBy == Dimension.MERCHANT;
+            IdDictionary dictionary = byMerchant ? merchants : categories;
+            int codes = dictionary.size();
+            double[][] sums = new double[Metric.COUNT][codes];
+            boolean[] seen = new boolean[codes];
+            for (Map.Entry<LocalDate, DaySegment> entry : segments) {
+                DaySegment segment = entry.getValue();
+                int start = merchant != IdDictionary.ABSENT ? segment.lowerBound(merchant) : 0;
+                int end = merchant != IdDictionary.ABSENT ? segment.lowerBound(merchant + 1) : segment.size();
+                segment.groupBy(start, end, byMerchant, category, sums, seen);
+            }
+            for (int code = 0; code < codes; code++) {
+                if (seen[code]) {
+                    double[] values = new double[Metric.COUNT];
+                    for (int metric = 0; metric < Metric.COUNT; metric++) {
+                        values[metric] = sums[metric][code];
+                    }
+                    groups.put(dictionary.decode(code), values);
+                }
+            }
+            return groups;
+        }
+
+        double[] total = new double[Metric.COUNT];
+        boolean any = false;
+        for (Map.Entry<LocalDate, DaySegment> entry : segments) {
+            DaySegment segment = entry.getValue();
+            int start = merchant != IdDictionary.ABSENT ? segment.lowerBound(merchant) : 0;
+            int end = merchant != IdDictionary.ABSENT ? segment.lowerBound(merchant + 1) : segment.size();
+            double[] out = groupBy == Dimension.DAY ? new double[Metric.COUNT] : total;
+            boolean matched = category != IdDictionary.ABSENT
+                    ? segment.sum(start, end, category, out)
+                    : segment.sum(start, end, out);
+            if (matched && groupBy == Dimension.DAY) {
+                groups.put(entry.getKey().toEpochDay(), out);
+            }
+            any |= matched;
+        }
+        if (groupBy == null && any) {
+            groups.put(0L, total);
+        }
+        return groups;
+    }
+
+    /**
+     * Collects the rows of one day and swaps them in as its segment
+     */
+    public final class DayLoader {
+
+        private final LocalDate day;
+        private final DaySegment.Builder builder = new DaySegment.Builder();
+
+        private DayLoader(LocalDate day) {
+            this.day = day;
+        }
+
+        public void add(long merchantId, long categoryId, long views, long orders, double revenue,
+                        double commission, long redemptions) {
+            builder.add(merchants.encode(merchantId), categories.encode(categoryId),
+                    views, orders, revenue, commission, redemptions);
+        }
+
+        public void publish() {
+            LocalDate covered = coveredFrom;
+            if (covered == null || !day.isBefore(covered)) {
+                days.put(day, builder.build());
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.kado24.analytics.columnar;
+
+import java.util.Arrays;
+
+/**
+ * One day of the rollup as immutable primitive columns, rows sorted by (merchant, category) code.
+ *
+ * The rows of one merchant are a contiguous run found by binary search. Sums are one loop per
+ * column over a contiguous range with no branches and no boxing, which the JIT unrolls and, for
+ * the long columns, vectorizes; a category filter becomes a select inside the same loop.
+ */
+final class DaySegment {
+
+    private final int size;
+    private final int[] merchants;
+    private final int[] categories;
+    private final long[] views;
+    private final long[] orders;
+    private final double[] revenue;
+    private final double[] commission;
+    private final long[] redemptions;
+
+    private DaySegment(int size, int[] merchants, int[] categories, long[] views, long[] orders,
+                       double[] revenue, double[] commission, long[] redemptions) {
+        this.size = size;
+        this.merchants = merchants;
+        this.categories = categories;
+        this.views = views;
+        this.orders = orders;
+        this.revenue = revenue;
+        this.commission = commission;
+        this.redemptions = redemptions;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * First row of {@code merchant}, or of the next merchant when it has none
+     */
+    int lowerBound(int merchant) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (merchants[mid] < merchant) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Add rows [from, to) into {@code out}, indexed by {@link Metric#ordinal()}; returns whether any row matched
+     */
+    boolean sum(int from, int to, double[] out) {
+        long viewSum = 0;
+        long orderSum = 0;
+        double revenueSum = 0;
+        double commissionSum = 0;
+        long redemptionSum = 0;
+        for (int i = from; i < to; i++) {
+            viewSum += views[i];
+        }
+        for (int i = from; i < to; i++) {
+            orderSum += orders[i];
+        }
+        for (int i = from; i < to; i++) {
+            revenueSum += revenue[i];
+        }
+        for (int i = from; i < to; i++) {
+            commissionSum += commission[i];
+        }
+        for (int i = from; i < to; i++) {
+            redemptionSum += redemptions[i];
+        }
+        add(out, viewSum, orderSum, revenueSum, commissionSum, redemptionSum);
+        return to > from;
+    }
+
+    /**
+     * Like {@link #sum} over the rows of one category only
+     */
+    boolean sum(int from, int to, int category, double[] out) {
+        long viewSum = 0;
+        long orderSum = 0;
+        double revenueSum = 0;
+        double commissionSum = 0;
+        long redemptionSum = 0;
+        int matched = 0;
+        for (int i = from; i < to; i++) {
+            boolean match = categories[i] == category;
+            matched += match ? 1 : 0;
+            viewSum += match ? views[i] : 0;
+            orderSum += match ? orders[i] : 0;
+            revenueSum += match ? revenue[i] : 0;
+            commissionSum += match ? commission[i] : 0;
+            redemptionSum += match ? redemptions[i] : 0;
+        }
+        add(out, viewSum, orderSum, revenueSum, commissionSum, redemptionSum);
+        return matched > 0;
+    }
+
+    /**
+     * Add rows [from, to) into {@code sums[metric][code]}, where code is the row's merchant or
+     * category code, and mark the codes seen; {@code category} filters when not
+     * {@link IdDictionary#ABSENT}
+     */
+    void groupBy(int from, int to, boolean byMerchant, int category, double[][] sums, boolean[] seen) {
+        int[] keys = byMerchant ? merchants : categories;
+        double[] viewSums = sums[Metric.VIEWS.ordinal()];
+        double[] orderSums = sums[Metric.ORDERS.ordinal()];
+        double[] revenueSums = sums[Metric.REVENUE.ordinal()];
+        double[] commissionSums = sums[Metric.COMMISSION.ordinal()];
+        double[] redemptionSums = sums[Metric.REDEMPTIONS.ordinal()];
+        for (int i = from; i < to; i++) {
+            if (category != IdDictionary.ABSENT && categories[i] != category) {
+                continue;
+            }
+            int key = keys[i];
+            if (key >= seen.length) {
+                // Code assigned after the query sized its arrays
+                continue;
+            }
+            seen[key] = true;
+            viewSums[key] += views[i];
+            orderSums[key] += orders[i];
+            revenueSums[key] += revenue[i];
+            commissionSums[key] += commission[i];
+            redemptionSums[key] += redemptions[i];
+        }
+    }
+
+    private static void add(double[] out, long viewSum, long orderSum, double revenueSum, double commissionSum, long redemptionSum) {
+        out[Metric.VIEWS.ordinal()] += viewSum;
+        out[Metric.ORDERS.ordinal()] += orderSum;
+        out[Metric.REVENUE.ordinal()] += revenueSum;
+        out[Metric.COMMISSION.ordinal()] += commissionSum;
+        out[Metric.REDEMPTIONS.ordinal()] += redemptionSum;
+    }
+
+    /**
+     * Rows of one day in any order
+     */
+    static final class Builder {
+
+        /**
+         * Merchant codes, category codes and rows per day are packed into 21 bits each for sorting
+         */
+        private static final int ROW_MASK = (1 << 21) - 1;
+
+        private int size;
+        private int[] merchants = new int[64];
+        private int[] categories = new int[64];
+        private long[] views = new long[64];
+        private long[] orders = new long[64];
+        private double[] revenue = new double[64];
+        private double[] commission = new double[64];
+        private long[] redemptions = new long[64];
+
+        void add(int merchant, int category, long viewCount, long orderCount, double revenueAmount,
+                 double commissionAmount, long redemptionCount) {
+            if (merchant > ROW_MASK || category > ROW_MASK || size == ROW_MASK) {
+                throw new IllegalStateException("Day segment limit exceeded: over " + ROW_MASK + " rows or codes");
+            }
+            if (size == merchants.length) {
+                int capacity = size * 2;
+                merchants = Arrays.copyOf(merchants, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                views = Arrays.copyOf(views, capacity);
+                orders = Arrays.copyOf(orders, capacity);
+                revenue = Arrays.copyOf(revenue, capacity);
+                commission = Arrays.copyOf(commission, capacity);
+                redemptions = Arrays.copyOf(redemptions, capacity);
+            }
+            merchants[size] = merchant;
+            categories[size] = category;
+            views[size] = viewCount;
+            orders[size] = orderCount;
+            revenue[size] = revenueAmount;
+            commission[size] = commissionAmount;
+            redemptions[size] = redemptionCount;
+            size++;
+        }
+
+        DaySegment build() {
+            // Sort a packed (merchant, category, row) key instead of boxing a comparator per row
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (long) merchants[i] << 42 | (long) categories[i] << 21 | i;
+            }
+            Arrays.sort(order);
+            int[] sortedMerchants = new int[size];
+            int[] sortedCategories = new int[size];
+            long[] sortedViews = new long[size];
+            long[] sortedOrders = new long[size];
+            double[] sortedRevenue = new double[size];
+            double[] sortedCommission = new double[size];
+            long[] sortedRedemptions = new long[size];
+            for (int i = 0; i < size; i++) {
+                int row = (int) (order[i] & ROW_MASK);
+                sortedMerchants[i] = merchants[row];
+                sortedCategories[i] = categories[row];
+                sortedViews[i] = views[row];
+                sortedOrders[i] = orders[row];
+                sortedRevenue[i] = revenue[row];
+                sortedCommission[i] = commission[row];
+                sortedRedemptions[i] = redemptions[row];
+            }
+            return new DaySegment(size, sortedMerchants, sortedCategories, sortedViews, sortedOrders,
+                    sortedRevenue, sortedCommission, sortedRedemptions);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.kado24.analytics.columnar;
+
+import lombok.Getter;
+
+/**
+ * What a rollup query groups by
+ */
+@Getter
+public enum Dimension {
+    DAY("metric_date"),
+    MERCHANT("merchant_id"),
+    CATEGORY("category_id");
+
+    private final String column;
+
+    Dimension(String column) {
+        this.column = column;
+    }
+}
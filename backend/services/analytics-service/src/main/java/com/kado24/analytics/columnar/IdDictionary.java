@@ -0,0 +1,51 @@
+package com.kado24.analytics.columnar;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only mapping of merchant or category ids to dense int codes, so segments store ints and
+ * group-bys accumulate into arrays indexed by code. Codes are never reused.
+ */
+final class IdDictionary {
+
+    static final int ABSENT = -1;
+
+    private final Map<Long, Integer> codes = new ConcurrentHashMap<>();
+    private volatile long[] ids = new long[256];
+    private volatile int size;
+
+    int encode(long id) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(id);
+            if (code == null) {
+                code = size;
+                if (code == ids.length) {
+                    ids = Arrays.copyOf(ids, code * 2);
+                }
+                ids[code] = id;
+                size = code + 1;
+                codes.put(id, code);
+            }
+            return code;
+        }
+    }
+
+    int lookup(long id) {
+        Integer code = codes.get(id);
+        return code != null ? code : ABSENT;
+    }
+
+    long decode(int code) {
+        return ids[code];
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,14 @@
+package com.kado24.analytics.columnar;
+
+/**
+ * Additive measures of the day × merchant × category rollup
+ */
+public enum Metric {
+    VIEWS,
+    ORDERS,
+    REVENUE,
+    COMMISSION,
+    REDEMPTIONS;
+
+    public static final int COUNT = values().length;
+}
@@ -0,0 +1,55 @@
+package com.kado24.analytics.config;
+
+import com.kado24.analytics.repository.MerchantMetricStore;
+import com.kado24.analytics.repository.RollupStore;
+import com.kado24.analytics.repository.SketchStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Streaming rollup of events into daily_metrics, its merchant breakdown and activity sketches
+ */
+@Configuration
+public class RollupConfig {
+
+    @Value("${analytics.rollup.offsets-table:analytics_schema.rollup_offsets}")
+    private String offsetsTable;
+
+    @Value("${analytics.sketch.table:analytics_schema.activity_sketches}")
+    private String sketchTable;
+
+    @Value("${analytics.breakdown.table:analytics_schema.merchant_daily_metrics}")
+    private String breakdownTable;
+
+    @Value("${analytics.rollup.create-table:true}")
+    private boolean createTable;
+
+    @Bean
+    public RollupStore rollupStore(JdbcTemplate jdbcTemplate) {
+        RollupStore store = new RollupStore(jdbcTemplate, offsetsTable);
+        if (createTable) {
+            store.createTableIfMissing();
+        }
+        return store;
+    }
+
+    @Bean
+    public SketchStore sketchStore(JdbcTemplate jdbcTemplate) {
+        SketchStore store = new SketchStore(jdbcTemplate, sketchTable);
+        if (createTable) {
+            store.createTableIfMissing();
+        }
+        return store;
+    }
+
+    @Bean
+    public MerchantMetricStore merchantMetricStore(JdbcTemplate jdbcTemplate) {
+        MerchantMetricStore store = new MerchantMetricStore(jdbcTemplate, breakdownTable);
+        if (createTable) {
+            store.createTableIfMissing();
+        }
+        return store;
+    }
+}
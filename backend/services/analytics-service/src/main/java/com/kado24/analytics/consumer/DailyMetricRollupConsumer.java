@@ -0,0 +1,52 @@
+package com.kado24.analytics.consumer;
+
+import com.kado24.analytics.repository.RollupStore;
+import com.kado24.analytics.service.DailyMetricRollupService;
+import com.kado24.kafka.config.KafkaBatchConsumerConfig;
+import com.kado24.kafka.constants.KafkaTopics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feeds analytics, order and redemption events into the daily_metrics rollup.
+ *
+ * The rollup's source of truth for progress is the offsets table written with the metrics, not
+ * the group's committed offsets: on assignment each partition is moved to its stored position.
+ * The Kafka commit after each batch only keeps lag monitoring meaningful.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyMetricRollupConsumer implements ConsumerSeekAware {
+
+    private static final String GROUP_ID = "analytics-rollup";
+
+    private final DailyMetricRollupService rollupService;
+    private final RollupStore rollupStore;
+
+    @KafkaListener(topics = {KafkaTopics.ANALYTICS_EVENTS, KafkaTopics.ORDER_EVENTS, KafkaTopics.REDEMPTION_EVENTS},
+            groupId = GROUP_ID, containerFactory = KafkaBatchConsumerConfig.BATCH_LISTENER_FACTORY)
+    public void consume(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        int applied = rollupService.apply(GROUP_ID, records);
+        acknowledgment.acknowledge();
+        log.debug("Rolled up {} of {} events", applied, records.size());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<TopicPartition, Long> stored = rollupStore.findOffsets(GROUP_ID, assignments.keySet());
+        stored.forEach((partition, offset) -> callback.seek(partition.topic(), partition.partition(), offset));
+        if (!stored.isEmpty()) {
+            log.info("Resuming rollup of {} partitions from stored offsets", stored.size());
+        }
+    }
+}
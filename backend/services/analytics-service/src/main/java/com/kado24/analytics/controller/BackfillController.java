@@ -0,0 +1,70 @@
+package com.kado24.analytics.controller;
+
+import com.kado24.analytics.dto.BackfillStatusDTO;
+import com.kado24.analytics.service.DailyMetricBackfillService;
+import com.kado24.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Rebuilding daily_metrics from the source tables; one backfill runs at a time
+ */
+@RestController
+@RequestMapping("/api/v1/analytics/backfill")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+public class BackfillController {
+
+    private final DailyMetricBackfillService backfillService;
+
+    @Operation(summary = "Start a backfill", description = "Recompute daily_metrics for [from, to] from orders, redemptions, users and merchants")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<ApiResponse<BackfillStatusDTO>> startBackfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Backfill started", backfillService.start(from, to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Get backfill progress", description = "Progress and throughput of the running or last backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<ApiResponse<BackfillStatusDTO>> getBackfill() {
+        BackfillStatusDTO status = backfillService.status();
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("No backfill has run"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(status));
+    }
+
+    @Operation(summary = "Cancel the backfill", description = "Stop after the chunks in progress; finished chunks stay rebuilt")
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<BackfillStatusDTO>> cancelBackfill() {
+        if (!backfillService.cancel()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("No backfill is running"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Backfill cancelling", backfillService.status()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.kado24.analytics.controller;
+
+import com.kado24.analytics.entity.DailyMetric;
+import com.kado24.analytics.repository.DailyMetricRepository;
+import com.kado24.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+public class DailyMetricController {
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final DailyMetricRepository dailyMetricRepository;
+
+    @Operation(summary = "Get daily metrics", description = "Precomputed daily platform metrics, newest first (default: last 30 days)")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/daily-metrics")
+    public ResponseEntity<ApiResponse<List<DailyMetric>>> getDailyMetrics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest().body(
+                    ApiResponse.error("Date range must be ascending and at most " + MAX_RANGE_DAYS + " days"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(
+                dailyMetricRepository.findByMetricDateBetweenOrderByMetricDateDesc(start, end)));
+    }
+}
@@ -0,0 +1,111 @@
+package com.kado24.analytics.controller;
+
+import com.kado24.analytics.columnar.Dimension;
+import com.kado24.analytics.columnar.Metric;
+import com.kado24.analytics.dto.MetricQueryDTO;
+import com.kado24.analytics.service.MetricQueryService;
+import com.kado24.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Dashboard queries over the day × merchant × category rollup. Recent days are answered from
+ * memory; admins see every merchant, merchants only their own.
+ */
+@RestController
+@RequestMapping("/api/v1/analytics/metrics")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+public class MetricQueryController {
+
+    private static final int MAX_RANGE_DAYS = 1096;
+    private static final int MAX_TOP = 100;
+
+    private final MetricQueryService metricQueryService;
+
+    @Operation(summary = "Query metrics",
+            description = "Views, orders, revenue, commission and redemptions over [from, to], in total or per day, merchant or category")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MERCHANT')")
+    @GetMapping
+    public ResponseEntity<ApiResponse<MetricQueryDTO>> queryMetrics(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Dimension groupBy,
+            @RequestParam(required = false) Long merchantId,
+            @RequestParam(required = false) Long categoryId) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (!validRange(start, end)) {
+            return ResponseEntity.badRequest().body(rangeError());
+        }
+        return ResponseEntity.ok(ApiResponse.success(metricQueryService.query(
+                start, end, groupBy, scopedMerchantId(authentication, merchantId), categoryId)));
+    }
+
+    @Operation(summary = "Top merchants or categories", description = "Ranked by one metric over [from, to]")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MERCHANT')")
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse<MetricQueryDTO>> topMetrics(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "MERCHANT") Dimension groupBy,
+            @RequestParam(defaultValue = "REVENUE") Metric metric,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Long merchantId,
+            @RequestParam(required = false) Long categoryId) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (!validRange(start, end)) {
+            return ResponseEntity.badRequest().body(rangeError());
+        }
+        if (groupBy == Dimension.DAY) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Top-N groups by MERCHANT or CATEGORY"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(metricQueryService.top(
+                start, end, groupBy, metric, Math.max(1, Math.min(limit, MAX_TOP)),
+                scopedMerchantId(authentication, merchantId), categoryId)));
+    }
+
+    /**
+     * Admins query any merchant or all of them; a merchant is always limited to its own
+     */
+    private Long scopedMerchantId(Authentication authentication, Long merchantId) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        if (admin) {
+            return merchantId;
+        }
+        Object userId = authentication.getPrincipal() instanceof Jwt jwt ? jwt.getClaim("userId") : null;
+        Long own = userId instanceof Number number ? metricQueryService.merchantIdOfUser(number.longValue()) : null;
+        if (own == null || (merchantId != null && !merchantId.equals(own))) {
+            throw new AccessDeniedException("Merchants can only query their own metrics");
+        }
+        return own;
+    }
+
+    private static boolean validRange(LocalDate start, LocalDate end) {
+        return !start.isAfter(end) && ChronoUnit.DAYS.between(start, end) < MAX_RANGE_DAYS;
+    }
+
+    private static <T> ApiResponse<T> rangeError() {
+        return ApiResponse.error("Date range must be ascending and at most " + MAX_RANGE_DAYS + " days");
+    }
+}
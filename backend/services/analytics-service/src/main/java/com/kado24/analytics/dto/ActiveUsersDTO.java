@@ -0,0 +1,21 @@
+package com.kado24.analytics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Distinct active users for the day, 7 days and 30 days ending on {@code date}. Estimates from
+ * HyperLogLog sketches; {@code relativeStandardError} applies to each count.
+ */
+@Data
+@Builder
+public class ActiveUsersDTO {
+    private LocalDate date;
+    private Long merchantId;
+    private long dau;
+    private long wau;
+    private long mau;
+    private double relativeStandardError;
+}
@@ -0,0 +1,28 @@
+package com.kado24.analytics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a daily_metrics backfill over [from, to]
+ */
+@Data
+@Builder
+public class BackfillStatusDTO {
+    private String state;
+    private LocalDate from;
+    private LocalDate to;
+    private int chunks;
+    private int chunksDone;
+    private int daysWritten;
+    private long rowsScanned;
+    private double percentComplete;
+    private double rowsPerSecond;
+    private long elapsedSeconds;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
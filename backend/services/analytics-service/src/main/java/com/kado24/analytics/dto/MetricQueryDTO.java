@@ -0,0 +1,27 @@
+package com.kado24.analytics.dto;
+
+import com.kado24.analytics.columnar.Dimension;
+import com.kado24.analytics.columnar.Metric;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of a rollup query over [from, to], with where it was answered from (MEMORY, DATABASE or
+ * MEMORY+DATABASE) and how long that took
+ */
+@Data
+@Builder
+public class MetricQueryDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private Dimension groupBy;
+    private Metric rankedBy;
+    private Long merchantId;
+    private Long categoryId;
+    private String source;
+    private long tookMicros;
+    private List<MetricValuesDTO> rows;
+}
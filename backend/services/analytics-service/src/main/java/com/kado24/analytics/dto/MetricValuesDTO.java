@@ -0,0 +1,23 @@
+package com.kado24.analytics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Rollup sums for one group of a metrics query; the grouping field is set, the others are null
+ */
+@Data
+@Builder
+public class MetricValuesDTO {
+    private LocalDate date;
+    private Long merchantId;
+    private Long categoryId;
+    private long views;
+    private long orders;
+    private BigDecimal revenue;
+    private BigDecimal commission;
+    private long redemptions;
+}
@@ -0,0 +1,21 @@
+package com.kado24.analytics.dto;
+
+import com.kado24.analytics.sketch.SketchKey;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estimated distinct users or merchants with activity in [from, to)
+ */
+@Data
+@Builder
+public class UniquesDTO {
+    private SketchKey.Subject subject;
+    private Long merchantId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long estimate;
+    private double relativeStandardError;
+}
@@ -0,0 +1,229 @@
+package com.kado24.analytics.repository;
+
+import com.kado24.analytics.columnar.Dimension;
+import com.kado24.analytics.columnar.Metric;
+import lombok.Getter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Postgres storage for the per day × merchant × category rollup, the breakdown behind
+ * daily_metrics. Category 0 holds vouchers without a category and events whose voucher is unknown.
+ *
+ * Writes follow {@link RollupStore}: additive upserts from the streaming rollup, replacing ones
+ * from a backfill, rows always in key order.
+ */
+public class MerchantMetricStore {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final String COLUMNS = "metric_date, merchant_id, category_id, views, orders, revenue, commission, redemptions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    public MerchantMetricStore(JdbcTemplate jdbcTemplate, String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid merchant metrics table name: " + table);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+    }
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "metric_date DATE NOT NULL, " +
+                "merchant_id BIGINT NOT NULL, " +
+                "category_id BIGINT NOT NULL, " +
+                "views BIGINT NOT NULL DEFAULT 0, " +
+                "orders BIGINT NOT NULL DEFAULT 0, " +
+                "revenue DECIMAL(15,2) NOT NULL DEFAULT 0, " +
+                "commission DECIMAL(15,2) NOT NULL DEFAULT 0, " +
+                "redemptions BIGINT NOT NULL DEFAULT 0, " +
+                "updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                "PRIMARY KEY (metric_date, merchant_id, category_id))");
+        String index = table.substring(table.lastIndexOf('.') + 1);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index + "_merchant_idx ON " + table + " (merchant_id, metric_date)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + index + "_updated_idx ON " + table + " (updated_at)");
+    }
+
+    /**
+     * Add each row's increments, creating rows on first use
+     */
+    public void addAll(Collection<MerchantDayTotals> totals) {
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " AS t (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                + "ON CONFLICT (metric_date, merchant_id, category_id) DO UPDATE SET "
+                + "views = t.views + EXCLUDED.views, "
+                + "orders = t.orders + EXCLUDED.orders, "
+                + "revenue = t.revenue + EXCLUDED.revenue, "
+                + "commission = t.commission + EXCLUDED.commission, "
+                + "redemptions = t.redemptions + EXCLUDED.redemptions, "
+                + "updated_at = now()", rows(totals));
+    }
+
+    /**
+     * Make [from, to) hold exactly {@code totals} for orders, revenue, commission and redemptions.
+     * Views have no source table to be rebuilt from and are kept.
+     */
+    public void replaceRange(LocalDate from, LocalDate to, Collection<MerchantDayTotals> totals) {
+        jdbcTemplate.update("UPDATE " + table + " SET orders = 0, revenue = 0, commission = 0, redemptions = 0, "
+                        + "updated_at = now() WHERE metric_date >= ? AND metric_date < ? "
+                        + "AND (orders <> 0 OR revenue <> 0 OR commission <> 0 OR redemptions <> 0)",
+                Date.valueOf(from), Date.valueOf(to));
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " AS t (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                + "ON CONFLICT (metric_date, merchant_id, category_id) DO UPDATE SET "
+                + "orders = EXCLUDED.orders, "
+                + "revenue = EXCLUDED.revenue, "
+                + "commission = EXCLUDED.commission, "
+                + "redemptions = EXCLUDED.redemptions, "
+                + "updated_at = now()", rows(totals));
+    }
+
+    /**
+     * Days in [from, ...) with a row written at or after {@code since}
+     */
+    public List<LocalDate> findChangedDays(LocalDate from, LocalDateTime since) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT metric_date FROM " + table
+                        + " WHERE updated_at >= ? AND metric_date >= ?",
+                Date.class, Timestamp.valueOf(since), Date.valueOf(from))
+                .stream()
+                .map(Date::toLocalDate)
+                .toList();
+    }
+
+    /**
+     * Stream the rows of one day: date, merchant, category, then the metrics in {@link Metric} order
+     */
+    public void streamDay(LocalDate day, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT " + COLUMNS + " FROM " + table + " WHERE metric_date = ?",
+                handler, Date.valueOf(day));
+    }
+
+    /**
+     * Sums over [from, to] in Postgres, per group key (epoch day, merchant or category id) or under
+     * key 0 when {@code groupBy} is null; values are indexed by {@link Metric#ordinal()}
+     */
+    public Map<Long, double[]> aggregate(LocalDate from, LocalDate to, Dimension groupBy, Long merchantId, Long categoryId) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(groupBy == null ? "0" : groupBy == Dimension.DAY ? "metric_date - DATE '1970-01-01'" : groupBy.getColumn())
+                .append(", SUM(views), SUM(orders), SUM(revenue), SUM(commission), SUM(redemptions) FROM ")
+                .append(table)
+                .append(" WHERE metric_date >= ? AND metric_date <= ?");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (merchantId != null) {
+            sql.append(" AND merchant_id = ?");
+            args.add(merchantId);
+        }
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        if (groupBy != null) {
+            sql.append(" GROUP BY 1");
+        }
+
+        Map<Long, double[]> groups = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            if (rs.getObject(2) == null) {
+                // Aggregate without GROUP BY over no rows
+                return;
+            }
+            double[] values = new double[Metric.COUNT];
+            for (Metric metric : Metric.values()) {
+                values[metric.ordinal()] = rs.getDouble(2 + metric.ordinal());
+            }
+            groups.put(rs.getLong(1), values);
+        }, args.toArray());
+        return groups;
+    }
+
+    /**
+     * Merchant owned by a user account, or null
+     */
+    public Long findMerchantIdByUserId(long userId) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM merchant_schema.merchants WHERE user_id = ?", Long.class, userId);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    private static List<Object[]> rows(Collection<MerchantDayTotals> totals) {
+        return totals.stream()
+                .sorted(MerchantDayTotals.KEY_ORDER)
+                .map(row -> new Object[]{
+                        Date.valueOf(row.getMetricDate()), row.getMerchantId(), row.getCategoryId(),
+                        row.views, row.orders, row.revenue, row.commission, row.redemptions})
+                .toList();
+    }
+
+    /**
+     * Increments for one day, merchant and category, accumulated in memory
+     */
+    @Getter
+    public static class MerchantDayTotals {
+
+        static final Comparator<MerchantDayTotals> KEY_ORDER = Comparator
+                .comparing(MerchantDayTotals::getMetricDate)
+                .thenComparingLong(MerchantDayTotals::getMerchantId)
+                .thenComparingLong(MerchantDayTotals::getCategoryId);
+
+        private final LocalDate metricDate;
+        private final long merchantId;
+        private final long categoryId;
+        private long views;
+        private long orders;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal commission = BigDecimal.ZERO;
+        private long redemptions;
+
+        public MerchantDayTotals(Key key) {
+            this.metricDate = key.metricDate();
+            this.merchantId = key.merchantId();
+            this.categoryId = key.categoryId();
+        }
+
+        public void addViews(long count) {
+            views += count;
+        }
+
+        public void addOrder(BigDecimal amount, BigDecimal fee) {
+            orders++;
+            addRevenue(amount, fee);
+        }
+
+        public void addRevenue(BigDecimal amount, BigDecimal fee) {
+            if (amount != null) {
+                revenue = revenue.add(amount);
+            }
+            if (fee != null) {
+                commission = commission.add(fee);
+            }
+        }
+
+        public void addRedemption() {
+            redemptions++;
+        }
+
+        public void add(MerchantDayTotals other) {
+            views += other.views;
+            orders += other.orders;
+            revenue = revenue.add(other.revenue);
+            commission = commission.add(other.commission);
+            redemptions += other.redemptions;
+        }
+
+        public record Key(LocalDate metricDate, long merchantId, long categoryId) {
+        }
+    }
+}
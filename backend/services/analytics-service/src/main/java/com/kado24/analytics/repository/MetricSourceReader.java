@@ -0,0 +1,111 @@
+package com.kado24.analytics.repository;
+
+import com.kado24.analytics.repository.MerchantMetricStore.MerchantDayTotals;
+import com.kado24.analytics.repository.RollupStore.DailyTotals;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Reads the tables owned by other services that daily_metrics is derived from, for backfills.
+ *
+ * Each scan selects only the columns it counts and streams them through a server-side cursor
+ * ({@code fetchSize} rows per round trip, inside a read-only transaction, which the Postgres
+ * driver needs to use a cursor), so memory stays flat whatever the range. Every source is filtered
+ * by a range on an indexed date column (indexes declared by the owning entities), so a chunk reads
+ * only its own rows rather than the whole table. Rows are counted with
+ * the same {@link DailyTotals} and {@link MerchantDayTotals} operations, and attributed to the
+ * same merchant and category, as in the streaming rollup.
+ */
+public class MetricSourceReader {
+
+    /**
+     * Merchant and category the streaming rollup attributes an order or redemption to
+     */
+    private static final String ORDER_DIMENSIONS = "COALESCE(v.merchant_id, o.merchant_id), COALESCE(v.category_id, 0)";
+    private static final String REDEMPTION_DIMENSIONS = "COALESCE(v.merchant_id, r.merchant_id), COALESCE(v.category_id, 0)";
+
+    /**
+     * One source table and the date column it is bucketed by
+     */
+    public enum Source {
+        /** Registrations, as USER_REGISTERED */
+        NEW_USERS("SELECT created_at FROM auth_schema.users WHERE created_at >= ? AND created_at < ?"),
+        /** Merchant sign-ups, as MERCHANT_REGISTERED */
+        NEW_MERCHANTS("SELECT created_at FROM merchant_schema.merchants WHERE created_at >= ? AND created_at < ?"),
+        /** Paid orders on their payment day, as ORDER_CONFIRMED; later refunds included */
+        PAID_ORDERS("SELECT o.paid_at, o.total_amount, o.platform_fee, " + ORDER_DIMENSIONS + " FROM order_schema.orders o "
+                + "LEFT JOIN voucher_schema.vouchers v ON v.id = o.voucher_id "
+                + "WHERE o.payment_status IN ('COMPLETED', 'REFUNDED') AND o.paid_at >= ? AND o.paid_at < ?"),
+        /** Refunds on the order's last update, as ORDER_REFUNDED; the refund time itself is not stored */
+        REFUNDS("SELECT o.updated_at, o.total_amount, o.platform_fee, " + ORDER_DIMENSIONS + " FROM order_schema.orders o "
+                + "LEFT JOIN voucher_schema.vouchers v ON v.id = o.voucher_id "
+                + "WHERE o.payment_status = 'REFUNDED' AND o.updated_at >= ? AND o.updated_at < ?"),
+        /** Completed redemptions, as REDEMPTION_COMPLETED; disputes were completed first */
+        REDEMPTIONS("SELECT r.redeemed_at, NULL, NULL, " + REDEMPTION_DIMENSIONS + " FROM redemption_schema.redemptions r "
+                + "LEFT JOIN voucher_schema.vouchers v ON v.id = r.voucher_id "
+                + "WHERE r.status IN ('CONFIRMED', 'DISPUTED') AND r.redeemed_at >= ? AND r.redeemed_at < ?");
+
+        private final String sql;
+
+        Source(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public MetricSourceReader(DataSource dataSource, int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Count the rows of {@code source} dated in [from, to) into {@code days} and, for orders and
+     * redemptions, into the merchant {@code breakdown}; returns the number of rows read
+     */
+    public long scan(Source source, LocalDate from, LocalDate to, Map<LocalDate, DailyTotals> days,
+                     Map<MerchantDayTotals.Key, MerchantDayTotals> breakdown) {
+        long[] rows = new long[1];
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(source.sql, rs -> {
+            LocalDate day = rs.getTimestamp(1).toLocalDateTime().toLocalDate();
+            DailyTotals totals = days.computeIfAbsent(day, DailyTotals::new);
+            MerchantDayTotals merchant = source == Source.NEW_USERS || source == Source.NEW_MERCHANTS ? null
+                    : breakdown.computeIfAbsent(new MerchantDayTotals.Key(day, rs.getLong(4), rs.getLong(5)), MerchantDayTotals::new);
+            switch (source) {
+                case NEW_USERS -> totals.addNewUsers(1);
+                case NEW_MERCHANTS -> totals.addNewMerchants(1);
+                case PAID_ORDERS -> {
+                    totals.addOrder(rs.getBigDecimal(2), rs.getBigDecimal(3));
+                    merchant.addOrder(rs.getBigDecimal(2), rs.getBigDecimal(3));
+                }
+                case REFUNDS -> {
+                    totals.addRevenue(negate(rs, 2), negate(rs, 3));
+                    merchant.addRevenue(negate(rs, 2), negate(rs, 3));
+                }
+                case REDEMPTIONS -> {
+                    totals.addRedemption();
+                    merchant.addRedemption();
+                }
+            }
+            rows[0]++;
+        }, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay())));
+        return rows[0];
+    }
+
+    private static BigDecimal negate(ResultSet rs, int column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value != null ? value.negate() : null;
+    }
+}
@@ -0,0 +1,209 @@
+package com.kado24.analytics.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC side of the streaming rollup: additive upserts into {@code daily_metrics} and the Kafka
+ * offsets those upserts have consumed.
+ *
+ * Offsets live in Postgres next to the metrics and move in the same transaction, so a batch is
+ * either counted and its offsets advanced, or neither. {@link #lockOffsets} takes row locks, which
+ * also fences a consumer that lost its partitions in a rebalance but is still finishing a batch.
+ */
+public class RollupStore {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final String UPSERT_DAILY_METRICS = "INSERT INTO analytics_schema.daily_metrics AS m "
+            + "(metric_date, new_users, new_merchants, total_orders, total_revenue, total_commission, "
+            + "total_redemptions, active_users, active_merchants, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now()) "
+            + "ON CONFLICT (metric_date) DO UPDATE SET ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String offsetsTable;
+
+    public RollupStore(JdbcTemplate jdbcTemplate, String offsetsTable) {
+        if (!TABLE_NAME.matcher(offsetsTable).matches()) {
+            throw new IllegalArgumentException("Invalid rollup offsets table name: " + offsetsTable);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.offsetsTable = offsetsTable;
+    }
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + offsetsTable + " (" +
+                "consumer_group VARCHAR(100) NOT NULL, " +
+                "topic VARCHAR(255) NOT NULL, " +
+                "partition_id INT NOT NULL, " +
+                "next_offset BIGINT NOT NULL, " +
+                "updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                "PRIMARY KEY (consumer_group, topic, partition_id))");
+    }
+
+    /**
+     * Next offset to consume per partition, for the partitions that have one stored
+     */
+    public Map<TopicPartition, Long> findOffsets(String consumerGroup, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            jdbcTemplate.query("SELECT next_offset FROM " + offsetsTable
+                            + " WHERE consumer_group = ? AND topic = ? AND partition_id = ?",
+                    rs -> {
+                        offsets.put(partition, rs.getLong(1));
+                    },
+                    consumerGroup, partition.topic(), partition.partition());
+        }
+        return offsets;
+    }
+
+    /**
+     * Lock the offset rows of {@code partitions} for the current transaction and return them.
+     * Partitions seen for the first time start at 0. Rows are locked in a fixed order so
+     * concurrent consumers cannot deadlock.
+     */
+    public Map<TopicPartition, Long> lockOffsets(String consumerGroup, Collection<TopicPartition> partitions) {
+        List<TopicPartition> ordered = new ArrayList<>(partitions);
+        ordered.sort((a, b) -> a.topic().equals(b.topic())
+                ? Integer.compare(a.partition(), b.partition())
+                : a.topic().compareTo(b.topic()));
+
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : ordered) {
+            jdbcTemplate.update("INSERT INTO " + offsetsTable + " (consumer_group, topic, partition_id, next_offset) "
+                            + "VALUES (?, ?, ?, 0) ON CONFLICT DO NOTHING",
+                    consumerGroup, partition.topic(), partition.partition());
+            Long offset = jdbcTemplate.queryForObject("SELECT next_offset FROM " + offsetsTable
+                            + " WHERE consumer_group = ? AND topic = ? AND partition_id = ? FOR UPDATE",
+                    Long.class, consumerGroup, partition.topic(), partition.partition());
+            offsets.put(partition, offset);
+        }
+        return offsets;
+    }
+
+    public void saveOffsets(String consumerGroup, Map<TopicPartition, Long> nextOffsets) {
+        List<Object[]> rows = new ArrayList<>();
+        nextOffsets.forEach((partition, offset) ->
+                rows.add(new Object[]{offset, consumerGroup, partition.topic(), partition.partition()}));
+        jdbcTemplate.batchUpdate("UPDATE " + offsetsTable + " SET next_offset = ?, updated_at = now() "
+                + "WHERE consumer_group = ? AND topic = ? AND partition_id = ?", rows);
+    }
+
+    /**
+     * Add each day's totals to its row, creating the row on first use; active counts, when set,
+     * replace the stored ones. Days are written in date order, again to keep concurrent consumers
+     * from deadlocking.
+     */
+    public void addDailyTotals(Collection<DailyTotals> totals) {
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_METRICS
+                + "new_users = COALESCE(m.new_users, 0) + EXCLUDED.new_users, "
+                + "new_merchants = COALESCE(m.new_merchants, 0) + EXCLUDED.new_merchants, "
+                + "total_orders = COALESCE(m.total_orders, 0) + EXCLUDED.total_orders, "
+                + "total_revenue = COALESCE(m.total_revenue, 0) + EXCLUDED.total_revenue, "
+                + "total_commission = COALESCE(m.total_commission, 0) + EXCLUDED.total_commission, "
+                + "total_redemptions = COALESCE(m.total_redemptions, 0) + EXCLUDED.total_redemptions, "
+                + "active_users = COALESCE(EXCLUDED.active_users, m.active_users), "
+                + "active_merchants = COALESCE(EXCLUDED.active_merchants, m.active_merchants), "
+                + "updated_at = now()", rows(totals));
+    }
+
+    /**
+     * Overwrite each day's counters with {@code totals}, as recomputed by a backfill; running it
+     * twice gives the same rows. Active counts are only replaced when set.
+     */
+    public void replaceDailyTotals(Collection<DailyTotals> totals) {
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_METRICS
+                + "new_users = EXCLUDED.new_users, "
+                + "new_merchants = EXCLUDED.new_merchants, "
+                + "total_orders = EXCLUDED.total_orders, "
+                + "total_revenue = EXCLUDED.total_revenue, "
+                + "total_commission = EXCLUDED.total_commission, "
+                + "total_redemptions = EXCLUDED.total_redemptions, "
+                + "active_users = COALESCE(EXCLUDED.active_users, m.active_users), "
+                + "active_merchants = COALESCE(EXCLUDED.active_merchants, m.active_merchants), "
+                + "updated_at = now()", rows(totals));
+    }
+
+    private static List<Object[]> rows(Collection<DailyTotals> totals) {
+        return totals.stream()
+                .sorted((a, b) -> a.getMetricDate().compareTo(b.getMetricDate()))
+                .map(day -> new Object[]{
+                        Date.valueOf(day.getMetricDate()),
+                        day.newUsers, day.newMerchants, day.orders, day.revenue, day.commission, day.redemptions,
+                        day.activeUsers, day.activeMerchants})
+                .toList();
+    }
+
+    /**
+     * Increments for one day, accumulated in memory over a batch, plus the day's active counts
+     */
+    @Getter
+    public static class DailyTotals {
+
+        private final LocalDate metricDate;
+        private int newUsers;
+        private int newMerchants;
+        private int orders;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal commission = BigDecimal.ZERO;
+        private int redemptions;
+        @Setter
+        private Integer activeUsers;
+        @Setter
+        private Integer activeMerchants;
+
+        public DailyTotals(LocalDate metricDate) {
+            this.metricDate = metricDate;
+        }
+
+        public void addNewUsers(long count) {
+            newUsers += Math.toIntExact(count);
+        }
+
+        public void addNewMerchants(long count) {
+            newMerchants += Math.toIntExact(count);
+        }
+
+        public void addOrder(BigDecimal amount, BigDecimal fee) {
+            orders++;
+            addRevenue(amount, fee);
+        }
+
+        public void addRevenue(BigDecimal amount, BigDecimal fee) {
+            if (amount != null) {
+                revenue = revenue.add(amount);
+            }
+            if (fee != null) {
+                commission = commission.add(fee);
+            }
+        }
+
+        public void addRedemption() {
+            redemptions++;
+        }
+
+        /**
+         * Add another partial aggregate of the same day; active counts are not additive and are left alone
+         */
+        public void add(DailyTotals other) {
+            newUsers += other.newUsers;
+            newMerchants += other.newMerchants;
+            orders += other.orders;
+            revenue = revenue.add(other.revenue);
+            commission = commission.add(other.commission);
+            redemptions += other.redemptions;
+        }
+    }
+}
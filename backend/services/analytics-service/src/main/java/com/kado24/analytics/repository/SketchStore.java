@@ -0,0 +1,126 @@
+package com.kado24.analytics.repository;
+
+import com.kado24.analytics.sketch.HyperLogLog;
+import com.kado24.analytics.sketch.SketchKey;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Postgres storage for distinct-count sketches, one BYTEA row per {@link SketchKey}.
+ *
+ * {@link #mergeAll} runs on the caller's connection: rows are created if missing, locked, unioned
+ * with the batch's sketches in memory and written back, all inside the caller's transaction.
+ */
+public class SketchStore {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final String KEYS = "unnest(?::varchar[], ?::bigint[], ?::varchar[], ?::timestamp[]) AS k(subject, merchant_id, granularity, bucket_start)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    public SketchStore(JdbcTemplate jdbcTemplate, String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid sketch table name: " + table);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+    }
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "subject VARCHAR(20) NOT NULL, " +
+                "merchant_id BIGINT NOT NULL, " +
+                "granularity VARCHAR(10) NOT NULL, " +
+                "bucket_start TIMESTAMP NOT NULL, " +
+                "sketch BYTEA NOT NULL, " +
+                "updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                "PRIMARY KEY (subject, merchant_id, granularity, bucket_start))");
+    }
+
+    /**
+     * Union each sketch into its stored row and return the stored sketches after the merge
+     */
+    public Map<SketchKey, HyperLogLog> mergeAll(Map<SketchKey, HyperLogLog> sketches) {
+        Map<SketchKey, HyperLogLog> merged = new HashMap<>();
+        if (sketches.isEmpty()) {
+            return merged;
+        }
+        List<SketchKey> keys = new ArrayList<>(sketches.keySet());
+
+        // Placeholder rows first, so that two batches creating the same sketch serialize on its lock
+        jdbcTemplate.update(connection -> keysStatement(connection, "INSERT INTO " + table
+                + " (subject, merchant_id, granularity, bucket_start, sketch) "
+                + "SELECT k.subject, k.merchant_id, k.granularity, k.bucket_start, ''::bytea FROM " + KEYS
+                + " ORDER BY 1, 2, 3, 4 ON CONFLICT DO NOTHING", keys));
+
+        jdbcTemplate.query(connection -> keysStatement(connection, "SELECT t.subject, t.merchant_id, t.granularity, "
+                + "t.bucket_start, t.sketch FROM " + table + " t JOIN " + KEYS
+                + " ON t.subject = k.subject AND t.merchant_id = k.merchant_id"
+                + " AND t.granularity = k.granularity AND t.bucket_start = k.bucket_start"
+                + " ORDER BY 1, 2, 3, 4 FOR UPDATE OF t", keys), rs -> {
+            SketchKey key = new SketchKey(
+                    SketchKey.Subject.valueOf(rs.getString(1)),
+                    rs.getLong(2),
+                    SketchKey.Granularity.valueOf(rs.getString(3)),
+                    rs.getTimestamp(4).toLocalDateTime());
+            HyperLogLog sketch = HyperLogLog.fromBytes(rs.getBytes(5));
+            sketch.merge(sketches.get(key));
+            merged.put(key, sketch);
+        });
+
+        List<Object[]> rows = new ArrayList<>();
+        merged.forEach((key, sketch) -> rows.add(new Object[]{
+                sketch.toBytes(), key.subject().name(), key.merchantId(), key.granularity().name(),
+                Timestamp.valueOf(key.bucketStart())}));
+        jdbcTemplate.batchUpdate("UPDATE " + table + " SET sketch = ?, updated_at = now() "
+                + "WHERE subject = ? AND merchant_id = ? AND granularity = ? AND bucket_start = ?", rows);
+        return merged;
+    }
+
+    /**
+     * Union of the stored sketches with {@code bucket_start} in [from, to)
+     */
+    public HyperLogLog union(SketchKey.Subject subject, long merchantId, SketchKey.Granularity granularity,
+                             LocalDateTime from, LocalDateTime to) {
+        HyperLogLog union = new HyperLogLog();
+        jdbcTemplate.query("SELECT sketch FROM " + table + " WHERE subject = ? AND merchant_id = ? "
+                        + "AND granularity = ? AND bucket_start >= ? AND bucket_start < ?",
+                rs -> {
+                    union.merge(HyperLogLog.fromBytes(rs.getBytes(1)));
+                },
+                subject.name(), merchantId, granularity.name(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return union;
+    }
+
+    private static PreparedStatement keysStatement(Connection connection, String sql, List<SketchKey> keys) throws SQLException {
+        int size = keys.size();
+        String[] subjects = new String[size];
+        Long[] merchantIds = new Long[size];
+        String[] granularities = new String[size];
+        Timestamp[] bucketStarts = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            SketchKey key = keys.get(i);
+            subjects[i] = key.subject().name();
+            merchantIds[i] = key.merchantId();
+            granularities[i] = key.granularity().name();
+            bucketStarts[i] = Timestamp.valueOf(key.bucketStart());
+        }
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setArray(1, connection.createArrayOf("varchar", subjects));
+        statement.setArray(2, connection.createArrayOf("bigint", merchantIds));
+        statement.setArray(3, connection.createArrayOf("varchar", granularities));
+        statement.setArray(4, connection.createArrayOf("timestamp", bucketStarts));
+        return statement;
+    }
+}
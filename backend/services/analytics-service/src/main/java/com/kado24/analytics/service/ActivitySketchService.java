@@ -0,0 +1,128 @@
+package com.kado24.analytics.service;
+
+import com.kado24.analytics.dto.ActiveUsersDTO;
+import com.kado24.analytics.dto.UniquesDTO;
+import com.kado24.analytics.repository.RollupStore.DailyTotals;
+import com.kado24.analytics.repository.SketchStore;
+import com.kado24.analytics.sketch.HyperLogLog;
+import com.kado24.analytics.sketch.SketchKey;
+import com.kado24.analytics.sketch.SketchKey.Granularity;
+import com.kado24.analytics.sketch.SketchKey.Subject;
+import com.kado24.kafka.event.AnalyticsEvent;
+import com.kado24.kafka.event.BaseEvent;
+import com.kado24.kafka.event.OrderEvent;
+import com.kado24.kafka.event.RedemptionEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Active user and merchant counts from HyperLogLog sketches.
+ *
+ * Every event adds its user to the platform and merchant user sketches, and its merchant to the
+ * platform merchant sketch, for both its hour and its day. Sketches are unioned into Postgres
+ * with the rollup batch, and daily_metrics.active_users / active_merchants are set from the
+ * merged day sketches. Range queries union stored sketches, so their cost depends on the number
+ * of buckets in the range, never on the number of events.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivitySketchService {
+
+    private static final Granularity[] GRANULARITIES = Granularity.values();
+
+    private final SketchStore sketchStore;
+
+    /**
+     * Add the ids of one event to the batch's sketches
+     */
+    public void record(Map<SketchKey, HyperLogLog> batch, BaseEvent event, LocalDateTime at) {
+        Long merchantId = null;
+        if (event instanceof AnalyticsEvent analytics) {
+            merchantId = analytics.getMerchantId();
+            addUser(batch, analytics.getUserId(), merchantId, at);
+            Object userIds = analytics.getProperties() != null
+                    ? analytics.getProperties().get(AnalyticsEvent.PROPERTY_USER_IDS)
+                    : null;
+            if (userIds instanceof Iterable<?> ids) {
+                // Coalesced summary; beyond the coalescer's cap users are undercounted
+                for (Object id : ids) {
+                    if (id instanceof Number number) {
+                        addUser(batch, number.longValue(), merchantId, at);
+                    }
+                }
+            }
+        } else if (event instanceof OrderEvent order) {
+            merchantId = order.getMerchantId();
+            addUser(batch, order.getUserId(), merchantId, at);
+        } else if (event instanceof RedemptionEvent redemption) {
+            merchantId = redemption.getMerchantId();
+            addUser(batch, redemption.getConsumerId(), merchantId, at);
+        }
+        if (merchantId != null) {
+            add(batch, Subject.MERCHANT, SketchKey.PLATFORM, at, merchantId);
+        }
+    }
+
+    /**
+     * Union the batch into stored sketches and set the affected days' active counts on
+     * {@code days}. Must run inside the rollup transaction, before the daily totals are written.
+     */
+    public void flush(Map<SketchKey, HyperLogLog> batch, Map<LocalDate, DailyTotals> days) {
+        sketchStore.mergeAll(batch).forEach((key, sketch) -> {
+            if (key.merchantId() == SketchKey.PLATFORM && key.granularity() == Granularity.DAY) {
+                DailyTotals totals = days.computeIfAbsent(key.bucketStart().toLocalDate(), DailyTotals::new);
+                if (key.subject() == Subject.USER) {
+                    totals.setActiveUsers(Math.toIntExact(sketch.estimate()));
+                } else {
+                    totals.setActiveMerchants(Math.toIntExact(sketch.estimate()));
+                }
+            }
+        });
+    }
+
+    public ActiveUsersDTO activeUsers(LocalDate date, long merchantId) {
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+        return ActiveUsersDTO.builder()
+                .date(date)
+                .merchantId(merchantId == SketchKey.PLATFORM ? null : merchantId)
+                .dau(sketchStore.union(Subject.USER, merchantId, Granularity.DAY, end.minusDays(1), end).estimate())
+                .wau(sketchStore.union(Subject.USER, merchantId, Granularity.DAY, end.minusDays(7), end).estimate())
+                .mau(sketchStore.union(Subject.USER, merchantId, Granularity.DAY, end.minusDays(30), end).estimate())
+                .relativeStandardError(HyperLogLog.relativeStandardError(HyperLogLog.DEFAULT_PRECISION))
+                .build();
+    }
+
+    public UniquesDTO uniques(Subject subject, long merchantId, Granularity granularity,
+                              LocalDateTime from, LocalDateTime to) {
+        return UniquesDTO.builder()
+                .subject(subject)
+                .merchantId(merchantId == SketchKey.PLATFORM ? null : merchantId)
+                .from(from)
+                .to(to)
+                .estimate(sketchStore.union(subject, merchantId, granularity, from, to).estimate())
+                .relativeStandardError(HyperLogLog.relativeStandardError(HyperLogLog.DEFAULT_PRECISION))
+                .build();
+    }
+
+    private static void addUser(Map<SketchKey, HyperLogLog> batch, Long userId, Long merchantId, LocalDateTime at) {
+        if (userId == null) {
+            return;
+        }
+        add(batch, Subject.USER, SketchKey.PLATFORM, at, userId);
+        if (merchantId != null) {
+            add(batch, Subject.USER, merchantId, at, userId);
+        }
+    }
+
+    private static void add(Map<SketchKey, HyperLogLog> batch, Subject subject, long merchantId,
+                            LocalDateTime at, long id) {
+        for (Granularity granularity : GRANULARITIES) {
+            batch.computeIfAbsent(new SketchKey(subject, merchantId, granularity, granularity.bucketOf(at)),
+                    key -> new HyperLogLog()).add(id);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.kado24.analytics.service;
+
+import com.kado24.analytics.dto.BackfillStatusDTO;
+import com.kado24.analytics.repository.MerchantMetricStore;
+import com.kado24.analytics.repository.MerchantMetricStore.MerchantDayTotals;
+import com.kado24.analytics.repository.MetricSourceReader;
+import com.kado24.analytics.repository.MetricSourceReader.Source;
+import com.kado24.analytics.repository.RollupStore;
+import com.kado24.analytics.repository.RollupStore.DailyTotals;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds daily_metrics and its merchant × category breakdown from the source tables, after a
+ * change to the rollup logic or when the streaming rollup lost events.
+ *
+ * The range is split into chunks of {@code chunk-days} days. A chunk scans every
+ * {@link Source} as its own fork-join task, merges the partial per-day totals and replaces its
+ * days in one transaction, so a chunk is either fully rebuilt or untouched and a failed or
+ * cancelled run can simply be started again. Tasks run on a fork-join pool of
+ * {@code parallelism} threads that never adds compensating threads, against a connection pool
+ * of the same size that exists only for the run: the service's own pool is not touched.
+ *
+ * Only days before today can be rebuilt, as the streaming rollup is still adding to today.
+ * Events still in flight for a rebuilt day are added on top, so run it once the rollup consumer
+ * has caught up. Active counts come from the activity sketches and views have no source table;
+ * both are kept.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyMetricBackfillService {
+
+    private final DataSourceProperties dataSourceProperties;
+
+    @Value("${analytics.backfill.parallelism:4}")
+    private int parallelism;
+
+    @Value("${analytics.backfill.chunk-days:7}")
+    private int chunkDays;
+
+    @Value("${analytics.backfill.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${analytics.rollup.offsets-table:analytics_schema.rollup_offsets}")
+    private String offsetsTable;
+
+    @Value("${analytics.breakdown.table:analytics_schema.merchant_daily_metrics}")
+    private String breakdownTable;
+
+    private volatile Run current;
+
+    /**
+     * Start rebuilding [from, to] in the background
+     *
+     * @throws IllegalArgumentException if the range is empty or reaches today
+     * @throws IllegalStateException if a backfill is already running
+     */
+    public synchronized BackfillStatusDTO start(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || !to.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Backfill range must be ascending and end before today");
+        }
+        if (current != null && current.finishedAt == null) {
+            throw new IllegalStateException("A backfill is already running");
+        }
+
+        List<LocalDate> chunkStarts = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(chunkDays)) {
+            chunkStarts.add(day);
+        }
+        Run run = new Run(from, to, chunkStarts, backfillDataSource());
+        current = run;
+        newPool().execute(run);
+        log.info("Started daily_metrics backfill {}..{}: {} chunks of {} days, parallelism {}",
+                from, to, chunkStarts.size(), chunkDays, parallelism);
+        return run.status();
+    }
+
+    /**
+     * Stop a running backfill after the chunks in progress; returns false when none is running
+     */
+    public synchronized boolean cancel() {
+        if (current == null || current.finishedAt != null) {
+            return false;
+        }
+        current.cancelled = true;
+        return true;
+    }
+
+    /**
+     * The running or last backfill, or null if none ran since startup
+     */
+    public BackfillStatusDTO status() {
+        Run run = current;
+        return run != null ? run.status() : null;
+    }
+
+    private HikariDataSource backfillDataSource() {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("analytics-backfill");
+        dataSource.setMaximumPoolSize(parallelism);
+        dataSource.setMinimumIdle(0);
+        return dataSource;
+    }
+
+    /**
+     * At most {@code parallelism} threads: a worker waiting on a join does not get a spare
+     */
+    private ForkJoinPool newPool() {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("analytics-backfill-" + thread.getPoolIndex());
+            return thread;
+        }, null, false, 0, parallelism, 1, pool -> true, 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * One backfill: the root task of its pool, with its progress
+     */
+    private final class Run extends RecursiveAction {
+
+        private final LocalDate from;
+        private final LocalDate to;
+        private final List<LocalDate> chunkStarts;
+        private final HikariDataSource dataSource;
+        private final MetricSourceReader reader;
+        private final RollupStore store;
+        private final MerchantMetricStore breakdownStore;
+        private final TransactionTemplate writeTransaction;
+
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger chunksDone = new AtomicInteger();
+        private final AtomicInteger daysWritten = new AtomicInteger();
+        private final AtomicLong rowsScanned = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile String error;
+        private volatile long elapsedNanos;
+        private volatile LocalDateTime finishedAt;
+
+        Run(LocalDate from, LocalDate to, List<LocalDate> chunkStarts, HikariDataSource dataSource) {
+            this.from = from;
+            this.to = to;
+            this.chunkStarts = chunkStarts;
+            this.dataSource = dataSource;
+            this.reader = new MetricSourceReader(dataSource, fetchSize);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            this.store = new RollupStore(jdbcTemplate, offsetsTable);
+            this.breakdownStore = new MerchantMetricStore(jdbcTemplate, breakdownTable);
+            this.writeTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                LocalDate end = to.plusDays(1);
+                invokeAll(chunkStarts.stream()
+                        .map(start -> new Chunk(start, start.plusDays(chunkDays).isBefore(end) ? start.plusDays(chunkDays) : end))
+                        .toList());
+            } finally {
+                elapsedNanos = System.nanoTime() - startNanos;
+                finishedAt = LocalDateTime.now();
+                getPool().shutdown();
+                dataSource.close();
+                BackfillStatusDTO status = status();
+                log.info("Backfill {}..{} {}: {} of {} chunks, {} days, {} rows in {}s ({} rows/s)",
+                        from, to, status.getState(), status.getChunksDone(), status.getChunks(),
+                        status.getDaysWritten(), status.getRowsScanned(), status.getElapsedSeconds(),
+                        Math.round(status.getRowsPerSecond()));
+            }
+        }
+
+        BackfillStatusDTO status() {
+            long nanos = finishedAt != null ? elapsedNanos : System.nanoTime() - startNanos;
+            long rows = rowsScanned.get();
+            String state;
+            if (finishedAt == null) {
+                state = cancelled ? "CANCELLING" : "RUNNING";
+            } else if (error != null) {
+                state = "FAILED";
+            } else {
+                state = cancelled ? "CANCELLED" : "COMPLETED";
+            }
+            return BackfillStatusDTO.builder()
+                    .state(state)
+                    .from(from)
+                    .to(to)
+                    .chunks(chunkStarts.size())
+                    .chunksDone(chunksDone.get())
+                    .daysWritten(daysWritten.get())
+                    .rowsScanned(rows)
+                    .percentComplete(100.0 * chunksDone.get() / chunkStarts.size())
+                    .rowsPerSecond(nanos > 0 ? rows * 1e9 / nanos : 0)
+                    .elapsedSeconds(TimeUnit.NANOSECONDS.toSeconds(nanos))
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+
+        /**
+         * Days [start, end): scan every source in parallel, merge, replace
+         */
+        private final class Chunk extends RecursiveAction {
+
+            private final LocalDate start;
+            private final LocalDate end;
+
+            Chunk(LocalDate start, LocalDate end) {
+                this.start = start;
+                this.end = end;
+            }
+
+            @Override
+            protected void compute() {
+                if (cancelled) {
+                    return;
+                }
+                try {
+                    List<Scan> scans = new ArrayList<>();
+                    for (Source source : Source.values()) {
+                        scans.add(new Scan(source, start, end));
+                    }
+                    invokeAll(scans);
+
+                    // Every day gets a row, so days whose events were all wrong go back to zero
+                    Map<LocalDate, DailyTotals> days = new TreeMap<>();
+                    for (LocalDate day = start; day.isBefore(end); day = day.plusDays(1)) {
+                        days.put(day, new DailyTotals(day));
+                    }
+                    Map<MerchantDayTotals.Key, MerchantDayTotals> breakdown = new HashMap<>();
+                    long rows = 0;
+                    for (Scan scan : scans) {
+                        rows += scan.rows;
+                        scan.days.forEach((day, totals) -> days.computeIfAbsent(day, DailyTotals::new).add(totals));
+                        scan.breakdown.forEach((key, totals) -> breakdown.computeIfAbsent(key, MerchantDayTotals::new).add(totals));
+                    }
+                    writeTransaction.executeWithoutResult(tx -> {
+                        store.replaceDailyTotals(days.values());
+                        breakdownStore.replaceRange(start, end, breakdown.values());
+                    });
+
+                    rowsScanned.addAndGet(rows);
+                    daysWritten.addAndGet(days.size());
+                    int done = chunksDone.incrementAndGet();
+                    log.info("Backfill chunk {}..{} done: {} rows; {}/{} chunks, {} rows/s",
+                            start, end.minusDays(1), rows, done, chunkStarts.size(),
+                            Math.round(status().getRowsPerSecond()));
+                } catch (RuntimeException e) {
+                    log.error("Backfill chunk {}..{} failed, stopping the run", start, end.minusDays(1), e);
+                    if (error == null) {
+                        error = "Chunk " + start + ": " + e.getMessage();
+                    }
+                    cancelled = true;
+                }
+            }
+        }
+
+        /**
+         * One source over one chunk, into a private partial aggregate
+         */
+        private final class Scan extends RecursiveAction {
+
+            private final Source source;
+            private final LocalDate start;
+            private final LocalDate end;
+            private final Map<LocalDate, DailyTotals> days = new HashMap<>();
+            private final Map<MerchantDayTotals.Key, MerchantDayTotals> breakdown = new HashMap<>();
+            private long rows;
+
+            Scan(Source source, LocalDate start, LocalDate end) {
+                this.source = source;
+                this.start = start;
+                this.end = end;
+            }
+
+            @Override
+            protected void compute() {
+                rows = reader.scan(source, start, end, days, breakdown);
+            }
+        }
+    }
+}
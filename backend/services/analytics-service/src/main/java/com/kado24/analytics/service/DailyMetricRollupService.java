@@ -0,0 +1,243 @@
+package com.kado24.analytics.service;
+
+import com.kado24.analytics.repository.MerchantMetricStore;
+import com.kado24.analytics.repository.MerchantMetricStore.MerchantDayTotals;
+import com.kado24.analytics.repository.RollupStore;
+import com.kado24.analytics.repository.RollupStore.DailyTotals;
+import com.kado24.analytics.sketch.HyperLogLog;
+import com.kado24.analytics.service.VoucherDimensionResolver.VoucherDimensions;
+import com.kado24.analytics.sketch.SketchKey;
+import com.kado24.kafka.constants.KafkaTopics;
+import com.kado24.kafka.dedupe.EventDeduplicator;
+import com.kado24.kafka.event.AnalyticsEvent;
+import com.kado24.kafka.event.BaseEvent;
+import com.kado24.kafka.event.OrderEvent;
+import com.kado24.kafka.event.RedemptionEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Folds analytics, order and redemption events into per-day totals and adds them to
+ * {@code daily_metrics}.
+ *
+ * A batch is aggregated in memory (a poll of hundreds of events usually touches one or two days)
+ * and written in one transaction together with the partitions' next offsets. Records below the
+ * stored offset were already counted and are skipped, so redelivery never double counts. Order
+ * events are also deduplicated by {@code eventId} in the same transaction: the order-service
+ * outbox delivers at least once, and a resent event lands at a new offset.
+ * Active user and merchant sketches (see {@link ActivitySketchService}) and the
+ * day × merchant × category breakdown ({@link MerchantMetricStore}) ride in the same
+ * transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyMetricRollupService {
+
+    private final RollupStore rollupStore;
+    private final ActivitySketchService activitySketchService;
+    private final MerchantMetricStore merchantMetricStore;
+    private final VoucherDimensionResolver voucherDimensionResolver;
+    private final EventDeduplicator eventDeduplicator;
+
+    /**
+     * Apply a batch; returns the number of records that were counted
+     */
+    @Transactional
+    public int apply(String consumerGroup, List<ConsumerRecord<String, Object>> records) {
+        Set<TopicPartition> partitions = new HashSet<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            partitions.add(new TopicPartition(record.topic(), record.partition()));
+        }
+        Map<TopicPartition, Long> committed = rollupStore.lockOffsets(consumerGroup, partitions);
+
+        Set<Long> voucherIds = new HashSet<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            Long voucherId = voucherIdOf(record.value());
+            if (voucherId != null) {
+                voucherIds.add(voucherId);
+            }
+        }
+        Map<Long, VoucherDimensions> vouchers = voucherDimensionResolver.resolve(voucherIds);
+        Set<String> newOrderEvents = markNewOrderEvents(consumerGroup, records, committed);
+
+        Map<LocalDate, DailyTotals> days = new HashMap<>();
+        Map<MerchantDayTotals.Key, MerchantDayTotals> breakdown = new HashMap<>();
+        Map<SketchKey, HyperLogLog> sketches = new HashMap<>();
+        Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+        int applied = 0;
+        for (ConsumerRecord<String, Object> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (record.offset() < committed.get(partition)) {
+                continue;
+            }
+            nextOffsets.merge(partition, record.offset() + 1, Math::max);
+            if (isOrderEvent(record) && !newOrderEvents.remove(((BaseEvent) record.value()).getEventId())) {
+                // Resent by the outbox and already counted at an earlier offset
+                continue;
+            }
+            if (record.value() instanceof BaseEvent event) {
+                LocalDateTime at = timeOf(record, event);
+                accumulate(days, at.toLocalDate(), event);
+                accumulateBreakdown(breakdown, at.toLocalDate(), event, vouchers);
+                activitySketchService.record(sketches, event, at);
+                applied++;
+            } else {
+                // Undeserializable record: nothing to count, but its offset still moves on
+                log.warn("Skipping unreadable record {}-{}@{}", record.topic(), record.partition(), record.offset());
+            }
+        }
+
+        // Sketch rows are locked before daily_metrics rows, and those before breakdown rows, in every batch
+        if (!sketches.isEmpty()) {
+            activitySketchService.flush(sketches, days);
+        }
+        if (!days.isEmpty()) {
+            rollupStore.addDailyTotals(days.values());
+        }
+        if (!breakdown.isEmpty()) {
+            merchantMetricStore.addAll(breakdown.values());
+        }
+        if (!nextOffsets.isEmpty()) {
+            rollupStore.saveOffsets(consumerGroup, nextOffsets);
+        }
+        if (applied < records.size()) {
+            log.debug("Rolled up {} of {} records ({} already counted or unreadable)",
+                    applied, records.size(), records.size() - applied);
+        }
+        return applied;
+    }
+
+    /**
+     * Ids of the batch's not yet counted order events that were not processed before, now recorded
+     */
+    private Set<String> markNewOrderEvents(String consumerGroup, List<ConsumerRecord<String, Object>> records,
+                                           Map<TopicPartition, Long> committed) {
+        List<String> eventIds = new ArrayList<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (isOrderEvent(record)
+                    && record.offset() >= committed.get(new TopicPartition(record.topic(), record.partition()))) {
+                eventIds.add(((BaseEvent) record.value()).getEventId());
+            }
+        }
+        return eventIds.isEmpty()
+                ? new HashSet<>()
+                : eventDeduplicator.markNew(consumerGroup, eventIds, KafkaTopics.getRetention(KafkaTopics.ORDER_EVENTS));
+    }
+
+    private static boolean isOrderEvent(ConsumerRecord<String, Object> record) {
+        return KafkaTopics.ORDER_EVENTS.equals(record.topic())
+                && record.value() instanceof BaseEvent event && event.getEventId() != null;
+    }
+
+    private void accumulate(Map<LocalDate, DailyTotals> days, LocalDate day, BaseEvent event) {
+        String eventType = event.getEventType();
+        if (eventType == null) {
+            return;
+        }
+        if (event instanceof AnalyticsEvent analytics) {
+            if (AnalyticsEvent.USER_REGISTERED.equals(eventType)) {
+                totals(days, day).addNewUsers(analytics.occurrences());
+            } else if (AnalyticsEvent.MERCHANT_REGISTERED.equals(eventType)) {
+                totals(days, day).addNewMerchants(analytics.occurrences());
+            }
+        } else if (event instanceof OrderEvent order) {
+            // Revenue is recognised once the order is paid
+            if (OrderEvent.ORDER_CONFIRMED.equals(eventType)) {
+                totals(days, day).addOrder(order.getTotalAmount(), order.getPlatformFee());
+            } else if (OrderEvent.ORDER_REFUNDED.equals(eventType)) {
+                totals(days, day).addRevenue(
+                        order.getTotalAmount() != null ? order.getTotalAmount().negate() : null,
+                        order.getPlatformFee() != null ? order.getPlatformFee().negate() : null);
+            }
+        } else if (event instanceof RedemptionEvent && RedemptionEvent.REDEMPTION_COMPLETED.equals(eventType)) {
+            totals(days, day).addRedemption();
+        }
+    }
+
+    /**
+     * Views, paid orders, refunds and redemptions by the voucher's merchant and category; events
+     * of unknown vouchers fall back to their own merchant id and category 0
+     */
+    private void accumulateBreakdown(Map<MerchantDayTotals.Key, MerchantDayTotals> breakdown, LocalDate day,
+                                     BaseEvent event, Map<Long, VoucherDimensions> vouchers) {
+        String eventType = event.getEventType();
+        if (eventType == null) {
+            return;
+        }
+        Long voucherId = voucherIdOf(event);
+        VoucherDimensions dimensions = voucherId != null ? vouchers.get(voucherId) : null;
+        Long merchantId = dimensions != null ? Long.valueOf(dimensions.merchantId()) : merchantIdOf(event);
+        if (merchantId == null) {
+            return;
+        }
+        MerchantDayTotals.Key key = new MerchantDayTotals.Key(day, merchantId, dimensions != null ? dimensions.categoryId() : 0);
+
+        if (event instanceof AnalyticsEvent analytics) {
+            if (AnalyticsEvent.VOUCHER_VIEWED.equals(eventType)) {
+                breakdown.computeIfAbsent(key, MerchantDayTotals::new).addViews(analytics.occurrences());
+            }
+        } else if (event instanceof OrderEvent order) {
+            if (OrderEvent.ORDER_CONFIRMED.equals(eventType)) {
+                breakdown.computeIfAbsent(key, MerchantDayTotals::new).addOrder(order.getTotalAmount(), order.getPlatformFee());
+            } else if (OrderEvent.ORDER_REFUNDED.equals(eventType)) {
+                breakdown.computeIfAbsent(key, MerchantDayTotals::new).addRevenue(
+                        order.getTotalAmount() != null ? order.getTotalAmount().negate() : null,
+                        order.getPlatformFee() != null ? order.getPlatformFee().negate() : null);
+            }
+        } else if (event instanceof RedemptionEvent && RedemptionEvent.REDEMPTION_COMPLETED.equals(eventType)) {
+            breakdown.computeIfAbsent(key, MerchantDayTotals::new).addRedemption();
+        }
+    }
+
+    private static Long voucherIdOf(Object value) {
+        if (value instanceof AnalyticsEvent analytics) {
+            return analytics.getVoucherId();
+        } else if (value instanceof OrderEvent order) {
+            return order.getVoucherId();
+        } else if (value instanceof RedemptionEvent redemption) {
+            return redemption.getVoucherId();
+        }
+        return null;
+    }
+
+    private static Long merchantIdOf(BaseEvent event) {
+        if (event instanceof AnalyticsEvent analytics) {
+            return analytics.getMerchantId();
+        } else if (event instanceof OrderEvent order) {
+            return order.getMerchantId();
+        } else if (event instanceof RedemptionEvent redemption) {
+            return redemption.getMerchantId();
+        }
+        return null;
+    }
+
+    private static DailyTotals totals(Map<LocalDate, DailyTotals> days, LocalDate day) {
+        return days.computeIfAbsent(day, DailyTotals::new);
+    }
+
+    /**
+     * When the event happened, falling back to the record's broker timestamp
+     */
+    private static LocalDateTime timeOf(ConsumerRecord<String, Object> record, BaseEvent event) {
+        if (event.getTimestamp() != null) {
+            return event.getTimestamp();
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,219 @@
+package com.kado24.analytics.service;
+
+import com.kado24.analytics.columnar.ColumnarMetricStore;
+import com.kado24.analytics.columnar.Dimension;
+import com.kado24.analytics.columnar.Metric;
+import com.kado24.analytics.dto.MetricQueryDTO;
+import com.kado24.analytics.dto.MetricValuesDTO;
+import com.kado24.analytics.repository.MerchantMetricStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range sums, group-bys and top-N over the day × merchant × category rollup.
+ *
+ * The last {@code hot-days} days live in a {@link ColumnarMetricStore}, loaded at startup and
+ * kept current by reloading every day whose rows changed since the previous refresh, which
+ * covers the streaming rollup and backfills on every instance. The part of a range before the
+ * hot window is aggregated by Postgres and merged in, so old ranges stay correct, only slower.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MetricQueryService {
+
+    /**
+     * A rollup transaction stamps rows with its start time, so it can commit after a refresh
+     * already looked past that time; changes are looked up again for this long
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final MerchantMetricStore merchantMetricStore;
+    private final ColumnarMetricStore columns = new ColumnarMetricStore();
+    private final Map<Long, Long> merchantByUser = new ConcurrentHashMap<>();
+
+    @Value("${analytics.query.hot-days:120}")
+    private int hotDays;
+
+    private volatile LocalDateTime watermark;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        try {
+            long started = System.nanoTime();
+            LocalDate today = LocalDate.now();
+            LocalDate hotFrom = today.minusDays(hotDays - 1L);
+            watermark = LocalDateTime.now();
+            for (LocalDate day = hotFrom; !day.isAfter(today); day = day.plusDays(1)) {
+                loadDay(day);
+            }
+            columns.setCoveredFrom(hotFrom);
+            log.info("Loaded {} days ({} rows) of merchant metrics into memory in {} ms",
+                    hotDays, columns.rowCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            watermark = null;
+            log.warn("Could not load merchant metrics into memory, queries use Postgres: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.query.refresh-ms:5000}")
+    public synchronized void refresh() {
+        if (columns.getCoveredFrom() == null) {
+            if (watermark == null) {
+                load();
+            }
+            return;
+        }
+        try {
+            LocalDate hotFrom = LocalDate.now().minusDays(hotDays - 1L);
+            if (hotFrom.isAfter(columns.getCoveredFrom())) {
+                columns.setCoveredFrom(hotFrom);
+            }
+            LocalDateTime next = LocalDateTime.now();
+            for (LocalDate day : merchantMetricStore.findChangedDays(hotFrom, watermark.minus(REFRESH_OVERLAP))) {
+                loadDay(day);
+            }
+            watermark = next;
+        } catch (Exception e) {
+            log.warn("Failed to refresh in-memory merchant metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sums over [from, to] per {@code groupBy} (one row when null), optionally for one merchant
+     * and/or category; rows are ordered by their group key
+     */
+    public MetricQueryDTO query(LocalDate from, LocalDate to, Dimension groupBy, Long merchantId, Long categoryId) {
+        long started = System.nanoTime();
+        Aggregate aggregate = aggregate(from, to, groupBy, merchantId, categoryId);
+        List<MetricValuesDTO> rows = new ArrayList<>();
+        if (groupBy == null) {
+            rows.add(toRow(null, 0, aggregate.groups().getOrDefault(0L, new double[Metric.COUNT])));
+        } else {
+            aggregate.groups().entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(group -> rows.add(toRow(groupBy, group.getKey(), group.getValue())));
+        }
+        return result(from, to, groupBy, null, merchantId, categoryId, aggregate.source(), started, rows);
+    }
+
+    /**
+     * The {@code limit} merchants or categories with the highest {@code metric} over [from, to]
+     */
+    public MetricQueryDTO top(LocalDate from, LocalDate to, Dimension groupBy, Metric metric, int limit,
+                              Long merchantId, Long categoryId) {
+        long started = System.nanoTime();
+        Aggregate aggregate = aggregate(from, to, groupBy, merchantId, categoryId);
+        int index = metric.ordinal();
+        PriorityQueue<Map.Entry<Long, double[]>> best = new PriorityQueue<>(
+                Comparator.comparingDouble(group -> group.getValue()[index]));
+        for (Map.Entry<Long, double[]> group : aggregate.groups().entrySet()) {
+            best.offer(group);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<MetricValuesDTO> rows = new ArrayList<>();
+        best.stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<Long, double[]> group) -> group.getValue()[index]).reversed())
+                .forEach(group -> rows.add(toRow(groupBy, group.getKey(), group.getValue())));
+        return result(from, to, groupBy, metric, merchantId, categoryId, aggregate.source(), started, rows);
+    }
+
+    /**
+     * Merchant owned by a user account, or null
+     */
+    public Long merchantIdOfUser(long userId) {
+        Long merchantId = merchantByUser.get(userId);
+        if (merchantId == null) {
+            merchantId = merchantMetricStore.findMerchantIdByUserId(userId);
+            if (merchantId != null) {
+                merchantByUser.put(userId, merchantId);
+            }
+        }
+        return merchantId;
+    }
+
+    private Aggregate aggregate(LocalDate from, LocalDate to, Dimension groupBy, Long merchantId, Long categoryId) {
+        LocalDate coveredFrom = columns.getCoveredFrom();
+        if (coveredFrom == null || to.isBefore(coveredFrom)) {
+            return new Aggregate(merchantMetricStore.aggregate(from, to, groupBy, merchantId, categoryId), "DATABASE");
+        }
+        if (!from.isBefore(coveredFrom)) {
+            return new Aggregate(columns.aggregate(from, to, groupBy, merchantId, categoryId), "MEMORY");
+        }
+
+        Map<Long, double[]> groups = new LinkedHashMap<>(
+                merchantMetricStore.aggregate(from, coveredFrom.minusDays(1), groupBy, merchantId, categoryId));
+        columns.aggregate(coveredFrom, to, groupBy, merchantId, categoryId).forEach((key, values) -> groups.merge(key, values, (a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        }));
+        return new Aggregate(groups, "MEMORY+DATABASE");
+    }
+
+    private void loadDay(LocalDate day) {
+        ColumnarMetricStore.DayLoader loader = columns.load(day);
+        merchantMetricStore.streamDay(day, rs -> {
+            loader.add(rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5),
+                    rs.getDouble(6), rs.getDouble(7), rs.getLong(8));
+        });
+        loader.publish();
+    }
+
+    private static MetricValuesDTO toRow(Dimension groupBy, long key, double[] values) {
+        return MetricValuesDTO.builder()
+                .date(groupBy == Dimension.DAY ? LocalDate.ofEpochDay(key) : null)
+                .merchantId(groupBy == Dimension.MERCHANT ? key : null)
+                .categoryId(groupBy == Dimension.CATEGORY ? key : null)
+                .views(Math.round(values[Metric.VIEWS.ordinal()]))
+                .orders(Math.round(values[Metric.ORDERS.ordinal()]))
+                .revenue(money(values[Metric.REVENUE.ordinal()]))
+                .commission(money(values[Metric.COMMISSION.ordinal()]))
+                .redemptions(Math.round(values[Metric.REDEMPTIONS.ordinal()]))
+                .build();
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static MetricQueryDTO result(LocalDate from, LocalDate to, Dimension groupBy, Metric rankedBy, Long merchantId,
+                                         Long categoryId, String source, long startedNanos, List<MetricValuesDTO> rows) {
+        return MetricQueryDTO.builder()
+                .from(from)
+                .to(to)
+                .groupBy(groupBy)
+                .rankedBy(rankedBy)
+                .merchantId(merchantId)
+                .categoryId(categoryId)
+                .source(source)
+                .tookMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedNanos))
+                .rows(rows)
+                .build();
+    }
+
+    private record Aggregate(Map<Long, double[]> groups, String source) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.kado24.analytics.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Merchant and category of vouchers, for attributing events to the day × merchant × category
+ * rollup. Views carry only the voucher id and redemptions no category, so ids are looked up in
+ * voucher_schema.vouchers, all misses of a batch in one query, and cached for up to an hour; a
+ * voucher moved to another category is attributed to the old one until then.
+ */
+@Component
+@RequiredArgsConstructor
+public class VoucherDimensionResolver {
+
+    private static final int MAX_CACHED = 200_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, VoucherDimensions> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Dimensions of the known vouchers among {@code voucherIds}
+     */
+    public Map<Long, VoucherDimensions> resolve(Collection<Long> voucherIds) {
+        Map<Long, VoucherDimensions> resolved = new HashMap<>();
+        List<Long> missing = voucherIds.stream().filter(id -> {
+            VoucherDimensions dimensions = cache.get(id);
+            if (dimensions != null) {
+                resolved.put(id, dimensions);
+            }
+            return dimensions == null;
+        }).distinct().toList();
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+        if (cache.size() + missing.size() > MAX_CACHED) {
+            cache.clear();
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, merchant_id, COALESCE(category_id, 0) FROM voucher_schema.vouchers WHERE id = ANY(?)");
+            statement.setArray(1, connection.createArrayOf("bigint", missing.toArray()));
+            return statement;
+        }, rs -> {
+            VoucherDimensions dimensions = new VoucherDimensions(rs.getLong(2), rs.getLong(3));
+            cache.put(rs.getLong(1), dimensions);
+            resolved.put(rs.getLong(1), dimensions);
+        });
+        return resolved;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.dimensions.cache-ttl-ms:3600000}",
+            initialDelayString = "${analytics.dimensions.cache-ttl-ms:3600000}")
+    public void clear() {
+        cache.clear();
+    }
+
+    public record VoucherDimensions(long merchantId, long categoryId) {
+    }
+}
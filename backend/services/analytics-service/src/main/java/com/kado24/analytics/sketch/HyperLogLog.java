@@ -0,0 +1,197 @@
+package com.kado24.analytics.sketch;
+
+import com.kado24.common.util.HashUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Mergeable distinct-count sketch (HyperLogLog) over long ids.
+ *
+ * With precision p there are m = 2^p registers and the relative standard error of
+ * {@link #estimate()} is 1.04 / sqrt(m): 0.81% at the default p = 14, so about 98% of
+ * estimates fall within 1.6% of the true count; small cardinalities are close to exact. A union
+ * ({@link #merge}) is the register-wise max and is exactly the sketch of the combined id sets,
+ * so weekly or monthly uniques are built from daily sketches without rescanning events, and
+ * adding an id twice changes nothing.
+ *
+ * Serialized form: a header byte (format, precision), then either sparse (index, value) pairs
+ * for mostly empty sketches or all registers packed in 6 bits each (12 KiB at p = 14).
+ * Not thread-safe.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final int SPARSE = 0;
+    private static final int DENSE = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public static double relativeStandardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public void add(long id) {
+        long hash = HashUtil.fmix64(id);
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Ertl's improved estimator ("New cardinality estimation algorithms for HyperLogLog
+     * sketches", 2017): unbiased from empty to full without the bias-correction tables or the
+     * linear-counting switch-over of the original algorithm
+     */
+    public long estimate() {
+        int m = registers.length;
+        int q = 64 - precision;
+        int[] histogram = new int[q + 2];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+        double z = m * tau(1 - (double) histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += m * sigma((double) histogram[0] / m);
+        return Math.round(m / (2 * Math.log(2)) * m / z);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public byte[] toBytes() {
+        int used = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                used++;
+            }
+        }
+        int denseSize = (registers.length * 6 + 7) / 8;
+        if (used * 3 < denseSize) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + used * 3);
+            buffer.put(header(SPARSE));
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i);
+                    buffer.put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+
+        byte[] bytes = new byte[1 + denseSize];
+        bytes[0] = header(DENSE);
+        long bitPosition = 0;
+        for (byte register : registers) {
+            for (int bit = 5; bit >= 0; bit--, bitPosition++) {
+                if ((register >>> bit & 1) != 0) {
+                    bytes[1 + (int) (bitPosition >>> 3)] |= (byte) (0x80 >>> (bitPosition & 7));
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Read a serialized sketch; null or empty input is an empty sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new HyperLogLog();
+        }
+        int format = (bytes[0] & 0xFF) >>> 5;
+        HyperLogLog sketch = new HyperLogLog(bytes[0] & 0x1F);
+        if (format == SPARSE) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            while (buffer.remaining() >= 3) {
+                sketch.registers[buffer.getShort() & 0xFFFF] = buffer.get();
+            }
+        } else if (format == DENSE) {
+            long bitPosition = 0;
+            for (int i = 0; i < sketch.registers.length; i++) {
+                int register = 0;
+                for (int bit = 0; bit < 6; bit++, bitPosition++) {
+                    register = register << 1 | (bytes[1 + (int) (bitPosition >>> 3)] >>> (7 - (bitPosition & 7)) & 1);
+                }
+                sketch.registers[i] = (byte) register;
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown sketch format " + format);
+        }
+        return sketch;
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+
+    private byte header(int format) {
+        return (byte) (format << 5 | precision);
+    }
+}
@@ -0,0 +1,35 @@
+package com.kado24.analytics.sketch;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Identifies one stored sketch: which ids it counts, for which merchant
+ * ({@link #PLATFORM} for all), over which hour or day
+ */
+public record SketchKey(Subject subject, long merchantId, Granularity granularity, LocalDateTime bucketStart) {
+
+    public static final long PLATFORM = 0;
+
+    public enum Subject {
+        /**
+         * Distinct users with any activity
+         */
+        USER,
+        /**
+         * Distinct merchants with an order, redemption or tracked interaction
+         */
+        MERCHANT
+    }
+
+    public enum Granularity {
+        HOUR,
+        DAY;
+
+        public LocalDateTime bucketOf(LocalDateTime time) {
+            return this == HOUR
+                    ? time.truncatedTo(ChronoUnit.HOURS)
+                    : time.toLocalDate().atStartOfDay();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.kado24.analytics.sketch;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Accuracy and size check for {@link HyperLogLog}.
+ *
+ * For each cardinality, builds sketches over random id sets and reports the mean and worst
+ * relative error against the documented standard error, the serialized size, and the error of
+ * a 30-day union of daily sketches with overlapping users (as MAU is computed).
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass="com.kado24.analytics.sketch.HyperLogLogBenchmark"
+ *      [-Dexec.args="trials"]
+ */
+public class HyperLogLogBenchmark {
+
+    public static void main(String[] args) {
+        int trials = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        Random random = new Random(42);
+
+        System.out.println("========================================");
+        System.out.println("HyperLogLog accuracy (p=" + HyperLogLog.DEFAULT_PRECISION + ", documented RSE "
+                + String.format("%.2f%%", HyperLogLog.relativeStandardError(HyperLogLog.DEFAULT_PRECISION) * 100) + ")");
+        System.out.println("Trials per cardinality: " + trials);
+        System.out.println("========================================");
+
+        for (int cardinality : new int[]{10, 1_000, 10_000, 50_000, 100_000, 1_000_000}) {
+            double sumSquares = 0;
+            double worst = 0;
+            int bytes = 0;
+            for (int t = 0; t < trials; t++) {
+                HyperLogLog sketch = new HyperLogLog();
+                long base = random.nextLong();
+                for (int i = 0; i < cardinality; i++) {
+                    sketch.add(base + i);
+                }
+                HyperLogLog copy = HyperLogLog.fromBytes(sketch.toBytes());
+                double error = (copy.estimate() - cardinality) / (double) cardinality;
+                sumSquares += error * error;
+                worst = Math.max(worst, Math.abs(error));
+                bytes = sketch.toBytes().length;
+            }
+            System.out.printf("  n=%,10d  RMS error %6.3f%%  worst %6.3f%%  serialized %,6d bytes%n",
+                    cardinality, Math.sqrt(sumSquares / trials) * 100, worst * 100, bytes);
+        }
+
+        // 30 daily sketches, 20k users a day drawn from a pool of 200k
+        HyperLogLog month = new HyperLogLog();
+        Set<Long> exact = new HashSet<>();
+        for (int day = 0; day < 30; day++) {
+            HyperLogLog daily = HyperLogLog.fromBytes(new HyperLogLog().toBytes());
+            for (int i = 0; i < 20_000; i++) {
+                long user = random.nextInt(200_000);
+                daily.add(user);
+                exact.add(user);
+            }
+            month.merge(HyperLogLog.fromBytes(daily.toBytes()));
+        }
+        System.out.printf("  30-day union: estimate %,d, exact %,d, error %.3f%%%n",
+                month.estimate(), exact.size(), (month.estimate() - exact.size()) * 100.0 / exact.size());
+    }
+}
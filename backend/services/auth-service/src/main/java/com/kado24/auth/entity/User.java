@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
         @Index(name = "idx_users_phone", columnList = "phoneNumber"),
         @Index(name = "idx_users_email", columnList = "email"),
         @Index(name = "idx_users_role", columnList = "role"),
-        @Index(name = "idx_users_status", columnList = "status")
+        @Index(name = "idx_users_status", columnList = "status"),
+        @Index(name = "idx_users_created_at", columnList = "createdAt")
 })
 @Data
 @Builder
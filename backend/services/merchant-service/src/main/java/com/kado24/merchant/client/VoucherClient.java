@@ -0,0 +1,55 @@
+package com.kado24.merchant.client;
+
+import com.kado24.merchant.service.MerchantChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestTemplate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VoucherClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${services.voucher.base-url:http://localhost:8083}")
+    private String voucherBaseUrl;
+
+    @Value("${services.voucher.internal-path:/api/v1/vouchers/internal}")
+    private String internalPath;
+
+    @Value("${services.voucher.internal-secret:kado24-internal-secret}")
+    private String internalSecret;
+
+    /**
+     * Evict once the merchant change has committed, so voucher-service cannot reload the old row
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMerchantChanged(MerchantChangedEvent event) {
+        evictMerchant(event.merchantId());
+    }
+
+    /**
+     * Tell voucher-service to drop its cached merchant name; the instance that receives the call
+     * relays it to the others. Best effort: the cache entry also expires on its own, so a failure
+     * only delays the update.
+     */
+    public void evictMerchant(Long merchantId) {
+        String url = voucherBaseUrl + internalPath + "/merchants/" + merchantId + "/evict";
+        HttpHeaders headers = new HttpHeaders();
+        if (internalSecret != null && !internalSecret.isBlank()) {
+            headers.set("X-Internal-Secret", internalSecret);
+        }
+        try {
+            restTemplate.postForEntity(url, new HttpEntity<>(headers), Void.class);
+            log.debug("Evicted voucher-service merchant cache for merchant {}", merchantId);
+        } catch (Exception ex) {
+            log.warn("Failed to evict voucher-service merchant cache for merchant {}: {}", merchantId, ex.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.kado24.merchant.controller;
 
 import com.kado24.common.dto.ApiResponse;
+import com.kado24.common.exception.ValidationException;
 import com.kado24.merchant.dto.MerchantDTO;
 import com.kado24.merchant.service.MerchantService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +14,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/merchants/internal")
@@ -22,6 +26,8 @@ public class MerchantInternalController {
 
     private final MerchantService merchantService;
 
+    private static final int MAX_BULK_IDS = 500;
+
     @Value("${internal.api.secret:kado24-internal-secret}")
     private String internalSecret;
 
@@ -40,6 +46,22 @@ public class MerchantInternalController {
         return ResponseEntity.ok(ApiResponse.success(merchant));
     }
 
+    @Operation(summary = "Get merchant names (internal)", description = "Bulk lookup: merchant ids in, id to business name out")
+    @PostMapping("/names")
+    public ResponseEntity<ApiResponse<Map<Long, String>>> getMerchantNamesInternal(
+            @RequestHeader(value = "X-Internal-Secret", required = false) String providedSecret,
+            @RequestBody List<Long> merchantIds) {
+
+        log.debug("Internal request to fetch names of {} merchants", merchantIds.size());
+
+        validateSecret(providedSecret);
+        if (merchantIds.size() > MAX_BULK_IDS) {
+            throw new ValidationException("At most " + MAX_BULK_IDS + " merchant ids per request");
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(merchantService.getMerchantNames(merchantIds)));
+    }
+
     private void validateSecret(String providedSecret) {
         if (internalSecret == null || internalSecret.isBlank()) {
             log.warn("Internal API secret is not configured; allowing request");
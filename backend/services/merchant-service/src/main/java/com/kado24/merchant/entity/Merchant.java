@@ -17,7 +17,9 @@ import java.time.LocalDateTime;
  * Merchant entity
  */
 @Entity
-@Table(name = "merchants", schema = "merchant_schema")
+@Table(name = "merchants", schema = "merchant_schema", indexes = {
+        @Index(name = "idx_merchants_created_at", columnList = "createdAt")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -5,8 +5,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,6 +23,12 @@ public interface MerchantRepository extends JpaRepository<Merchant, Long> {
      */
     Optional<Merchant> findByUserId(Long userId);
 
+    /**
+     * (id, businessName) pairs for bulk name lookups
+     */
+    @Query("SELECT m.id, m.businessName FROM Merchant m WHERE m.id IN :ids")
+    List<Object[]> findBusinessNamesByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Check if merchant exists for user
      */
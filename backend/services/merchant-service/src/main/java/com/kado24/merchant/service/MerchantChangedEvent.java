@@ -0,0 +1,9 @@
+package com.kado24.merchant.service;
+
+/**
+ * Published by MerchantService when a merchant's status changes in a way voucher-service caches.
+ *
+ * @param merchantId changed merchant
+ */
+public record MerchantChangedEvent(Long merchantId) {
+}
@@ -16,11 +16,13 @@ import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,6 +38,7 @@ public class MerchantService {
     private final MerchantMapper merchantMapper;
     private final EventPublisher eventPublisher;
     private final PayoutClient payoutClient;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -94,6 +97,18 @@ public class MerchantService {
         return merchantMapper.toDTO(merchant);
     }
 
+    /**
+     * Business names of the given merchants; unknown ids are left out
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> getMerchantNames(Collection<Long> merchantIds) {
+        Map<Long, String> names = new HashMap<>();
+        for (Object[] row : merchantRepository.findBusinessNamesByIdIn(merchantIds)) {
+            names.put((Long) row[0], (String) row[1]);
+        }
+        return names;
+    }
+
     /**
      * Get merchant by user ID
      */
@@ -152,6 +167,8 @@ public class MerchantService {
             // Don't fail the approval if user status update fails, but log the error
         }
 
+        applicationEventPublisher.publishEvent(new MerchantChangedEvent(merchantId));
+
         // Send approval notification
         publishMerchantApprovedNotification(merchant);
 
@@ -173,6 +190,8 @@ public class MerchantService {
         merchant.reject(adminId, reason);
         merchant = merchantRepository.save(merchant);
 
+        applicationEventPublisher.publishEvent(new MerchantChangedEvent(merchantId));
+
         // Send rejection notification
         publishMerchantRejectedNotification(merchant, reason);
 
@@ -205,6 +224,7 @@ public class MerchantService {
         } catch (Exception ex) {
             log.warn("Failed to notify payout service about merchant suspension: {}", ex.getMessage());
         }
+        applicationEventPublisher.publishEvent(new MerchantChangedEvent(merchantId));
 
         log.info("Merchant suspended: {}", merchantId);
 
@@ -1,88 +1,58 @@
 package com.kado24.notification.consumer;
 
+import com.kado24.kafka.config.KafkaBatchConsumerConfig;
+import com.kado24.kafka.constants.KafkaTopics;
 import com.kado24.kafka.event.NotificationEvent;
+import com.kado24.kafka.retry.RetryTopicProcessor;
+import com.kado24.notification.service.NotificationDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationEventConsumer {
 
-    @KafkaListener(topics = "notification-events", groupId = "notification-service-group")
-    public void consumeNotificationEvent(NotificationEvent event) {
-        log.info("Received notification event for user: {}", event.getUserId());
-        
-        try {
-            // Send via requested channels
-            if (event.getChannels().contains("PUSH")) {
-                sendPushNotification(event);
-            }
-            if (event.getChannels().contains("EMAIL")) {
-                sendEmailNotification(event);
-            }
-            if (event.getChannels().contains("SMS")) {
-                sendSMSNotification(event);
-            }
-            
-            log.info("Notification sent successfully: {}", event.getNotificationType());
-        } catch (Exception e) {
-            log.error("Failed to send notification", e);
-        }
+    private static final String GROUP_ID = "notification-service-group";
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final RetryTopicProcessor retryTopicProcessor;
+
+    /**
+     * Handles a whole poll at once: one DB transaction for the batch, then one offset commit.
+     * Records that keep failing move on to the retry tiers instead of blocking the partition.
+     */
+    @KafkaListener(topics = KafkaTopics.NOTIFICATION_EVENTS, groupId = GROUP_ID,
+            containerFactory = KafkaBatchConsumerConfig.BATCH_LISTENER_FACTORY)
+    public void consumeNotificationEvents(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        log.info("Received {} notification events", records.size());
+        retryTopicProcessor.process(records, acknowledgment, NotificationEvent.class, notificationDispatcher::dispatch);
     }
 
-    private void sendPushNotification(NotificationEvent event) {
-        // TODO: Firebase FCM integration
-        log.info("PUSH notification sent to user {}: {}", event.getUserId(), event.getTitle());
+    /**
+     * One listener per retry tier: a tier waiting out its delay must not hold back the others
+     */
+    @KafkaListener(topics = KafkaTopics.NOTIFICATION_EVENTS + KafkaTopics.RETRY_1S_SUFFIX, groupId = GROUP_ID,
+            containerFactory = KafkaBatchConsumerConfig.BATCH_LISTENER_FACTORY, concurrency = "1")
+    public void retryAfter1s(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        retryTopicProcessor.process(records, acknowledgment, NotificationEvent.class, notificationDispatcher::dispatch);
     }
 
-    private void sendEmailNotification(NotificationEvent event) {
-        // TODO: SendGrid or SMTP integration
-        log.info("EMAIL notification sent to user {}: {}", event.getUserId(), event.getTitle());
+    @KafkaListener(topics = KafkaTopics.NOTIFICATION_EVENTS + KafkaTopics.RETRY_10S_SUFFIX, groupId = GROUP_ID,
+            containerFactory = KafkaBatchConsumerConfig.BATCH_LISTENER_FACTORY, concurrency = "1")
+    public void retryAfter10s(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        retryTopicProcessor.process(records, acknowledgment, NotificationEvent.class, notificationDispatcher::dispatch);
     }
 
-    private void sendSMSNotification(NotificationEvent event) {
-        // TODO: SMS gateway integration
-        log.info("SMS notification sent to user {}: {}", event.getUserId(), event.getMessage());
+    @KafkaListener(topics = KafkaTopics.NOTIFICATION_EVENTS + KafkaTopics.RETRY_60S_SUFFIX, groupId = GROUP_ID,
+            containerFactory = KafkaBatchConsumerConfig.BATCH_LISTENER_FACTORY, concurrency = "1")
+    public void retryAfter60s(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        retryTopicProcessor.process(records, acknowledgment, NotificationEvent.class, notificationDispatcher::dispatch);
     }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
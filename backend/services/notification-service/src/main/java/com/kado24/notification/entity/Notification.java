@@ -17,8 +17,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Notification {
 
+    /**
+     * Pooled sequence ids so a consumed batch is inserted with JDBC batching
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_id_seq")
+    @SequenceGenerator(name = "notifications_id_seq", schema = "notification_schema",
+            sequenceName = "notifications_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
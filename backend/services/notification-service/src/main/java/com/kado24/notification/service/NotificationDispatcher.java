@@ -0,0 +1,92 @@
+package com.kado24.notification.service;
+
+import com.kado24.kafka.constants.KafkaTopics;
+import com.kado24.kafka.dedupe.IdempotentEvents;
+import com.kado24.kafka.event.NotificationEvent;
+import com.kado24.notification.entity.Notification;
+import com.kado24.notification.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends notification events over their channels and records one Notification row per delivery
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private static final List<String> SUPPORTED_CHANNELS = List.of("PUSH", "EMAIL", "SMS");
+
+    private final NotificationRepository notificationRepository;
+
+    /**
+     * Dispatch a batch of events and persist all delivery records in one transaction (JDBC batched).
+     * Events redelivered after a rebalance or retry are dropped before anything is sent.
+     */
+    @Transactional
+    @IdempotentEvents(topic = KafkaTopics.NOTIFICATION_EVENTS)
+    public void dispatch(List<NotificationEvent> events) {
+        List<Notification> notifications = new ArrayList<>();
+        for (NotificationEvent event : events) {
+            if (event.getUserId() == null || event.getChannels() == null) {
+                log.warn("Skipping notification event {} without user or channels", event.getEventId());
+                continue;
+            }
+            for (String channel : event.getChannels()) {
+                if (SUPPORTED_CHANNELS.contains(channel)) {
+                    notifications.add(send(event, channel));
+                }
+            }
+        }
+        notificationRepository.saveAll(notifications);
+        log.info("Dispatched {} notifications for {} events", notifications.size(), events.size());
+    }
+
+    private Notification send(NotificationEvent event, String channel) {
+        Notification notification = Notification.builder()
+                .userId(event.getUserId())
+                .notificationType(event.getNotificationType() != null ? event.getNotificationType() : event.getEventType())
+                .channel(channel)
+                .recipient(String.valueOf(event.getUserId()))
+                .subject(event.getTitle())
+                .content(event.getMessage() != null ? event.getMessage() : "")
+                .build();
+        try {
+            switch (channel) {
+                case "PUSH" -> sendPushNotification(event);
+                case "EMAIL" -> sendEmailNotification(event);
+                case "SMS" -> sendSMSNotification(event);
+                default -> throw new IllegalArgumentException("Unsupported channel " + channel);
+            }
+            notification.setStatus("SENT");
+            notification.setSentAt(LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("Failed to send {} notification to user {}", channel, event.getUserId(), e);
+            notification.setStatus("FAILED");
+            notification.setFailureReason(e.getMessage());
+        }
+        return notification;
+    }
+
+    private void sendPushNotification(NotificationEvent event) {
+        // TODO: Firebase FCM integration
+        log.info("PUSH notification sent to user {}: {}", event.getUserId(), event.getTitle());
+    }
+
+    private void sendEmailNotification(NotificationEvent event) {
+        // TODO: SendGrid or SMTP integration
+        log.info("EMAIL notification sent to user {}: {}", event.getUserId(), event.getTitle());
+    }
+
+    private void sendSMSNotification(NotificationEvent event) {
+        // TODO: SMS gateway integration
+        log.info("SMS notification sent to user {}: {}", event.getUserId(), event.getMessage());
+    }
+}
@@ -1,6 +1,7 @@
 package com.kado24.order.controller;
 
 import com.kado24.common.dto.ApiResponse;
+import com.kado24.common.dto.PageCursor;
 import com.kado24.common.dto.PageRequest;
 import com.kado24.common.dto.PaginationMeta;
 import com.kado24.order.dto.CreateOrderRequest;
@@ -14,6 +15,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -60,7 +62,7 @@ public class OrderController {
 
     @Operation(summary = "Get my orders", description = "Get current user's orders")
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<OrderDTO>>> getMyOrders(
+    public ResponseEntity<ApiResponse<Slice<OrderDTO>>> getMyOrders(
             HttpServletRequest request,
             @ModelAttribute PageRequest pageRequest) {
 
@@ -68,13 +70,10 @@ public class OrderController {
 
         log.info("Fetching orders for user: {}", userId);
 
-        Page<OrderDTO> orders = orderService.getUserOrders(userId, pageRequest.toSpringPageRequest());
+        Slice<OrderDTO> orders = orderService.getUserOrders(userId, pageRequest);
 
-        PaginationMeta pagination = PaginationMeta.from(
-                orders.getNumber(),
-                orders.getSize(),
-                orders.getTotalElements()
-        );
+        PaginationMeta pagination = PaginationMeta.of(pageRequest, orders,
+                order -> PageCursor.of(order.getCreatedAt(), order.getId()));
 
         return ResponseEntity.ok(ApiResponse.paginated(orders, pagination));
     }
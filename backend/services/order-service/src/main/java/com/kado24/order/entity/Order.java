@@ -17,7 +17,11 @@ import java.time.LocalDateTime;
  * Order entity
  */
 @Entity
-@Table(name = "orders", schema = "order_schema")
+@Table(name = "orders", schema = "order_schema", indexes = {
+        @Index(name = "idx_orders_user_created", columnList = "userId, createdAt, id"),
+        @Index(name = "idx_orders_paid_at", columnList = "paidAt"),
+        @Index(name = "idx_orders_payment_status_updated", columnList = "paymentStatus, updatedAt")
+})
 @Data
 @Builder
 @NoArgsConstructor
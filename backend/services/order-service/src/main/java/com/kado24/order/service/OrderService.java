@@ -1,6 +1,8 @@
 package com.kado24.order.service;
 
 import com.kado24.common.constants.AppConstants;
+import com.kado24.common.dto.PageCursor;
+import com.kado24.common.dto.PageRequest;
 import com.kado24.common.exception.BusinessException;
 import com.kado24.common.exception.ResourceNotFoundException;
 import com.kado24.common.util.StringUtil;
@@ -15,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -133,12 +136,22 @@ public class OrderService {
     }
 
     /**
-     * Get user's orders
+     * Get user's orders (offset, offset without count, or keyset)
      */
-    public Page<OrderDTO> getUserOrders(Long userId, Pageable pageable) {
+    public Slice<OrderDTO> getUserOrders(Long userId, PageRequest pageRequest) {
         log.debug("Fetching orders for user: {}", userId);
 
-        Page<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        Slice<Order> orders;
+        if (pageRequest.isKeyset()) {
+            PageCursor after = pageRequest.decodeCursor();
+            orders = after == null
+                    ? orderRepository.findSliceByUserIdOrderByCreatedAtDescIdDesc(userId, pageRequest.toKeysetPageRequest())
+                    : orderRepository.findByUserIdBefore(userId, after.getSortValue(), after.getId(), pageRequest.toKeysetPageRequest());
+        } else if (pageRequest.isSkipCount()) {
+            orders = orderRepository.findSliceByUserIdOrderByCreatedAtDescIdDesc(userId, pageRequest.toSpringPageRequest());
+        } else {
+            orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageRequest.toSpringPageRequest());
+        }
 
         return orders.map(orderMapper::toDTO);
     }
@@ -270,6 +283,15 @@ public class OrderService {
                     order.getOrderNumber(),
                     order.getPaymentMethod()
             );
+            // Amounts let analytics roll up revenue without reading the order tables
+            event.setUserId(order.getUserId());
+            event.setVoucherId(order.getVoucherId());
+            event.setMerchantId(order.getMerchantId());
+            event.setQuantity(order.getQuantity());
+            event.setTotalAmount(order.getTotalAmount());
+            event.setPlatformFee(order.getPlatformFee());
+            event.setMerchantAmount(order.getMerchantAmount());
+            event.setPaidAt(order.getPaidAt());
             eventPublisher.publishOrderEvent(event);
         } catch (Exception e) {
             log.error("Failed to publish order confirmed event", e);
@@ -1,6 +1,7 @@
 package com.kado24.redemption.controller;
 
 import com.kado24.common.dto.ApiResponse;
+import com.kado24.common.dto.PageCursor;
 import com.kado24.common.dto.PageRequest;
 import com.kado24.common.dto.PaginationMeta;
 import com.kado24.redemption.dto.RedeemVoucherRequest;
@@ -9,7 +10,7 @@ import com.kado24.redemption.service.RedemptionService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -33,38 +34,32 @@ public class RedemptionController {
     }
 
     @GetMapping("/my-redemptions")
-    public ResponseEntity<ApiResponse<Page<RedemptionDTO>>> getMyRedemptions(
+    public ResponseEntity<ApiResponse<Slice<RedemptionDTO>>> getMyRedemptions(
             HttpServletRequest request,
             @ModelAttribute PageRequest pageRequest) {
 
         Long userId = (Long) request.getAttribute("userId");
         
-        Page<RedemptionDTO> redemptions = redemptionService.getMyRedemptions(userId, pageRequest.toSpringPageRequest());
+        Slice<RedemptionDTO> redemptions = redemptionService.getMyRedemptions(userId, pageRequest);
         
-        PaginationMeta pagination = PaginationMeta.from(
-                redemptions.getNumber(),
-                redemptions.getSize(),
-                redemptions.getTotalElements()
-        );
+        PaginationMeta pagination = PaginationMeta.of(pageRequest, redemptions,
+                redemption -> PageCursor.of(redemption.getRedeemedAt(), redemption.getId()));
         
         return ResponseEntity.ok(ApiResponse.paginated(redemptions, pagination));
     }
 
     @GetMapping("/merchant/{merchantId}")
-    public ResponseEntity<ApiResponse<Page<RedemptionDTO>>> getMerchantRedemptions(
+    public ResponseEntity<ApiResponse<Slice<RedemptionDTO>>> getMerchantRedemptions(
             HttpServletRequest request,
             @PathVariable Long merchantId,
             @ModelAttribute PageRequest pageRequest) {
 
         Long currentUserId = (Long) request.getAttribute("userId");
         
-        Page<RedemptionDTO> redemptions = redemptionService.getMerchantRedemptions(merchantId, currentUserId, pageRequest.toSpringPageRequest());
+        Slice<RedemptionDTO> redemptions = redemptionService.getMerchantRedemptions(merchantId, currentUserId, pageRequest);
         
-        PaginationMeta pagination = PaginationMeta.from(
-                redemptions.getNumber(),
-                redemptions.getSize(),
-                redemptions.getTotalElements()
-        );
+        PaginationMeta pagination = PaginationMeta.of(pageRequest, redemptions,
+                redemption -> PageCursor.of(redemption.getRedeemedAt(), redemption.getId()));
         
         return ResponseEntity.ok(ApiResponse.paginated(redemptions, pagination));
     }
@@ -7,7 +7,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "redemptions", schema = "redemption_schema")
+@Table(name = "redemptions", schema = "redemption_schema", indexes = {
+        @Index(name = "idx_redemptions_merchant_redeemed", columnList = "merchantId, redeemedAt, id"),
+        @Index(name = "idx_redemptions_user_redeemed", columnList = "redeemedByUserId, redeemedAt, id"),
+        @Index(name = "idx_redemptions_date", columnList = "redeemedAt")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -3,15 +3,40 @@ package com.kado24.redemption.repository;
 import com.kado24.redemption.entity.Redemption;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface RedemptionRepository extends JpaRepository<Redemption, Long> {
     
     Page<Redemption> findByMerchantIdOrderByRedeemedAtDesc(Long merchantId, Pageable pageable);
     
     Page<Redemption> findByRedeemedByUserIdOrderByRedeemedAtDesc(Long userId, Pageable pageable);
+
+    Slice<Redemption> findSliceByMerchantIdOrderByRedeemedAtDescIdDesc(Long merchantId, Pageable pageable);
+
+    Slice<Redemption> findSliceByRedeemedByUserIdOrderByRedeemedAtDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("SELECT r FROM Redemption r WHERE r.merchantId = :merchantId " +
+           "AND (r.redeemedAt < :redeemedAt OR (r.redeemedAt = :redeemedAt AND r.id < :id)) " +
+           "ORDER BY r.redeemedAt DESC, r.id DESC")
+    Slice<Redemption> findByMerchantIdBefore(@Param("merchantId") Long merchantId,
+                                             @Param("redeemedAt") LocalDateTime redeemedAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    @Query("SELECT r FROM Redemption r WHERE r.redeemedByUserId = :userId " +
+           "AND (r.redeemedAt < :redeemedAt OR (r.redeemedAt = :redeemedAt AND r.id < :id)) " +
+           "ORDER BY r.redeemedAt DESC, r.id DESC")
+    Slice<Redemption> findByRedeemedByUserIdBefore(@Param("userId") Long userId,
+                                                   @Param("redeemedAt") LocalDateTime redeemedAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
 }
 
 
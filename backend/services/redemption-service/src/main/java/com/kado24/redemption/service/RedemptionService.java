@@ -1,5 +1,7 @@
 package com.kado24.redemption.service;
 
+import com.kado24.common.dto.PageCursor;
+import com.kado24.common.dto.PageRequest;
 import com.kado24.common.util.StringUtil;
 import com.kado24.kafka.event.NotificationEvent;
 import com.kado24.kafka.event.RedemptionEvent;
@@ -10,8 +12,7 @@ import com.kado24.redemption.entity.Redemption;
 import com.kado24.redemption.repository.RedemptionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -94,6 +95,7 @@ public class RedemptionService {
 			RedemptionEvent event = RedemptionEvent.completed(
 					redemption.getId(),
 					redemption.getWalletVoucherId(),
+					redemption.getVoucherId(),
 					"VOUCHER-CODE",
 					redemption.getMerchantId(),
 					"Merchant Name",
@@ -120,16 +122,36 @@ public class RedemptionService {
 		}
 	}
 
-	public Page<RedemptionDTO> getMyRedemptions(Long userId, Pageable pageable) {
+	public Slice<RedemptionDTO> getMyRedemptions(Long userId, PageRequest pageRequest) {
 		log.info("Fetching redemptions for user: {}", userId);
-		Page<Redemption> redemptions = repository.findByRedeemedByUserIdOrderByRedeemedAtDesc(userId, pageable);
+		Slice<Redemption> redemptions;
+		if (pageRequest.isKeyset()) {
+			PageCursor after = pageRequest.decodeCursor();
+			redemptions = after == null
+					? repository.findSliceByRedeemedByUserIdOrderByRedeemedAtDescIdDesc(userId, pageRequest.toKeysetPageRequest())
+					: repository.findByRedeemedByUserIdBefore(userId, after.getSortValue(), after.getId(), pageRequest.toKeysetPageRequest());
+		} else if (pageRequest.isSkipCount()) {
+			redemptions = repository.findSliceByRedeemedByUserIdOrderByRedeemedAtDescIdDesc(userId, pageRequest.toSpringPageRequest());
+		} else {
+			redemptions = repository.findByRedeemedByUserIdOrderByRedeemedAtDesc(userId, pageRequest.toSpringPageRequest());
+		}
 		return redemptions.map(this::toDTO);
 	}
 
-	public Page<RedemptionDTO> getMerchantRedemptions(Long merchantId, Long currentUserId, Pageable pageable) {
+	public Slice<RedemptionDTO> getMerchantRedemptions(Long merchantId, Long currentUserId, PageRequest pageRequest) {
 		log.info("Fetching redemptions for merchant: {} by user: {}", merchantId, currentUserId);
 		// TODO: Verify currentUserId is the merchant owner
-		Page<Redemption> redemptions = repository.findByMerchantIdOrderByRedeemedAtDesc(merchantId, pageable);
+		Slice<Redemption> redemptions;
+		if (pageRequest.isKeyset()) {
+			PageCursor after = pageRequest.decodeCursor();
+			redemptions = after == null
+					? repository.findSliceByMerchantIdOrderByRedeemedAtDescIdDesc(merchantId, pageRequest.toKeysetPageRequest())
+					: repository.findByMerchantIdBefore(merchantId, after.getSortValue(), after.getId(), pageRequest.toKeysetPageRequest());
+		} else if (pageRequest.isSkipCount()) {
+			redemptions = repository.findSliceByMerchantIdOrderByRedeemedAtDescIdDesc(merchantId, pageRequest.toSpringPageRequest());
+		} else {
+			redemptions = repository.findByMerchantIdOrderByRedeemedAtDesc(merchantId, pageRequest.toSpringPageRequest());
+		}
 		return redemptions.map(this::toDTO);
 	}
 
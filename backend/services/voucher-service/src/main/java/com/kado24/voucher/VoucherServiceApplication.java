@@ -6,7 +6,10 @@ import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import com.kado24.kafka.config.KafkaBatchConsumerConfig;
 
 /**
  * Voucher Service Application
@@ -14,6 +17,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @SpringBootApplication
 @EnableJpaRepositories
 @EnableCaching
+@EnableScheduling
+@Import(KafkaBatchConsumerConfig.class)
 @ComponentScan(basePackages = {
         "com.kado24.voucher",
         "com.kado24.common",
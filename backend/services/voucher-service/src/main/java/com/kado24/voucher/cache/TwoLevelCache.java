@@ -0,0 +1,190 @@
+package com.kado24.voucher.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-through cache with a per-instance Caffeine L1 in front of a shared Redis L2.
+ *
+ * {@link #get(Object, Callable)} loads through Caffeine's per-key computation, so concurrent
+ * misses for the same key on one instance wait for a single loader instead of stampeding the
+ * database. Evictions hit both tiers and are broadcast so other instances drop their L1 copy.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> l1;
+    private final Cache l2;
+    private final BiConsumer<String, Object> invalidationBroadcaster;
+
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<Object, Object> l1,
+                         Cache l2,
+                         BiConsumer<String, Object> invalidationBroadcaster,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.invalidationBroadcaster = invalidationBroadcaster;
+        this.l1Hits = counter(meterRegistry, "l1_hit");
+        this.l2Hits = counter(meterRegistry, "l2_hit");
+        this.misses = counter(meterRegistry, "miss");
+        meterRegistry.gauge("voucher.cache.l1.size", Tags.of("cache", name), l1, cache -> cache.estimatedSize());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = l1.getIfPresent(key);
+        if (value != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(fromStoreValue(value));
+        }
+        ValueWrapper remote = remoteGet(key);
+        if (remote != null) {
+            l2Hits.increment();
+            l1.put(key, toStoreValue(remote.get()));
+            return remote;
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = l1.getIfPresent(key);
+        if (value != null) {
+            l1Hits.increment();
+            return (T) fromStoreValue(value);
+        }
+        // Caffeine runs at most one mapping function per key; other callers block on it
+        value = l1.get(key, k -> {
+            ValueWrapper remote = remoteGet(k);
+            if (remote != null) {
+                l2Hits.increment();
+                return toStoreValue(remote.get());
+            }
+            misses.increment();
+            try {
+                Object loaded = valueLoader.call();
+                remotePut(k, loaded);
+                return toStoreValue(loaded);
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(k, valueLoader, ex);
+            }
+        });
+        return (T) fromStoreValue(value);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remotePut(key, value);
+        l1.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        try {
+            l2.evict(key);
+        } catch (RuntimeException ex) {
+            log.error("L2 cache evict failed for {}::{}", name, key, ex);
+        }
+        l1.invalidate(key);
+        invalidationBroadcaster.accept(name, key);
+    }
+
+    @Override
+    public void clear() {
+        try {
+            l2.clear();
+        } catch (RuntimeException ex) {
+            log.error("L2 cache clear failed for {}", name, ex);
+        }
+        l1.invalidateAll();
+        invalidationBroadcaster.accept(name, null);
+    }
+
+    /**
+     * Drop an L1 entry on behalf of another instance (L2 was already evicted there)
+     */
+    void evictLocal(Object key) {
+        l1.invalidate(key);
+    }
+
+    /**
+     * Drop the whole L1 region on behalf of another instance
+     */
+    void clearLocal() {
+        l1.invalidateAll();
+    }
+
+    /**
+     * Redis trouble degrades to an L1-only cache instead of failing the request
+     */
+    private ValueWrapper remoteGet(Object key) {
+        try {
+            return l2.get(key);
+        } catch (RuntimeException ex) {
+            log.warn("L2 cache read failed for {}::{}: {}", name, key, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void remotePut(Object key, Object value) {
+        try {
+            l2.put(key, value);
+        } catch (RuntimeException ex) {
+            log.warn("L2 cache write failed for {}::{}: {}", name, key, ex.getMessage());
+        }
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("voucher.cache.gets")
+                .description("Voucher catalog cache lookups by tier")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value != null ? value : NullValue.INSTANCE;
+    }
+
+    private static Object fromStoreValue(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+}
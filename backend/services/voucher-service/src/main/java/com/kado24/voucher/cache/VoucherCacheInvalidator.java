@@ -0,0 +1,53 @@
+package com.kado24.voucher.cache;
+
+import com.kado24.voucher.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts catalog cache entries once the change that caused them has committed
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VoucherCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoucherChanged(VoucherChangedEvent event) {
+        Cache details = cacheManager.getCache(CacheConfig.VOUCHER_DETAIL);
+        if (details != null) {
+            details.evict(event.voucherId().toString());
+            event.slugs().forEach(details::evict);
+        }
+
+        if (event.listingChanged()) {
+            clear(CacheConfig.VOUCHER_PAGES);
+            clear(CacheConfig.CATEGORY_VOUCHER_PAGES);
+            clear(CacheConfig.CATEGORIES);
+        }
+        log.debug("Invalidated catalog cache for voucher {} (listings: {})", event.voucherId(), event.listingChanged());
+    }
+
+    /**
+     * Drop every catalog region (merchant-wide changes such as a suspension)
+     */
+    public void clearCatalog() {
+        clear(CacheConfig.VOUCHER_DETAIL);
+        clear(CacheConfig.VOUCHER_PAGES);
+        clear(CacheConfig.CATEGORY_VOUCHER_PAGES);
+        log.debug("Cleared voucher catalog cache");
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.kado24.voucher.cache;
+
+import java.util.Set;
+
+/**
+ * Published by VoucherService whenever a voucher changes in a way that affects cached catalog reads.
+ *
+ * @param voucherId      changed voucher
+ * @param slugs          every slug the voucher was reachable under (old and new on a rename)
+ * @param listingChanged whether listing pages and category counts must be dropped as well
+ */
+public record VoucherChangedEvent(Long voucherId, Set<String> slugs, boolean listingChanged) {
+}
@@ -0,0 +1,78 @@
+package com.kado24.voucher.config;
+
+import com.kado24.voucher.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Two-tier cache for the public voucher catalog: Caffeine per instance (L1) in front of Redis (L2).
+ *
+ * Keys must be Strings so L1 evictions can be replayed on other instances.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String VOUCHER_DETAIL = "voucher-detail";
+    public static final String VOUCHER_PAGES = "voucher-pages";
+    public static final String CATEGORY_VOUCHER_PAGES = "category-voucher-pages";
+    public static final String CATEGORIES = "categories";
+
+    @Value("${voucher.cache.l1.max-size:5000}")
+    private long l1MaxSize;
+
+    @Value("${voucher.cache.l1.ttl-seconds:30}")
+    private long l1TtlSeconds;
+
+    @Value("${spring.cache.redis.time-to-live:600000}")
+    private long defaultTtlMs;
+
+    @Value("${voucher.cache.pages-ttl-seconds:60}")
+    private long pagesTtlSeconds;
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate redisTemplate,
+                                             MeterRegistry meterRegistry) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration
+                .defaultCacheConfig(getClass().getClassLoader())
+                .prefixCacheNameWith("voucher-service::")
+                .entryTtl(Duration.ofMillis(defaultTtlMs));
+        RedisCacheConfiguration pages = defaults.entryTtl(Duration.ofSeconds(pagesTtlSeconds));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager
+                .builder(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000)))
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(Map.of(
+                        VOUCHER_DETAIL, defaults,
+                        VOUCHER_PAGES, pages,
+                        CATEGORY_VOUCHER_PAGES, pages,
+                        CATEGORIES, defaults))
+                .build();
+        redisCacheManager.initializeCaches();
+
+        return new TwoLevelCacheManager(redisCacheManager, redisTemplate, meterRegistry,
+                l1MaxSize, Duration.ofSeconds(l1TtlSeconds));
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -1,7 +1,9 @@
 package com.kado24.voucher.config;
 
+import com.kado24.security.oauth2.CachingJwtDecoderConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -9,6 +11,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
@@ -25,16 +28,17 @@ import java.util.Arrays;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
+@Import(CachingJwtDecoderConfiguration.class)
 public class SecurityConfiguration {
 
     private final JwtUserIdExtractorFilter jwtUserIdExtractorFilter;
-    private final String jwkSetUri;
+    private final JwtDecoder jwtDecoder;
 
     public SecurityConfiguration(
             JwtUserIdExtractorFilter jwtUserIdExtractorFilter,
-            @org.springframework.beans.factory.annotation.Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:http://auth-service:8081/oauth2/jwks}") String jwkSetUri) {
+            JwtDecoder jwtDecoder) {
         this.jwtUserIdExtractorFilter = jwtUserIdExtractorFilter;
-        this.jwkSetUri = jwkSetUri;
+        this.jwtDecoder = jwtDecoder;
     }
 
     @Bean(name = "voucherSecurityFilterChain")
@@ -47,7 +51,7 @@ public class SecurityConfiguration {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .oauth2ResourceServer(oauth2 -> oauth2
                         .jwt(jwt -> jwt
-                                .jwkSetUri(jwkSetUri)
+                                .decoder(jwtDecoder)
                         )
                 )
                 .addFilterAfter(jwtUserIdExtractorFilter, BearerTokenAuthenticationFilter.class)
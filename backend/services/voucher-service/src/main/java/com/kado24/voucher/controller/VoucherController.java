@@ -1,12 +1,14 @@
 package com.kado24.voucher.controller;
 
 import com.kado24.common.dto.ApiResponse;
+import com.kado24.common.dto.PageCursor;
 import com.kado24.common.dto.PageRequest;
 import com.kado24.common.dto.PaginationMeta;
 import com.kado24.voucher.dto.CreateVoucherRequest;
 import com.kado24.voucher.dto.UpdateVoucherRequest;
 import com.kado24.voucher.dto.VoucherDTO;
 import com.kado24.voucher.service.VoucherService;
+import com.kado24.voucher.trending.TrendWindow;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,11 +17,14 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Voucher management REST controller
  */
@@ -30,32 +35,52 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Vouchers", description = "Voucher management endpoints")
 public class VoucherController {
 
+    private static final int MAX_TRENDING_LIMIT = 50;
+
     private final VoucherService voucherService;
 
     @Operation(summary = "Get active vouchers", description = "Get paginated list of active vouchers (public)")
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<VoucherDTO>>> getActiveVouchers(
+    public ResponseEntity<ApiResponse<Slice<VoucherDTO>>> getActiveVouchers(
             @ModelAttribute PageRequest pageRequest) {
         
         log.info("Fetching active vouchers");
         
-        Page<VoucherDTO> vouchers = voucherService.getActiveVouchers(pageRequest.toSpringPageRequest());
+        Slice<VoucherDTO> vouchers = voucherService.getActiveVouchers(pageRequest);
         
-        PaginationMeta pagination = PaginationMeta.from(
-                vouchers.getNumber(),
-                vouchers.getSize(),
-                vouchers.getTotalElements()
-        );
+        PaginationMeta pagination = PaginationMeta.of(pageRequest, vouchers,
+                voucher -> PageCursor.of(voucher.getCreatedAt(), voucher.getId()));
         
         return ResponseEntity.ok(ApiResponse.paginated(vouchers, pagination));
     }
 
+    @Operation(summary = "Get trending vouchers",
+            description = "Most viewed and purchased vouchers over the last 1h, 24h or 7d, optionally in one category (public)")
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<VoucherDTO>>> getTrendingVouchers(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        TrendWindow trendWindow = TrendWindow.fromLabel(window);
+        if (trendWindow == null) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Unknown trending window: " + window + " (expected 1h, 24h or 7d)"));
+        }
+
+        List<VoucherDTO> vouchers = voucherService.getTrendingVouchers(
+                trendWindow, categoryId, Math.max(1, Math.min(limit, MAX_TRENDING_LIMIT)));
+
+        return ResponseEntity.ok(ApiResponse.success(vouchers));
+    }
+
     @Operation(summary = "Get voucher details", description = "Get voucher by ID or slug (public)")
     @GetMapping("/{slugOrId}")
     public ResponseEntity<ApiResponse<VoucherDTO>> getVoucher(@PathVariable String slugOrId) {
         log.info("Fetching voucher: {}", slugOrId);
         
         VoucherDTO voucher = voucherService.getVoucher(slugOrId);
+        voucherService.recordView(voucher.getId());
         
         return ResponseEntity.ok(ApiResponse.success(voucher));
     }
@@ -81,19 +106,16 @@ public class VoucherController {
 
     @Operation(summary = "Get vouchers by category", description = "Get vouchers in a specific category (public)")
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<ApiResponse<Page<VoucherDTO>>> getVouchersByCategory(
+    public ResponseEntity<ApiResponse<Slice<VoucherDTO>>> getVouchersByCategory(
             @PathVariable Long categoryId,
             @ModelAttribute PageRequest pageRequest) {
         
         log.info("Fetching vouchers for category: {}", categoryId);
         
-        Page<VoucherDTO> vouchers = voucherService.getVouchersByCategory(categoryId, pageRequest.toSpringPageRequest());
+        Slice<VoucherDTO> vouchers = voucherService.getVouchersByCategory(categoryId, pageRequest);
         
-        PaginationMeta pagination = PaginationMeta.from(
-                vouchers.getNumber(),
-                vouchers.getSize(),
-                vouchers.getTotalElements()
-        );
+        PaginationMeta pagination = PaginationMeta.of(pageRequest, vouchers,
+                voucher -> PageCursor.of(voucher.getCreatedAt(), voucher.getId()));
         
         return ResponseEntity.ok(ApiResponse.paginated(vouchers, pagination));
     }
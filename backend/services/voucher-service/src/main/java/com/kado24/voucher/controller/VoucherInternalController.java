@@ -1,8 +1,11 @@
 package com.kado24.voucher.controller;
 
 import com.kado24.common.dto.ApiResponse;
+import com.kado24.common.exception.ValidationException;
+import com.kado24.voucher.cache.VoucherCacheInvalidator;
 import com.kado24.voucher.dto.VoucherReservationRequest;
 import com.kado24.voucher.dto.VoucherReservationResponse;
+import com.kado24.voucher.service.VoucherEnricher;
 import com.kado24.voucher.service.VoucherService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +16,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/vouchers/internal")
@@ -20,6 +26,10 @@ import org.springframework.web.server.ResponseStatusException;
 public class VoucherInternalController {
 
     private final VoucherService voucherService;
+    private final VoucherEnricher voucherEnricher;
+    private final VoucherCacheInvalidator voucherCacheInvalidator;
+
+    private static final int MAX_BULK_IDS = 500;
 
     @Value("${internal.api.secret:kado24-internal-secret}")
     private String internalSecret;
@@ -38,6 +48,39 @@ public class VoucherInternalController {
         return ResponseEntity.ok(ApiResponse.success("Voucher reserved", response));
     }
 
+    /**
+     * Bulk title lookup: voucher ids in, id to title out (unknown ids are omitted)
+     */
+    @PostMapping("/titles")
+    public ResponseEntity<ApiResponse<Map<Long, String>>> getVoucherTitles(
+            @RequestHeader(value = "X-Internal-Secret", required = false) String providedSecret,
+            @RequestBody List<Long> voucherIds
+    ) {
+        validateSecret(providedSecret);
+        if (voucherIds.size() > MAX_BULK_IDS) {
+            throw new ValidationException("At most " + MAX_BULK_IDS + " voucher ids per request");
+        }
+
+        log.debug("Received internal title lookup for {} vouchers", voucherIds.size());
+
+        return ResponseEntity.ok(ApiResponse.success(voucherService.getVoucherTitles(voucherIds)));
+    }
+
+    @PostMapping("/merchants/{merchantId}/evict")
+    public ResponseEntity<ApiResponse<Void>> evictMerchant(
+            @RequestHeader(value = "X-Internal-Secret", required = false) String providedSecret,
+            @PathVariable Long merchantId
+    ) {
+        validateSecret(providedSecret);
+
+        log.info("Received merchant cache eviction for merchant {}", merchantId);
+
+        voucherEnricher.evictMerchant(merchantId);
+        // Cached catalog entries carry the merchant name and depend on its status
+        voucherCacheInvalidator.clearCatalog();
+        return ResponseEntity.ok(ApiResponse.success("Merchant cache evicted"));
+    }
+
     private void validateSecret(String providedSecret) {
         if (internalSecret == null || internalSecret.isBlank()) {
             log.warn("Internal API secret not configured; allowing request");
@@ -7,13 +7,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Voucher category")
-public class CategoryDTO {
+public class CategoryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Schema(description = "Category ID", example = "1")
     private Long id;
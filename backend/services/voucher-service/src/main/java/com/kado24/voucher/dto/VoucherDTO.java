@@ -9,6 +9,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,7 +20,9 @@ import java.util.List;
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Voucher information")
-public class VoucherDTO {
+public class VoucherDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @Schema(description = "Voucher ID", example = "1")
     private Long id;
@@ -22,7 +22,8 @@ import java.util.List;
         @Index(name = "idx_vouchers_merchant", columnList = "merchantId"),
         @Index(name = "idx_vouchers_category", columnList = "categoryId"),
         @Index(name = "idx_vouchers_status", columnList = "status"),
-        @Index(name = "idx_vouchers_slug", columnList = "slug")
+        @Index(name = "idx_vouchers_slug", columnList = "slug"),
+        @Index(name = "idx_vouchers_status_created", columnList = "status, createdat, id")
 })
 @Data
 @Builder
@@ -74,6 +75,14 @@ public class Voucher {
     @Column(name = "stock_quantity")
     private Integer stockQuantity;
 
+    /**
+     * Bumped whenever stock_quantity is overwritten; stock ledger leases claimed under an older
+     * epoch are no longer part of the stock
+     */
+    @Builder.Default
+    @Column(name = "stock_epoch", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long stockEpoch = 0L;
+
     @Builder.Default
     @Column(name = "unlimited_stock")
     private Boolean unlimitedStock = false;
@@ -156,6 +165,21 @@ public class Voucher {
      * Check if voucher is available for purchase
      */
     public boolean isAvailable() {
+        if (!isOnSale()) {
+            return false;
+        }
+
+        if (!this.unlimitedStock && (this.stockQuantity == null || this.stockQuantity <= 0)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Check status and validity window only (stock may be held by the stock ledger)
+     */
+    public boolean isOnSale() {
         if (this.status != VoucherStatus.ACTIVE) {
             return false;
         }
@@ -168,10 +192,6 @@ public class Voucher {
             return false;
         }
 
-        if (!this.unlimitedStock && (this.stockQuantity == null || this.stockQuantity <= 0)) {
-            return false;
-        }
-
         return true;
     }
 
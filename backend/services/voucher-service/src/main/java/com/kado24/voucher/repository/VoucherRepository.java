@@ -4,13 +4,17 @@ import com.kado24.voucher.entity.Voucher;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Lock;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,6 +44,12 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long>, JpaSpec
      */
     Page<Voucher> findByStatus(Voucher.VoucherStatus status, Pageable pageable);
 
+    /**
+     * (id, title) pairs for bulk name lookups
+     */
+    @Query("SELECT v.id, v.title FROM Voucher v WHERE v.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT v FROM Voucher v WHERE v.id = :id")
     Optional<Voucher> findByIdForUpdate(@Param("id") Long id);
@@ -53,6 +63,28 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long>, JpaSpec
            "AND (v.unlimitedStock = true OR v.stockQuantity > 0)")
     Page<Voucher> findActiveVouchers(Pageable pageable);
 
+    /**
+     * Find active vouchers without a count query (first keyset page / skipCount)
+     */
+    @Query("SELECT v FROM Voucher v WHERE v.status = 'ACTIVE' " +
+           "AND (v.validFrom IS NULL OR v.validFrom <= CURRENT_TIMESTAMP) " +
+           "AND (v.validUntil IS NULL OR v.validUntil >= CURRENT_TIMESTAMP) " +
+           "AND (v.unlimitedStock = true OR v.stockQuantity > 0)")
+    Slice<Voucher> findActiveVoucherSlice(Pageable pageable);
+
+    /**
+     * Find active vouchers created before a keyset position
+     */
+    @Query("SELECT v FROM Voucher v WHERE v.status = 'ACTIVE' " +
+           "AND (v.validFrom IS NULL OR v.validFrom <= CURRENT_TIMESTAMP) " +
+           "AND (v.validUntil IS NULL OR v.validUntil >= CURRENT_TIMESTAMP) " +
+           "AND (v.unlimitedStock = true OR v.stockQuantity > 0) " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    Slice<Voucher> findActiveVouchersBefore(@Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
     /**
      * Find active vouchers by category
      */
@@ -63,6 +95,31 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long>, JpaSpec
            "AND (v.unlimitedStock = true OR v.stockQuantity > 0)")
     Page<Voucher> findActiveVouchersByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
 
+    /**
+     * Find active vouchers by category without a count query (first keyset page / skipCount)
+     */
+    @Query("SELECT v FROM Voucher v WHERE v.status = 'ACTIVE' " +
+           "AND v.categoryId = :categoryId " +
+           "AND (v.validFrom IS NULL OR v.validFrom <= CURRENT_TIMESTAMP) " +
+           "AND (v.validUntil IS NULL OR v.validUntil >= CURRENT_TIMESTAMP) " +
+           "AND (v.unlimitedStock = true OR v.stockQuantity > 0)")
+    Slice<Voucher> findActiveVoucherSliceByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    /**
+     * Find active vouchers in a category created before a keyset position
+     */
+    @Query("SELECT v FROM Voucher v WHERE v.status = 'ACTIVE' " +
+           "AND v.categoryId = :categoryId " +
+           "AND (v.validFrom IS NULL OR v.validFrom <= CURRENT_TIMESTAMP) " +
+           "AND (v.validUntil IS NULL OR v.validUntil >= CURRENT_TIMESTAMP) " +
+           "AND (v.unlimitedStock = true OR v.stockQuantity > 0) " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    Slice<Voucher> findActiveVouchersByCategoryBefore(@Param("categoryId") Long categoryId,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+
     /**
      * Search vouchers by title using full-text search
      */
@@ -78,13 +135,6 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long>, JpaSpec
            "ORDER BY v.rating DESC, v.totalSold DESC")
     List<Voucher> findFeaturedVouchers(Pageable pageable);
 
-    /**
-     * Find trending vouchers (recently sold)
-     */
-    @Query("SELECT v FROM Voucher v WHERE v.status = 'ACTIVE' " +
-           "ORDER BY v.totalSold DESC, v.createdAt DESC")
-    List<Voucher> findTrendingVouchers(Pageable pageable);
-
     /**
      * Count vouchers by merchant
      */
@@ -94,6 +144,27 @@ public interface VoucherRepository extends JpaRepository<Voucher, Long>, JpaSpec
      * Count active vouchers by merchant
      */
     long countByMerchantIdAndStatus(Long merchantId, Voucher.VoucherStatus status);
+
+    /**
+     * Atomically claim a block of stock for the in-memory stock ledger.
+     * Only succeeds while at least {@code reserve} units stay behind in the row.
+     */
+    @Modifying
+    @Query("UPDATE Voucher v SET v.stockQuantity = v.stockQuantity - :quantity " +
+           "WHERE v.id = :id AND v.unlimitedStock = false AND v.stockQuantity >= :quantity + :reserve")
+    int claimStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("reserve") int reserve);
+
+    /**
+     * Stock epoch of one voucher (read after a claim, in its transaction, to tag the lease)
+     */
+    @Query("SELECT v.stockEpoch FROM Voucher v WHERE v.id = :id")
+    Long findStockEpoch(@Param("id") Long id);
+
+    /**
+     * (id, stockEpoch) pairs, to find stock ledger leases superseded by a stock overwrite
+     */
+    @Query("SELECT v.id, v.stockEpoch FROM Voucher v WHERE v.id IN :ids")
+    List<Object[]> findStockEpochsByIdIn(@Param("ids") Collection<Long> ids);
 }
 
 
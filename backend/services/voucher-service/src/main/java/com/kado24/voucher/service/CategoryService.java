@@ -1,6 +1,7 @@
 package com.kado24.voucher.service;
 
 import com.kado24.common.exception.ResourceNotFoundException;
+import com.kado24.voucher.config.CacheConfig;
 import com.kado24.voucher.dto.CategoryDTO;
 import com.kado24.voucher.entity.Voucher;
 import com.kado24.voucher.entity.VoucherCategory;
@@ -9,6 +10,7 @@ import com.kado24.voucher.repository.VoucherCategoryRepository;
 import com.kado24.voucher.repository.VoucherRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -29,6 +31,7 @@ public class CategoryService {
     /**
      * Get all active categories
      */
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'all'", sync = true)
     public List<CategoryDTO> getAllCategories() {
         log.debug("Fetching all active categories");
         
@@ -0,0 +1,133 @@
+package com.kado24.voucher.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free stock counter split across several stripes.
+ *
+ * Each stripe is decremented with a compare-and-set that refuses to go below zero,
+ * so the sum of all successful acquisitions can never exceed the units that were
+ * deposited. Callers start on a random stripe and walk the others only when their
+ * home stripe runs dry, which keeps concurrent buyers of the same voucher off a
+ * single contended cache line.
+ */
+public final class StripedStockCounter {
+
+    /** Stripes are padded apart to avoid false sharing between neighbouring cells. */
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+
+    public StripedStockCounter(int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicIntegerArray(this.stripes * PADDING);
+    }
+
+    /**
+     * Spread units evenly across the stripes
+     */
+    public void deposit(int units) {
+        if (units <= 0) {
+            return;
+        }
+        int share = units / stripes;
+        int remainder = units % stripes;
+        for (int i = 0; i < stripes; i++) {
+            int amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                cells.addAndGet(i * PADDING, amount);
+            }
+        }
+    }
+
+    /**
+     * Try to take {@code quantity} units. Never blocks and never drives a stripe negative.
+     *
+     * @return true when the full quantity was acquired, false when the counter cannot satisfy it
+     */
+    public boolean tryAcquire(int quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            if (tryAcquireFromStripe((start + i) % stripes, quantity)) {
+                return true;
+            }
+        }
+        return tryAcquireAcrossStripes(quantity);
+    }
+
+    /**
+     * Give units back, e.g. after the owning transaction rolled back
+     */
+    public void release(int quantity) {
+        if (quantity > 0) {
+            int stripe = ThreadLocalRandom.current().nextInt(stripes);
+            cells.addAndGet(stripe * PADDING, quantity);
+        }
+    }
+
+    /**
+     * Atomically empty every stripe and return what was left
+     */
+    public int drain() {
+        int drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of units currently held (exact when no acquisition is in flight)
+     */
+    public int available() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private boolean tryAcquireFromStripe(int stripe, int quantity) {
+        int index = stripe * PADDING;
+        while (true) {
+            int current = cells.get(index);
+            if (current < quantity) {
+                return false;
+            }
+            if (cells.compareAndSet(index, current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Slow path for multi-unit requests that no single stripe can cover: collect units
+     * stripe by stripe and hand them back if the total still falls short.
+     */
+    private boolean tryAcquireAcrossStripes(int quantity) {
+        int collected = 0;
+        for (int i = 0; i < stripes && collected < quantity; i++) {
+            int index = i * PADDING;
+            while (collected < quantity) {
+                int current = cells.get(index);
+                if (current == 0) {
+                    break;
+                }
+                int take = Math.min(current, quantity - collected);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    collected += take;
+                }
+            }
+        }
+        if (collected < quantity) {
+            release(collected);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,241 @@
+package com.kado24.voucher.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kado24.voucher.dto.VoucherDTO;
+import com.kado24.voucher.entity.VoucherCategory;
+import com.kado24.voucher.repository.VoucherCategoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Page-level enrichment of VoucherDTOs with merchant and category names.
+ *
+ * Collects the distinct merchantIds and categoryIds of a whole page, serves what it can
+ * from bounded local caches and resolves the rest with one IN (...) query per kind, so a
+ * listing costs at most two extra round trips regardless of page size. Merchant evictions are
+ * fanned out to every instance over a Redis pub/sub channel.
+ */
+@Slf4j
+@Component
+public class VoucherEnricher implements MessageListener {
+
+    public static final String MERCHANT_EVICTION_CHANNEL = "voucher-service:merchant-name-eviction";
+
+    private static final String UNKNOWN_MERCHANT = "Unknown Merchant";
+
+    private final VoucherCategoryRepository categoryRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Keyed by vouchers.merchant_id, which may hold merchant.id or (legacy rows) merchant.user_id */
+    private final Cache<Long, MerchantName> merchantNames;
+    private final Cache<Long, String> categoryNames;
+
+    public VoucherEnricher(VoucherCategoryRepository categoryRepository,
+                           StringRedisTemplate redisTemplate,
+                           RedisMessageListenerContainer listenerContainer,
+                           @Value("${voucher.enrichment.cache.max-size:10000}") long maxSize,
+                           @Value("${voucher.enrichment.cache.ttl-minutes:30}") long ttlMinutes) {
+        this.categoryRepository = categoryRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.merchantNames = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.categoryNames = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(MERCHANT_EVICTION_CHANNEL));
+    }
+
+    /**
+     * Enrich a single voucher
+     */
+    public VoucherDTO enrich(VoucherDTO dto) {
+        if (dto != null) {
+            enrich(List.of(dto));
+        }
+        return dto;
+    }
+
+    /**
+     * Enrich every voucher of a page in place
+     */
+    public void enrich(Collection<VoucherDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            return;
+        }
+
+        Set<Long> merchantIds = new LinkedHashSet<>();
+        Set<Long> categoryIds = new LinkedHashSet<>();
+        for (VoucherDTO dto : dtos) {
+            if (dto.getMerchantId() != null && (dto.getMerchantName() == null || dto.getMerchantName().isEmpty())) {
+                merchantIds.add(dto.getMerchantId());
+            }
+            if (dto.getCategoryId() != null && dto.getCategoryName() == null) {
+                categoryIds.add(dto.getCategoryId());
+            }
+        }
+
+        Map<Long, String> merchants = resolveMerchantNames(merchantIds);
+        Map<Long, String> categories = resolveCategoryNames(categoryIds);
+
+        for (VoucherDTO dto : dtos) {
+            if (merchantIds.contains(dto.getMerchantId())) {
+                dto.setMerchantName(merchants.getOrDefault(dto.getMerchantId(), UNKNOWN_MERCHANT));
+            }
+            if (categoryIds.contains(dto.getCategoryId())) {
+                String categoryName = categories.get(dto.getCategoryId());
+                if (categoryName != null) {
+                    dto.setCategoryName(categoryName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop cached names for a merchant after it was updated in merchant-service, here and on
+     * every other instance
+     */
+    public void evictMerchant(Long merchantId) {
+        evictMerchantLocal(merchantId);
+        try {
+            redisTemplate.convertAndSend(MERCHANT_EVICTION_CHANNEL, merchantId.toString());
+        } catch (Exception e) {
+            // Other instances fall back to the cache TTL
+            log.warn("Failed to broadcast merchant cache eviction for merchant {}: {}", merchantId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            evictMerchantLocal(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed merchant cache eviction: {}", body);
+        }
+    }
+
+    private void evictMerchantLocal(Long merchantId) {
+        merchantNames.invalidate(merchantId);
+        merchantNames.asMap().values().removeIf(entry -> entry.merchantId().equals(merchantId));
+        log.debug("Evicted cached merchant name for merchant {}", merchantId);
+    }
+
+    private Map<Long, String> resolveMerchantNames(Set<Long> ids) {
+        Map<Long, String> resolved = new HashMap<>();
+        if (ids.isEmpty()) {
+            return resolved;
+        }
+        merchantNames.getAllPresent(ids).forEach((id, entry) -> resolved.put(id, entry.businessName()));
+
+        Set<Long> missing = new LinkedHashSet<>(ids);
+        missing.removeAll(resolved.keySet());
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        try {
+            // Match on id first and fall back to user_id, like the old per-row lookup did
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery(
+                    "SELECT id, user_id, business_name FROM merchant_schema.merchants " +
+                    "WHERE id IN (:ids) OR user_id IN (:ids)")
+                    .setParameter("ids", missing)
+                    .getResultList();
+
+            Map<Long, MerchantName> byUserId = new HashMap<>();
+            for (Object[] row : rows) {
+                Long id = ((Number) row[0]).longValue();
+                Long userId = row[1] != null ? ((Number) row[1]).longValue() : null;
+                String businessName = (String) row[2];
+                if (businessName == null || businessName.isEmpty()) {
+                    continue;
+                }
+                MerchantName entry = new MerchantName(id, businessName);
+                if (missing.contains(id)) {
+                    cacheMerchant(id, entry, resolved);
+                }
+                if (userId != null && missing.contains(userId)) {
+                    byUserId.put(userId, entry);
+                }
+            }
+            byUserId.forEach((userId, entry) -> {
+                if (!resolved.containsKey(userId)) {
+                    cacheMerchant(userId, entry, resolved);
+                }
+            });
+
+            if (resolved.size() < ids.size()) {
+                log.warn("No merchant found for merchantId/userId: {}", missing.stream()
+                        .filter(id -> !resolved.containsKey(id)).toList());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to fetch merchant names for {}: {}", missing, e.getMessage());
+        }
+        return resolved;
+    }
+
+    private void cacheMerchant(Long key, MerchantName entry, Map<Long, String> resolved) {
+        merchantNames.put(key, entry);
+        resolved.put(key, entry.businessName());
+    }
+
+    private Map<Long, String> resolveCategoryNames(Set<Long> ids) {
+        Map<Long, String> resolved = new HashMap<>();
+        if (ids.isEmpty()) {
+            return resolved;
+        }
+        resolved.putAll(categoryNames.getAllPresent(ids));
+
+        Set<Long> missing = new LinkedHashSet<>(ids);
+        missing.removeAll(resolved.keySet());
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        try {
+            for (VoucherCategory category : categoryRepository.findAllById(missing)) {
+                if (category.getDisplayName() != null) {
+                    categoryNames.put(category.getId(), category.getDisplayName());
+                    resolved.put(category.getId(), category.getDisplayName());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to fetch category names for {}: {}", missing, e.getMessage());
+        }
+        return resolved;
+    }
+
+    private record MerchantName(Long merchantId, String businessName) {
+    }
+}
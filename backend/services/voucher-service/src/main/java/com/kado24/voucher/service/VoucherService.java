@@ -1,11 +1,15 @@
 package com.kado24.voucher.service;
 
+import com.kado24.common.dto.PageCursor;
+import com.kado24.common.dto.PageRequest;
 import com.kado24.common.exception.BusinessException;
 import com.kado24.common.exception.ForbiddenException;
 import com.kado24.common.exception.ResourceNotFoundException;
 import com.kado24.common.util.StringUtil;
 import com.kado24.kafka.event.AnalyticsEvent;
 import com.kado24.kafka.producer.EventPublisher;
+import com.kado24.voucher.cache.VoucherChangedEvent;
+import com.kado24.voucher.config.CacheConfig;
 import com.kado24.voucher.dto.CreateVoucherRequest;
 import com.kado24.voucher.dto.UpdateVoucherRequest;
 import com.kado24.voucher.dto.VoucherDTO;
@@ -16,20 +20,34 @@ import com.kado24.voucher.entity.VoucherCategory;
 import com.kado24.voucher.mapper.VoucherMapper;
 import com.kado24.voucher.repository.VoucherCategoryRepository;
 import com.kado24.voucher.repository.VoucherRepository;
+import com.kado24.voucher.trending.TrendWindow;
+import com.kado24.voucher.trending.TrendingEntry;
+import com.kado24.voucher.trending.TrendingService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Voucher management service
@@ -43,6 +61,11 @@ public class VoucherService {
     private final VoucherCategoryRepository categoryRepository;
     private final VoucherMapper voucherMapper;
     private final EventPublisher eventPublisher;
+    private final VoucherStockLedger stockLedger;
+    private final VoucherEnricher voucherEnricher;
+    private final VoucherViewCounter viewCounter;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TrendingService trendingService;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -134,7 +157,7 @@ public class VoucherService {
                 .slug(slug)
                 .description(request.getDescription())
                 .termsAndConditions(request.getTermsAndConditions())
-                .denominations(denominations)
+                .denominations(denominations != null ? denominations.toArray(new BigDecimal[0]) : null)
                 .minValue(minValue)
                 .maxValue(maxValue)
                 .discountPercentage(request.getDiscountPercentage())
@@ -145,7 +168,7 @@ public class VoucherService {
                 .unlimitedStock(request.getUnlimitedStock() != null ? request.getUnlimitedStock() : false)
                 .validFrom(request.getValidFrom())
                 .validUntil(request.getValidUntil())
-                .redemptionLocations(redemptionLocations)
+                .redemptionLocations(redemptionLocations != null ? redemptionLocations.toArray(new String[0]) : null)
                 .minPurchaseAmount(request.getMinPurchaseAmount())
                 .maxPurchasePerUser(request.getMaxPurchasePerUser())
                 .usageInstructions(request.getUsageInstructions())
@@ -158,22 +181,39 @@ public class VoucherService {
 
         log.info("Voucher created with ID: {}", voucher.getId());
 
-        return enrichVoucherDTO(voucherMapper.toDTO(voucher));
+        publishVoucherChanged(voucher, true);
+
+        return voucherEnricher.enrich(voucherMapper.toDTO(voucher));
     }
 
     /**
      * Get active vouchers (public)
      */
-    public Page<VoucherDTO> getActiveVouchers(Pageable pageable) {
+    @Cacheable(cacheNames = CacheConfig.VOUCHER_PAGES, sync = true, key = "#pageRequest.toString()")
+    public Slice<VoucherDTO> getActiveVouchers(PageRequest pageRequest) {
         log.debug("Fetching active vouchers");
-        Page<Voucher> vouchers = voucherRepository.findActiveVouchers(pageable);
-        return vouchers.map(v -> enrichVoucherDTO(voucherMapper.toDTO(v)));
+        Slice<Voucher> vouchers;
+        if (pageRequest.isKeyset()) {
+            PageCursor after = pageRequest.decodeCursor();
+            vouchers = after == null
+                    ? voucherRepository.findActiveVoucherSlice(keysetFirstPage(pageRequest))
+                    : voucherRepository.findActiveVouchersBefore(after.getSortValue(), after.getId(), pageRequest.toKeysetPageRequest());
+        } else if (pageRequest.isSkipCount()) {
+            vouchers = voucherRepository.findActiveVoucherSlice(pageRequest.toSpringPageRequest());
+        } else {
+            vouchers = voucherRepository.findActiveVouchers(pageRequest.toSpringPageRequest());
+        }
+        return toEnrichedSlice(vouchers);
     }
 
     /**
      * Get voucher by ID or slug
+     *
+     * Read-only and cached; callers count the view separately with {@link #recordView}
+     * so cache hits are still counted.
      */
-    @Transactional
+    @Cacheable(cacheNames = CacheConfig.VOUCHER_DETAIL, key = "#slugOrId", sync = true)
+    @Transactional(readOnly = true)
     public VoucherDTO getVoucher(String slugOrId) {
         log.debug("Fetching voucher: {}", slugOrId);
 
@@ -193,14 +233,48 @@ public class VoucherService {
             }
         }
 
-        // Increment view count
-        voucher.incrementViewCount();
-        voucherRepository.save(voucher);
+        return voucherEnricher.enrich(voucherMapper.toDTO(voucher));
+    }
 
-        // Publish analytics event
-        publishVoucherViewedEvent(voucher.getId());
+    /**
+     * Titles of the given vouchers; unknown ids are left out
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> getVoucherTitles(Collection<Long> voucherIds) {
+        Map<Long, String> titles = new HashMap<>();
+        for (Object[] row : voucherRepository.findTitlesByIdIn(voucherIds)) {
+            titles.put((Long) row[0], (String) row[1]);
+        }
+        return titles;
+    }
 
-        return enrichVoucherDTO(voucherMapper.toDTO(voucher));
+    /**
+     * Trending vouchers of a window, best first: ranked in memory by {@link TrendingService},
+     * then loaded by primary key
+     */
+    @Transactional(readOnly = true)
+    public List<VoucherDTO> getTrendingVouchers(TrendWindow window, Long categoryId, int limit) {
+        List<Long> ids = trendingService.getTrending(window, categoryId, limit).stream()
+                .map(TrendingEntry::voucherId)
+                .toList();
+        Map<Long, VoucherDTO> byId = new HashMap<>();
+        for (Voucher voucher : voucherRepository.findAllById(ids)) {
+            byId.put(voucher.getId(), voucherMapper.toDTO(voucher));
+        }
+        List<VoucherDTO> trending = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        voucherEnricher.enrich(trending);
+        return trending;
+    }
+
+    /**
+     * Record a product page view
+     */
+    public void recordView(Long voucherId) {
+        // Count the view (flushed to view_count in batches by VoucherViewCounter)
+        viewCounter.record(voucherId);
+
+        // Publish analytics event
+        publishVoucherViewedEvent(voucherId);
     }
 
     /**
@@ -209,21 +283,34 @@ public class VoucherService {
     public Page<VoucherDTO> searchVouchers(String query, Pageable pageable) {
         log.debug("Searching vouchers with query: {}", query);
         Page<Voucher> vouchers = voucherRepository.searchVouchers(query, pageable);
-        return vouchers.map(v -> enrichVoucherDTO(voucherMapper.toDTO(v)));
+        return toEnrichedPage(vouchers);
     }
 
     /**
      * Get vouchers by category
      */
-    public Page<VoucherDTO> getVouchersByCategory(Long categoryId, Pageable pageable) {
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_VOUCHER_PAGES, sync = true,
+            key = "#categoryId + ':' + #pageRequest.toString()")
+    public Slice<VoucherDTO> getVouchersByCategory(Long categoryId, PageRequest pageRequest) {
         log.debug("Fetching vouchers for category: {}", categoryId);
         
         // Verify category exists
         categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", categoryId));
         
-        Page<Voucher> vouchers = voucherRepository.findActiveVouchersByCategory(categoryId, pageable);
-        return vouchers.map(v -> enrichVoucherDTO(voucherMapper.toDTO(v)));
+        Slice<Voucher> vouchers;
+        if (pageRequest.isKeyset()) {
+            PageCursor after = pageRequest.decodeCursor();
+            vouchers = after == null
+                    ? voucherRepository.findActiveVoucherSliceByCategory(categoryId, keysetFirstPage(pageRequest))
+                    : voucherRepository.findActiveVouchersByCategoryBefore(
+                            categoryId, after.getSortValue(), after.getId(), pageRequest.toKeysetPageRequest());
+        } else if (pageRequest.isSkipCount()) {
+            vouchers = voucherRepository.findActiveVoucherSliceByCategory(categoryId, pageRequest.toSpringPageRequest());
+        } else {
+            vouchers = voucherRepository.findActiveVouchersByCategory(categoryId, pageRequest.toSpringPageRequest());
+        }
+        return toEnrichedSlice(vouchers);
     }
 
     /**
@@ -313,7 +400,7 @@ public class VoucherService {
     public Page<VoucherDTO> getMerchantVouchers(Long merchantId, Pageable pageable) {
         log.debug("Fetching vouchers for merchant: {}", merchantId);
         Page<Voucher> vouchers = voucherRepository.findByMerchantId(merchantId, pageable);
-        return vouchers.map(v -> enrichVoucherDTO(voucherMapper.toDTO(v)));
+        return toEnrichedPage(vouchers);
     }
 
     /**
@@ -323,7 +410,10 @@ public class VoucherService {
     public VoucherDTO updateVoucher(Long voucherId, Long merchantId, UpdateVoucherRequest request) {
         log.info("Updating voucher: {} by merchant: {}", voucherId, merchantId);
 
-        Voucher voucher = voucherRepository.findById(voucherId)
+        // A stock overwrite bumps stock_epoch, which must not be computed from a stale read
+        Voucher voucher = (request.getStockQuantity() != null
+                ? voucherRepository.findByIdForUpdate(voucherId)
+                : voucherRepository.findById(voucherId))
                 .orElseThrow(() -> new ResourceNotFoundException("Voucher", voucherId));
 
         // Verify ownership
@@ -331,6 +421,8 @@ public class VoucherService {
             throw new ForbiddenException("You don't own this voucher");
         }
 
+        String previousSlug = voucher.getSlug();
+
         // Update fields if provided
         if (request.getTitle() != null) {
             voucher.setTitle(request.getTitle());
@@ -343,7 +435,7 @@ public class VoucherService {
             voucher.setTermsAndConditions(request.getTermsAndConditions());
         }
         if (request.getDenominations() != null) {
-            voucher.setDenominations(request.getDenominations());
+            voucher.setDenominations(request.getDenominations().toArray(new BigDecimal[0]));
         }
         if (request.getDiscountPercentage() != null) {
             voucher.setDiscountPercentage(request.getDiscountPercentage());
@@ -352,7 +444,11 @@ public class VoucherService {
             voucher.setImageUrl(request.getImageUrl());
         }
         if (request.getStockQuantity() != null) {
+            // Absolute overwrite: units leased on any instance before the change are no longer stock
+            long epoch = (voucher.getStockEpoch() != null ? voucher.getStockEpoch() : 0) + 1;
+            voucher.setStockEpoch(epoch);
             voucher.setStockQuantity(request.getStockQuantity());
+            stockLedger.invalidate(voucherId, epoch);
         }
         if (request.getUnlimitedStock() != null) {
             voucher.setUnlimitedStock(request.getUnlimitedStock());
@@ -368,7 +464,9 @@ public class VoucherService {
 
         log.info("Voucher updated: {}", voucherId);
 
-        return enrichVoucherDTO(voucherMapper.toDTO(voucher));
+        publishVoucherChanged(voucher, true, previousSlug);
+
+        return voucherEnricher.enrich(voucherMapper.toDTO(voucher));
     }
 
     /**
@@ -397,7 +495,9 @@ public class VoucherService {
 
         log.info("Voucher published: {}", voucherId);
 
-        return enrichVoucherDTO(voucherMapper.toDTO(voucher));
+        publishVoucherChanged(voucher, true);
+
+        return voucherEnricher.enrich(voucherMapper.toDTO(voucher));
     }
 
     /**
@@ -428,7 +528,9 @@ public class VoucherService {
 
         voucher = voucherRepository.save(voucher);
 
-        return enrichVoucherDTO(voucherMapper.toDTO(voucher));
+        publishVoucherChanged(voucher, true);
+
+        return voucherEnricher.enrich(voucherMapper.toDTO(voucher));
     }
 
     /**
@@ -450,6 +552,24 @@ public class VoucherService {
         voucherRepository.save(voucher);
 
         log.info("Voucher deleted: {}", voucherId);
+
+        publishVoucherChanged(voucher, true);
+    }
+
+    /**
+     * Let the catalog cache drop this voucher once the transaction commits
+     */
+    private void publishVoucherChanged(Voucher voucher, boolean listingChanged, String... previousSlugs) {
+        Set<String> slugs = new HashSet<>();
+        if (voucher.getSlug() != null) {
+            slugs.add(voucher.getSlug());
+        }
+        for (String slug : previousSlugs) {
+            if (slug != null) {
+                slugs.add(slug);
+            }
+        }
+        applicationEventPublisher.publishEvent(new VoucherChangedEvent(voucher.getId(), slugs, listingChanged));
     }
 
     /**
@@ -466,6 +586,11 @@ public class VoucherService {
 
     /**
      * Reserve voucher stock (internal use by order/payment services)
+     *
+     * Hot vouchers are served from the in-memory stock ledger; the PESSIMISTIC_WRITE
+     * row lock is only taken once stock runs low or the ledger is disabled. Ledger
+     * reservations leave the cached row untouched, so only the row-lock path invalidates
+     * the catalog cache (listings too once the voucher sells out).
      */
     @Transactional
     public VoucherReservationResponse reserveVoucher(Long voucherId, VoucherReservationRequest request) {
@@ -475,107 +600,100 @@ public class VoucherService {
             throw new BusinessException("Denomination is required for reservation");
         }
 
-        Voucher voucher = voucherRepository.findByIdForUpdate(voucherId)
+        Voucher voucher = voucherRepository.findById(voucherId)
                 .orElseThrow(() -> new ResourceNotFoundException("Voucher", voucherId));
 
-        if (!voucher.isAvailable()) {
+        if (!voucher.isOnSale()) {
             throw new BusinessException("Voucher is not available for purchase");
         }
+        validateDenomination(voucher, denomination);
 
-        List<BigDecimal> allowedDenominations = voucher.getDenominations();
-        if (allowedDenominations != null && !allowedDenominations.isEmpty()
-                && allowedDenominations.stream().noneMatch(value -> value.compareTo(denomination) == 0)) {
-            throw new BusinessException("Invalid voucher denomination selected");
+        if (Boolean.TRUE.equals(voucher.getUnlimitedStock())) {
+            stockLedger.recordUnlimitedSale(voucherId, quantity);
+            return toReservationResponse(voucher, denomination, null);
         }
 
-        if (!Boolean.TRUE.equals(voucher.getUnlimitedStock())) {
-            Integer currentStock = voucher.getStockQuantity();
-            if (currentStock == null || currentStock < quantity) {
-                throw new BusinessException("Insufficient voucher stock");
-            }
-            voucher.setStockQuantity(currentStock - quantity);
+        if (stockLedger.tryReserve(voucherId, quantity)) {
+            Integer dbStock = voucher.getStockQuantity();
+            int remaining = (dbStock != null ? dbStock : 0) + stockLedger.available(voucherId);
+            return toReservationResponse(voucher, denomination, remaining);
         }
 
+        // Re-read under the row lock instead of reusing the unlocked snapshot
+        entityManager.detach(voucher);
+        return reserveWithRowLock(voucherId, quantity, denomination);
+    }
+
+    /**
+     * Low-stock fallback: serialize on the voucher row so the last units are never oversold
+     */
+    private VoucherReservationResponse reserveWithRowLock(Long voucherId, int quantity, BigDecimal denomination) {
+        Voucher voucher = voucherRepository.findByIdForUpdate(voucherId)
+                .orElseThrow(() -> new ResourceNotFoundException("Voucher", voucherId));
+
+        // Fold any locally leased units back in so stock is not split between ledger and row
+        int leased = stockLedger.drainLease(voucherId,
+                voucher.getStockEpoch() != null ? voucher.getStockEpoch() : 0);
+        int currentStock = (voucher.getStockQuantity() != null ? voucher.getStockQuantity() : 0) + leased;
+
+        if (!voucher.isOnSale()) {
+            throw new BusinessException("Voucher is not available for purchase");
+        }
+        if (currentStock < quantity) {
+            throw new BusinessException("Insufficient voucher stock");
+        }
+
+        voucher.setStockQuantity(currentStock - quantity);
         voucher.setTotalSold((voucher.getTotalSold() != null ? voucher.getTotalSold() : 0) + quantity);
         voucherRepository.save(voucher);
 
+        publishVoucherChanged(voucher, voucher.getStockQuantity() <= 0);
+
+        return toReservationResponse(voucher, denomination, voucher.getStockQuantity());
+    }
+
+    private void validateDenomination(Voucher voucher, BigDecimal denomination) {
+        BigDecimal[] allowedDenominations = voucher.getDenominations();
+        if (allowedDenominations != null && allowedDenominations.length > 0
+                && Arrays.stream(allowedDenominations).noneMatch(value -> value.compareTo(denomination) == 0)) {
+            throw new BusinessException("Invalid voucher denomination selected");
+        }
+    }
+
+    private VoucherReservationResponse toReservationResponse(Voucher voucher, BigDecimal denomination,
+                                                             Integer remainingStock) {
         return VoucherReservationResponse.builder()
                 .voucherId(voucher.getId())
                 .merchantId(voucher.getMerchantId())
                 .voucherTitle(voucher.getTitle())
                 .denomination(denomination)
-                .remainingStock(Boolean.TRUE.equals(voucher.getUnlimitedStock()) ? null : voucher.getStockQuantity())
+                .remainingStock(remainingStock)
                 .unlimitedStock(voucher.getUnlimitedStock())
                 .build();
     }
 
     /**
-     * Enrich VoucherDTO with merchant name and category name
+     * Map a page of vouchers and enrich the whole page with one merchant and one category lookup
      */
-    private VoucherDTO enrichVoucherDTO(VoucherDTO dto) {
-        if (dto == null) {
-            return null;
-        }
-
-        // Fetch merchant name from merchant_schema
-        // Handle both cases: merchant_id could be merchant.id or merchant.user_id
-        if (dto.getMerchantId() != null && (dto.getMerchantName() == null || dto.getMerchantName().isEmpty())) {
-            try {
-                log.debug("Enriching voucher DTO with merchant name for merchantId: {}", dto.getMerchantId());
-                // First try to find by merchant.id
-                String merchantName = null;
-                try {
-                    merchantName = (String) entityManager.createNativeQuery(
-                        "SELECT business_name FROM merchant_schema.merchants WHERE id = :merchantId"
-                    )
-                    .setParameter("merchantId", dto.getMerchantId())
-                    .getSingleResult();
-                } catch (NoResultException e) {
-                    // If not found by id, try to find by user_id (in case merchant_id is actually user_id)
-                    log.debug("Merchant not found by id, trying user_id: {}", dto.getMerchantId());
-                    try {
-                        merchantName = (String) entityManager.createNativeQuery(
-                            "SELECT business_name FROM merchant_schema.merchants WHERE user_id = :userId"
-                        )
-                        .setParameter("userId", dto.getMerchantId())
-                        .getSingleResult();
-                    } catch (NoResultException e2) {
-                        log.warn("No merchant found for merchantId/userId: {}", dto.getMerchantId());
-                    }
-                }
-                
-                if (merchantName != null && !merchantName.isEmpty()) {
-                    dto.setMerchantName(merchantName);
-                    log.debug("Successfully enriched merchant name: {}", merchantName);
-                } else {
-                    log.warn("Merchant name is null or empty for merchantId: {}", dto.getMerchantId());
-                    dto.setMerchantName("Unknown Merchant");
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fetch merchant name for merchantId: {}, error: {}", dto.getMerchantId(), e.getMessage());
-                dto.setMerchantName("Unknown Merchant");
-            }
-        }
+    private Page<VoucherDTO> toEnrichedPage(Page<Voucher> vouchers) {
+        Page<VoucherDTO> page = vouchers.map(voucherMapper::toDTO);
+        voucherEnricher.enrich(page.getContent());
+        return page;
+    }
 
-        // Fetch category name if not already set
-        if (dto.getCategoryId() != null && dto.getCategoryName() == null) {
-            try {
-                VoucherCategory category = categoryRepository.findById(dto.getCategoryId()).orElse(null);
-                if (category != null) {
-                    dto.setCategoryName(category.getDisplayName());
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fetch category name for categoryId: {}, error: {}", dto.getCategoryId(), e.getMessage());
-            }
-        }
+    /**
+     * Same as {@link #toEnrichedPage} for slices (a counted Page stays a Page)
+     */
+    private Slice<VoucherDTO> toEnrichedSlice(Slice<Voucher> vouchers) {
+        Slice<VoucherDTO> slice = vouchers.map(voucherMapper::toDTO);
+        voucherEnricher.enrich(slice.getContent());
+        return slice;
+    }
 
-        return dto;
+    /**
+     * First keyset page: newest first, in the same order the "before" queries continue
+     */
+    private static Pageable keysetFirstPage(PageRequest pageRequest) {
+        return pageRequest.toKeysetPageRequest().withSort(Sort.by(Sort.Direction.DESC, "createdAt", "id"));
     }
 }
-
-
-
-
-
-
-
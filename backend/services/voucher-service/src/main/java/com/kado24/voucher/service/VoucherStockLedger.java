@@ -0,0 +1,410 @@
+package com.kado24.voucher.service;
+
+import com.kado24.voucher.repository.VoucherRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory stock ledger for hot vouchers.
+ *
+ * Instead of taking a PESSIMISTIC_WRITE lock on the voucher row for every reservation,
+ * the ledger claims stock from the database in blocks ("leases") with a single conditional
+ * UPDATE and then hands units out of a {@link StripedStockCounter}. Leased units are already
+ * subtracted from {@code stock_quantity}, so several service instances can lease concurrently
+ * without ever overselling. Sold counts are buffered and flushed to {@code total_sold} in JDBC
+ * batches. Once the row drops to the low-stock threshold no further leases are granted and
+ * {@link VoucherService#reserveVoucher} falls back to the row lock.
+ *
+ * Overwriting {@code stock_quantity} bumps the row's {@code stock_epoch}, and a lease claimed
+ * under an older epoch is dead on every instance: the updating instance drops its own once the
+ * change commits and tells the others over Redis pub/sub, and every flush re-reads the epochs of
+ * all leases in case a message was lost. Such a lease is never returned to the row, and the
+ * sales it made that were not flushed yet are charged against the new stock, so only a sale
+ * racing the invalidation itself can take the row below zero.
+ *
+ * A crash loses leased-but-unsold units (undersell) and unflushed sold counts, never stock
+ * that was not paid for.
+ */
+@Slf4j
+@Component
+public class VoucherStockLedger implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "voucher-service:stock-lease-invalidation";
+
+    /** Epoch of a lease that has not claimed anything yet, and of unlimited-stock sales */
+    private static final long NO_EPOCH = -1;
+
+    private static final String FLUSH_SOLD_SQL =
+            "UPDATE voucher_schema.vouchers SET total_sold = COALESCE(total_sold, 0) + ?, " +
+            "stock_quantity = CASE WHEN ? AND stock_epoch <> ? THEN stock_quantity - ? ELSE stock_quantity END " +
+            "WHERE id = ?";
+    private static final String RETURN_STOCK_SQL =
+            "UPDATE voucher_schema.vouchers SET stock_quantity = stock_quantity + ? WHERE id = ? AND stock_epoch = ?";
+
+    private final VoucherRepository voucherRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate claimTransaction;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<LeaseKey, LongAdder> pendingSold = new ConcurrentHashMap<>();
+    private final Map<LeaseKey, LongAdder> pendingReturns = new ConcurrentHashMap<>();
+
+    @Value("${voucher.stock-ledger.enabled:true}")
+    private boolean enabled;
+
+    @Value("${voucher.stock-ledger.lease-size:50}")
+    private int leaseSize;
+
+    @Value("${voucher.stock-ledger.low-stock-threshold:20}")
+    private int lowStockThreshold;
+
+    @Value("${voucher.stock-ledger.stripes:8}")
+    private int stripes;
+
+    @Value("${voucher.stock-ledger.claim-backoff-ms:1000}")
+    private long claimBackoffMs;
+
+    @Value("${voucher.stock-ledger.idle-lease-ttl-ms:300000}")
+    private long idleLeaseTtlMs;
+
+    public VoucherStockLedger(VoucherRepository voucherRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer) {
+        this.voucherRepository = voucherRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Try to reserve stock without touching the voucher row lock.
+     *
+     * @return true when the units were taken from a local lease; false means the caller
+     *         must fall back to the locked database path
+     */
+    public boolean tryReserve(Long voucherId, int quantity) {
+        if (!enabled) {
+            return false;
+        }
+        Lease lease = leases.computeIfAbsent(voucherId, id -> new Lease(stripes));
+        // Read before acquiring: a refill racing us can only make the sale look older, which is charged
+        long epoch = lease.epoch;
+        if (!lease.counter.tryAcquire(quantity)) {
+            synchronized (lease) {
+                // Another thread may have refilled the lease while we waited
+                if (!lease.counter.tryAcquire(quantity)
+                        && !(leases.get(voucherId) == lease && claim(voucherId, lease, quantity)
+                        && lease.counter.tryAcquire(quantity))) {
+                    return false;
+                }
+                epoch = lease.epoch;
+            }
+        } else if (epoch == NO_EPOCH) {
+            epoch = lease.epoch;
+        }
+        lease.lastUsedAt = System.currentTimeMillis();
+        LeaseKey key = new LeaseKey(voucherId, epoch);
+        recordSold(key, quantity);
+        long soldEpoch = epoch;
+        afterRollback(() -> {
+            if (lease.epoch == soldEpoch) {
+                lease.counter.release(quantity);
+            }
+            pendingSold(key).add(-quantity);
+        });
+        return true;
+    }
+
+    /**
+     * Buffer a sale of an unlimited-stock voucher; only {@code total_sold} needs updating
+     */
+    public void recordUnlimitedSale(Long voucherId, int quantity) {
+        LeaseKey key = new LeaseKey(voucherId, NO_EPOCH);
+        recordSold(key, quantity);
+        afterRollback(() -> pendingSold(key).add(-quantity));
+    }
+
+    /**
+     * Hand every locally leased unit back to the caller, who must add it to the row it holds locked.
+     * Used by the fallback path so low stock is not split between the lease and the database.
+     * A lease from before the row's current {@code rowEpoch} is dropped instead and yields nothing.
+     */
+    public int drainLease(Long voucherId, long rowEpoch) {
+        Lease lease = leases.get(voucherId);
+        if (lease == null) {
+            return 0;
+        }
+        // No lease lock here: a claim holding it may be waiting for the row lock our caller holds
+        if (lease.epoch != rowEpoch) {
+            leases.remove(voucherId, lease);
+            lease.counter.drain();
+            return 0;
+        }
+        int drained = lease.counter.drain();
+        if (drained > 0) {
+            afterRollback(() -> lease.counter.deposit(drained));
+        }
+        return drained;
+    }
+
+    /**
+     * Invalidate every lease of the voucher claimed before {@code epoch}, on all instances, after a
+     * merchant overwrote stock_quantity. Inside a transaction this happens only once it commits, so
+     * a rolled-back overwrite keeps the leases.
+     */
+    public void invalidate(Long voucherId, long epoch) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(voucherId, epoch);
+                }
+            });
+        } else {
+            invalidateNow(voucherId, epoch);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // Format: <voucherId>|<epoch>
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        try {
+            if (parts.length == 2) {
+                discardBefore(Long.valueOf(parts[0]), Long.parseLong(parts[1]));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed stock lease invalidation: {}", String.join("|", parts));
+        }
+    }
+
+    /**
+     * Units currently leased by this instance
+     */
+    public int available(Long voucherId) {
+        Lease lease = leases.get(voucherId);
+        return lease != null ? lease.counter.available() : 0;
+    }
+
+    /**
+     * Flush buffered sold counts, drop superseded leases and return idle ones, in one JDBC batch
+     * and one query each
+     */
+    @Scheduled(fixedDelayString = "${voucher.stock-ledger.flush-interval-ms:1000}")
+    public void flush() {
+        flushSold();
+        discardSuperseded();
+
+        long idleBefore = System.currentTimeMillis() - idleLeaseTtlMs;
+        leases.forEach((voucherId, lease) -> {
+            if (lease.lastUsedAt >= idleBefore) {
+                return;
+            }
+            synchronized (lease) {
+                if (leases.remove(voucherId, lease)) {
+                    queueReturn(new LeaseKey(voucherId, lease.epoch), lease.counter.drain());
+                }
+            }
+        });
+        returnStock();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushSold();
+        leases.forEach((voucherId, lease) -> {
+            synchronized (lease) {
+                leases.remove(voucherId, lease);
+                queueReturn(new LeaseKey(voucherId, lease.epoch), lease.counter.drain());
+            }
+        });
+        returnStock();
+    }
+
+    private boolean claim(Long voucherId, Lease lease, int quantity) {
+        long now = System.currentTimeMillis();
+        if (now < lease.noClaimUntil) {
+            return false;
+        }
+        int blockSize = Math.max(leaseSize, quantity);
+        Long epoch = claimTransaction.execute(status ->
+                voucherRepository.claimStock(voucherId, blockSize, lowStockThreshold) > 0
+                        ? voucherRepository.findStockEpoch(voucherId)
+                        : null);
+        if (epoch == null) {
+            // Low stock (or unlimited/missing voucher): stop probing the row for a while
+            lease.noClaimUntil = now + claimBackoffMs;
+            return false;
+        }
+        if (epoch != lease.epoch) {
+            // Units left over from before a stock overwrite are no longer stock
+            lease.counter.drain();
+            lease.epoch = epoch;
+        }
+        lease.counter.deposit(blockSize);
+        log.debug("Leased {} units of voucher {} into the stock ledger", blockSize, voucherId);
+        return true;
+    }
+
+    private void invalidateNow(Long voucherId, long epoch) {
+        discardBefore(voucherId, epoch);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, voucherId + "|" + epoch);
+        } catch (Exception e) {
+            // Other instances drop their leases on their next flush instead
+            log.warn("Failed to broadcast stock lease invalidation for voucher {}: {}", voucherId, e.getMessage());
+        }
+    }
+
+    private void discardBefore(Long voucherId, long epoch) {
+        Lease lease = leases.get(voucherId);
+        if (lease == null) {
+            return;
+        }
+        synchronized (lease) {
+            if (lease.epoch < epoch && leases.remove(voucherId, lease)) {
+                int dropped = lease.counter.drain();
+                log.debug("Discarded stock lease of {} units for voucher {} (epoch {} < {})",
+                        dropped, voucherId, lease.epoch, epoch);
+            }
+        }
+    }
+
+    /**
+     * Drop leases whose voucher moved to a newer stock epoch, in case an invalidation message was missed
+     */
+    private void discardSuperseded() {
+        if (leases.isEmpty()) {
+            return;
+        }
+        try {
+            for (Object[] row : voucherRepository.findStockEpochsByIdIn(new ArrayList<>(leases.keySet()))) {
+                discardBefore((Long) row[0], ((Number) row[1]).longValue());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to check stock lease epochs: {}", e.getMessage());
+        }
+    }
+
+    private void recordSold(LeaseKey key, int quantity) {
+        pendingSold(key).add(quantity);
+    }
+
+    private LongAdder pendingSold(LeaseKey key) {
+        return pendingSold.computeIfAbsent(key, id -> new LongAdder());
+    }
+
+    private void flushSold() {
+        List<Object[]> batch = new ArrayList<>();
+        pendingSold.forEach((key, sold) -> {
+            long delta = sold.sumThenReset();
+            if (delta != 0) {
+                batch.add(new Object[]{delta, key.epoch() != NO_EPOCH, key.epoch(), delta, key.voucherId()});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SOLD_SQL, batch);
+            log.debug("Flushed total_sold for {} vouchers", batch.size());
+        } catch (Exception e) {
+            log.error("Failed to flush total_sold, re-queueing {} deltas", batch.size(), e);
+            batch.forEach(row -> pendingSold(new LeaseKey((Long) row[4], (Long) row[2])).add((Long) row[0]));
+        }
+    }
+
+    private void queueReturn(LeaseKey key, int units) {
+        if (units > 0) {
+            pendingReturns.computeIfAbsent(key, id -> new LongAdder()).add(units);
+        }
+    }
+
+    /**
+     * Give queued lease remainders back to {@code stock_quantity} unless the stock was overwritten
+     * since they were claimed; failed returns stay queued for the next flush so the units are not lost
+     */
+    private void returnStock() {
+        List<Object[]> batch = new ArrayList<>();
+        pendingReturns.forEach((key, units) -> {
+            long remaining = units.sumThenReset();
+            if (remaining != 0) {
+                batch.add(new Object[]{remaining, key.voucherId(), key.epoch()});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(RETURN_STOCK_SQL, batch);
+            log.debug("Returned unused stock leases for {} vouchers", batch.size());
+        } catch (Exception e) {
+            log.error("Failed to return {} unused stock leases, re-queueing them", batch.size(), e);
+            batch.forEach(row -> queueReturn(new LeaseKey((Long) row[1], (Long) row[2]), ((Long) row[0]).intValue()));
+        }
+    }
+
+    private void afterRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    private static final class Lease {
+        private final StripedStockCounter counter;
+        private volatile long epoch = NO_EPOCH;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+        private volatile long noClaimUntil;
+
+        private Lease(int stripes) {
+            this.counter = new StripedStockCounter(stripes);
+        }
+    }
+
+    /**
+     * Pending sold or returned units of one voucher under one stock epoch
+     */
+    private record LeaseKey(Long voucherId, long epoch) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.kado24.voucher.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind view counter for voucher detail pages.
+ *
+ * Views are counted in per-voucher LongAdders, spilled every second into a shared Redis hash
+ * with HINCRBY, and folded into {@code view_count} by one instance at a time with a single JDBC
+ * batch of {@code view_count = view_count + delta}. Only the last spill interval lives purely in
+ * memory; everything older survives a restart in Redis. Delivery into Postgres is at-least-once:
+ * a crash between the batch UPDATE and clearing the claimed hash can count that batch twice.
+ * If Redis is unreachable the in-memory deltas are written straight to Postgres instead.
+ */
+@Slf4j
+@Component
+public class VoucherViewCounter {
+
+    private static final String PENDING_KEY = "voucher:view-count:pending";
+    private static final String FLUSHING_KEY = "voucher:view-count:flushing";
+    private static final String FLUSH_LOCK_KEY = "voucher:view-count:flush-lock";
+    /**
+     * Deletes the lock only if this instance still holds it; after an expiry it may be another's
+     */
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final String INCREMENT_SQL =
+            "UPDATE voucher_schema.vouchers SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final String lockToken = UUID.randomUUID().toString();
+
+    @Value("${voucher.view-counter.flush-lock-ttl-ms:60000}")
+    private long flushLockTtlMs;
+
+    public VoucherViewCounter(StringRedisTemplate redisTemplate, JdbcTemplate jdbcTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Count one view; never touches Redis or the database on the request thread
+     */
+    public void record(Long voucherId) {
+        pendingViews.computeIfAbsent(voucherId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Move in-memory deltas into the shared Redis hash
+     */
+    @Scheduled(fixedDelayString = "${voucher.view-counter.spill-interval-ms:1000}")
+    public void spill() {
+        Map<Long, Long> deltas = drainLocal();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                deltas.forEach((voucherId, delta) -> redis.hIncrBy(PENDING_KEY, voucherId.toString(), delta));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to spill {} view counts to Redis, keeping them in memory: {}", deltas.size(), e.getMessage());
+            requeue(deltas);
+        }
+    }
+
+    /**
+     * Fold the spilled view counts into view_count with one JDBC batch
+     */
+    @Scheduled(fixedDelayString = "${voucher.view-counter.flush-interval-ms:30000}")
+    public void flush() {
+        Boolean locked;
+        try {
+            locked = redisTemplate.opsForValue()
+                    .setIfAbsent(FLUSH_LOCK_KEY, lockToken, Duration.ofMillis(flushLockTtlMs));
+        } catch (Exception e) {
+            log.warn("Redis unavailable, flushing view counts directly to the database: {}", e.getMessage());
+            flushLocalToDatabase();
+            return;
+        }
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+
+        try {
+            // A previous flusher may have died after claiming the hash; finish its work first
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(FLUSHING_KEY))) {
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(PENDING_KEY))) {
+                    return;
+                }
+                redisTemplate.rename(PENDING_KEY, FLUSHING_KEY);
+            }
+
+            Map<Object, Object> claimed = redisTemplate.opsForHash().entries(FLUSHING_KEY);
+            List<Object[]> batch = new ArrayList<>(claimed.size());
+            claimed.forEach((voucherId, delta) -> batch.add(new Object[]{
+                    Long.parseLong(delta.toString()), Long.parseLong(voucherId.toString())}));
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INCREMENT_SQL, batch);
+            }
+            redisTemplate.delete(FLUSHING_KEY);
+            log.debug("Flushed view counts for {} vouchers", batch.size());
+        } catch (Exception e) {
+            log.error("Failed to flush view counts, will retry on the next cycle", e);
+        } finally {
+            try {
+                redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(FLUSH_LOCK_KEY), lockToken);
+            } catch (Exception e) {
+                log.debug("Failed to release view count flush lock: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        spill();
+        if (!pendingViews.isEmpty()) {
+            flushLocalToDatabase();
+        }
+    }
+
+    private void flushLocalToDatabase() {
+        Map<Long, Long> deltas = drainLocal();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((voucherId, delta) -> batch.add(new Object[]{delta, voucherId}));
+        try {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, batch);
+        } catch (Exception e) {
+            log.error("Failed to write {} view counts to the database", deltas.size(), e);
+            requeue(deltas);
+        }
+    }
+
+    private Map<Long, Long> drainLocal() {
+        Map<Long, Long> deltas = new HashMap<>();
+        pendingViews.forEach((voucherId, views) -> {
+            long delta = views.sumThenReset();
+            if (delta > 0) {
+                deltas.put(voucherId, delta);
+            }
+        });
+        return deltas;
+    }
+
+    private void requeue(Map<Long, Long> deltas) {
+        deltas.forEach((voucherId, delta) -> pendingViews.computeIfAbsent(voucherId, id -> new LongAdder()).add(delta));
+    }
+}
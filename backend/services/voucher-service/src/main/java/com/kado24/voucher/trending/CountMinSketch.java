@@ -0,0 +1,88 @@
+package com.kado24.voucher.trending;
+
+import com.kado24.common.util.HashUtil;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Count-Min sketch of weighted counts per voucher id, with conservative update.
+ *
+ * Estimates never undercount; with width w and depth d the overcount is at most e/w of the total
+ * weight with probability 1 - e^-d. Counts are doubles so the window can hold decayed weights
+ * and be rescaled in place. Not thread-safe.
+ */
+class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final double[][] counts;
+
+    CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.depth = depth;
+        this.counts = new double[depth][width];
+    }
+
+    /**
+     * Add {@code weight} to the id and return its new estimate
+     */
+    double add(long id, double weight) {
+        long hash1 = HashUtil.fmix64(id);
+        long hash2 = HashUtil.fmix64(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row][column(hash1, hash2, row)]);
+        }
+        double updated = estimate + weight;
+        // Conservative update: raise only the cells below the new estimate
+        for (int row = 0; row < depth; row++) {
+            int column = column(hash1, hash2, row);
+            if (counts[row][column] < updated) {
+                counts[row][column] = updated;
+            }
+        }
+        return updated;
+    }
+
+    void scale(double factor) {
+        for (double[] row : counts) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] *= factor;
+            }
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(depth);
+        for (double[] row : counts) {
+            for (double count : row) {
+                out.writeDouble(count);
+            }
+        }
+    }
+
+    /**
+     * Restore counts written by {@link #writeTo}; false (and nothing read into this sketch) when
+     * the dimensions differ
+     */
+    boolean readFrom(DataInputStream in) throws IOException {
+        int storedWidth = in.readInt();
+        int storedDepth = in.readInt();
+        if (storedWidth != width || storedDepth != depth) {
+            return false;
+        }
+        for (double[] row : counts) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = in.readDouble();
+            }
+        }
+        return true;
+    }
+
+    private int column(long hash1, long hash2, int row) {
+        return (int) Math.floorMod(hash1 + row * hash2, (long) width);
+    }
+}
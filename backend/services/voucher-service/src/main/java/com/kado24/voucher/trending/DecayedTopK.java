@@ -0,0 +1,108 @@
+package com.kado24.voucher.trending;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decayed counts and top-K candidates for one {@link TrendWindow}, overall and per category.
+ *
+ * Uses forward decay: an event at time t is added with weight e^((t - landmark) / tau) instead of
+ * decaying every counter as time passes, so ingest is O(depth + log K) and stored scores stay
+ * comparable. Scores are divided by e^((now - landmark) / tau) when read. When the weights grow
+ * large everything is rescaled once and the landmark moves forward. Not thread-safe.
+ */
+class DecayedTopK {
+
+    static final long ALL_CATEGORIES = 0;
+
+    private static final double RESCALE_EXPONENT = 32;
+
+    private final double tauMs;
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Map<Long, TopK> topByCategory = new HashMap<>();
+    private long landmarkMs;
+
+    DecayedTopK(TrendWindow window, int sketchWidth, int sketchDepth, int capacity, long nowMs) {
+        this.tauMs = window.getLength().toMillis();
+        this.capacity = capacity;
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+        this.landmarkMs = nowMs;
+    }
+
+    void add(long voucherId, Long categoryId, double weight, long timeMs) {
+        if ((timeMs - landmarkMs) / tauMs > RESCALE_EXPONENT) {
+            rescale(timeMs);
+        }
+        double score = sketch.add(voucherId, weight * Math.exp((timeMs - landmarkMs) / tauMs));
+        top(ALL_CATEGORIES).offer(voucherId, score);
+        if (categoryId != null) {
+            top(categoryId).offer(voucherId, score);
+        }
+    }
+
+    /**
+     * Ranked (voucherId, decayed score at {@code nowMs}) per category, highest first
+     */
+    Map<Long, List<TrendingEntry>> rankings(long nowMs) {
+        double factor = Math.exp(-(nowMs - landmarkMs) / tauMs);
+        Map<Long, List<TrendingEntry>> rankings = new HashMap<>();
+        topByCategory.forEach((categoryId, top) -> {
+            List<TrendingEntry> ranked = new ArrayList<>();
+            for (Map.Entry<Long, Double> entry : top.ranked()) {
+                ranked.add(new TrendingEntry(entry.getKey(), entry.getValue() * factor));
+            }
+            rankings.put(categoryId, ranked);
+        });
+        return rankings;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(landmarkMs);
+        sketch.writeTo(out);
+        out.writeInt(topByCategory.size());
+        for (Map.Entry<Long, TopK> category : topByCategory.entrySet()) {
+            out.writeLong(category.getKey());
+            Map<Long, Double> scores = category.getValue().scores();
+            out.writeInt(scores.size());
+            for (Map.Entry<Long, Double> score : scores.entrySet()) {
+                out.writeLong(score.getKey());
+                out.writeDouble(score.getValue());
+            }
+        }
+    }
+
+    boolean readFrom(DataInputStream in) throws IOException {
+        long storedLandmark = in.readLong();
+        if (!sketch.readFrom(in)) {
+            return false;
+        }
+        landmarkMs = storedLandmark;
+        topByCategory.clear();
+        int categories = in.readInt();
+        for (int i = 0; i < categories; i++) {
+            TopK top = top(in.readLong());
+            int entries = in.readInt();
+            for (int j = 0; j < entries; j++) {
+                top.offer(in.readLong(), in.readDouble());
+            }
+        }
+        return true;
+    }
+
+    private void rescale(long timeMs) {
+        double factor = Math.exp(-(timeMs - landmarkMs) / tauMs);
+        sketch.scale(factor);
+        topByCategory.values().forEach(top -> top.scale(factor));
+        landmarkMs = timeMs;
+    }
+
+    private TopK top(long categoryId) {
+        return topByCategory.computeIfAbsent(categoryId, id -> new TopK(capacity));
+    }
+}
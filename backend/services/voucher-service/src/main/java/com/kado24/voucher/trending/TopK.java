@@ -0,0 +1,71 @@
+package com.kado24.voucher.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Bounded set of the highest-scoring ids seen so far, ordered by score.
+ *
+ * An id outside the set displaces the current minimum once its score exceeds it, so with scores
+ * from a {@link CountMinSketch} the set converges on the heavy hitters. Updates are O(log capacity).
+ * Not thread-safe.
+ */
+class TopK {
+
+    private final int capacity;
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final TreeSet<Long> ordered = new TreeSet<>(
+            Comparator.<Long>comparingDouble(scores::get).thenComparing(Comparator.naturalOrder()));
+
+    TopK(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void offer(long id, double score) {
+        Double current = scores.get(id);
+        if (current != null) {
+            if (score > current) {
+                ordered.remove(id);
+                scores.put(id, score);
+                ordered.add(id);
+            }
+            return;
+        }
+        if (scores.size() >= capacity) {
+            long lowest = ordered.first();
+            if (score <= scores.get(lowest)) {
+                return;
+            }
+            ordered.pollFirst();
+            scores.remove(lowest);
+        }
+        scores.put(id, score);
+        ordered.add(id);
+    }
+
+    void scale(double factor) {
+        // The comparator reads the scores, so the tree is rebuilt around the new values
+        ordered.clear();
+        scores.replaceAll((id, score) -> score * factor);
+        ordered.addAll(scores.keySet());
+    }
+
+    /**
+     * Ids from highest to lowest score
+     */
+    List<Map.Entry<Long, Double>> ranked() {
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.size());
+        for (Long id : ordered.descendingSet()) {
+            ranked.add(Map.entry(id, scores.get(id)));
+        }
+        return ranked;
+    }
+
+    Map<Long, Double> scores() {
+        return scores;
+    }
+}
@@ -0,0 +1,39 @@
+package com.kado24.voucher.trending;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Trending horizons. Each is an exponentially decayed count whose mean lifetime is the window
+ * length, so an event weighs 1 when it happens, 1/e one window later, and old activity fades
+ * out instead of dropping off a cliff.
+ */
+public enum TrendWindow {
+
+    HOUR("1h", Duration.ofHours(1)),
+    DAY("24h", Duration.ofHours(24)),
+    WEEK("7d", Duration.ofDays(7));
+
+    private final String label;
+    private final Duration length;
+
+    TrendWindow(String label, Duration length) {
+        this.label = label;
+        this.length = length;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+
+    /**
+     * Window for "1h", "24h" or "7d"; null if unknown
+     */
+    public static TrendWindow fromLabel(String label) {
+        return Arrays.stream(values()).filter(window -> window.label.equalsIgnoreCase(label)).findFirst().orElse(null);
+    }
+}
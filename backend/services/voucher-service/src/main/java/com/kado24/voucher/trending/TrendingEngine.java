@@ -0,0 +1,92 @@
+package com.kado24.voucher.trending;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming top-K trending vouchers for every {@link TrendWindow}, overall and per category.
+ * Thread-safe; all operations take the engine's lock.
+ */
+public class TrendingEngine {
+
+    public static final long ALL_CATEGORIES = DecayedTopK.ALL_CATEGORIES;
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final int sketchWidth;
+    private final int sketchDepth;
+    private final int capacity;
+    private final Map<TrendWindow, DecayedTopK> windows = new EnumMap<>(TrendWindow.class);
+
+    public TrendingEngine(int sketchWidth, int sketchDepth, int capacity, long nowMs) {
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+        this.capacity = capacity;
+        for (TrendWindow window : TrendWindow.values()) {
+            windows.put(window, new DecayedTopK(window, sketchWidth, sketchDepth, capacity, nowMs));
+        }
+    }
+
+    /**
+     * Count {@code weight} for the voucher at {@code timeMs}; {@code categoryId} may be null
+     */
+    public synchronized void record(long voucherId, Long categoryId, double weight, long timeMs) {
+        for (DecayedTopK window : windows.values()) {
+            window.add(voucherId, categoryId, weight, timeMs);
+        }
+    }
+
+    /**
+     * Current rankings per window and category ({@link #ALL_CATEGORIES} for the whole catalog),
+     * at most {@code capacity} entries each
+     */
+    public synchronized Map<TrendWindow, Map<Long, List<TrendingEntry>>> rankings(long nowMs) {
+        Map<TrendWindow, Map<Long, List<TrendingEntry>>> rankings = new EnumMap<>(TrendWindow.class);
+        windows.forEach((window, counts) -> rankings.put(window, counts.rankings(nowMs)));
+        return rankings;
+    }
+
+    public synchronized byte[] snapshot() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(windows.size());
+            for (Map.Entry<TrendWindow, DecayedTopK> window : windows.entrySet()) {
+                out.writeUTF(window.getKey().name());
+                window.getValue().writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write trending snapshot", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replace the state with a snapshot. Returns false, leaving the state untouched, when the
+     * snapshot was taken with another version or sketch size.
+     */
+    public synchronized boolean restore(byte[] snapshot) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        if (in.readInt() != SNAPSHOT_VERSION) {
+            return false;
+        }
+        Map<TrendWindow, DecayedTopK> restored = new EnumMap<>(TrendWindow.class);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            TrendWindow window = TrendWindow.valueOf(in.readUTF());
+            DecayedTopK counts = new DecayedTopK(window, sketchWidth, sketchDepth, capacity, 0);
+            if (!counts.readFrom(in)) {
+                return false;
+            }
+            restored.put(window, counts);
+        }
+        windows.putAll(restored);
+        return true;
+    }
+}
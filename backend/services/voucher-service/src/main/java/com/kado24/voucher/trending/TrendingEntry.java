@@ -0,0 +1,7 @@
+package com.kado24.voucher.trending;
+
+/**
+ * A voucher and its decayed activity score (weighted events, roughly per window length)
+ */
+public record TrendingEntry(long voucherId, double score) {
+}
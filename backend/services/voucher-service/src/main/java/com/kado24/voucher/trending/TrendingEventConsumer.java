@@ -0,0 +1,61 @@
+package com.kado24.voucher.trending;
+
+import com.kado24.kafka.config.KafkaBatchConsumerConfig;
+import com.kado24.kafka.constants.KafkaTopics;
+import com.kado24.kafka.event.BaseEvent;
+import com.kado24.kafka.local.LocalEventListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds view and order events into {@link TrendingService}.
+ *
+ * Each instance joins its own consumer group, named after its host (the pod name), so it sees every
+ * event and a restart rejoins the same group rather than leaving an abandoned one behind. A new
+ * group starts from the latest offset: state from before the start comes from the Redis snapshot,
+ * not from replaying topics. {@code voucher.trending.kafka-consumer.enabled=false} keeps the
+ * listener from starting where Kafka is not deployed.
+ * In {@code local} publisher mode the views this service publishes itself arrive through
+ * {@link #consumeLocal} instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrendingEventConsumer {
+
+    private final TrendingService trendingService;
+
+    @KafkaListener(topics = {KafkaTopics.ANALYTICS_EVENTS, KafkaTopics.ORDER_EVENTS},
+            groupId = "${voucher.trending.kafka-consumer.group-id:voucher-trending-${HOSTNAME:local}}",
+            autoStartup = "${voucher.trending.kafka-consumer.enabled:true}",
+            containerFactory = KafkaBatchConsumerConfig.BATCH_LISTENER_FACTORY,
+            concurrency = "1",
+            properties = "auto.offset.reset=latest")
+    public void consume(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        List<BaseEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() instanceof BaseEvent event) {
+                events.add(event);
+            }
+        }
+        trendingService.record(events);
+        acknowledgment.acknowledge();
+        log.debug("Counted {} events for trending", events.size());
+    }
+
+    /**
+     * Local-mode delivery of the analytics events (voucher views) published by this JVM
+     */
+    @LocalEventListener(topics = KafkaTopics.ANALYTICS_EVENTS)
+    public void consumeLocal(List<BaseEvent> events) {
+        trendingService.record(events);
+        log.debug("Counted {} local events for trending", events.size());
+    }
+}
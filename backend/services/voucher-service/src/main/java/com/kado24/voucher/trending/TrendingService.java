@@ -0,0 +1,206 @@
+package com.kado24.voucher.trending;
+
+import com.kado24.kafka.event.AnalyticsEvent;
+import com.kado24.kafka.event.BaseEvent;
+import com.kado24.kafka.event.OrderEvent;
+import com.kado24.voucher.cache.VoucherChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trending vouchers from the analytics and order event streams.
+ *
+ * Views and paid orders feed a {@link TrendingEngine} in memory. Rankings are rebuilt from it
+ * when new events arrived, keeping only active vouchers, and published as an immutable snapshot,
+ * so a request is a map lookup plus copying at most K entries. Every instance consumes the full
+ * stream; the engine state is saved to Redis periodically and on shutdown, and restored on start.
+ */
+@Slf4j
+@Service
+public class TrendingService {
+
+    private static final String SNAPSHOT_KEY = "voucher:trending:snapshot";
+    private static final String ACTIVE_VOUCHERS_SQL =
+            "SELECT id, category_id FROM voucher_schema.vouchers WHERE status = 'ACTIVE'";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TrendingEngine engine;
+    private final double viewWeight;
+    private final double purchaseWeight;
+
+    /**
+     * Active voucher id to category id (0 when uncategorized)
+     */
+    private volatile Map<Long, Long> activeVouchers = new ConcurrentHashMap<>();
+    private volatile Map<TrendWindow, Map<Long, List<TrendingEntry>>> rankings = new EnumMap<>(TrendWindow.class);
+    private volatile boolean dirty;
+
+    @Value("${voucher.trending.snapshot-ttl-hours:192}")
+    private long snapshotTtlHours;
+
+    public TrendingService(StringRedisTemplate redisTemplate,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${voucher.trending.sketch-width:2048}") int sketchWidth,
+                           @Value("${voucher.trending.sketch-depth:4}") int sketchDepth,
+                           @Value("${voucher.trending.capacity:100}") int capacity,
+                           @Value("${voucher.trending.view-weight:1}") double viewWeight,
+                           @Value("${voucher.trending.purchase-weight:10}") double purchaseWeight) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.engine = new TrendingEngine(sketchWidth, sketchDepth, capacity, System.currentTimeMillis());
+        this.viewWeight = viewWeight;
+        this.purchaseWeight = purchaseWeight;
+    }
+
+    /**
+     * Runs before the listener containers start, so restored state is never overwritten
+     */
+    @PostConstruct
+    public void init() {
+        refreshActiveVouchers();
+        try {
+            String snapshot = redisTemplate.opsForValue().get(SNAPSHOT_KEY);
+            if (snapshot != null && engine.restore(Base64.getDecoder().decode(snapshot))) {
+                log.info("Restored trending state from Redis");
+                dirty = true;
+                refreshRankings();
+            }
+        } catch (Exception e) {
+            log.warn("Could not restore trending state, starting empty: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Count a batch of events: VOUCHER_VIEWED analytics events (coalesced ones count their
+     * occurrences) and ORDER_CONFIRMED orders, weighted by quantity. Purchases are taken from
+     * paid orders only, so a VOUCHER_PURCHASED analytics event would not count them twice.
+     */
+    public void record(List<? extends BaseEvent> events) {
+        long now = System.currentTimeMillis();
+        for (BaseEvent event : events) {
+            Long voucherId = null;
+            double weight = 0;
+            if (event instanceof AnalyticsEvent analytics
+                    && AnalyticsEvent.VOUCHER_VIEWED.equals(analytics.getEventType())) {
+                voucherId = analytics.getVoucherId();
+                weight = viewWeight * analytics.occurrences();
+            } else if (event instanceof OrderEvent order
+                    && OrderEvent.ORDER_CONFIRMED.equals(order.getEventType())) {
+                voucherId = order.getVoucherId();
+                weight = purchaseWeight * Math.max(1, order.getQuantity() != null ? order.getQuantity() : 1);
+            }
+            if (voucherId == null || weight <= 0) {
+                continue;
+            }
+            long timeMs = event.getTimestamp() != null
+                    ? Math.min(now, event.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                    : now;
+            Long categoryId = activeVouchers.get(voucherId);
+            engine.record(voucherId, categoryId != null && categoryId != 0 ? categoryId : null, weight, timeMs);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Top {@code limit} active vouchers of the window, for one category or all when null
+     */
+    public List<TrendingEntry> getTrending(TrendWindow window, Long categoryId, int limit) {
+        List<TrendingEntry> ranked = rankings.getOrDefault(window, Collections.emptyMap())
+                .getOrDefault(categoryId != null ? categoryId : TrendingEngine.ALL_CATEGORIES, Collections.emptyList());
+        return List.copyOf(ranked.subList(0, Math.min(limit, ranked.size())));
+    }
+
+    @Scheduled(fixedDelayString = "${voucher.trending.rankings-refresh-ms:1000}")
+    public void refreshRankings() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        Map<Long, Long> active = activeVouchers;
+        Map<TrendWindow, Map<Long, List<TrendingEntry>>> all = engine.rankings(System.currentTimeMillis());
+        Map<TrendWindow, Map<Long, List<TrendingEntry>>> published = new EnumMap<>(TrendWindow.class);
+        all.forEach((window, byCategory) -> {
+            Map<Long, List<TrendingEntry>> filtered = new HashMap<>();
+            // A voucher moved to another category leaves its old category's ranking here
+            byCategory.forEach((categoryId, entries) -> filtered.put(categoryId, entries.stream()
+                    .filter(entry -> categoryId == TrendingEngine.ALL_CATEGORIES
+                            ? active.containsKey(entry.voucherId())
+                            : categoryId.equals(active.get(entry.voucherId())))
+                    .toList()));
+            published.put(window, filtered);
+        });
+        rankings = published;
+    }
+
+    @Scheduled(fixedDelayString = "${voucher.trending.active-refresh-ms:60000}",
+            initialDelayString = "${voucher.trending.active-refresh-ms:60000}")
+    public void refreshActiveVouchers() {
+        try {
+            Map<Long, Long> active = new ConcurrentHashMap<>();
+            jdbcTemplate.query(ACTIVE_VOUCHERS_SQL, rs -> {
+                active.put(rs.getLong(1), rs.getLong(2));
+            });
+            activeVouchers = active;
+            dirty = true;
+        } catch (Exception e) {
+            log.warn("Failed to load active vouchers for trending: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Pick up publish, pause and category changes without waiting for the next full refresh
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoucherChanged(VoucherChangedEvent event) {
+        if (!event.listingChanged()) {
+            return;
+        }
+        try {
+            List<Long> categories = jdbcTemplate.queryForList(
+                    "SELECT COALESCE(category_id, 0) FROM voucher_schema.vouchers WHERE id = ? AND status = 'ACTIVE'",
+                    Long.class, event.voucherId());
+            if (categories.isEmpty()) {
+                activeVouchers.remove(event.voucherId());
+            } else {
+                activeVouchers.put(event.voucherId(), categories.get(0));
+            }
+            dirty = true;
+        } catch (Exception e) {
+            log.debug("Failed to refresh trending entry for voucher {}: {}", event.voucherId(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${voucher.trending.snapshot-interval-ms:60000}",
+            initialDelayString = "${voucher.trending.snapshot-interval-ms:60000}")
+    public void saveSnapshot() {
+        try {
+            redisTemplate.opsForValue().set(SNAPSHOT_KEY, Base64.getEncoder().encodeToString(engine.snapshot()),
+                    Duration.ofHours(snapshotTtlHours));
+        } catch (Exception e) {
+            log.warn("Failed to save trending snapshot to Redis: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        saveSnapshot();
+    }
+}
@@ -0,0 +1,127 @@
+package com.kado24.voucher.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contention benchmark: many buyers reserving one hot voucher.
+ *
+ * Compares a single exclusive lock held for a simulated transaction round trip (the in-process
+ * equivalent of the PESSIMISTIC_WRITE row lock) against {@link StripedStockCounter}, and checks
+ * that neither path oversells. Each run stops when stock is exhausted or after two seconds.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass="com.kado24.voucher.service.StockReservationBenchmark"
+ *      [-Dexec.args="threads stock lockHoldMicros"]
+ */
+public class StockReservationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 4;
+        int stock = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        long lockHoldMicros = args.length > 2 ? Long.parseLong(args[2]) : 200;
+
+        System.out.println("========================================");
+        System.out.println("Hot voucher reservation benchmark");
+        System.out.println("Threads: " + threads + ", stock: " + stock + ", row lock hold: " + lockHoldMicros + "us");
+        System.out.println("========================================");
+
+        for (int round = 1; round <= 3; round++) {
+            System.out.println("Round " + round);
+            run("Row lock", threads, stock, new LockedStock(stock, 0));
+            run("Row lock + round trip", threads, stock, new LockedStock(stock, lockHoldMicros));
+            run("Striped counter", threads, stock, new StripedStock(stock, 8));
+        }
+    }
+
+    private static void run(String name, int threads, int stock, Stock target) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicInteger sold = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    int local = 0;
+                    while (target.tryReserve(1)) {
+                        local++;
+                        if ((local & 63) == 0 && System.nanoTime() > deadline) {
+                            break;
+                        }
+                    }
+                    sold.addAndGet(local);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - begin;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        double perSecond = sold.get() / (elapsedNanos / 1_000_000_000.0);
+        System.out.printf("  %-22s %,14.0f reservations/s  sold=%d oversold=%s%n",
+                name, perSecond, sold.get(), sold.get() > stock);
+    }
+
+    private interface Stock {
+        boolean tryReserve(int quantity);
+    }
+
+    private static final class LockedStock implements Stock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long holdNanos;
+        private int remaining;
+
+        private LockedStock(int stock, long holdMicros) {
+            this.remaining = stock;
+            this.holdNanos = TimeUnit.MICROSECONDS.toNanos(holdMicros);
+        }
+
+        @Override
+        public boolean tryReserve(int quantity) {
+            lock.lock();
+            try {
+                if (remaining < quantity) {
+                    return false;
+                }
+                remaining -= quantity;
+                if (holdNanos > 0) {
+                    // SELECT ... FOR UPDATE, UPDATE and COMMIT all happen while the row is locked
+                    LockSupport.parkNanos(holdNanos);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class StripedStock implements Stock {
+        private final StripedStockCounter counter;
+
+        private StripedStock(int stock, int stripes) {
+            this.counter = new StripedStockCounter(stripes);
+            this.counter.deposit(stock);
+        }
+
+        @Override
+        public boolean tryReserve(int quantity) {
+            return counter.tryAcquire(quantity);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.kado24.voucher.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockCounterTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void concurrentAcquisitionsNeverExceedDeposits() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8);
+        counter.deposit(100_000);
+
+        long acquired = sum(runConcurrently(() -> {
+            long taken = 0;
+            int quantity;
+            while (counter.tryAcquire(quantity = 1 + ThreadLocalRandom.current().nextInt(5))) {
+                taken += quantity;
+            }
+            return taken;
+        }));
+
+        assertThat(acquired).isLessThanOrEqualTo(100_000);
+        assertThat(acquired + counter.available()).isEqualTo(100_000);
+        assertThat(counter.available()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void unitsAreConservedWhileDepositsReleasesAndDrainsRace() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8);
+        counter.deposit(10_000);
+
+        List<Long> results = runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long net = 0;
+            for (int i = 0; i < 20_000; i++) {
+                int quantity = 1 + random.nextInt(3);
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        counter.deposit(quantity);
+                        net -= quantity;
+                    }
+                    case 1 -> net += counter.drain();
+                    default -> {
+                        if (counter.tryAcquire(quantity)) {
+                            net += quantity;
+                            if (random.nextBoolean()) {
+                                counter.release(quantity);
+                                net -= quantity;
+                            }
+                        }
+                    }
+                }
+            }
+            return net;
+        });
+
+        // Everything deposited was either taken out (acquired or drained) or is still held
+        assertThat(sum(results) + counter.available()).isEqualTo(10_000);
+        assertThat(counter.available()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void multiUnitRequestsCollectAcrossStripesOrTakeNothing() {
+        StripedStockCounter counter = new StripedStockCounter(8);
+        counter.deposit(7);
+
+        assertThat(counter.tryAcquire(8)).isFalse();
+        assertThat(counter.available()).isEqualTo(7);
+        assertThat(counter.tryAcquire(7)).isTrue();
+        assertThat(counter.tryAcquire(1)).isFalse();
+        assertThat(counter.drain()).isZero();
+    }
+
+    private static List<Long> runConcurrently(Callable<Long> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<Long> results = new ArrayList<>();
+            for (Future<Long> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long sum(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,240 @@
+package com.kado24.voucher.service;
+
+import com.kado24.voucher.repository.VoucherRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Several ledgers, standing in for service instances, leasing from one voucher row. The row is
+ * simulated with the same conditional claim, epoch and batch statements the ledger issues.
+ */
+class VoucherStockLedgerTest {
+
+    private static final Long VOUCHER_ID = 42L;
+
+    private VoucherRow row;
+    private VoucherRepository voucherRepository;
+    private JdbcTemplate jdbcTemplate;
+    private StringRedisTemplate redisTemplate;
+    private final List<VoucherStockLedger> instances = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        row = new VoucherRow();
+        voucherRepository = mock(VoucherRepository.class);
+        when(voucherRepository.claimStock(eq(VOUCHER_ID), anyInt(), anyInt()))
+                .thenAnswer(call -> row.claim(call.getArgument(1), call.getArgument(2)));
+        when(voucherRepository.findStockEpoch(VOUCHER_ID)).thenAnswer(call -> row.epoch());
+        when(voucherRepository.findStockEpochsByIdIn(anyCollection()))
+                .thenAnswer(call -> List.<Object[]>of(new Object[]{VOUCHER_ID, row.epoch()}));
+
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(call -> {
+            String sql = call.getArgument(0);
+            List<Object[]> batch = call.getArgument(1);
+            for (Object[] args : batch) {
+                if (sql.contains("total_sold")) {
+                    row.flushSold((Long) args[0], (Boolean) args[1], (Long) args[2]);
+                } else {
+                    row.returnStock((Long) args[0], (Long) args[2]);
+                }
+            }
+            return new int[batch.size()];
+        });
+
+        // Deliver invalidations to every instance, as the Redis channel would
+        redisTemplate = mock(StringRedisTemplate.class);
+        doAnswer(call -> {
+            DefaultMessage message = new DefaultMessage(
+                    VoucherStockLedger.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    call.<String>getArgument(1).getBytes(StandardCharsets.UTF_8));
+            instances.forEach(instance -> instance.onMessage(message, null));
+            return 1L;
+        }).when(redisTemplate).convertAndSend(eq(VoucherStockLedger.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void concurrentReservationsAcrossInstancesNeverOversell() throws Exception {
+        row.set(10_000);
+        List<VoucherStockLedger> ledgers = List.of(newInstance(), newInstance(), newInstance());
+
+        ExecutorService pool = Executors.newFixedThreadPool(24);
+        List<Future<Long>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 24; t++) {
+            VoucherStockLedger ledger = ledgers.get(t % ledgers.size());
+            futures.add(pool.submit(() -> {
+                start.await();
+                long sold = 0;
+                int quantity;
+                while (ledger.tryReserve(VOUCHER_ID, quantity = 1 + ThreadLocalRandom.current().nextInt(3))) {
+                    sold += quantity;
+                }
+                return sold;
+            }));
+        }
+        start.countDown();
+        long sold = 0;
+        for (Future<Long> future : futures) {
+            sold += future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdownNow();
+        ledgers.forEach(VoucherStockLedger::shutdown);
+
+        assertThat(row.sold()).isEqualTo(sold);
+        assertThat(row.stock()).isGreaterThanOrEqualTo(0);
+        assertThat(row.stock() + row.sold()).isEqualTo(10_000);
+    }
+
+    @Test
+    void stockOverwriteInvalidatesLeasesOnEveryInstance() {
+        row.set(1_000);
+        VoucherStockLedger updater = newInstance();
+        VoucherStockLedger other = newInstance();
+        assertThat(other.tryReserve(VOUCHER_ID, 1)).isTrue();
+        assertThat(other.available(VOUCHER_ID)).isEqualTo(49);
+
+        // The merchant sets the stock to 10 through the updating instance
+        row.overwrite(10);
+        updater.invalidate(VOUCHER_ID, row.epoch());
+
+        assertThat(other.available(VOUCHER_ID)).isZero();
+        assertThat(other.tryReserve(VOUCHER_ID, 1)).isFalse();
+        other.shutdown();
+        // The lease remainder is not returned; its unflushed sale is charged to the new stock
+        assertThat(row.stock()).isEqualTo(9);
+        assertThat(row.sold()).isEqualTo(1);
+    }
+
+    @Test
+    void flushDropsSupersededLeaseWhenInvalidationWasMissed() {
+        row.set(1_000);
+        VoucherStockLedger ledger = newInstance();
+        assertThat(ledger.tryReserve(VOUCHER_ID, 1)).isTrue();
+        ledger.flush();
+        assertThat(row.stock()).isEqualTo(950);
+
+        // Overwritten elsewhere and the message lost: sales keep coming from the stale lease
+        row.overwrite(10);
+        for (int i = 0; i < 5; i++) {
+            assertThat(ledger.tryReserve(VOUCHER_ID, 1)).isTrue();
+        }
+        ledger.flush();
+
+        assertThat(ledger.available(VOUCHER_ID)).isZero();
+        assertThat(row.stock()).isEqualTo(5);
+        assertThat(row.sold()).isEqualTo(6);
+    }
+
+    @Test
+    void rowLockFallbackDoesNotFoldInSupersededLease() {
+        row.set(1_000);
+        VoucherStockLedger ledger = newInstance();
+        assertThat(ledger.tryReserve(VOUCHER_ID, 1)).isTrue();
+
+        row.overwrite(10);
+
+        assertThat(ledger.drainLease(VOUCHER_ID, row.epoch())).isZero();
+        assertThat(ledger.available(VOUCHER_ID)).isZero();
+    }
+
+    @Test
+    void currentLeaseIsFoldedIntoRowLockFallback() {
+        row.set(1_000);
+        VoucherStockLedger ledger = newInstance();
+        assertThat(ledger.tryReserve(VOUCHER_ID, 1)).isTrue();
+
+        assertThat(ledger.drainLease(VOUCHER_ID, row.epoch())).isEqualTo(49);
+        assertThat(ledger.available(VOUCHER_ID)).isZero();
+    }
+
+    private VoucherStockLedger newInstance() {
+        VoucherStockLedger ledger = new VoucherStockLedger(voucherRepository, jdbcTemplate,
+                mock(PlatformTransactionManager.class), redisTemplate, mock(RedisMessageListenerContainer.class));
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(ledger, "leaseSize", 50);
+        ReflectionTestUtils.setField(ledger, "lowStockThreshold", 20);
+        ReflectionTestUtils.setField(ledger, "stripes", 8);
+        ReflectionTestUtils.setField(ledger, "claimBackoffMs", 0L);
+        ReflectionTestUtils.setField(ledger, "idleLeaseTtlMs", 300_000L);
+        instances.add(ledger);
+        return ledger;
+    }
+
+    /**
+     * stock_quantity, total_sold and stock_epoch of one voucher, updated under the row lock
+     */
+    private static final class VoucherRow {
+        private long stock;
+        private long sold;
+        private long epoch;
+
+        synchronized void set(long stock) {
+            this.stock = stock;
+        }
+
+        synchronized void overwrite(long stock) {
+            this.stock = stock;
+            this.epoch++;
+        }
+
+        synchronized int claim(int quantity, int reserve) {
+            if (stock < quantity + reserve) {
+                return 0;
+            }
+            stock -= quantity;
+            return 1;
+        }
+
+        synchronized void flushSold(long delta, boolean charged, long saleEpoch) {
+            sold += delta;
+            if (charged && epoch != saleEpoch) {
+                stock -= delta;
+            }
+        }
+
+        synchronized void returnStock(long units, long leaseEpoch) {
+            if (epoch == leaseEpoch) {
+                stock += units;
+            }
+        }
+
+        synchronized long stock() {
+            return stock;
+        }
+
+        synchronized long sold() {
+            return sold;
+        }
+
+        synchronized long epoch() {
+            return epoch;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.kado24.voucher.trending;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Accuracy and throughput benchmark for {@link TrendingEngine}.
+ *
+ * Feeds a Zipf-distributed stream of views over a large catalog into the engine and into an
+ * exact decayed counter, then reports how many of the exact top 10 the engine returns per
+ * window (recall) and the recording rate.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass="com.kado24.voucher.trending.TrendingBenchmark"
+ *      [-Dexec.args="events vouchers zipfExponent"]
+ */
+public class TrendingBenchmark {
+
+    private static final int TOP = 10;
+
+    public static void main(String[] args) {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int vouchers = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        double exponent = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        System.out.println("========================================");
+        System.out.println("Trending top-K benchmark");
+        System.out.println("Events: " + events + ", vouchers: " + vouchers + ", zipf exponent: " + exponent);
+        System.out.println("========================================");
+
+        double[] cumulative = zipf(vouchers, exponent);
+        Random random = new Random(42);
+        long start = 0;
+        long spanMs = 6 * 3_600_000L;
+        long[] voucherIds = new long[events];
+        long[] times = new long[events];
+        for (int i = 0; i < events; i++) {
+            // Shuffle ranks onto ids so the hot vouchers are not the smallest ids
+            voucherIds[i] = mixRank(sample(cumulative, random.nextDouble()), vouchers);
+            times[i] = start + spanMs * i / events;
+        }
+
+        TrendingEngine engine = new TrendingEngine(2048, 4, 100, start);
+        long began = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            engine.record(voucherIds[i], null, 1, times[i]);
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        System.out.printf("Recorded %,d events in %.2fs (%,.0f events/s)%n", events, seconds, events / seconds);
+
+        long now = start + spanMs;
+        Map<TrendWindow, Map<Long, List<TrendingEntry>>> rankings = engine.rankings(now);
+        for (TrendWindow window : TrendWindow.values()) {
+            Map<Long, Double> exact = new HashMap<>();
+            double tau = window.getLength().toMillis();
+            for (int i = 0; i < events; i++) {
+                exact.merge(voucherIds[i], Math.exp((times[i] - now) / tau), Double::sum);
+            }
+            Set<Long> expected = new HashSet<>();
+            exact.entrySet().stream()
+                    .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
+                    .limit(TOP)
+                    .forEach(entry -> expected.add(entry.getKey()));
+            List<TrendingEntry> ranked = rankings.get(window).get(TrendingEngine.ALL_CATEGORIES);
+            long hits = ranked.stream().limit(TOP).filter(entry -> expected.contains(entry.voucherId())).count();
+            System.out.printf("%-4s recall@%d: %d/%d%n", window.getLabel(), TOP, hits, TOP);
+        }
+    }
+
+    private static double[] zipf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, double u) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long mixRank(int rank, int vouchers) {
+        return 1 + (rank * 0x9E3779B1L) % (vouchers * 7L);
+    }
+}
@@ -1,15 +1,26 @@
 package com.kado24.wallet.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
+
+    @Value("${services.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${services.http.read-timeout-ms:3000}")
+    private int readTimeoutMs;
     
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        // Bounded so a slow voucher/merchant service cannot hold wallet requests indefinitely
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return new RestTemplate(requestFactory);
     }
 }
-
@@ -4,12 +4,21 @@ import com.kado24.common.dto.*;
 import com.kado24.wallet.dto.GiftVoucherRequest;
 import com.kado24.wallet.dto.WalletVoucherDTO;
 import com.kado24.wallet.service.WalletService;
+import com.kado24.wallet.util.QRCodeGenerator;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 @RestController
 @RequestMapping("/api/v1/wallet")
@@ -17,17 +26,18 @@ import org.springframework.web.bind.annotation.*;
 public class WalletController {
 
     private final WalletService walletService;
+    private final QRCodeGenerator qrCodeGenerator;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<WalletVoucherDTO>>> getMyVouchers(
+    public ResponseEntity<ApiResponse<Slice<WalletVoucherDTO>>> getMyVouchers(
             HttpServletRequest request,
             @ModelAttribute PageRequest pageRequest) {
         
         Long userId = (Long) request.getAttribute("userId");
-        Page<WalletVoucherDTO> vouchers = walletService.getMyVouchers(userId, pageRequest.toSpringPageRequest());
+        Slice<WalletVoucherDTO> vouchers = walletService.getMyVouchers(userId, pageRequest);
         
-        PaginationMeta pagination = PaginationMeta.from(
-                vouchers.getNumber(), vouchers.getSize(), vouchers.getTotalElements());
+        PaginationMeta pagination = PaginationMeta.of(pageRequest, vouchers,
+                voucher -> PageCursor.of(voucher.getPurchasedAt(), voucher.getId()));
         
         return ResponseEntity.ok(ApiResponse.paginated(vouchers, pagination));
     }
@@ -43,6 +53,32 @@ public class WalletController {
         return ResponseEntity.ok(ApiResponse.success(voucher));
     }
 
+    /**
+     * QR code of a wallet voucher as a PNG, rendered on demand. Vouchers change hands (gifts), so
+     * the browser must revalidate before every reuse: ownership is checked each time and an
+     * unchanged code costs a 304 by ETag, without rendering.
+     */
+    @GetMapping(value = "/{voucherId}/qr", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getVoucherQrCode(
+            HttpServletRequest request,
+            WebRequest webRequest,
+            @PathVariable Long voucherId) {
+
+        Long userId = (Long) request.getAttribute("userId");
+        String voucherCode = walletService.getVoucherCode(voucherId, userId);
+
+        String etag = qrCodeETag(voucherCode);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.IMAGE_PNG)
+                .body(qrCodeGenerator.renderPng(voucherCode));
+    }
+
     @PostMapping("/{voucherId}/gift")
     public ResponseEntity<ApiResponse<WalletVoucherDTO>> giftVoucher(
             HttpServletRequest request,
@@ -55,20 +91,17 @@ public class WalletController {
 
         return ResponseEntity.ok(ApiResponse.success("Voucher gifted successfully", giftedVoucher));
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+    /**
+     * Derived from the code and image size, so it is stable without rendering and never exposes the code
+     */
+    private String qrCodeETag(String voucherCode) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((voucherCode + "|" + qrCodeGenerator.getSize()).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
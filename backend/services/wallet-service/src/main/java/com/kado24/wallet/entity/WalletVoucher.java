@@ -8,15 +8,22 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "wallet_vouchers", schema = "wallet_schema")
+@Table(name = "wallet_vouchers", schema = "wallet_schema", indexes = {
+        @Index(name = "idx_wallet_vouchers_user_purchased", columnList = "userId, purchasedAt, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class WalletVoucher {
 
+    /**
+     * Pooled sequence ids (one nextval per 50 rows) so bulk issuance can use JDBC batch inserts
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_vouchers_id_seq")
+    @SequenceGenerator(name = "wallet_vouchers_id_seq", schema = "wallet_schema",
+            sequenceName = "wallet_vouchers_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -3,22 +3,44 @@ package com.kado24.wallet.repository;
 import com.kado24.wallet.entity.WalletVoucher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WalletVoucherRepository extends JpaRepository<WalletVoucher, Long> {
 
     Optional<WalletVoucher> findByVoucherCode(String voucherCode);
+
+    @Query("SELECT w.voucherCode FROM WalletVoucher w WHERE w.voucherCode IN :codes")
+    List<String> findExistingVoucherCodes(@Param("codes") Collection<String> codes);
     
     Page<WalletVoucher> findByUserIdOrderByPurchasedAtDesc(Long userId, Pageable pageable);
+
+    Slice<WalletVoucher> findSliceByUserIdOrderByPurchasedAtDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("SELECT w FROM WalletVoucher w WHERE w.userId = :userId " +
+           "AND (w.purchasedAt < :purchasedAt OR (w.purchasedAt = :purchasedAt AND w.id < :id)) " +
+           "ORDER BY w.purchasedAt DESC, w.id DESC")
+    Slice<WalletVoucher> findByUserIdBefore(@Param("userId") Long userId,
+                                            @Param("purchasedAt") LocalDateTime purchasedAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
     
     Page<WalletVoucher> findByUserIdAndStatusOrderByPurchasedAtDesc(
             Long userId, WalletVoucher.VoucherStatus status, Pageable pageable);
     
     Optional<WalletVoucher> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT w.voucherCode FROM WalletVoucher w WHERE w.id = :id AND w.userId = :userId")
+    Optional<String> findVoucherCodeByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
     
     long countByUserIdAndStatus(Long userId, WalletVoucher.VoucherStatus status);
 }
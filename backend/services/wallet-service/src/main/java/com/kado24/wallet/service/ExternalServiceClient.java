@@ -1,21 +1,59 @@
 package com.kado24.wallet.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.kado24.common.dto.ApiResponse;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
+/**
+ * Voucher title and merchant name lookups for wallet DTOs.
+ *
+ * Names are resolved in bulk through the internal /titles and /names endpoints of voucher-service
+ * and merchant-service, and cached locally. Ids the owning service does not know are cached as
+ * misses for a shorter time, so a deleted voucher does not cost a call on every page. Failed
+ * calls are not cached.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ExternalServiceClient {
 
+    /**
+     * Matches the per-request limit of the bulk endpoints
+     */
+    private static final int MAX_IDS_PER_REQUEST = 500;
+
+    private static final ParameterizedTypeReference<ApiResponse<Map<Long, String>>> NAME_MAP_RESPONSE =
+            new ParameterizedTypeReference<>() {};
+
     private final RestTemplate restTemplate;
+    private final Cache<Long, Optional<String>> voucherTitles;
+    private final Cache<Long, Optional<String>> merchantNames;
+    private final ExecutorService lookupExecutor;
 
     @Value("${services.voucher.url:http://kado24-voucher-service:8083}")
     private String voucherServiceUrl;
@@ -23,87 +61,166 @@ public class ExternalServiceClient {
     @Value("${services.merchant.url:http://kado24-merchant-service:8088}")
     private String merchantServiceUrl;
 
-    @SuppressWarnings("unchecked")
+    @Value("${internal.api.secret:kado24-internal-secret}")
+    private String internalSecret;
+
+    public ExternalServiceClient(RestTemplate restTemplate,
+                                 @Value("${wallet.name-cache.max-size:10000}") long maxSize,
+                                 @Value("${wallet.name-cache.ttl-seconds:600}") long ttlSeconds,
+                                 @Value("${wallet.name-cache.negative-ttl-seconds:60}") long negativeTtlSeconds,
+                                 @Value("${wallet.name-cache.lookup-threads:4}") int lookupThreads) {
+        this.restTemplate = restTemplate;
+        this.voucherTitles = buildCache(maxSize, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds));
+        this.merchantNames = buildCache(maxSize, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.lookupExecutor = Executors.newFixedThreadPool(lookupThreads, runnable -> {
+            Thread thread = new Thread(runnable, "wallet-name-lookup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     public String getVoucherTitle(Long voucherId) {
-        try {
-            String url = voucherServiceUrl + "/api/v1/vouchers/" + voucherId;
-            log.debug("Fetching voucher title from: {}", url);
-            Map<String, Object> response = restTemplate.exchange(
-                url, 
-                HttpMethod.GET, 
-                null, 
-                new ParameterizedTypeReference<Map<String, Object>>() {}
-            ).getBody();
-            
-            if (response != null && response.containsKey("data")) {
-                Object dataObj = response.get("data");
-                if (dataObj instanceof Map) {
-                    Map<String, Object> data = (Map<String, Object>) dataObj;
-                    if (data.containsKey("title")) {
-                        Object title = data.get("title");
-                        String titleStr = title != null ? title.toString() : null;
-                        log.debug("Fetched voucher title: {}", titleStr);
-                        return titleStr;
-                    }
+        return voucherId != null ? getVoucherTitles(List.of(voucherId)).get(voucherId) : null;
+    }
+
+    public String getMerchantName(Long merchantId) {
+        return merchantId != null ? getMerchantNames(List.of(merchantId)).get(merchantId) : null;
+    }
+
+    /**
+     * Titles for the given voucher ids; ids that are unknown or could not be resolved are absent
+     */
+    public Map<Long, String> getVoucherTitles(Collection<Long> voucherIds) {
+        return resolve(voucherIds, voucherTitles, this::fetchVoucherTitles);
+    }
+
+    /**
+     * Business names for the given merchant ids; ids that are unknown or could not be resolved are absent
+     */
+    public Map<Long, String> getMerchantNames(Collection<Long> merchantIds) {
+        return resolve(merchantIds, merchantNames, this::fetchMerchantNames);
+    }
+
+    /**
+     * Resolve voucher titles and merchant names together. When both need a remote call, the two
+     * calls run concurrently.
+     */
+    public Names lookupNames(Collection<Long> voucherIds, Collection<Long> merchantIds) {
+        boolean titlesCached = voucherTitles.getAllPresent(nonNull(voucherIds)).size() == nonNull(voucherIds).size();
+        if (titlesCached) {
+            return new Names(getVoucherTitles(voucherIds), getMerchantNames(merchantIds));
+        }
+        CompletableFuture<Map<Long, String>> titles =
+                CompletableFuture.supplyAsync(() -> getVoucherTitles(voucherIds), lookupExecutor);
+        Map<Long, String> merchants = getMerchantNames(merchantIds);
+        return new Names(titles.join(), merchants);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+
+    private Map<Long, String> resolve(Collection<Long> ids,
+                                      Cache<Long, Optional<String>> cache,
+                                      Function<List<Long>, Map<Long, String>> fetcher) {
+        Set<Long> wanted = nonNull(ids);
+        Map<Long, String> resolved = new HashMap<>();
+        if (wanted.isEmpty()) {
+            return resolved;
+        }
+
+        Map<Long, Optional<String>> cached = cache.getAllPresent(wanted);
+        cached.forEach((id, name) -> name.ifPresent(value -> resolved.put(id, value)));
+
+        List<Long> missing = wanted.stream().filter(id -> !cached.containsKey(id)).toList();
+        for (int from = 0; from < missing.size(); from += MAX_IDS_PER_REQUEST) {
+            List<Long> chunk = missing.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, missing.size()));
+            Map<Long, String> fetched = fetcher.apply(chunk);
+            if (fetched == null) {
+                continue;
+            }
+            for (Long id : chunk) {
+                String name = fetched.get(id);
+                cache.put(id, Optional.ofNullable(name));
+                if (name != null) {
+                    resolved.put(id, name);
                 }
             }
-            log.warn("Voucher response missing title field for voucherId: {}", voucherId);
-        } catch (Exception e) {
-            log.error("Failed to fetch voucher title for voucherId {}: {}", voucherId, e.getMessage(), e);
         }
-        return null;
+        return resolved;
     }
 
-    @SuppressWarnings("unchecked")
-    public String getMerchantName(Long merchantId) {
+    private Map<Long, String> fetchVoucherTitles(List<Long> voucherIds) {
+        return fetchNames(voucherServiceUrl + "/api/v1/vouchers/internal/titles", voucherIds, "voucher titles");
+    }
+
+    private Map<Long, String> fetchMerchantNames(List<Long> merchantIds) {
+        return fetchNames(merchantServiceUrl + "/api/v1/merchants/internal/names", merchantIds, "merchant names");
+    }
+
+    /**
+     * POST the ids to a bulk endpoint; null when the call failed, so nothing gets cached
+     */
+    private Map<Long, String> fetchNames(String url, List<Long> ids, String what) {
         try {
-            // Use internal endpoint with internal secret
-            String url = merchantServiceUrl + "/api/v1/merchants/internal/" + merchantId;
-            log.debug("Fetching merchant name from internal endpoint: {}", url);
-            
-            org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-            headers.set("X-Internal-Secret", "kado24-internal-secret");
-            org.springframework.http.HttpEntity<?> entity = new org.springframework.http.HttpEntity<>(headers);
-            
-            Map<String, Object> response = restTemplate.exchange(
-                url, 
-                HttpMethod.GET, 
-                entity, 
-                new ParameterizedTypeReference<Map<String, Object>>() {}
-            ).getBody();
-            
-            if (response != null && response.containsKey("data")) {
-                Object dataObj = response.get("data");
-                if (dataObj instanceof Map) {
-                    Map<String, Object> data = (Map<String, Object>) dataObj;
-                    String name = extractMerchantName(data);
-                    if (name != null) {
-                        log.debug("Fetched merchant name: {}", name);
-                        return name;
-                    }
-                }
+            log.debug("Fetching {} {} from {}", ids.size(), what, url);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("X-Internal-Secret", internalSecret);
+
+            ApiResponse<Map<Long, String>> response = restTemplate.exchange(
+                    url, HttpMethod.POST, new HttpEntity<>(ids, headers), NAME_MAP_RESPONSE).getBody();
+            if (response != null && response.getData() != null) {
+                return response.getData();
             }
-            log.warn("Merchant response missing name field for merchantId: {}", merchantId);
+            log.warn("Empty response fetching {} for ids: {}", what, ids);
         } catch (Exception e) {
-            log.error("Failed to fetch merchant name for merchantId {}: {}", merchantId, e.getMessage(), e);
+            log.error("Failed to fetch {} for ids {}: {}", what, ids, e.getMessage());
         }
         return null;
     }
-    
-    private String extractMerchantName(Map<String, Object> data) {
-        if (data.containsKey("name")) {
-            Object name = data.get("name");
-            if (name != null) {
-                return name.toString();
-            }
+
+    private static Set<Long> nonNull(Collection<Long> ids) {
+        Set<Long> result = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(result::add);
         }
-        if (data.containsKey("businessName")) {
-            Object businessName = data.get("businessName");
-            if (businessName != null) {
-                return businessName.toString();
-            }
+        return result;
+    }
+
+    private static Cache<Long, Optional<String>> buildCache(long maxSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Optional<String>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<String> name, long currentTime) {
+                        return (name.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<String> name, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, name, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<String> name, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public record Names(Map<Long, String> voucherTitles, Map<Long, String> merchantNames) {
+
+        public String voucherTitle(Long voucherId) {
+            return voucherId != null ? voucherTitles.get(voucherId) : null;
+        }
+
+        public String merchantName(Long merchantId) {
+            return merchantId != null ? merchantNames.get(merchantId) : null;
         }
-        return null;
     }
 }
-
@@ -1,5 +1,7 @@
 package com.kado24.wallet.service;
 
+import com.kado24.common.dto.PageCursor;
+import com.kado24.common.dto.PageRequest;
 import com.kado24.common.exception.BusinessException;
 import com.kado24.common.exception.ResourceNotFoundException;
 import com.kado24.common.util.StringUtil;
@@ -13,16 +15,19 @@ import com.kado24.wallet.repository.WalletVoucherRepository;
 import com.kado24.wallet.util.QRCodeGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -35,64 +40,128 @@ public class WalletService {
     private final QRCodeGenerator qrCodeGenerator;
     private final ExternalServiceClient externalServiceClient;
 
+    /**
+     * Upper bound on attempts to find unused codes for one order before giving up
+     */
+    private static final int MAX_CODE_GENERATION_ROUNDS = 5;
+
+    /**
+     * Whether issuance still stores a Base64 PNG per voucher. When off, nothing is rendered at
+     * issuance and every DTO points at the on-demand QR endpoint instead.
+     */
+    @Value("${wallet.qr.persist-base64:true}")
+    private boolean persistQrBase64;
+
     @Transactional
     public WalletVoucherDTO createWalletVoucher(Long orderId, Long userId, Long voucherId, 
                                                  Long merchantId, BigDecimal denomination) {
-        log.info("Creating wallet voucher for order: {}", orderId);
+        return createWalletVouchers(orderId, userId, voucherId, merchantId, denomination, 1).get(0);
+    }
 
-        String voucherCode = StringUtil.generateVoucherCode();
-        String qrCode = qrCodeGenerator.generateQRCodeBase64(voucherCode);
+    /**
+     * Issue all vouchers of an order at once: codes are generated and checked for collisions in
+     * one query, rows go out as JDBC batches, names are looked up once and the user gets a single
+     * notification for the whole order.
+     */
+    @Transactional
+    public List<WalletVoucherDTO> createWalletVouchers(Long orderId,
+                                                       Long userId,
+                                                       Long voucherId,
+                                                       Long merchantId,
+                                                       BigDecimal denomination,
+                                                       int quantity) {
+        log.info("Creating {} wallet vouchers for order: {}", quantity, orderId);
+
+        List<String> voucherCodes = generateUniqueVoucherCodes(quantity);
+        List<String> qrCodes;
+        if (!persistQrBase64) {
+            qrCodes = Collections.nCopies(quantity, "");
+        } else if (quantity > 1) {
+            qrCodes = voucherCodes.parallelStream().map(qrCodeGenerator::generateQRCodeBase64).toList();
+        } else {
+            qrCodes = voucherCodes.stream().map(qrCodeGenerator::generateQRCodeBase64).toList();
+        }
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime expiresAt = now.plusYears(1);
 
-        WalletVoucher voucher = WalletVoucher.builder()
-                .voucherCode(voucherCode)
-                .qrCodeUrl(qrCode)
-                .userId(userId)
-                .voucherId(voucherId)
-                .orderId(orderId)
-                .merchantId(merchantId)
-                .denomination(denomination)
-                .voucherValue(denomination)
-                .remainingValue(denomination)
-                .status(WalletVoucher.VoucherStatus.ACTIVE)
-                .validFrom(now)
-                .validUntil(expiresAt)
-                .expiresAt(expiresAt)
-                .build();
+        List<WalletVoucher> vouchers = new ArrayList<>(quantity);
+        for (int i = 0; i < quantity; i++) {
+            vouchers.add(WalletVoucher.builder()
+                    .voucherCode(voucherCodes.get(i))
+                    .qrCodeUrl(qrCodes.get(i))
+                    .userId(userId)
+                    .voucherId(voucherId)
+                    .orderId(orderId)
+                    .merchantId(merchantId)
+                    .denomination(denomination)
+                    .voucherValue(denomination)
+                    .remainingValue(denomination)
+                    .status(WalletVoucher.VoucherStatus.ACTIVE)
+                    .validFrom(now)
+                    .validUntil(expiresAt)
+                    .expiresAt(expiresAt)
+                    .build());
+        }
 
-        voucher = repository.save(voucher);
+        vouchers = repository.saveAll(vouchers);
 
-        log.info("Wallet voucher created: {}", voucherCode);
+        log.info("Wallet vouchers created for order {}: {}", orderId, voucherCodes);
 
-        publishVoucherCreatedNotification(voucher);
+        publishVouchersCreatedNotification(orderId, userId, vouchers);
 
-        WalletVoucherDTO dto = mapper.toDTO(voucher);
-        enrichDTOWithNames(dto, voucher);
-        return dto;
+        ExternalServiceClient.Names names = externalServiceClient.lookupNames(List.of(voucherId), List.of(merchantId));
+        return vouchers.stream()
+                .map(voucher -> {
+                    WalletVoucherDTO dto = toDTO(voucher);
+                    applyNames(dto, names);
+                    return dto;
+                })
+                .toList();
     }
 
-    @Transactional
-    public List<WalletVoucherDTO> createWalletVouchers(Long orderId,
-                                                       Long userId,
-                                                       Long voucherId,
-                                                       Long merchantId,
-                                                       BigDecimal denomination,
-                                                       int quantity) {
-        List<WalletVoucherDTO> vouchers = new ArrayList<>();
-        for (int i = 0; i < quantity; i++) {
-            vouchers.add(createWalletVoucher(orderId, userId, voucherId, merchantId, denomination));
+    /**
+     * Generate {@code quantity} distinct codes, replacing the (rare) ones already taken
+     */
+    private List<String> generateUniqueVoucherCodes(int quantity) {
+        Set<String> codes = new LinkedHashSet<>(quantity);
+        for (int round = 0; round < MAX_CODE_GENERATION_ROUNDS; round++) {
+            Set<String> candidates = new LinkedHashSet<>();
+            while (codes.size() + candidates.size() < quantity) {
+                String code = StringUtil.generateVoucherCode();
+                if (!codes.contains(code)) {
+                    candidates.add(code);
+                }
+            }
+            repository.findExistingVoucherCodes(candidates).forEach(candidates::remove);
+            codes.addAll(candidates);
+            if (codes.size() == quantity) {
+                return new ArrayList<>(codes);
+            }
         }
-        return vouchers;
+        throw new BusinessException("Unable to generate unique voucher codes");
     }
 
     @Transactional(readOnly = true)
-    public Page<WalletVoucherDTO> getMyVouchers(Long userId, Pageable pageable) {
-        Page<WalletVoucher> vouchers = repository.findByUserIdOrderByPurchasedAtDesc(userId, pageable);
+    public Slice<WalletVoucherDTO> getMyVouchers(Long userId, PageRequest pageRequest) {
+        Slice<WalletVoucher> vouchers;
+        if (pageRequest.isKeyset()) {
+            PageCursor after = pageRequest.decodeCursor();
+            vouchers = after == null
+                    ? repository.findSliceByUserIdOrderByPurchasedAtDescIdDesc(userId, pageRequest.toKeysetPageRequest())
+                    : repository.findByUserIdBefore(userId, after.getSortValue(), after.getId(), pageRequest.toKeysetPageRequest());
+        } else if (pageRequest.isSkipCount()) {
+            vouchers = repository.findSliceByUserIdOrderByPurchasedAtDescIdDesc(userId, pageRequest.toSpringPageRequest());
+        } else {
+            vouchers = repository.findByUserIdOrderByPurchasedAtDesc(userId, pageRequest.toSpringPageRequest());
+        }
+        // One bulk lookup per kind for the whole page instead of two calls per voucher
+        ExternalServiceClient.Names names = externalServiceClient.lookupNames(
+                vouchers.map(WalletVoucher::getVoucherId).toSet(),
+                vouchers.map(WalletVoucher::getMerchantId).toSet());
         return vouchers.map(voucher -> {
-            WalletVoucherDTO dto = mapper.toDTO(voucher);
-            enrichDTOWithNames(dto, voucher);
+            WalletVoucherDTO dto = toDTO(voucher);
+            applyNames(dto, names);
             return dto;
         });
     }
@@ -101,11 +170,20 @@ public class WalletService {
     public WalletVoucherDTO getVoucherDetails(Long voucherId, Long userId) {
         WalletVoucher voucher = repository.findByIdAndUserId(voucherId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet voucher", voucherId));
-        WalletVoucherDTO dto = mapper.toDTO(voucher);
+        WalletVoucherDTO dto = toDTO(voucher);
         enrichDTOWithNames(dto, voucher);
         return dto;
     }
 
+    /**
+     * Code of a voucher owned by the user, which is all the QR endpoint needs to render it
+     */
+    @Transactional(readOnly = true)
+    public String getVoucherCode(Long voucherId, Long userId) {
+        return repository.findVoucherCodeByIdAndUserId(voucherId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet voucher", voucherId));
+    }
+
     @Transactional
     public WalletVoucherDTO giftVoucher(Long senderUserId, Long voucherId, GiftVoucherRequest request) {
         WalletVoucher voucher = repository.findByIdAndUserId(voucherId, senderUserId)
@@ -134,50 +212,59 @@ public class WalletService {
 
         publishVoucherGiftedNotification(voucher, senderUserId, request.getRecipientUserId());
 
-        WalletVoucherDTO dto = mapper.toDTO(voucher);
+        WalletVoucherDTO dto = toDTO(voucher);
         enrichDTOWithNames(dto, voucher);
         return dto;
     }
 
+    private WalletVoucherDTO toDTO(WalletVoucher voucher) {
+        WalletVoucherDTO dto = mapper.toDTO(voucher);
+        if (!persistQrBase64 || dto.getQrCodeUrl() == null || dto.getQrCodeUrl().isEmpty()) {
+            dto.setQrCodeUrl("/api/v1/wallet/" + voucher.getId() + "/qr");
+        }
+        return dto;
+    }
+
     private void enrichDTOWithNames(WalletVoucherDTO dto, WalletVoucher voucher) {
-        log.info("Enriching DTO for wallet voucher ID: {}, voucherId: {}, merchantId: {}", 
+        log.debug("Enriching DTO for wallet voucher ID: {}, voucherId: {}, merchantId: {}",
                 dto.getId(), voucher.getVoucherId(), voucher.getMerchantId());
-        
-        if (voucher.getVoucherId() != null) {
-            log.info("Fetching voucher title for voucherId: {}", voucher.getVoucherId());
-            String voucherTitle = externalServiceClient.getVoucherTitle(voucher.getVoucherId());
-            if (voucherTitle != null) {
-                log.info("Setting voucher title: {}", voucherTitle);
-                dto.setVoucherTitle(voucherTitle);
-            } else {
-                log.warn("Voucher title is null for voucherId: {}", voucher.getVoucherId());
-            }
+        applyNames(dto, externalServiceClient.lookupNames(
+                voucher.getVoucherId() != null ? List.of(voucher.getVoucherId()) : List.of(),
+                voucher.getMerchantId() != null ? List.of(voucher.getMerchantId()) : List.of()));
+    }
+
+    private void applyNames(WalletVoucherDTO dto, ExternalServiceClient.Names names) {
+        String voucherTitle = names.voucherTitle(dto.getVoucherId());
+        if (voucherTitle != null) {
+            dto.setVoucherTitle(voucherTitle);
         } else {
-            log.warn("Voucher ID is null in wallet voucher");
+            log.debug("No voucher title for voucherId: {}", dto.getVoucherId());
         }
-        
-        if (voucher.getMerchantId() != null) {
-            log.info("Fetching merchant name for merchantId: {}", voucher.getMerchantId());
-            String merchantName = externalServiceClient.getMerchantName(voucher.getMerchantId());
-            if (merchantName != null) {
-                log.info("Setting merchant name: {}", merchantName);
-                dto.setMerchantName(merchantName);
-            } else {
-                log.warn("Merchant name is null for merchantId: {}", voucher.getMerchantId());
-            }
+        String merchantName = names.merchantName(dto.getMerchantId());
+        if (merchantName != null) {
+            dto.setMerchantName(merchantName);
         } else {
-            log.warn("Merchant ID is null in wallet voucher");
+            log.debug("No merchant name for merchantId: {}", dto.getMerchantId());
         }
     }
 
-    private void publishVoucherCreatedNotification(WalletVoucher voucher) {
+    private void publishVouchersCreatedNotification(Long orderId, Long userId, List<WalletVoucher> vouchers) {
         try {
+            int quantity = vouchers.size();
             NotificationEvent event = NotificationEvent.builder()
-                    .userId(voucher.getUserId())
+                    .userId(userId)
                     .notificationType("VOUCHER_RECEIVED")
                     .title("Voucher Received! 🎁")
-                    .message("Your voucher is ready in your wallet")
-                    .channels(java.util.List.of("PUSH", "EMAIL"))
+                    .message(quantity == 1
+                            ? "Your voucher is ready in your wallet"
+                            : "Your " + quantity + " vouchers are ready in your wallet")
+                    .channels(List.of("PUSH", "EMAIL"))
+                    .entityType("ORDER")
+                    .entityId(orderId)
+                    .data(Map.of(
+                            "quantity", quantity,
+                            "walletVoucherIds", vouchers.stream().map(WalletVoucher::getId).toList()
+                    ))
                     .build();
             event.initDefaults("VOUCHER_RECEIVED", "wallet-service");
             eventPublisher.publishNotificationEvent(event);
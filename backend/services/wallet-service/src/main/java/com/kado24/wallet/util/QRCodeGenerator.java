@@ -1,70 +1,76 @@
 package com.kado24.wallet.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Base64;
 
+/**
+ * Renders voucher QR codes as PNG.
+ *
+ * Rendered images are kept in a bounded cache (by total bytes), so a wallet screen polling the
+ * same codes does not re-encode them. Encoding reuses a per-thread writer and output buffer.
+ */
 @Slf4j
 @Component
 public class QRCodeGenerator {
 
-    public String generateQRCodeBase64(String data) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, 300, 300);
+    private static final ThreadLocal<QRCodeWriter> WRITER = ThreadLocal.withInitial(QRCodeWriter::new);
+    private static final ThreadLocal<ByteArrayOutputStream> BUFFER =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(4096));
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+    private final int size;
+    private final Cache<String, byte[]> rendered;
 
-            byte[] qrCodeBytes = outputStream.toByteArray();
-            return "data:image/png;base64," + Base64.getEncoder().encodeToString(qrCodeBytes);
+    public QRCodeGenerator(@Value("${wallet.qr.size:300}") int size,
+                           @Value("${wallet.qr.cache-max-bytes:16777216}") long cacheMaxBytes) {
+        this.size = size;
+        this.rendered = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String data, byte[] png) -> png.length)
+                .build();
+    }
+
+    public String generateQRCodeBase64(String data) {
+        try {
+            return "data:image/png;base64," + Base64.getEncoder().encodeToString(renderPng(data));
         } catch (Exception e) {
             log.error("Failed to generate QR code", e);
             return null;
         }
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+    /**
+     * PNG bytes for {@code data}, from the cache when it was rendered before.
+     * The returned array is shared and must not be modified.
+     */
+    public byte[] renderPng(String data) {
+        return rendered.get(data, this::encode);
+    }
 
+    public int getSize() {
+        return size;
+    }
 
+    private byte[] encode(String data) {
+        try {
+            BitMatrix bitMatrix = WRITER.get().encode(data, BarcodeFormat.QR_CODE, size, size);
+            ByteArrayOutputStream outputStream = BUFFER.get();
+            outputStream.reset();
+            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+            return outputStream.toByteArray();
+        } catch (WriterException | IOException e) {
+            throw new IllegalStateException("Failed to render QR code", e);
+        }
+    }
+}
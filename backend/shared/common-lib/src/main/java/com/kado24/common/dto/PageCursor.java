@@ -0,0 +1,57 @@
+package com.kado24.common.dto;
+
+import com.kado24.common.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset pagination position: sort timestamp and id of the last row already returned.
+ *
+ * Listings using keyset pagination are ordered by {@code (timestamp DESC, id DESC)}, so the
+ * next page is everything strictly "before" this position. Clients only ever see the encoded
+ * token and should treat it as opaque.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(staticName = "of")
+public class PageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime sortValue;
+    private final Long id;
+
+    /**
+     * Encode as an opaque, URL-safe token
+     */
+    public String encode() {
+        String raw = sortValue.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}
+     *
+     * @throws ValidationException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new ValidationException("Invalid pagination cursor");
+            }
+            return new PageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid pagination cursor");
+        }
+    }
+}
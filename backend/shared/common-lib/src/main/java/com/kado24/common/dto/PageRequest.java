@@ -36,6 +36,35 @@ public class PageRequest {
     @Schema(description = "Sort direction (ASC or DESC)", example = "DESC", defaultValue = "DESC")
     private String sortDirection = "DESC";
 
+    @Schema(description = "Opaque cursor from pagination.nextCursor. Switches to keyset pagination " +
+            "(newest first, page and sort are ignored); send it empty to fetch the first page")
+    private String cursor;
+
+    @Schema(description = "Skip the total count query; totalItems and totalPages are omitted",
+            example = "false", defaultValue = "false")
+    private boolean skipCount;
+
+    /**
+     * Whether the client asked for keyset (cursor) pagination
+     */
+    public boolean isKeyset() {
+        return cursor != null;
+    }
+
+    /**
+     * Decoded keyset position, or null for the first page
+     */
+    public PageCursor decodeCursor() {
+        return cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+    }
+
+    /**
+     * Page size as a Spring Data PageRequest without offset, for keyset queries
+     */
+    public org.springframework.data.domain.PageRequest toKeysetPageRequest() {
+        return org.springframework.data.domain.PageRequest.of(0, size);
+    }
+
     /**
      * Convert to Spring Data PageRequest
      */
@@ -1,10 +1,16 @@
 package com.kado24.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Pagination metadata for paginated API responses
@@ -13,26 +19,30 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Pagination metadata")
 public class PaginationMeta {
     
-    @Schema(description = "Current page number (0-indexed)", example = "0")
-    private int currentPage;
+    @Schema(description = "Current page number (0-indexed; omitted for cursor pagination)", example = "0")
+    private Integer currentPage;
     
     @Schema(description = "Number of items per page", example = "20")
     private int pageSize;
     
-    @Schema(description = "Total number of items", example = "150")
-    private long totalItems;
+    @Schema(description = "Total number of items (omitted when the count is skipped)", example = "150")
+    private Long totalItems;
     
-    @Schema(description = "Total number of pages", example = "8")
-    private int totalPages;
+    @Schema(description = "Total number of pages (omitted when the count is skipped)", example = "8")
+    private Integer totalPages;
     
     @Schema(description = "Whether there is a next page", example = "true")
     private boolean hasNext;
     
-    @Schema(description = "Whether there is a previous page", example = "false")
-    private boolean hasPrevious;
+    @Schema(description = "Whether there is a previous page (omitted for cursor pagination)", example = "false")
+    private Boolean hasPrevious;
+
+    @Schema(description = "Opaque cursor for the next page (pass as ?cursor=)", example = "MjAyNS0xMS0xMVQxMDoxNTozMHw0Mg")
+    private String nextCursor;
 
     /**
      * Create pagination metadata from Spring Data Page
@@ -48,6 +58,37 @@ public class PaginationMeta {
                 .hasPrevious(currentPage > 0)
                 .build();
     }
+
+    /**
+     * Create pagination metadata for a listing served in the mode the client requested:
+     * offset with count ({@link Page}), offset without count, or keyset.
+     *
+     * @param cursorOf extracts the keyset position of a row, used to fill {@code nextCursor} in
+     *                 keyset mode only; offset pages follow the client's sort, so their last row is
+     *                 no resume point
+     */
+    public static <T> PaginationMeta of(PageRequest request, Slice<T> slice, Function<T, PageCursor> cursorOf) {
+        if (request.isKeyset()) {
+            List<T> content = slice.getContent();
+            String nextCursor = slice.hasNext() && !content.isEmpty()
+                    ? cursorOf.apply(content.get(content.size() - 1)).encode()
+                    : null;
+            return PaginationMeta.builder()
+                    .pageSize(slice.getSize())
+                    .hasNext(slice.hasNext())
+                    .nextCursor(nextCursor)
+                    .build();
+        }
+
+        return slice instanceof Page<T> page
+                ? from(page.getNumber(), page.getSize(), page.getTotalElements())
+                : PaginationMeta.builder()
+                        .currentPage(slice.getNumber())
+                        .pageSize(slice.getSize())
+                        .hasNext(slice.hasNext())
+                        .hasPrevious(slice.hasPrevious())
+                        .build();
+    }
 }
 
 
@@ -0,0 +1,23 @@
+package com.kado24.common.util;
+
+/**
+ * Utility class for hashing ids in probabilistic sketches
+ */
+public final class HashUtil {
+    
+    private HashUtil() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+    
+    /**
+     * MurmurHash3 64-bit finalizer (fmix64): spreads sequential ids over all 64 bits
+     */
+    public static long fmix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,276 @@
+package com.kado24.kafka.codec;
+
+import com.kado24.kafka.event.BaseEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schema-based binary encoding of {@link BaseEvent}s.
+ *
+ * Layout: magic byte {@code 0x00} (JSON never starts with it), format byte, schema id (varint),
+ * a null bitmap over the schema's fields, then each non-null field in schema order. Integers are
+ * zigzag varints, decimals are scale plus unscaled bytes, timestamps are epoch seconds plus nanos.
+ * Field names are never written; map values carry a one-byte type tag.
+ */
+@Slf4j
+public class CompactEventCodec {
+
+    static final byte MAGIC = 0x00;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INT = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_TRUE = 5;
+    private static final int TAG_FALSE = 6;
+    private static final int TAG_DECIMAL = 7;
+    private static final int TAG_LIST = 8;
+    private static final int TAG_MAP = 9;
+
+    private static final ThreadLocal<CompactWriter> WRITER = ThreadLocal.withInitial(() -> new CompactWriter(512));
+
+    private final EventSchemaRegistry registry;
+
+    public CompactEventCodec(EventSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static boolean isCompact(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    /**
+     * Encoded event, or null when the event has no registered schema or holds a value the format
+     * cannot represent; callers then fall back to JSON
+     */
+    public byte[] encode(BaseEvent event) {
+        EventSchema schema = registry.find(event);
+        if (schema == null) {
+            return null;
+        }
+        CompactWriter writer = WRITER.get();
+        writer.reset();
+        writer.writeByte(MAGIC);
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeUnsignedVarLong(schema.getId());
+
+        EventSchema.FieldSpec[] fields = schema.fields();
+        int bitmap = writer.reserve((fields.length + 7) >>> 3);
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                Object value = (Object) fields[i].getter().invokeExact(event);
+                if (value != null) {
+                    writer.setBit(bitmap, i);
+                    writeField(writer, fields[i].kind(), value);
+                }
+            }
+        } catch (UnsupportedValueException e) {
+            log.debug("Encoding {} as JSON: {}", event.getClass().getSimpleName(), e.getMessage());
+            return null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot encode " + event.getClass().getSimpleName(), e);
+        }
+        return writer.toByteArray();
+    }
+
+    public BaseEvent decode(byte[] data) {
+        if (!isCompact(data)) {
+            throw new IllegalArgumentException("Not a compact event");
+        }
+        CompactReader reader = new CompactReader(data, 1);
+        int format = reader.readByte();
+        if (format != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported compact event format " + format);
+        }
+        long id = reader.readUnsignedVarLong();
+        EventSchema schema = registry.byId((int) id);
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown event schema id " + id);
+        }
+
+        BaseEvent event = schema.newInstance();
+        EventSchema.FieldSpec[] fields = schema.fields();
+        int bitmap = reader.skip((fields.length + 7) >>> 3);
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                if (reader.isBitSet(bitmap, i)) {
+                    fields[i].setter().invokeExact(event, readField(reader, fields[i].kind()));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot decode " + schema.getType().getSimpleName(), e);
+        }
+        event.setVersion(schema.getVersion());
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeField(CompactWriter writer, FieldKind kind, Object value) {
+        switch (kind) {
+            case STRING -> writer.writeString((String) value);
+            case LONG -> writer.writeVarLong((Long) value);
+            case INTEGER -> writer.writeVarLong((Integer) value);
+            case DOUBLE -> writer.writeDouble((Double) value);
+            case BOOLEAN -> writer.writeByte((Boolean) value ? 1 : 0);
+            case DECIMAL -> writeDecimal(writer, (BigDecimal) value);
+            case DATE_TIME -> {
+                LocalDateTime dateTime = (LocalDateTime) value;
+                writer.writeVarLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+                writer.writeUnsignedVarLong(dateTime.getNano());
+            }
+            case STRING_LIST -> {
+                List<String> list = (List<String>) value;
+                writer.writeUnsignedVarLong(list.size());
+                for (String item : list) {
+                    writeTagged(writer, item);
+                }
+            }
+            case OBJECT_MAP -> writeMap(writer, (Map<String, Object>) value);
+        }
+    }
+
+    private static Object readField(CompactReader reader, FieldKind kind) {
+        return switch (kind) {
+            case STRING -> reader.readString();
+            case LONG -> reader.readVarLong();
+            case INTEGER -> (int) reader.readVarLong();
+            case DOUBLE -> reader.readDouble();
+            case BOOLEAN -> reader.readByte() != 0;
+            case DECIMAL -> readDecimal(reader);
+            case DATE_TIME -> LocalDateTime.ofEpochSecond(reader.readVarLong(), (int) reader.readUnsignedVarLong(), ZoneOffset.UTC);
+            case STRING_LIST -> {
+                int size = reader.readLength();
+                List<String> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add((String) readTagged(reader));
+                }
+                yield list;
+            }
+            case OBJECT_MAP -> readMap(reader);
+        };
+    }
+
+    private static void writeDecimal(CompactWriter writer, BigDecimal value) {
+        writer.writeVarLong(value.scale());
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writer.writeUnsignedVarLong(unscaled.length);
+        writer.writeBytes(unscaled);
+    }
+
+    private static BigDecimal readDecimal(CompactReader reader) {
+        int scale = (int) reader.readVarLong();
+        return new BigDecimal(new BigInteger(reader.readBytes(reader.readLength())), scale);
+    }
+
+    private static void writeMap(CompactWriter writer, Map<String, Object> map) {
+        writer.writeUnsignedVarLong(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (entry.getKey() == null) {
+                throw new UnsupportedValueException("null map key");
+            }
+            writer.writeString(entry.getKey());
+            writeTagged(writer, entry.getValue());
+        }
+    }
+
+    private static Map<String, Object> readMap(CompactReader reader) {
+        int size = reader.readLength();
+        Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            map.put(reader.readString(), readTagged(reader));
+        }
+        return map;
+    }
+
+    /**
+     * Map and list values; the same Java types JSON would produce on the consumer side
+     */
+    @SuppressWarnings("unchecked")
+    private static void writeTagged(CompactWriter writer, Object value) {
+        if (value == null) {
+            writer.writeByte(TAG_NULL);
+        } else if (value instanceof String string) {
+            writer.writeByte(TAG_STRING);
+            writer.writeString(string);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writer.writeByte(TAG_INT);
+            writer.writeVarLong(((Number) value).longValue());
+        } else if (value instanceof Long longValue) {
+            writer.writeByte(TAG_LONG);
+            writer.writeVarLong(longValue);
+        } else if (value instanceof Double || value instanceof Float) {
+            writer.writeByte(TAG_DOUBLE);
+            writer.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean bool) {
+            writer.writeByte(bool ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof BigDecimal decimal) {
+            writer.writeByte(TAG_DECIMAL);
+            writeDecimal(writer, decimal);
+        } else if (value instanceof Enum<?> enumValue) {
+            writer.writeByte(TAG_STRING);
+            writer.writeString(enumValue.name());
+        } else if (value instanceof List<?> list) {
+            writer.writeByte(TAG_LIST);
+            writer.writeUnsignedVarLong(list.size());
+            for (Object item : list) {
+                writeTagged(writer, item);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            for (Object key : map.keySet()) {
+                if (!(key instanceof String)) {
+                    throw new UnsupportedValueException("non-string map key " + key);
+                }
+            }
+            writer.writeByte(TAG_MAP);
+            writeMap(writer, (Map<String, Object>) map);
+        } else {
+            throw new UnsupportedValueException("value of type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readTagged(CompactReader reader) {
+        int tag = reader.readByte();
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_STRING -> reader.readString();
+            case TAG_INT -> (int) reader.readVarLong();
+            case TAG_LONG -> reader.readVarLong();
+            case TAG_DOUBLE -> reader.readDouble();
+            case TAG_TRUE -> Boolean.TRUE;
+            case TAG_FALSE -> Boolean.FALSE;
+            case TAG_DECIMAL -> readDecimal(reader);
+            case TAG_LIST -> {
+                int size = reader.readLength();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readTagged(reader));
+                }
+                yield list;
+            }
+            case TAG_MAP -> readMap(reader);
+            default -> throw new IllegalArgumentException("Unknown value tag " + tag + " in compact event");
+        };
+    }
+
+    /**
+     * A value the compact format has no representation for; the event goes out as JSON instead
+     */
+    private static class UnsupportedValueException extends RuntimeException {
+
+        UnsupportedValueException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
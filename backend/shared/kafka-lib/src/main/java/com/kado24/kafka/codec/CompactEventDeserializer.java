@@ -0,0 +1,37 @@
+package com.kado24.kafka.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Reads both compact and JSON records, so consumers can be deployed before producers switch
+ * codecs. JSON records are handled by a {@link JsonDeserializer} configured from the same properties.
+ */
+public class CompactEventDeserializer implements Deserializer<Object> {
+
+    private final CompactEventCodec codec = new CompactEventCodec(EventSchemaRegistry.defaultRegistry());
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return CompactEventCodec.isCompact(data) ? codec.decode(data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return CompactEventCodec.isCompact(data) ? codec.decode(data) : json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.kado24.kafka.codec;
+
+import com.kado24.kafka.event.BaseEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Writes registered events with {@link CompactEventCodec} and everything else as JSON
+ */
+public class CompactEventSerializer implements Serializer<Object> {
+
+    private final CompactEventCodec codec = new CompactEventCodec(EventSchemaRegistry.defaultRegistry());
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        byte[] compact = encode(data);
+        return compact != null ? compact : json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        byte[] compact = encode(data);
+        return compact != null ? compact : json.serialize(topic, headers, data);
+    }
+
+    private byte[] encode(Object data) {
+        return data instanceof BaseEvent event ? codec.encode(event) : null;
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
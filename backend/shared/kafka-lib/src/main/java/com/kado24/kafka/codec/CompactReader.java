@@ -0,0 +1,90 @@
+package com.kado24.kafka.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cursor over an encoded event, mirroring {@link CompactWriter}
+ */
+final class CompactReader {
+
+    private final byte[] data;
+    private int position;
+
+    CompactReader(byte[] data, int offset) {
+        this.data = data;
+        this.position = offset;
+    }
+
+    int readByte() {
+        if (position >= data.length) {
+            throw new IllegalArgumentException("Truncated compact event");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    byte[] readBytes(int length) {
+        if (length < 0 || position + length > data.length) {
+            throw new IllegalArgumentException("Truncated compact event");
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(data, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    /**
+     * Offset of a {@code length}-byte block (e.g. a null bitmap), skipping over it
+     */
+    int skip(int length) {
+        if (position + length > data.length) {
+            throw new IllegalArgumentException("Truncated compact event");
+        }
+        int offset = position;
+        position += length;
+        return offset;
+    }
+
+    boolean isBitSet(int offset, int bit) {
+        return (data[offset + (bit >>> 3)] & (1 << (bit & 7))) != 0;
+    }
+
+    long readUnsignedVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in compact event");
+    }
+
+    long readVarLong() {
+        long raw = readUnsignedVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    int readLength() {
+        long length = readUnsignedVarLong();
+        if (length > data.length - position) {
+            throw new IllegalArgumentException("Truncated compact event");
+        }
+        return (int) length;
+    }
+
+    double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long) readByte() << (8 * i);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    String readString() {
+        int length = readLength();
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
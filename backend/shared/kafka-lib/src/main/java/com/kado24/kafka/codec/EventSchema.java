@@ -0,0 +1,88 @@
+package com.kado24.kafka.codec;
+
+import com.kado24.kafka.event.BaseEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One registered wire layout: an event class at a given {@link BaseEvent#getVersion() version},
+ * with its fields in a fixed order. The layout of a registered id must never change.
+ */
+public final class EventSchema {
+
+    /**
+     * Written first in every schema; version is implied by the schema id
+     */
+    static final String[] BASE_FIELDS = {"eventId", "eventType", "timestamp", "source"};
+
+    private final int id;
+    private final Class<? extends BaseEvent> type;
+    private final String version;
+    private final FieldSpec[] fields;
+    private final MethodHandle constructor;
+
+    EventSchema(int id, Class<? extends BaseEvent> type, String version, String... fieldNames) {
+        this.id = id;
+        this.type = type;
+        this.version = version;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(BaseEvent.class));
+
+            List<FieldSpec> specs = new ArrayList<>();
+            for (String name : BASE_FIELDS) {
+                specs.add(fieldSpec(lookup, BaseEvent.class, name));
+            }
+            for (String name : fieldNames) {
+                specs.add(fieldSpec(lookup, type, name));
+            }
+            this.fields = specs.toArray(new FieldSpec[0]);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot build schema " + id + " for " + type.getSimpleName(), e);
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Class<? extends BaseEvent> getType() {
+        return type;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    FieldSpec[] fields() {
+        return fields;
+    }
+
+    BaseEvent newInstance() {
+        try {
+            return (BaseEvent) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot instantiate " + type.getSimpleName(), e);
+        }
+    }
+
+    private static FieldSpec fieldSpec(MethodHandles.Lookup lookup, Class<?> owner, String name)
+            throws ReflectiveOperationException {
+        Field field = owner.getDeclaredField(name);
+        MethodHandles.Lookup privateLookup = MethodHandles.privateLookupIn(owner, lookup);
+        MethodHandle getter = privateLookup.unreflectGetter(field)
+                .asType(MethodType.methodType(Object.class, BaseEvent.class));
+        MethodHandle setter = privateLookup.unreflectSetter(field)
+                .asType(MethodType.methodType(void.class, BaseEvent.class, Object.class));
+        return new FieldSpec(name, FieldKind.of(field), getter, setter);
+    }
+
+    record FieldSpec(String name, FieldKind kind, MethodHandle getter, MethodHandle setter) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.kado24.kafka.codec;
+
+import com.kado24.kafka.event.AnalyticsEvent;
+import com.kado24.kafka.event.AuditEvent;
+import com.kado24.kafka.event.BaseEvent;
+import com.kado24.kafka.event.NotificationEvent;
+import com.kado24.kafka.event.OrderEvent;
+import com.kado24.kafka.event.PaymentEvent;
+import com.kado24.kafka.event.RedemptionEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schemas for the compact event encoding, kept in the repo instead of a schema registry service.
+ *
+ * Evolving an event: add the field to the class, bump the version the producer sets, and register
+ * a new id for that version with the new field list. Never edit or reuse an existing id; consumers
+ * must keep decoding records written with it. Events whose class/version has no schema are sent as
+ * JSON.
+ */
+public final class EventSchemaRegistry {
+
+    private static final EventSchemaRegistry DEFAULT = new EventSchemaRegistry()
+            .register(1, OrderEvent.class, "1.0",
+                    "orderId", "orderNumber", "userId", "voucherId", "merchantId", "quantity",
+                    "totalAmount", "platformFee", "merchantAmount", "paymentMethod", "paymentStatus", "orderStatus")
+            .register(2, PaymentEvent.class, "1.0",
+                    "orderId", "paymentId", "paymentMethod", "amount", "currency", "status",
+                    "gatewayResponse", "failureReason", "userId")
+            .register(3, NotificationEvent.class, "1.0",
+                    "userId", "notificationType", "title", "message", "data", "channels",
+                    "priority", "entityType", "entityId")
+            .register(4, RedemptionEvent.class, "1.0",
+                    "redemptionId", "walletVoucherId", "voucherCode", "merchantId", "merchantName",
+                    "consumerId", "scannedBy", "redemptionAmount", "location", "latitude", "longitude",
+                    "redemptionMethod", "transactionReference")
+            .register(5, AnalyticsEvent.class, "1.0",
+                    "userId", "merchantId", "voucherId", "action", "category", "value", "properties",
+                    "sessionId", "deviceType", "ipAddress")
+            .register(6, AuditEvent.class, "1.0",
+                    "userId", "action", "entityType", "entityId", "oldValues", "newValues",
+                    "ipAddress", "userAgent", "context")
+            .register(7, RedemptionEvent.class, "1.1",
+                    "redemptionId", "walletVoucherId", "voucherCode", "merchantId", "merchantName",
+                    "consumerId", "scannedBy", "redemptionAmount", "location", "latitude", "longitude",
+                    "redemptionMethod", "transactionReference", "voucherId");
+
+    private final Map<Integer, EventSchema> byId = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Map<String, EventSchema>> byTypeAndVersion = new ConcurrentHashMap<>();
+
+    public static EventSchemaRegistry defaultRegistry() {
+        return DEFAULT;
+    }
+
+    /**
+     * Register a layout; fields are written in the given order after the common BaseEvent fields
+     */
+    public EventSchemaRegistry register(int id, Class<? extends BaseEvent> type, String version, String... fields) {
+        EventSchema schema = new EventSchema(id, type, version, fields);
+        if (byId.putIfAbsent(id, schema) != null) {
+            throw new IllegalStateException("Event schema id " + id + " is already registered");
+        }
+        byTypeAndVersion.computeIfAbsent(type, key -> new ConcurrentHashMap<>()).put(version, schema);
+        return this;
+    }
+
+    public EventSchema byId(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Schema for the event's class and version, or null if it must go out as JSON
+     */
+    public EventSchema find(BaseEvent event) {
+        Map<String, EventSchema> versions = byTypeAndVersion.get(event.getClass());
+        return versions != null && event.getVersion() != null ? versions.get(event.getVersion()) : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.kado24.kafka.codec;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire representation of an event field, derived from its declared Java type
+ */
+enum FieldKind {
+    STRING, LONG, INTEGER, DOUBLE, BOOLEAN, DECIMAL, DATE_TIME, STRING_LIST, OBJECT_MAP;
+
+    static FieldKind of(Field field) {
+        Class<?> type = field.getType();
+        if (type == String.class) {
+            return STRING;
+        }
+        if (type == Long.class) {
+            return LONG;
+        }
+        if (type == Integer.class) {
+            return INTEGER;
+        }
+        if (type == Double.class) {
+            return DOUBLE;
+        }
+        if (type == Boolean.class) {
+            return BOOLEAN;
+        }
+        if (type == BigDecimal.class) {
+            return DECIMAL;
+        }
+        if (type == LocalDateTime.class) {
+            return DATE_TIME;
+        }
+        if (type == List.class && typeArgument(field, 0) == String.class) {
+            return STRING_LIST;
+        }
+        if (type == Map.class && typeArgument(field, 0) == String.class) {
+            return OBJECT_MAP;
+        }
+        throw new IllegalArgumentException("Unsupported event field type " + field.getGenericType()
+                + " for " + field.getDeclaringClass().getSimpleName() + "." + field.getName());
+    }
+
+    private static Object typeArgument(Field field, int index) {
+        return field.getGenericType() instanceof ParameterizedType parameterized
+                ? parameterized.getActualTypeArguments()[index]
+                : null;
+    }
+}
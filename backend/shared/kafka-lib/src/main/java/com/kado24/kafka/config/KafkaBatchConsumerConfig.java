@@ -0,0 +1,94 @@
+package com.kado24.kafka.config;
+
+import com.kado24.kafka.consumer.TypedEventDeserializer;
+import com.kado24.kafka.retry.RetryTopicConfiguration;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Batch listener container factory: each poll is delivered as one
+ * {@code List<ConsumerRecord<String, Object>>} whose values are already the concrete event
+ * classes (see {@link TypedEventDeserializer}). Auto-commit is off; listeners take an
+ * {@code Acknowledgment} and acknowledge once the whole batch is processed.
+ *
+ * Records that failed to deserialize arrive with a null value. Listeners should hand their batch to
+ * {@link com.kado24.kafka.retry.RetryTopicProcessor}, which moves failed records to retry topics;
+ * an exception escaping the listener means that routing itself failed, and the batch is
+ * redelivered with exponential back-off until it succeeds. Deliberately not a
+ * {@code @Configuration}: consumers opt in with {@code @Import(KafkaBatchConsumerConfig.class)}
+ * and {@code containerFactory = KafkaBatchConsumerConfig.BATCH_LISTENER_FACTORY}.
+ */
+@Import(RetryTopicConfiguration.class)
+public class KafkaBatchConsumerConfig {
+
+    public static final String BATCH_LISTENER_FACTORY = "batchKafkaListenerContainerFactory";
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${spring.kafka.consumer.group-id:kado24-consumer-group}")
+    private String groupId;
+
+    @Value("${kafka.batch-consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.batch-consumer.fetch-min-bytes:65536}")
+    private int fetchMinBytes;
+
+    @Value("${kafka.batch-consumer.fetch-max-wait-ms:500}")
+    private int fetchMaxWaitMs;
+
+    @Value("${kafka.batch-consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${kafka.batch-consumer.retry-interval-ms:1000}")
+    private long retryIntervalMs;
+
+    @Value("${kafka.batch-consumer.retry-max-interval-ms:60000}")
+    private long retryMaxIntervalMs;
+
+    @Bean(name = BATCH_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, TypedEventDeserializer.class.getName());
+
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Offsets are committed per batch after the listener acknowledges
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        // Fewer, fuller polls
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps));
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setPollTimeout(3000);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // A failing batch is redelivered from its first unacknowledged record, without giving up,
+        // after an exponentially growing pause (retry-interval-ms doubling up to retry-max-interval-ms)
+        ExponentialBackOff backOff = new ExponentialBackOff(retryIntervalMs, 2.0);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+}
@@ -1,16 +1,22 @@
 package com.kado24.kafka.config;
 
+import com.kado24.kafka.codec.CompactEventDeserializer;
+import com.kado24.kafka.retry.FailedRecordRouter;
+import com.kado24.kafka.retry.RetryTopicConfiguration;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,6 +26,7 @@ import java.util.Map;
  */
 @EnableKafka
 @Configuration
+@Import(RetryTopicConfiguration.class)
 public class KafkaConsumerConfig {
 
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
@@ -28,6 +35,12 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id:kado24-consumer-group}")
     private String groupId;
 
+    @Value("${kafka.consumer.retry-interval-ms:500}")
+    private long retryIntervalMs;
+
+    @Value("${kafka.consumer.retry-attempts:2}")
+    private long retryAttempts;
+
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -41,7 +54,8 @@ public class KafkaConsumerConfig {
         // Deserializers with error handling
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
+        // Compact-encoded records are decoded directly, JSON ones are passed to JsonDeserializer
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, CompactEventDeserializer.class.getName());
         
         // JSON deserializer configuration
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.kado24.*");
@@ -64,15 +78,19 @@ public class KafkaConsumerConfig {
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            FailedRecordRouter failedRecordRouter) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.setConcurrency(3); // Number of threads
         factory.getContainerProperties().setPollTimeout(3000);
         
-        // Error handling
-        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        // Error handling: a few quick in-place retries, then the record is dead-lettered so it
+        // stops blocking its partition (undeserializable records skip the retries)
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                (record, exception) -> failedRecordRouter.deadLetter(record, exception).join(),
+                new FixedBackOff(retryIntervalMs, retryAttempts)));
         
         return factory;
     }
@@ -1,12 +1,17 @@
 package com.kado24.kafka.config;
 
+import com.kado24.kafka.codec.CompactEventSerializer;
+import com.kado24.kafka.metrics.MeteredValueSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
@@ -15,6 +20,10 @@ import java.util.Map;
 
 /**
  * Kafka Producer configuration for all Kado24 services
+ *
+ * With a MeterRegistry (actuator) the producer's client metrics are bound as
+ * {@code kafka.producer.*} (buffer available/exhausted, batch size, compression rate, record
+ * errors, ...) and record sizes per event type are measured by {@link MeteredValueSerializer}.
  */
 @Configuration
 public class KafkaProducerConfig {
@@ -22,8 +31,14 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    /**
+     * json (default) or compact; consumers read both, so switch producers after consumers are deployed
+     */
+    @Value("${kafka.codec:json}")
+    private String codec;
+
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public ProducerFactory<String, Object> producerFactory(ObjectProvider<MeterRegistry> meterRegistryProvider) {
         Map<String, Object> configProps = new HashMap<>();
         
         // Bootstrap servers
@@ -31,7 +46,15 @@ public class KafkaProducerConfig {
         
         // Serializers
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        Class<?> valueSerializer = "compact".equalsIgnoreCase(codec) ? CompactEventSerializer.class : JsonSerializer.class;
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry != null) {
+            configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, MeteredValueSerializer.class);
+            configProps.put(MeteredValueSerializer.DELEGATE_CONFIG, valueSerializer);
+            configProps.put(MeteredValueSerializer.METER_REGISTRY_CONFIG, meterRegistry);
+        } else {
+            configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
+        }
         
         // Producer performance tuning
         configProps.put(ProducerConfig.ACKS_CONFIG, "1"); // Leader acknowledgment
@@ -51,12 +74,16 @@ public class KafkaProducerConfig {
         // JSON serializer configuration
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(configProps);
+        if (meterRegistry != null) {
+            producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        }
+        return producerFactory;
     }
 
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
     }
 }
 
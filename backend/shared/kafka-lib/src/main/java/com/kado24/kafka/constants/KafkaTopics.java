@@ -1,5 +1,8 @@
 package com.kado24.kafka.constants;
 
+import java.time.Duration;
+import java.util.Map;
+
 /**
  * Kafka topic names used across the Kado24 platform
  */
@@ -51,6 +54,67 @@ public final class KafkaTopics {
      */
     public static final String AUDIT_EVENTS = "audit-events";
 
+    /**
+     * Retry tier suffixes: a record that failed is re-consumed from {@code <topic>-retry-1s}, then
+     * {@code -retry-10s}, then {@code -retry-60s}, and finally parked in {@code <topic>-dlt}
+     */
+    public static final String RETRY_1S_SUFFIX = "-retry-1s";
+    public static final String RETRY_10S_SUFFIX = "-retry-10s";
+    public static final String RETRY_60S_SUFFIX = "-retry-60s";
+
+    /**
+     * Dead-letter suffix
+     * Retention: 30 days
+     */
+    public static final String DLT_SUFFIX = "-dlt";
+
+    private static final String[] DERIVED_SUFFIXES = {RETRY_1S_SUFFIX, RETRY_10S_SUFFIX, RETRY_60S_SUFFIX, DLT_SUFFIX};
+
+    /**
+     * Dead-letter topic of a topic
+     */
+    public static String deadLetterTopic(String topic) {
+        return topic + DLT_SUFFIX;
+    }
+
+    /**
+     * The topic a retry or dead-letter topic belongs to; other topics are returned unchanged
+     */
+    public static String baseTopic(String topic) {
+        for (String suffix : DERIVED_SUFFIXES) {
+            if (topic.endsWith(suffix)) {
+                return topic.substring(0, topic.length() - suffix.length());
+            }
+        }
+        return topic;
+    }
+
+    /**
+     * Retry tiers and dead-letter topic of a topic
+     */
+    public static String[] getDerivedTopics(String topic) {
+        String[] derived = new String[DERIVED_SUFFIXES.length];
+        for (int i = 0; i < DERIVED_SUFFIXES.length; i++) {
+            derived[i] = topic + DERIVED_SUFFIXES[i];
+        }
+        return derived;
+    }
+
+    private static final Map<String, Duration> RETENTION = Map.of(
+            ORDER_EVENTS, Duration.ofDays(7),
+            PAYMENT_EVENTS, Duration.ofDays(30),
+            NOTIFICATION_EVENTS, Duration.ofDays(3),
+            REDEMPTION_EVENTS, Duration.ofDays(30),
+            ANALYTICS_EVENTS, Duration.ofDays(90),
+            AUDIT_EVENTS, Duration.ofDays(365));
+
+    /**
+     * Retention of a topic (retry and dead-letter topics report their base topic's), 7 days if unknown
+     */
+    public static Duration getRetention(String topic) {
+        return RETENTION.getOrDefault(baseTopic(topic), Duration.ofDays(7));
+    }
+
     /**
      * Get all topic names
      */
@@ -0,0 +1,80 @@
+package com.kado24.kafka.consumer;
+
+import com.kado24.kafka.constants.KafkaTopics;
+import com.kado24.kafka.event.AnalyticsEvent;
+import com.kado24.kafka.event.AuditEvent;
+import com.kado24.kafka.event.BaseEvent;
+import com.kado24.kafka.event.NotificationEvent;
+import com.kado24.kafka.event.OrderEvent;
+import com.kado24.kafka.event.PaymentEvent;
+import com.kado24.kafka.event.RedemptionEvent;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps (topic, eventType) to the concrete event class to deserialize into.
+ *
+ * Each topic has a default class; eventTypes that travel on a topic as a different class are
+ * registered as overrides. Registrations also cover the topic's retry and dead-letter topics.
+ * Lookups are two hash probes, so routing costs nothing per record.
+ */
+public final class EventTypeRouter {
+
+    private static final EventTypeRouter DEFAULT = new EventTypeRouter()
+            .topic(KafkaTopics.ORDER_EVENTS, OrderEvent.class)
+            .topic(KafkaTopics.PAYMENT_EVENTS, PaymentEvent.class)
+            .topic(KafkaTopics.NOTIFICATION_EVENTS, NotificationEvent.class)
+            .topic(KafkaTopics.REDEMPTION_EVENTS, RedemptionEvent.class)
+            .topic(KafkaTopics.ANALYTICS_EVENTS, AnalyticsEvent.class)
+            .topic(KafkaTopics.AUDIT_EVENTS, AuditEvent.class);
+
+    private final Map<String, Class<? extends BaseEvent>> topicDefaults = new HashMap<>();
+    private final Map<String, Map<String, Class<? extends BaseEvent>>> overrides = new HashMap<>();
+
+    public static EventTypeRouter defaultRouter() {
+        return DEFAULT;
+    }
+
+    public EventTypeRouter topic(String topic, Class<? extends BaseEvent> defaultType) {
+        topicDefaults.put(topic, defaultType);
+        for (String derived : KafkaTopics.getDerivedTopics(topic)) {
+            topicDefaults.put(derived, defaultType);
+        }
+        return this;
+    }
+
+    public EventTypeRouter route(String topic, String eventType, Class<? extends BaseEvent> type) {
+        overrides.computeIfAbsent(topic, key -> new HashMap<>()).put(eventType, type);
+        for (String derived : KafkaTopics.getDerivedTopics(topic)) {
+            overrides.computeIfAbsent(derived, key -> new HashMap<>()).put(eventType, type);
+        }
+        return this;
+    }
+
+    /**
+     * Concrete class for a record, or null if the topic is unknown
+     */
+    public Class<? extends BaseEvent> resolve(String topic, String eventType) {
+        Map<String, Class<? extends BaseEvent>> topicOverrides = overrides.get(topic);
+        if (topicOverrides != null && eventType != null) {
+            Class<? extends BaseEvent> type = topicOverrides.get(eventType);
+            if (type != null) {
+                return type;
+            }
+        }
+        return topicDefaults.get(topic);
+    }
+
+    /**
+     * Every class this router can produce
+     */
+    public Collection<Class<? extends BaseEvent>> eventTypes() {
+        Set<Class<? extends BaseEvent>> types = new HashSet<>(topicDefaults.values());
+        overrides.values().forEach(routes -> types.addAll(routes.values()));
+        return types;
+    }
+}
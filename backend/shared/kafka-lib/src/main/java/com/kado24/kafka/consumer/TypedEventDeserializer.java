@@ -0,0 +1,83 @@
+package com.kado24.kafka.consumer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.kado24.kafka.codec.CompactEventCodec;
+import com.kado24.kafka.codec.EventSchemaRegistry;
+import com.kado24.kafka.event.BaseEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deserializes each record into its concrete event class.
+ *
+ * Compact records name their schema, so the class is known. For JSON the top-level
+ * {@code eventType} is read with a streaming parser and routed through {@link EventTypeRouter} to
+ * an {@link ObjectReader} built once per class at startup.
+ */
+public class TypedEventDeserializer implements Deserializer<Object> {
+
+    private final EventTypeRouter router = EventTypeRouter.defaultRouter();
+    private final CompactEventCodec codec = new CompactEventCodec(EventSchemaRegistry.defaultRegistry());
+    private final JsonFactory jsonFactory;
+    private final Map<Class<? extends BaseEvent>, ObjectReader> readers = new HashMap<>();
+
+    public TypedEventDeserializer() {
+        ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+        this.jsonFactory = objectMapper.getFactory();
+        for (Class<? extends BaseEvent> type : router.eventTypes()) {
+            readers.put(type, objectMapper.readerFor(type));
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (CompactEventCodec.isCompact(data)) {
+            return codec.decode(data);
+        }
+
+        String eventType = peekEventType(data);
+        Class<? extends BaseEvent> type = router.resolve(topic, eventType);
+        if (type == null) {
+            throw new SerializationException("No event class for topic " + topic + " and eventType " + eventType);
+        }
+        try {
+            return readers.get(type).readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot deserialize " + type.getSimpleName() + " from " + topic, e);
+        }
+    }
+
+    /**
+     * Top-level eventType, stopping as soon as it is found; null if absent
+     */
+    private String peekEventType(byte[] data) {
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("eventType".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new SerializationException("Malformed event JSON", e);
+        }
+    }
+}
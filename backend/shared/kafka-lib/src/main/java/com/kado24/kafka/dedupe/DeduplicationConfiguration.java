@@ -0,0 +1,65 @@
+package com.kado24.kafka.dedupe;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+/**
+ * Idempotent consumers: enables {@link IdempotentEvents} on listener and handler methods.
+ *
+ * Deliberately not a {@code @Configuration}: only consumers that need deduplication pay for the
+ * seen-set table, and they opt in with {@code @Import(DeduplicationConfiguration.class)}. The
+ * table lives in the service's own schema.
+ */
+public class DeduplicationConfiguration {
+
+    @Value("${kafka.dedupe.table:processed_events}")
+    private String table;
+
+    @Value("${kafka.dedupe.create-table:true}")
+    private boolean createTable;
+
+    @Value("${kafka.dedupe.consumer:${spring.application.name:default}}")
+    private String defaultConsumer;
+
+    @Value("${kafka.dedupe.purge-interval-ms:3600000}")
+    private long purgeIntervalMs;
+
+    @Bean
+    public SeenEventStore seenEventStore(JdbcTemplate jdbcTemplate) {
+        SeenEventStore store = new SeenEventStore(jdbcTemplate, table);
+        if (createTable) {
+            store.createTableIfMissing();
+        }
+        return store;
+    }
+
+    @Bean(destroyMethod = "close")
+    public EventDeduplicator eventDeduplicator(SeenEventStore seenEventStore) {
+        EventDeduplicator deduplicator = new EventDeduplicator(seenEventStore);
+        deduplicator.startPurging(Duration.ofMillis(purgeIntervalMs));
+        return deduplicator;
+    }
+
+    /**
+     * Infrastructure role so it is applied by whichever auto-proxy creator the service has
+     * (the transaction one at minimum)
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public Advisor idempotentEventsAdvisor(ObjectProvider<EventDeduplicator> eventDeduplicator,
+                                           ObjectProvider<PlatformTransactionManager> transactionManager) {
+        return new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(IdempotentEvents.class),
+                new IdempotentEventsInterceptor(eventDeduplicator, transactionManager, defaultConsumer));
+    }
+}
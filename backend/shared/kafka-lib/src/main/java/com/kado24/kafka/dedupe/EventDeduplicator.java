@@ -0,0 +1,67 @@
+package com.kado24.kafka.dedupe;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which event ids a consumer has not processed yet.
+ *
+ * The check is a single round trip: the {@link SeenEventStore} insert both records the ids and
+ * returns the ones that were new, so there is nothing a local pre-filter could save. It is
+ * authoritative across instances and catches events processed elsewhere before a partition moved.
+ */
+@Slf4j
+public class EventDeduplicator implements AutoCloseable {
+
+    private final SeenEventStore store;
+    private final ScheduledExecutorService purger;
+
+    public EventDeduplicator(SeenEventStore store) {
+        this.store = store;
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seen-event-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void startPurging(Duration interval) {
+        purger.scheduleWithFixedDelay(this::purgeQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ids from {@code eventIds} this consumer has not processed, now recorded as processed.
+     * Must run in the transaction of the work it guards.
+     */
+    public Set<String> markNew(String consumer, Collection<String> eventIds, Duration ttl) {
+        Set<String> marked = store.markSeen(consumer, new LinkedHashSet<>(eventIds), ttl);
+        int duplicates = eventIds.size() - marked.size();
+        if (duplicates > 0) {
+            log.info("Skipping {} already processed events for {}", duplicates, consumer);
+        }
+        return marked;
+    }
+
+    private void purgeQuietly() {
+        try {
+            long deleted = store.purgeExpired();
+            if (deleted > 0) {
+                log.debug("Purged {} expired ids from {}", deleted, store.getTable());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to purge {}: {}", store.getTable(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        purger.shutdownNow();
+    }
+}
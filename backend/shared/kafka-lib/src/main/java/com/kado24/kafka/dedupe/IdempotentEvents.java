@@ -0,0 +1,33 @@
+package com.kado24.kafka.dedupe;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes an event handler idempotent: events whose {@code eventId} the consumer already processed
+ * are removed before the method runs.
+ *
+ * The method takes the events as a {@code List<? extends BaseEvent>} (filtered in place; the
+ * method is skipped if nothing is left) or as a single {@code BaseEvent} (the call is skipped for
+ * a duplicate, so the method should return void). Ids are recorded in the same transaction as the
+ * method's own writes. Requires {@code @Import(DeduplicationConfiguration.class)}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface IdempotentEvents {
+
+    /**
+     * Topic the events come from; ids are remembered for the topic's retention
+     */
+    String topic();
+
+    /**
+     * Name the seen-set is kept under; defaults to {@code spring.application.name}. Handlers that
+     * must each see every event need different names.
+     */
+    String consumer() default "";
+}
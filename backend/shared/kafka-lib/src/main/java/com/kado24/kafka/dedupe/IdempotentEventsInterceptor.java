@@ -0,0 +1,107 @@
+package com.kado24.kafka.dedupe;
+
+import com.kado24.kafka.constants.KafkaTopics;
+import com.kado24.kafka.event.BaseEvent;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies {@link IdempotentEvents}: records the events' ids and drops the ones already processed,
+ * then calls the method with what is left, all in one transaction (joining the method's own
+ * {@code @Transactional}, whichever proxy runs first).
+ *
+ * Collaborators are looked up on first use: advisors are created before ordinary beans, and
+ * resolving the data source that early would keep it from being post-processed.
+ */
+class IdempotentEventsInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<EventDeduplicator> deduplicatorProvider;
+    private final ObjectProvider<PlatformTransactionManager> transactionManagerProvider;
+    private final String defaultConsumer;
+
+    private volatile EventDeduplicator deduplicator;
+    private volatile TransactionTemplate transactionTemplate;
+
+    IdempotentEventsInterceptor(ObjectProvider<EventDeduplicator> deduplicatorProvider,
+                                ObjectProvider<PlatformTransactionManager> transactionManagerProvider,
+                                String defaultConsumer) {
+        this.deduplicatorProvider = deduplicatorProvider;
+        this.transactionManagerProvider = transactionManagerProvider;
+        this.defaultConsumer = defaultConsumer;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        IdempotentEvents idempotent = AnnotatedElementUtils.findMergedAnnotation(invocation.getMethod(), IdempotentEvents.class);
+        if (idempotent == null) {
+            return invocation.proceed();
+        }
+        String consumer = idempotent.consumer().isEmpty() ? defaultConsumer : idempotent.consumer();
+        if (transactionTemplate == null) {
+            deduplicator = deduplicatorProvider.getObject();
+            transactionTemplate = new TransactionTemplate(transactionManagerProvider.getObject());
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return filterAndProceed(invocation, consumer, idempotent.topic());
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new CheckedInvocationException(e);
+                }
+            });
+        } catch (CheckedInvocationException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object filterAndProceed(MethodInvocation invocation, String consumer, String topic) throws Throwable {
+        Object[] arguments = invocation.getArguments();
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] instanceof BaseEvent event) {
+                if (event.getEventId() != null
+                        && deduplicator.markNew(consumer, List.of(event.getEventId()), KafkaTopics.getRetention(topic)).isEmpty()) {
+                    return null;
+                }
+            } else if (arguments[i] instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof BaseEvent) {
+                List<String> eventIds = new ArrayList<>(list.size());
+                for (Object element : list) {
+                    String eventId = ((BaseEvent) element).getEventId();
+                    if (eventId != null) {
+                        eventIds.add(eventId);
+                    }
+                }
+                Set<String> fresh = deduplicator.markNew(consumer, eventIds, KafkaTopics.getRetention(topic));
+                List<Object> remaining = new ArrayList<>(list.size());
+                for (Object element : list) {
+                    String eventId = ((BaseEvent) element).getEventId();
+                    // Ids repeated within the batch are marked once, so only the first copy survives
+                    if (eventId == null || fresh.remove(eventId)) {
+                        remaining.add(element);
+                    }
+                }
+                if (remaining.isEmpty()) {
+                    return null;
+                }
+                arguments[i] = remaining;
+            }
+        }
+        return invocation.proceed();
+    }
+
+    private static class CheckedInvocationException extends RuntimeException {
+        CheckedInvocationException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
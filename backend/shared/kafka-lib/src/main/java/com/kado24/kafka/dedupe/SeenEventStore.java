@@ -0,0 +1,93 @@
+package com.kado24.kafka.dedupe;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Postgres set of event ids a consumer has already processed.
+ *
+ * {@link #markSeen} runs on the caller's connection: inside the listener's transaction the ids
+ * commit or roll back together with the work they guard, and the primary key makes two
+ * instances racing on the same event serialize on the insert, so only one of them wins.
+ * Rows expire after the topic's retention, once the event cannot be redelivered anymore.
+ */
+public class SeenEventStore {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final int PURGE_CHUNK = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    public SeenEventStore(JdbcTemplate jdbcTemplate, String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid seen-event table name: " + table);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+    }
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "consumer VARCHAR(100) NOT NULL, " +
+                "event_id VARCHAR(100) NOT NULL, " +
+                "expires_at TIMESTAMP NOT NULL, " +
+                "PRIMARY KEY (consumer, event_id))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table.substring(table.indexOf('.') + 1)
+                + "_expires_idx ON " + table + " (expires_at)");
+    }
+
+    /**
+     * Record the ids as processed; returns the ones that were not already recorded. Checking and
+     * marking is one statement, so there is no window between the two.
+     */
+    public Set<String> markSeen(String consumer, Collection<String> eventIds, Duration ttl) {
+        Set<String> marked = new HashSet<>();
+        if (eventIds.isEmpty()) {
+            return marked;
+        }
+        Timestamp expiresAt = Timestamp.from(Instant.now().plus(ttl));
+        jdbcTemplate.query(connection -> {
+            // An expired row that was not purged yet counts as unseen
+            var statement = connection.prepareStatement("INSERT INTO " + table + " AS seen (consumer, event_id, expires_at) "
+                    + "SELECT ?, id, ? FROM unnest(?::varchar[]) AS id "
+                    + "ON CONFLICT (consumer, event_id) DO UPDATE SET expires_at = EXCLUDED.expires_at "
+                    + "WHERE seen.expires_at <= now() "
+                    + "RETURNING event_id");
+            Array ids = connection.createArrayOf("varchar", eventIds.toArray());
+            statement.setString(1, consumer);
+            statement.setTimestamp(2, expiresAt);
+            statement.setArray(3, ids);
+            return statement;
+        }, rs -> {
+            marked.add(rs.getString(1));
+        });
+        return marked;
+    }
+
+    /**
+     * Delete expired rows in chunks; returns how many were deleted
+     */
+    public long purgeExpired() {
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = jdbcTemplate.update("DELETE FROM " + table + " WHERE ctid IN (SELECT ctid FROM " + table
+                    + " WHERE expires_at < now() LIMIT " + PURGE_CHUNK + ")");
+            deleted += chunk;
+        } while (chunk == PURGE_CHUNK);
+        return deleted;
+    }
+
+    public String getTable() {
+        return table;
+    }
+}
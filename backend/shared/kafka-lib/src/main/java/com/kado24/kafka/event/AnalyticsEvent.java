@@ -78,6 +78,21 @@ public class AnalyticsEvent extends BaseEvent {
     public static final String USER_LOGIN = "USER_LOGIN";
     public static final String MERCHANT_REGISTERED = "MERCHANT_REGISTERED";
 
+    // Properties of coalesced summary events (see AnalyticsEventCoalescer)
+    public static final String PROPERTY_COUNT = "count";
+    public static final String PROPERTY_WINDOW_START = "windowStart";
+    public static final String PROPERTY_WINDOW_SECONDS = "windowSeconds";
+    public static final String PROPERTY_USER_IDS = "userIds";
+    public static final String PROPERTY_USER_IDS_TRUNCATED = "userIdsTruncated";
+
+    /**
+     * Number of occurrences this event stands for: the count of a coalesced summary, otherwise 1
+     */
+    public long occurrences() {
+        Object count = properties != null ? properties.get(PROPERTY_COUNT) : null;
+        return count instanceof Number number ? number.longValue() : 1;
+    }
+
     /**
      * Create VOUCHER_VIEWED event
      */
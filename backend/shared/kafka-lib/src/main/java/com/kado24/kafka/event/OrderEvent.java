@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * Event published when order-related actions occur
@@ -77,6 +78,11 @@ public class OrderEvent extends BaseEvent {
      * Current order status
      */
     private String orderStatus;
+    
+    /**
+     * When the payment completed (ORDER_CONFIRMED)
+     */
+    private LocalDateTime paidAt;
 
     // Event types
     public static final String ORDER_CREATED = "ORDER_CREATED";
@@ -28,6 +28,11 @@ public class RedemptionEvent extends BaseEvent {
      */
     private Long walletVoucherId;
     
+    /**
+     * Voucher (catalog listing) ID
+     */
+    private Long voucherId;
+    
     /**
      * Voucher code
      */
@@ -92,12 +97,13 @@ public class RedemptionEvent extends BaseEvent {
     /**
      * Create REDEMPTION_COMPLETED event
      */
-    public static RedemptionEvent completed(Long redemptionId, Long walletVoucherId, String voucherCode,
-                                           Long merchantId, String merchantName, Long consumerId,
+    public static RedemptionEvent completed(Long redemptionId, Long walletVoucherId, Long voucherId,
+                                           String voucherCode, Long merchantId, String merchantName, Long consumerId,
                                            BigDecimal amount, String location) {
         RedemptionEvent event = RedemptionEvent.builder()
                 .redemptionId(redemptionId)
                 .walletVoucherId(walletVoucherId)
+                .voucherId(voucherId)
                 .voucherCode(voucherCode)
                 .merchantId(merchantId)
                 .merchantName(merchantName)
@@ -106,6 +112,8 @@ public class RedemptionEvent extends BaseEvent {
                 .location(location)
                 .redemptionMethod("QR_SCAN")
                 .build();
+        // 1.1 added voucherId
+        event.setVersion("1.1");
         event.initDefaults(REDEMPTION_COMPLETED, "redemption-service");
         return event;
     }
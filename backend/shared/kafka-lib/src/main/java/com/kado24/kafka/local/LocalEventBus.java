@@ -0,0 +1,266 @@
+package com.kado24.kafka.local;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM event bus over a pre-allocated ring buffer, used instead of Kafka by
+ * {@link com.kado24.kafka.producer.EventPublisher} in {@code local} mode.
+ *
+ * Publishers claim a sequence, fill the slot in place and mark it published; nothing is allocated
+ * per event beyond the event itself. A single dispatcher thread takes every contiguous published
+ * slot at once (up to {@code maxBatch}), appends the batch to the optional {@link LocalEventLog},
+ * and hands each subscriber all of its topic's events from the batch in one call. Per-topic order
+ * is publication order. When the ring is full publishers wait for the dispatcher rather than
+ * dropping events.
+ */
+@Slf4j
+public class LocalEventBus implements AutoCloseable {
+
+    /**
+     * Mutable slot, reused for every event that lands on it
+     */
+    private static final class Slot {
+        String topic;
+        String key;
+        Object event;
+    }
+
+    private record Subscription(Class<?> type, Consumer<List<Object>> handler, String name) {
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final int maxBatch;
+    private final LocalEventLog eventLog;
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Set<String> unsubscribedTopics = ConcurrentHashMap.newKeySet();
+    private final Thread dispatcher;
+
+    private volatile long dispatched = -1;
+    private volatile boolean dispatcherParked;
+    private volatile boolean running = true;
+
+    public LocalEventBus(int capacity, int maxBatch, LocalEventLog eventLog) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.maxBatch = maxBatch;
+        this.eventLog = eventLog;
+        this.dispatcher = new Thread(this::dispatchLoop, "local-event-bus");
+        this.dispatcher.setDaemon(true);
+    }
+
+    public void start() {
+        if (eventLog != null) {
+            // Events published but not delivered before the last shutdown or crash
+            eventLog.replayUndelivered(this::deliver);
+        }
+        dispatcher.start();
+        log.info("Local event bus started ({} slots, batches of up to {}{})",
+                slots.length, maxBatch, eventLog != null ? ", append log " + eventLog.getPath() : "");
+    }
+
+    /**
+     * Register a handler for a topic; it receives the topic's events of {@code type} in batches
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void subscribe(String topic, Class<T> type, Consumer<List<T>> handler, String name) {
+        subscriptions.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>())
+                .add(new Subscription(type, events -> handler.accept((List<T>) events), name));
+        log.info("Local subscriber {} registered on {}", name, topic);
+    }
+
+    /**
+     * Queue an event for delivery; returns its sequence
+     */
+    public long publish(String topic, String key, Object event) {
+        long sequence;
+        if (isDispatcherThread()) {
+            // A subscriber cannot wait for the dispatcher, which is itself: claim only a free slot
+            do {
+                sequence = claimed.get() + 1;
+                if (sequence - dispatched > slots.length) {
+                    throw new IllegalStateException("Local event bus full, cannot publish to " + topic + " from a subscriber");
+                }
+            } while (!claimed.compareAndSet(sequence - 1, sequence));
+        } else {
+            sequence = claimed.incrementAndGet();
+        }
+        // Wait for the dispatcher to free the slot a full lap ago
+        while (sequence - dispatched > slots.length) {
+            wakeDispatcher();
+            LockSupport.parkNanos(10_000);
+        }
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.topic = topic;
+        slot.key = key;
+        slot.event = event;
+        published.set((int) (sequence & mask), sequence);
+        wakeDispatcher();
+        return sequence;
+    }
+
+    /**
+     * Wait until the event at {@code sequence} has been handed to its subscribers. Called from a
+     * subscriber, that is on the dispatcher thread, it cannot wait for later events and returns
+     * false at once unless {@code sequence} is already delivered.
+     */
+    public boolean awaitDelivered(long sequence, Duration timeout) {
+        if (isDispatcherThread()) {
+            return dispatched >= sequence;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (dispatched < sequence) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(20_000);
+        }
+        return true;
+    }
+
+    /**
+     * Whether the caller is a subscriber running on the dispatcher thread
+     */
+    public boolean isDispatcherThread() {
+        return Thread.currentThread() == dispatcher;
+    }
+
+    private void wakeDispatcher() {
+        if (dispatcherParked) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatchLoop() {
+        List<String> topics = new ArrayList<>(maxBatch);
+        List<String> keys = new ArrayList<>(maxBatch);
+        List<Object> events = new ArrayList<>(maxBatch);
+        int idleSpins = 0;
+
+        while (running) {
+            long next = dispatched + 1;
+            long last = next - 1;
+            while (last + 1 - next < maxBatch && published.get((int) ((last + 1) & mask)) == last + 1) {
+                last++;
+            }
+            if (last < next) {
+                if (++idleSpins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    dispatcherParked = true;
+                    // Re-check after announcing, so a publish in between is not missed
+                    if (published.get((int) (next & mask)) != next && running) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                    }
+                    dispatcherParked = false;
+                }
+                continue;
+            }
+            idleSpins = 0;
+
+            for (long sequence = next; sequence <= last; sequence++) {
+                Slot slot = slots[(int) (sequence & mask)];
+                topics.add(slot.topic);
+                keys.add(slot.key);
+                events.add(slot.event);
+                slot.topic = null;
+                slot.key = null;
+                slot.event = null;
+            }
+
+            if (eventLog != null) {
+                eventLog.append(topics, keys, events);
+            }
+            deliver(topics, events);
+            if (eventLog != null) {
+                eventLog.markDelivered();
+            }
+            topics.clear();
+            keys.clear();
+            events.clear();
+            dispatched = last;
+        }
+    }
+
+    /**
+     * Hand each subscriber its topic's events from the batch, in order, in one call
+     */
+    void deliver(List<String> topics, List<Object> events) {
+        Map<String, List<Object>> byTopic = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            byTopic.computeIfAbsent(topics.get(i), key -> new ArrayList<>()).add(events.get(i));
+        }
+        byTopic.forEach((topic, topicEvents) -> {
+            List<Subscription> topicSubscriptions = subscriptions.getOrDefault(topic, List.of());
+            if (topicSubscriptions.isEmpty() && unsubscribedTopics.add(topic)) {
+                // Events never leave the JVM, so these are gone
+                log.warn("No local subscriber on {}: its events are dropped (logged once per topic)", topic);
+            }
+            for (Subscription subscription : topicSubscriptions) {
+                List<Object> matching = new ArrayList<>(topicEvents.size());
+                for (Object event : topicEvents) {
+                    if (subscription.type().isInstance(event)) {
+                        matching.add(event);
+                    }
+                }
+                if (matching.isEmpty()) {
+                    continue;
+                }
+                try {
+                    subscription.handler().accept(matching);
+                } catch (Throwable e) {
+                    // Errors too: a dead dispatcher would hang every later publish and await
+                    log.error("Local subscriber {} failed on {} events from {}", subscription.name(), matching.size(), topic, e);
+                }
+            }
+        });
+    }
+
+    public long getDispatched() {
+        return dispatched;
+    }
+
+    /**
+     * Deliver what is already queued, then stop
+     */
+    @Override
+    public void close() {
+        awaitDelivered(claimed.get(), Duration.ofSeconds(10));
+        running = false;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.kado24.kafka.local;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.nio.file.Path;
+
+/**
+ * In-process event delivery, enabled with {@code kafka.publisher.mode=local} (set by the
+ * {@code local-bus} profile).
+ *
+ * {@link com.kado24.kafka.producer.EventPublisher} then hands events to a {@link LocalEventBus}
+ * instead of Kafka, and {@link LocalEventListener} methods in the same JVM receive them. Meant for
+ * single-node deployments and local load tests; events do not leave the service.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.publisher.mode", havingValue = "local")
+public class LocalEventBusConfiguration {
+
+    @Value("${kafka.local-bus.capacity:65536}")
+    private int capacity;
+
+    @Value("${kafka.local-bus.max-batch:1024}")
+    private int maxBatch;
+
+    @Value("${kafka.local-bus.log.enabled:false}")
+    private boolean logEnabled;
+
+    @Value("${kafka.local-bus.log.path:data/local-events/${spring.application.name:service}.log}")
+    private String logPath;
+
+    @Value("${kafka.local-bus.log.max-bytes:67108864}")
+    private long logMaxBytes;
+
+    @Value("${kafka.local-bus.log.fsync:false}")
+    private boolean logFsync;
+
+    /**
+     * Started by {@link LocalEventListenerRegistrar} once every listener is subscribed
+     */
+    @Bean(destroyMethod = "close")
+    public LocalEventBus localEventBus() {
+        LocalEventLog eventLog = logEnabled
+                ? new LocalEventLog(Path.of(logPath), JacksonUtils.enhancedObjectMapper(), logMaxBytes, logFsync)
+                : null;
+        return new LocalEventBus(capacity, maxBatch, eventLog);
+    }
+
+    @Bean
+    public static LocalEventListenerRegistrar localEventListenerRegistrar() {
+        return new LocalEventListenerRegistrar();
+    }
+}
@@ -0,0 +1,22 @@
+package com.kado24.kafka.local;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Local counterpart of {@code @KafkaListener}: in {@code local} publisher mode the method receives
+ * events published on its topics by this JVM through {@link LocalEventBus}.
+ *
+ * The single parameter is either an event class (called once per event) or a {@code List} of one
+ * (called once per dispatched batch). Only events of that class are delivered.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LocalEventListener {
+
+    String[] topics();
+}
@@ -0,0 +1,91 @@
+package com.kado24.kafka.local;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds {@link LocalEventListener} methods on every bean and, once all singletons exist,
+ * subscribes them to the {@link LocalEventBus} and starts it (so replayed events reach them).
+ */
+public class LocalEventListenerRegistrar implements BeanPostProcessor, SmartInitializingSingleton, BeanFactoryAware {
+
+    private record Endpoint(Object bean, Method method, String[] topics, Class<?> eventType, boolean batch, String name) {
+    }
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, LocalEventListener> methods = MethodIntrospector.selectMethods(targetClass,
+                (MethodIntrospector.MetadataLookup<LocalEventListener>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, LocalEventListener.class));
+        methods.forEach((method, listener) -> {
+            if (method.getParameterCount() != 1) {
+                throw new IllegalStateException("@LocalEventListener method must take one parameter: " + method);
+            }
+            ResolvableType parameter = ResolvableType.forMethodParameter(method, 0);
+            boolean batch = List.class.isAssignableFrom(parameter.toClass());
+            Class<?> eventType = batch ? parameter.getGeneric(0).toClass() : parameter.toClass();
+            Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+            ReflectionUtils.makeAccessible(invocable);
+            endpoints.add(new Endpoint(bean, invocable, listener.topics(), eventType, batch,
+                    beanName + "." + method.getName()));
+        });
+        return bean;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalEventBus bus = beanFactory.getBean(LocalEventBus.class);
+        for (Endpoint endpoint : endpoints) {
+            for (String topic : endpoint.topics()) {
+                subscribe(bus, topic, endpoint);
+            }
+        }
+        bus.start();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void subscribe(LocalEventBus bus, String topic, Endpoint endpoint) {
+        bus.subscribe(topic, (Class) endpoint.eventType(), events -> {
+            if (endpoint.batch()) {
+                invoke(endpoint, events);
+            } else {
+                for (Object event : (List<Object>) events) {
+                    invoke(endpoint, event);
+                }
+            }
+        }, endpoint.name());
+    }
+
+    private static void invoke(Endpoint endpoint, Object argument) {
+        try {
+            endpoint.method().invoke(endpoint.bean(), argument);
+        } catch (InvocationTargetException e) {
+            ReflectionUtils.rethrowRuntimeException(e.getTargetException());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
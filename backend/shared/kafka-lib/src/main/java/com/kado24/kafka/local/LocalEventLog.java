@@ -0,0 +1,211 @@
+package com.kado24.kafka.local;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Append-only file the {@link LocalEventBus} writes each batch to before delivering it.
+ *
+ * Records are length-prefixed: topic, key, event class and the JSON payload. A sidecar
+ * {@code .delivered} file holds the position up to which batches were delivered; on startup the
+ * records after it are replayed, so events that were queued when the JVM died are not lost once
+ * they reached the log. The log is truncated whenever it is fully delivered and larger than
+ * {@code maxBytes}, so it never grows past one batch beyond that. With {@code fsync} every batch
+ * is forced to disk before delivery (group commit).
+ */
+@Slf4j
+public class LocalEventLog implements AutoCloseable {
+
+    private static final String EVENT_PACKAGE = "com.kado24.";
+
+    private final Path path;
+    private final FileChannel file;
+    private final FileChannel checkpoint;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final boolean fsync;
+    private final ByteBuffer positionBuffer = ByteBuffer.allocate(Long.BYTES);
+
+    public LocalEventLog(Path path, ObjectMapper objectMapper, long maxBytes, boolean fsync) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.checkpoint = FileChannel.open(Path.of(path + ".delivered"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open local event log " + path, e);
+        }
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.fsync = fsync;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Write a batch at the end of the log
+     */
+    void append(List<String> topics, List<String> keys, List<Object> events) {
+        try {
+            List<ByteBuffer> records = new ArrayList<>(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                records.add(encode(topics.get(i), keys.get(i), events.get(i)));
+            }
+            file.position(file.size());
+            for (ByteBuffer record : records) {
+                while (record.hasRemaining()) {
+                    file.write(record);
+                }
+            }
+            if (fsync) {
+                file.force(false);
+            }
+        } catch (IOException e) {
+            // Delivery goes on; only durability of this batch is lost
+            log.error("Failed to append {} events to {}", events.size(), path, e);
+        }
+    }
+
+    /**
+     * Everything appended so far has been delivered
+     */
+    void markDelivered() {
+        try {
+            long end = file.size();
+            if (end > maxBytes) {
+                file.truncate(0);
+                end = 0;
+            }
+            writeCheckpoint(end);
+        } catch (IOException e) {
+            log.error("Failed to checkpoint {}", path, e);
+        }
+    }
+
+    /**
+     * Deliver records appended after the last checkpoint, then start the log afresh
+     */
+    void replayUndelivered(BiConsumer<List<String>, List<Object>> deliver) {
+        try {
+            long position = readCheckpoint();
+            long end = file.size();
+            List<String> topics = new ArrayList<>();
+            List<Object> events = new ArrayList<>();
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+            while (position + Integer.BYTES <= end) {
+                lengthBuffer.clear();
+                file.read(lengthBuffer, position);
+                int length = lengthBuffer.flip().getInt();
+                if (length <= 0 || position + Integer.BYTES + length > end) {
+                    // Torn write at the tail: the batch never reached the disk completely
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.allocate(length);
+                file.read(record, position + Integer.BYTES);
+                record.flip();
+                decode(record, topics, events);
+                position += Integer.BYTES + length;
+            }
+            if (!events.isEmpty()) {
+                log.warn("Replaying {} undelivered events from {}", events.size(), path);
+                deliver.accept(topics, events);
+            }
+            file.truncate(0);
+            writeCheckpoint(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay local event log " + path, e);
+        }
+    }
+
+    private ByteBuffer encode(String topic, String key, Object event) throws IOException {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key == null ? null : key.getBytes(StandardCharsets.UTF_8);
+        byte[] typeBytes = event.getClass().getName().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = objectMapper.writeValueAsBytes(event);
+
+        int length = 2 + topicBytes.length + 4 + (keyBytes == null ? 0 : keyBytes.length) + 2 + typeBytes.length + payload.length;
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length);
+        record.putInt(length);
+        record.putShort((short) topicBytes.length).put(topicBytes);
+        record.putInt(keyBytes == null ? -1 : keyBytes.length);
+        if (keyBytes != null) {
+            record.put(keyBytes);
+        }
+        record.putShort((short) typeBytes.length).put(typeBytes);
+        record.put(payload);
+        return record.flip();
+    }
+
+    private void decode(ByteBuffer record, List<String> topics, List<Object> events) {
+        String topic = readString(record, record.getShort());
+        int keyLength = record.getInt();
+        if (keyLength > 0) {
+            record.position(record.position() + keyLength);
+        }
+        String type = readString(record, record.getShort());
+        byte[] payload = new byte[record.remaining()];
+        record.get(payload);
+        if (!type.startsWith(EVENT_PACKAGE)) {
+            log.warn("Skipping logged event of unexpected type {}", type);
+            return;
+        }
+        try {
+            Object event = objectMapper.readValue(payload, Class.forName(type));
+            topics.add(topic);
+            events.add(event);
+        } catch (ClassNotFoundException | IOException e) {
+            log.warn("Skipping logged event of type {}: {}", type, e.getMessage());
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (checkpoint.size() < Long.BYTES) {
+            return 0;
+        }
+        positionBuffer.clear();
+        checkpoint.read(positionBuffer, 0);
+        return positionBuffer.flip().getLong();
+    }
+
+    private void writeCheckpoint(long position) throws IOException {
+        positionBuffer.clear();
+        positionBuffer.putLong(position).flip();
+        checkpoint.write(positionBuffer, 0);
+        if (fsync) {
+            checkpoint.force(false);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            file.close();
+            checkpoint.close();
+        } catch (IOException e) {
+            log.warn("Failed to close {}", path, e);
+        }
+    }
+}
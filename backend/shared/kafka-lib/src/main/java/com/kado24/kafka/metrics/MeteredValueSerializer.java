@@ -0,0 +1,78 @@
+package com.kado24.kafka.metrics;
+
+import com.kado24.kafka.event.BaseEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Value serializer that records {@code kafka.publisher.record.size} (topic, eventType): the
+ * serialized size of every record, before compression, as a distribution.
+ *
+ * Configured by class like any serializer, so per-template overrides of
+ * {@code value.serializer} keep working: {@link #DELEGATE_CONFIG} names the serializer doing the
+ * work and {@link #METER_REGISTRY_CONFIG} carries the registry instance.
+ */
+public class MeteredValueSerializer implements Serializer<Object> {
+
+    public static final String DELEGATE_CONFIG = "kado24.metrics.value.serializer";
+    public static final String METER_REGISTRY_CONFIG = "kado24.metrics.meter.registry";
+
+    private Serializer<Object> delegate;
+    private MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object delegateConfig = configs.get(DELEGATE_CONFIG);
+        try {
+            Class<?> delegateClass = delegateConfig instanceof Class<?> type
+                    ? type
+                    : ClassUtils.forName(String.valueOf(delegateConfig), getClass().getClassLoader());
+            delegate = (Serializer<Object>) BeanUtils.instantiateClass(delegateClass);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown value serializer " + delegateConfig, e);
+        }
+        delegate.configure(configs, isKey);
+        meterRegistry = (MeterRegistry) configs.get(METER_REGISTRY_CONFIG);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return record(topic, data, delegate.serialize(topic, data));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        return record(topic, data, delegate.serialize(topic, headers, data));
+    }
+
+    private byte[] record(String topic, Object data, byte[] bytes) {
+        if (meterRegistry != null && bytes != null) {
+            String eventType = data instanceof BaseEvent event && event.getEventType() != null ? event.getEventType() : "none";
+            summaries.computeIfAbsent(topic + '|' + eventType, key -> DistributionSummary.builder("kafka.publisher.record.size")
+                            .description("Serialized record size before compression")
+                            .baseUnit("bytes")
+                            .tag("topic", topic)
+                            .tag("eventType", eventType)
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(64.0)
+                            .maximumExpectedValue(1_048_576.0)
+                            .register(meterRegistry))
+                    .record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.kado24.kafka.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Send-side metrics recorded by {@link com.kado24.kafka.producer.EventPublisher}:
+ *
+ * <ul>
+ *   <li>{@code kafka.publisher.send.latency} (topic): enqueue to broker ack, with a percentile histogram</li>
+ *   <li>{@code kafka.publisher.in.flight}: sends waiting for their ack</li>
+ *   <li>{@code kafka.publisher.send.errors} (topic, exception): failed sends by root cause</li>
+ * </ul>
+ *
+ * Client-level metrics (buffer, batches, compression) and record sizes come from
+ * {@link com.kado24.kafka.config.KafkaProducerConfig}. Without a MeterRegistry nothing is recorded.
+ */
+@Component
+public class ProducerMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    public ProducerMetrics(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry != null) {
+            Gauge.builder("kafka.publisher.in.flight", inFlight, AtomicInteger::get)
+                    .description("Sends waiting for a broker acknowledgment")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Call right before handing a record to the producer; returns the start time for {@link #acked}/{@link #failed}
+     */
+    public long sending() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void acked(String topic, long startNanos) {
+        inFlight.decrementAndGet();
+        if (meterRegistry != null) {
+            latencyTimers.computeIfAbsent(topic, key -> Timer.builder("kafka.publisher.send.latency")
+                            .description("Time from enqueueing a record to its broker acknowledgment")
+                            .tag("topic", key)
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(Duration.ofMillis(1))
+                            .maximumExpectedValue(Duration.ofSeconds(30))
+                            .register(meterRegistry))
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void failed(String topic, long startNanos, Throwable error) {
+        inFlight.decrementAndGet();
+        if (meterRegistry != null) {
+            String exception = rootCause(error).getClass().getSimpleName();
+            errorCounters.computeIfAbsent(topic + '|' + exception, key -> Counter.builder("kafka.publisher.send.errors")
+                            .description("Failed sends by root cause")
+                            .tag("topic", topic)
+                            .tag("exception", exception)
+                            .register(meterRegistry))
+                    .increment();
+        }
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable current = throwable;
+        while (current.getCause() != null && current.getCause() != current) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,80 @@
+package com.kado24.kafka.outbox;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Transactional outbox, enabled with {@code kafka.publisher.mode=outbox}.
+ *
+ * {@link com.kado24.kafka.producer.EventPublisher} then writes events to the outbox table in the
+ * caller's transaction instead of sending them, and {@link OutboxRelay} forwards them to Kafka.
+ * The table name is resolved against the connection's {@code currentSchema}, so each service gets
+ * its own outbox in its own schema.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.publisher.mode", havingValue = "outbox")
+public class OutboxConfiguration {
+
+    @Value("${kafka.outbox.table:event_outbox}")
+    private String table;
+
+    @Value("${kafka.outbox.create-table:true}")
+    private boolean createTable;
+
+    @Value("${kafka.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${kafka.outbox.poll-interval-ms:200}")
+    private long pollIntervalMs;
+
+    // Bounds how long the relay holds its lock and connection
+    @Value("${kafka.outbox.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${kafka.outbox.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${kafka.outbox.producer-batch-bytes:131072}")
+    private int producerBatchBytes;
+
+    @Bean
+    public OutboxEventStore outboxEventStore(JdbcTemplate jdbcTemplate) {
+        // Same mapper JsonSerializer uses, so relayed payloads match directly sent ones
+        OutboxEventStore store = new OutboxEventStore(jdbcTemplate, JacksonUtils.enhancedObjectMapper(), table);
+        if (createTable) {
+            store.createTableIfMissing();
+        }
+        return store;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public OutboxRelay outboxRelay(OutboxEventStore outboxEventStore,
+                                   ProducerFactory<String, Object> producerFactory,
+                                   PlatformTransactionManager transactionManager) {
+        // Payloads are already JSON; larger batches and a little linger since nobody waits on the relay
+        KafkaTemplate<String, Object> relayTemplate = new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                ProducerConfig.BATCH_SIZE_CONFIG, producerBatchBytes));
+        return new OutboxRelay(
+                outboxEventStore,
+                relayTemplate,
+                new TransactionTemplate(transactionManager),
+                batchSize,
+                Duration.ofMillis(pollIntervalMs),
+                Duration.ofMillis(sendTimeoutMs));
+    }
+}
@@ -0,0 +1,92 @@
+package com.kado24.kafka.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC access to a service's event outbox table.
+ *
+ * {@link #append} runs on the caller's connection, so inside a {@code @Transactional} method the
+ * event row commits or rolls back together with the business change.
+ */
+public class OutboxEventStore {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String table;
+
+    public OutboxEventStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid outbox table name: " + table);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.objectMapper = objectMapper;
+        this.table = table;
+    }
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                "id BIGSERIAL PRIMARY KEY, " +
+                "topic VARCHAR(255) NOT NULL, " +
+                "message_key VARCHAR(255), " +
+                "payload TEXT NOT NULL, " +
+                "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+    }
+
+    /**
+     * Store an event for the relay; serialized here so a bad event fails the caller's transaction
+     */
+    public void append(String topic, String key, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize event for topic " + topic, e);
+        }
+        jdbcTemplate.update("INSERT INTO " + table + " (topic, message_key, payload) VALUES (?, ?, ?)",
+                topic, key, payload);
+    }
+
+    /**
+     * Transaction-scoped advisory lock so only one service instance drains the table at a time,
+     * which keeps per-key order across instances
+     */
+    public boolean tryLock() {
+        Boolean locked = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, table);
+        return Boolean.TRUE.equals(locked);
+    }
+
+    /**
+     * Oldest pending events, in insertion order
+     */
+    public List<OutboxRecord> fetchBatch(int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, topic, message_key, payload FROM " + table + " ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new OutboxRecord(
+                        rs.getLong("id"), rs.getString("topic"), rs.getString("message_key"), rs.getString("payload")),
+                limit);
+    }
+
+    public void delete(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update("DELETE FROM " + table + " WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids));
+    }
+
+    public String getTable() {
+        return table;
+    }
+}
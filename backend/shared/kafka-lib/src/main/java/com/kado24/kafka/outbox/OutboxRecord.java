@@ -0,0 +1,7 @@
+package com.kado24.kafka.outbox;
+
+/**
+ * One pending event in the outbox table
+ */
+public record OutboxRecord(long id, String topic, String key, String payload) {
+}
@@ -0,0 +1,134 @@
+package com.kado24.kafka.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves events from the outbox table to Kafka.
+ *
+ * Each round locks the table, sends up to {@code batchSize} rows in id order without waiting in
+ * between (the producer batches them), then waits for the acks and deletes the acked rows in the
+ * same transaction. Only the rows before the first failure are deleted; later rows are resent
+ * with it in the next round, so nothing overtakes a failed event, at the price of duplicates.
+ * Delivery is at-least-once: a crash between send and delete resends the batch.
+ *
+ * The lock and the transaction's connection are held while acks are awaited, so the whole wait
+ * is bounded by {@code sendTimeout}, and the transaction gets a timeout a little above it.
+ */
+@Slf4j
+public class OutboxRelay implements AutoCloseable {
+
+    /**
+     * Time for the lock, fetch and delete statements on top of the ack wait
+     */
+    private static final Duration TRANSACTION_TIMEOUT_MARGIN = Duration.ofSeconds(5);
+
+    private final OutboxEventStore store;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long sendTimeoutMs;
+    private final ScheduledExecutorService scheduler;
+
+    public OutboxRelay(OutboxEventStore store,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       int batchSize,
+                       Duration pollInterval,
+                       Duration sendTimeout) {
+        this.store = store;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionTemplate.setTimeout((int) sendTimeout.plus(TRANSACTION_TIMEOUT_MARGIN).toSeconds());
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollInterval.toMillis();
+        this.sendTimeoutMs = sendTimeout.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::drainQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Outbox relay started for {} (batch {}, every {} ms)", store.getTable(), batchSize, pollIntervalMs);
+    }
+
+    /**
+     * Keep draining while full batches come back, so a backlog is not limited by the poll interval
+     */
+    private void drainQuietly() {
+        try {
+            int relayed;
+            do {
+                relayed = drainOnce();
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            log.warn("Outbox relay round failed for {}: {}", store.getTable(), e.getMessage());
+        }
+    }
+
+    /**
+     * One locked round; returns the number of rows relayed, or 0 if anything failed
+     */
+    int drainOnce() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            if (!store.tryLock()) {
+                return 0;
+            }
+            List<OutboxRecord> records = store.fetchBatch(batchSize);
+            if (records.isEmpty()) {
+                return 0;
+            }
+
+            List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(records.size());
+            for (OutboxRecord record : records) {
+                futures.add(kafkaTemplate.send(record.topic(), record.key(), record.payload()));
+            }
+            // No flush(): it waits up to delivery.timeout.ms; the linger sends the batch anyway
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+            List<Long> acked = new ArrayList<>(records.size());
+            for (int i = 0; i < records.size(); i++) {
+                OutboxRecord record = records.get(i);
+                try {
+                    futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    acked.add(record.id());
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    log.warn("Outbox event {} to {} not acknowledged, resending it and the {} after it: {}",
+                            record.id(), record.topic(), records.size() - i - 1, e.getMessage());
+                    // Later sends may still land; they stay in the table and follow this one again
+                    for (int j = i + 1; j < futures.size(); j++) {
+                        futures.get(j).cancel(false);
+                    }
+                    break;
+                }
+            }
+
+            store.delete(acked);
+            log.debug("Relayed {} of {} outbox events from {}", acked.size(), records.size(), store.getTable());
+            return acked.size() == records.size() ? records.size() : 0;
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
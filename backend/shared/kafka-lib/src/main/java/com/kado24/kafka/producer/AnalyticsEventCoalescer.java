@@ -0,0 +1,223 @@
+package com.kado24.kafka.producer;
+
+import com.kado24.kafka.event.AnalyticsEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Folds high-volume analytics events into one summary event per key and time window.
+ *
+ * Events are counted per (eventType, source, voucherId, merchantId, category, action, window)
+ * without locking: a writer looks the window up with {@code computeIfAbsent} and bumps its
+ * {@link LongAdder}, so writers of a hot key do not serialize. To flush, the window is removed
+ * from the map and retired: writers register on a per-thread stripe while they update it, a
+ * writer that finds the window retired retries (and starts a new one, emitted as a further summary
+ * for the same window start), and the flusher waits for the registered writers to leave before
+ * reading the count, so no increment is lost. Distinct userIds are kept too (up to
+ * {@code maxDistinctUsers} per window) so unique-user metrics survive. A second after a window
+ * closes it is emitted as a single {@link AnalyticsEvent} of the same type whose properties carry
+ * {@code count}, {@code windowStart}, {@code windowSeconds} and {@code userIds}.
+ *
+ * Types listed in {@code kafka.analytics.coalesce.raw-types} (money movements and one-off
+ * registrations by default) and events with a value are never coalesced.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "kafka.analytics.coalesce.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsEventCoalescer {
+
+    private static final long FLUSH_GRACE_MS = 1000;
+
+    private record WindowKey(String eventType, String source, Long voucherId, Long merchantId,
+                             String category, String action, long windowStart) {
+    }
+
+    private static final class Window {
+        /** Writer stripes, one cache line apart; a thread always uses the same one */
+        private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        private static final int PADDING = 8;
+
+        final LongAdder count = new LongAdder();
+        final Set<Long> userIds = ConcurrentHashMap.newKeySet();
+        final AtomicInteger userIdsDropped = new AtomicInteger();
+        private final AtomicLongArray writers = new AtomicLongArray(STRIPES * PADDING);
+        private volatile boolean retired;
+
+        /**
+         * Register the calling thread as a writer; false once the window is retired
+         */
+        boolean enter(int stripe) {
+            writers.incrementAndGet(stripe);
+            if (retired) {
+                writers.decrementAndGet(stripe);
+                return false;
+            }
+            return true;
+        }
+
+        void exit(int stripe) {
+            writers.decrementAndGet(stripe);
+        }
+
+        /**
+         * Turn new writers away and wait for those already registered. A writer registered
+         * before the flag was set is seen on its own stripe until it leaves.
+         */
+        void retire() {
+            retired = true;
+            for (int stripe = 0; stripe < writers.length(); stripe += PADDING) {
+                while (writers.get(stripe) != 0) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        static int stripe() {
+            return (int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+        }
+    }
+
+    private final Set<String> rawTypes;
+    private final long windowMs;
+    private final int maxDistinctUsers;
+    private final Map<WindowKey, Window> windows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+
+    private volatile Consumer<AnalyticsEvent> sink;
+
+    public AnalyticsEventCoalescer(
+            @Value("${kafka.analytics.coalesce.raw-types:VOUCHER_PURCHASED,VOUCHER_REDEEMED,USER_REGISTERED,MERCHANT_REGISTERED}")
+            Set<String> rawTypes,
+            @Value("${kafka.analytics.coalesce.window-seconds:60}") long windowSeconds,
+            @Value("${kafka.analytics.coalesce.max-distinct-users:10000}") int maxDistinctUsers) {
+        this.rawTypes = Set.copyOf(rawTypes);
+        this.windowMs = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.maxDistinctUsers = maxDistinctUsers;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start emitting summaries to {@code sink}; called by {@link EventPublisher}
+     */
+    void start(Consumer<AnalyticsEvent> sink) {
+        this.sink = sink;
+        flusher.scheduleWithFixedDelay(() -> flush(false), 1, 1, TimeUnit.SECONDS);
+        log.info("Coalescing analytics events per {} s window (raw types: {})", windowMs / 1000, rawTypes);
+    }
+
+    /**
+     * Count the event into its window; false if it must be published as is
+     */
+    boolean offer(AnalyticsEvent event) {
+        if (sink == null || event.getEventType() == null || rawTypes.contains(event.getEventType())
+                || event.getValue() != null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        WindowKey key = new WindowKey(event.getEventType(), event.getSource(), event.getVoucherId(),
+                event.getMerchantId(), event.getCategory(), event.getAction(), now - now % windowMs);
+        Long userId = event.getUserId();
+        int stripe = Window.stripe();
+        Window window;
+        do {
+            window = windows.computeIfAbsent(key, k -> new Window());
+        } while (!window.enter(stripe));
+        try {
+            window.count.increment();
+            if (userId != null && !window.userIds.contains(userId)) {
+                if (window.userIds.size() < maxDistinctUsers) {
+                    window.userIds.add(userId);
+                } else {
+                    window.userIdsDropped.incrementAndGet();
+                }
+            }
+        } finally {
+            window.exit(stripe);
+        }
+        coalesced.increment();
+        return true;
+    }
+
+    /**
+     * Emit closed windows (all of them when {@code everything}); writers only touch the current
+     * window, and the grace period covers one that read the clock just before it closed
+     */
+    private void flush(boolean everything) {
+        long now = System.currentTimeMillis();
+        try {
+            for (WindowKey key : windows.keySet()) {
+                if (everything || key.windowStart() + windowMs + FLUSH_GRACE_MS <= now) {
+                    Window window = windows.remove(key);
+                    if (window != null) {
+                        // After this no increment can reach the window
+                        window.retire();
+                        sink.accept(summary(key, window));
+                        emitted.increment();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush coalesced analytics events", e);
+        }
+    }
+
+    private AnalyticsEvent summary(WindowKey key, Window window) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(AnalyticsEvent.PROPERTY_COUNT, window.count.sum());
+        properties.put(AnalyticsEvent.PROPERTY_WINDOW_START, Instant.ofEpochMilli(key.windowStart()).toString());
+        properties.put(AnalyticsEvent.PROPERTY_WINDOW_SECONDS, windowMs / 1000);
+        properties.put(AnalyticsEvent.PROPERTY_USER_IDS, new ArrayList<>(window.userIds));
+        if (window.userIdsDropped.get() > 0) {
+            properties.put(AnalyticsEvent.PROPERTY_USER_IDS_TRUNCATED, true);
+        }
+
+        AnalyticsEvent event = AnalyticsEvent.builder()
+                .voucherId(key.voucherId())
+                .merchantId(key.merchantId())
+                .category(key.category())
+                .action(key.action())
+                .properties(properties)
+                .build();
+        event.initDefaults(key.eventType(), key.source());
+        return event;
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getEmittedCount() {
+        return emitted.sum();
+    }
+
+    @PreDestroy
+    void close() {
+        flusher.shutdownNow();
+        if (sink != null) {
+            flush(true);
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.kado24.kafka.producer;
 
 import com.kado24.kafka.event.*;
+import com.kado24.kafka.local.LocalEventBus;
+import com.kado24.kafka.metrics.ProducerMetrics;
+import com.kado24.kafka.outbox.OutboxEventStore;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Central event publisher for all Kafka events
+ *
+ * With {@code kafka.publisher.mode=outbox} events are written to the service's outbox table in
+ * the current transaction and relayed to Kafka asynchronously (see {@code OutboxConfiguration}).
+ * With {@code kafka.publisher.mode=local} they never leave the JVM: {@link LocalEventBus} delivers
+ * them to local listeners (see {@code LocalEventBusConfiguration}).
  */
 @Slf4j
 @Service
@@ -18,6 +29,19 @@ import java.util.concurrent.CompletableFuture;
 public class EventPublisher {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ProducerMetrics producerMetrics;
+    private final ObjectProvider<OutboxEventStore> outboxEventStoreProvider;
+    private final ObjectProvider<LocalEventBus> localEventBusProvider;
+    private final ObjectProvider<AnalyticsEventCoalescer> analyticsEventCoalescerProvider;
+
+    /** Set in outbox mode */
+    private OutboxEventStore outboxEventStore;
+
+    /** Set in local mode */
+    private LocalEventBus localEventBus;
+
+    /** Set unless kafka.analytics.coalesce.enabled=false */
+    private AnalyticsEventCoalescer analyticsEventCoalescer;
 
     // Topic names
     private static final String TOPIC_ORDER_EVENTS = "order-events";
@@ -27,6 +51,16 @@ public class EventPublisher {
     private static final String TOPIC_ANALYTICS_EVENTS = "analytics-events";
     private static final String TOPIC_AUDIT_EVENTS = "audit-events";
 
+    @PostConstruct
+    void init() {
+        outboxEventStore = outboxEventStoreProvider.getIfAvailable();
+        localEventBus = localEventBusProvider.getIfAvailable();
+        analyticsEventCoalescer = analyticsEventCoalescerProvider.getIfAvailable();
+        if (analyticsEventCoalescer != null) {
+            analyticsEventCoalescer.start(this::publishRawAnalyticsEvent);
+        }
+    }
+
     /**
      * Publish order event
      */
@@ -60,9 +94,16 @@ public class EventPublisher {
     }
 
     /**
-     * Publish analytics event
+     * Publish analytics event; high-volume types are counted into a per-minute summary instead
      */
     public void publishAnalyticsEvent(AnalyticsEvent event) {
+        if (analyticsEventCoalescer != null && analyticsEventCoalescer.offer(event)) {
+            return;
+        }
+        publishRawAnalyticsEvent(event);
+    }
+
+    private void publishRawAnalyticsEvent(AnalyticsEvent event) {
         publish(TOPIC_ANALYTICS_EVENTS, event.getEventId(), event);
         log.debug("Published analytics event: {} - action: {}", event.getEventType(), event.getAction());
     }
@@ -80,27 +121,62 @@ public class EventPublisher {
      * Generic publish method with callback
      */
     private void publish(String topic, String key, Object event) {
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(topic, key, event);
+        if (localEventBus != null) {
+            localEventBus.publish(topic, key, event);
+            return;
+        }
+        if (outboxEventStore != null) {
+            // Commits or rolls back with the caller's transaction; never waits on Kafka
+            outboxEventStore.append(topic, key, event);
+            return;
+        }
+
+        long start = producerMetrics.sending();
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = kafkaTemplate.send(topic, key, event);
+        } catch (RuntimeException e) {
+            // Serialization failures and buffer exhaustion (max.block.ms) surface here
+            producerMetrics.failed(topic, start, e);
+            throw e;
+        }
         
         future.whenComplete((result, ex) -> {
             if (ex == null) {
+                producerMetrics.acked(topic, start);
                 log.debug("Event sent successfully to topic: {} with offset: {}", 
                         topic, result.getRecordMetadata().offset());
             } else {
+                producerMetrics.failed(topic, start, ex);
                 log.error("Failed to send event to topic: {}", topic, ex);
             }
         });
     }
 
     /**
-     * Synchronous publish (waits for acknowledgment)
+     * Synchronous publish (waits for acknowledgment); always sends directly, also in outbox mode.
+     * In local mode it waits until local listeners have run, except when called from a local
+     * listener: the event is then delivered after the current batch, in order, without waiting.
      */
     public void publishSync(String topic, String key, Object event) {
+        if (localEventBus != null) {
+            if (localEventBus.isDispatcherThread()) {
+                localEventBus.publish(topic, key, event);
+                return;
+            }
+            if (!localEventBus.awaitDelivered(localEventBus.publish(topic, key, event), Duration.ofSeconds(30))) {
+                throw new RuntimeException("Event publishing failed: local delivery timed out on " + topic);
+            }
+            return;
+        }
+        long start = producerMetrics.sending();
         try {
             SendResult<String, Object> result = kafkaTemplate.send(topic, key, event).get();
+            producerMetrics.acked(topic, start);
             log.info("Event sent synchronously to topic: {} with offset: {}", 
                     topic, result.getRecordMetadata().offset());
         } catch (Exception e) {
+            producerMetrics.failed(topic, start, e);
             log.error("Failed to send event synchronously to topic: {}", topic, e);
             throw new RuntimeException("Event publishing failed", e);
         }
@@ -0,0 +1,129 @@
+package com.kado24.kafka.retry;
+
+import com.kado24.kafka.constants.KafkaTopics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Moves records that failed processing to the next retry tier of their topic, or to its
+ * dead-letter topic once every tier has been tried.
+ *
+ * The forwarded record keeps its key (so it stays ordered with its siblings within a tier) and
+ * carries {@link RetryHeaders}: attempt count, due time, where it was first consumed and why it
+ * failed. Values are re-serialized with the producer codec; records that could not be
+ * deserialized at all are forwarded byte for byte, straight to the dead-letter topic.
+ */
+@Slf4j
+public class FailedRecordRouter implements AutoCloseable {
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(FailedRecordRouter.class);
+    private static final int MAX_EXCEPTION_MESSAGE_LENGTH = 1000;
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final Serializer<Object> valueSerializer;
+
+    public FailedRecordRouter(KafkaTemplate<String, byte[]> kafkaTemplate, Serializer<Object> valueSerializer) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.valueSerializer = valueSerializer;
+    }
+
+    /**
+     * Send a failed record to the next retry tier, or dead-letter it if it has none
+     */
+    public CompletableFuture<SendResult<String, byte[]>> forward(ConsumerRecord<?, ?> record, Exception cause) {
+        if (record.value() == null) {
+            return deadLetter(record, cause);
+        }
+        RetryTier current = RetryTier.of(record.topic());
+        RetryTier next = current == null ? RetryTier.values()[0] : current.next();
+        if (next == null) {
+            return deadLetter(record, cause);
+        }
+        String baseTopic = KafkaTopics.baseTopic(record.topic());
+        Headers headers = retryHeaders(record, cause);
+        RetryHeaders.set(headers, RetryHeaders.DUE_AT, System.currentTimeMillis() + next.getDelay().toMillis());
+        return send(next.topic(baseTopic), record, headers);
+    }
+
+    /**
+     * Send a record straight to its topic's dead-letter topic
+     */
+    public CompletableFuture<SendResult<String, byte[]>> deadLetter(ConsumerRecord<?, ?> record, Exception cause) {
+        String deadLetterTopic = KafkaTopics.deadLetterTopic(KafkaTopics.baseTopic(record.topic()));
+        Headers headers = retryHeaders(record, cause);
+        headers.remove(RetryHeaders.DUE_AT);
+        log.warn("Dead-lettering {}-{}@{} to {}: {}", record.topic(), record.partition(), record.offset(),
+                deadLetterTopic, cause == null ? "unknown cause" : cause.toString());
+        return send(deadLetterTopic, record, headers);
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> send(String topic, ConsumerRecord<?, ?> record, Headers headers) {
+        String key = record.key() == null ? null : record.key().toString();
+        return kafkaTemplate.send(new ProducerRecord<>(topic, null, key, payload(record), headers));
+    }
+
+    private Headers retryHeaders(ConsumerRecord<?, ?> record, Exception cause) {
+        Headers headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            // The serialized DeserializationException is large and only meaningful to this hop
+            if (!header.key().startsWith(SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        long attempt = RetryHeaders.getLong(record.headers(), RetryHeaders.ATTEMPT, 0) + 1;
+        RetryHeaders.set(headers, RetryHeaders.ATTEMPT, attempt);
+        if (RetryHeaders.get(record.headers(), RetryHeaders.ORIGINAL_TOPIC) == null) {
+            RetryHeaders.set(headers, RetryHeaders.ORIGINAL_TOPIC, record.topic());
+            RetryHeaders.set(headers, RetryHeaders.ORIGINAL_PARTITION, record.partition());
+            RetryHeaders.set(headers, RetryHeaders.ORIGINAL_OFFSET, record.offset());
+        }
+        Throwable rootCause = rootCause(cause);
+        RetryHeaders.set(headers, RetryHeaders.EXCEPTION_CLASS, rootCause == null ? null : rootCause.getClass().getName());
+        RetryHeaders.set(headers, RetryHeaders.EXCEPTION_MESSAGE, rootCause == null ? null : truncate(rootCause.getMessage()));
+        return headers;
+    }
+
+    private byte[] payload(ConsumerRecord<?, ?> record) {
+        if (record.value() == null) {
+            DeserializationException failure = SerializationUtils.getExceptionFromHeader(
+                    record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+            return failure == null ? null : failure.getData();
+        }
+        if (record.value() instanceof byte[] bytes) {
+            return bytes;
+        }
+        return valueSerializer.serialize(record.topic(), record.value());
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable current = throwable;
+        while (current != null && current.getCause() != null && current.getCause() != current) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_EXCEPTION_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_EXCEPTION_MESSAGE_LENGTH);
+    }
+
+    @Override
+    public void close() {
+        valueSerializer.close();
+    }
+}
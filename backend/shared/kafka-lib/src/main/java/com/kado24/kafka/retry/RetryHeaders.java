@@ -0,0 +1,64 @@
+package com.kado24.kafka.retry;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Headers carried by records on retry and dead-letter topics. Values are UTF-8 strings.
+ */
+public final class RetryHeaders {
+
+    private RetryHeaders() {
+        throw new UnsupportedOperationException("Constants class");
+    }
+
+    /**
+     * Number of failed processing attempts so far (1 on the first retry tier)
+     */
+    public static final String ATTEMPT = "kado24-retry-attempt";
+
+    /**
+     * Epoch millis before which a retry tier must not process the record
+     */
+    public static final String DUE_AT = "kado24-retry-due-at";
+
+    public static final String ORIGINAL_TOPIC = "kado24-original-topic";
+    public static final String ORIGINAL_PARTITION = "kado24-original-partition";
+    public static final String ORIGINAL_OFFSET = "kado24-original-offset";
+
+    public static final String EXCEPTION_CLASS = "kado24-exception-class";
+    public static final String EXCEPTION_MESSAGE = "kado24-exception-message";
+
+    static final String[] ALL = {
+            ATTEMPT, DUE_AT, ORIGINAL_TOPIC, ORIGINAL_PARTITION, ORIGINAL_OFFSET, EXCEPTION_CLASS, EXCEPTION_MESSAGE
+    };
+
+    /**
+     * Last value of a header, or null
+     */
+    public static String get(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    public static long getLong(Headers headers, String name, long defaultValue) {
+        String value = get(headers, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    static void set(Headers headers, String name, Object value) {
+        headers.remove(name);
+        if (value != null) {
+            headers.add(name, value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
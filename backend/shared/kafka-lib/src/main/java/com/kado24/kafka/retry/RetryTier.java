@@ -0,0 +1,51 @@
+package com.kado24.kafka.retry;
+
+import com.kado24.kafka.constants.KafkaTopics;
+
+import java.time.Duration;
+
+/**
+ * Delay tiers a failed record passes through before it is dead-lettered
+ */
+public enum RetryTier {
+
+    SECONDS_1(KafkaTopics.RETRY_1S_SUFFIX, Duration.ofSeconds(1)),
+    SECONDS_10(KafkaTopics.RETRY_10S_SUFFIX, Duration.ofSeconds(10)),
+    SECONDS_60(KafkaTopics.RETRY_60S_SUFFIX, Duration.ofSeconds(60));
+
+    private final String suffix;
+    private final Duration delay;
+
+    RetryTier(String suffix, Duration delay) {
+        this.suffix = suffix;
+        this.delay = delay;
+    }
+
+    public Duration getDelay() {
+        return delay;
+    }
+
+    public String topic(String baseTopic) {
+        return baseTopic + suffix;
+    }
+
+    /**
+     * The tier after this one, or null when the next stop is the dead-letter topic
+     */
+    public RetryTier next() {
+        RetryTier[] tiers = values();
+        return ordinal() + 1 < tiers.length ? tiers[ordinal() + 1] : null;
+    }
+
+    /**
+     * Tier of a retry topic, or null for any other topic
+     */
+    public static RetryTier of(String topic) {
+        for (RetryTier tier : values()) {
+            if (topic.endsWith(tier.suffix)) {
+                return tier;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.kado24.kafka.retry;
+
+import com.kado24.kafka.codec.CompactEventSerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retry-topic and dead-letter routing shared by the record and batch listener factories.
+ *
+ * Not a {@code @Configuration} of its own; it is imported by
+ * {@link com.kado24.kafka.config.KafkaConsumerConfig} and
+ * {@link com.kado24.kafka.config.KafkaBatchConsumerConfig}. The router has its own producer
+ * (acks=all) so forwarded records are durable before the failed offsets are committed.
+ */
+public class RetryTopicConfiguration {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${kafka.codec:json}")
+    private String codec;
+
+    @Value("${kafka.retry.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public FailedRecordRouter failedRecordRouter() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+
+        // Same encoding as KafkaProducerConfig, so retried records look like the originals
+        Serializer<Object> valueSerializer = "compact".equalsIgnoreCase(codec)
+                ? new CompactEventSerializer()
+                : new JsonSerializer<>();
+        valueSerializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+
+        return new FailedRecordRouter(new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps)), valueSerializer);
+    }
+
+    @Bean
+    public RetryTopicProcessor retryTopicProcessor(FailedRecordRouter failedRecordRouter) {
+        return new RetryTopicProcessor(failedRecordRouter, Duration.ofMillis(sendTimeoutMs));
+    }
+}
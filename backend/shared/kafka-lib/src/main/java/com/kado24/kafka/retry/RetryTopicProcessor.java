@@ -0,0 +1,130 @@
+package com.kado24.kafka.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs a batch listener's records through a handler without letting failures block the partition.
+ *
+ * The whole batch is handed to the handler first. If that throws, each record is retried on its
+ * own and only the ones that still fail are forwarded by {@link FailedRecordRouter} to the next
+ * retry tier. Records that are not of the expected type (including undeserializable ones) go
+ * straight to the dead-letter topic. Offsets are committed once every forward is acked.
+ *
+ * On a retry tier, records are processed only once their due time has passed: the listener
+ * commits what it processed and nacks the rest, so the container pauses for the remaining delay
+ * and redelivers them. Each tier has a fixed delay, so records in a tier become due in offset
+ * order and waiting on the first one never holds back a record that is already due.
+ */
+@Slf4j
+public class RetryTopicProcessor {
+
+    private final FailedRecordRouter router;
+    private final long sendTimeoutMs;
+
+    public RetryTopicProcessor(FailedRecordRouter router, Duration sendTimeout) {
+        this.router = router;
+        this.sendTimeoutMs = sendTimeout.toMillis();
+    }
+
+    /**
+     * Process one batch from a main topic or retry tier and acknowledge it
+     */
+    public <T> void process(List<ConsumerRecord<String, Object>> records,
+                            Acknowledgment acknowledgment,
+                            Class<T> eventType,
+                            Consumer<List<T>> handler) {
+        int due = dueCount(records);
+
+        List<ConsumerRecord<String, Object>> valid = new ArrayList<>(due);
+        List<CompletableFuture<?>> forwards = new ArrayList<>();
+        for (ConsumerRecord<String, Object> record : records.subList(0, due)) {
+            if (eventType.isInstance(record.value())) {
+                valid.add(record);
+            } else {
+                forwards.add(router.deadLetter(record, new IllegalArgumentException(
+                        "Expected " + eventType.getSimpleName() + " but got "
+                                + (record.value() == null ? "an undeserializable value" : record.value().getClass().getName()))));
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                handler.accept(values(valid, eventType));
+            } catch (Exception batchFailure) {
+                if (valid.size() == 1) {
+                    forwards.add(router.forward(valid.get(0), batchFailure));
+                } else {
+                    log.warn("Batch of {} records from {} failed, retrying them one by one: {}",
+                            valid.size(), valid.get(0).topic(), batchFailure.toString());
+                    for (ConsumerRecord<String, Object> record : valid) {
+                        try {
+                            handler.accept(List.of(eventType.cast(record.value())));
+                        } catch (Exception recordFailure) {
+                            forwards.add(router.forward(record, recordFailure));
+                        }
+                    }
+                }
+            }
+        }
+
+        awaitForwards(forwards);
+
+        if (due < records.size()) {
+            long waitMs = RetryHeaders.getLong(records.get(due).headers(), RetryHeaders.DUE_AT, 0) - System.currentTimeMillis();
+            acknowledgment.nack(due, Duration.ofMillis(Math.max(1, waitMs)));
+        } else {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    /**
+     * Number of leading records whose retry due time has passed (all of them on a main topic)
+     */
+    private static int dueCount(List<ConsumerRecord<String, Object>> records) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, Object> record = records.get(i);
+            if (RetryTier.of(record.topic()) != null
+                    && RetryHeaders.getLong(record.headers(), RetryHeaders.DUE_AT, 0) > now) {
+                return i;
+            }
+        }
+        return records.size();
+    }
+
+    private static <T> List<T> values(List<ConsumerRecord<String, Object>> records, Class<T> eventType) {
+        List<T> values = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            values.add(eventType.cast(record.value()));
+        }
+        return values;
+    }
+
+    /**
+     * Offsets must not be committed before failed records are safely on their retry topic;
+     * throwing here makes the container redeliver the batch
+     */
+    private void awaitForwards(List<CompletableFuture<?>> forwards) {
+        if (forwards.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(forwards.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while forwarding failed records", e);
+        } catch (Exception e) {
+            throw new KafkaException("Could not forward " + forwards.size() + " failed records", e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.kado24.kafka.codec;
+
+import com.kado24.kafka.event.AnalyticsEvent;
+import com.kado24.kafka.event.AuditEvent;
+import com.kado24.kafka.event.BaseEvent;
+import com.kado24.kafka.event.NotificationEvent;
+import com.kado24.kafka.event.OrderEvent;
+import com.kado24.kafka.event.PaymentEvent;
+import com.kado24.kafka.event.RedemptionEvent;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bytes per event and serialization cost of JSON vs the compact codec, per event type.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass="com.kado24.kafka.codec.EventCodecBenchmark"
+ *      [-Dexec.args="iterations"]
+ */
+public class EventCodecBenchmark {
+
+    private static final String TOPIC = "benchmark";
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        CompactEventSerializer compactSerializer = new CompactEventSerializer();
+        CompactEventDeserializer compactDeserializer = new CompactEventDeserializer();
+
+        System.out.println("========================================");
+        System.out.println("Event codec benchmark (" + iterations + " iterations per measurement)");
+        System.out.println("========================================");
+        System.out.printf("%-18s %10s %10s %7s %12s %12s %12s %12s %9s%n",
+                "event", "json B", "compact B", "ratio", "json ser", "compact ser", "json deser", "compact deser", "roundtrip");
+
+        for (BaseEvent event : sampleEvents()) {
+            JsonDeserializer<? extends BaseEvent> jsonDeserializer = new JsonDeserializer<>(event.getClass(), false);
+            byte[] json = jsonSerializer.serialize(TOPIC, event);
+            byte[] compact = compactSerializer.serialize(TOPIC, event);
+            boolean roundTrip = event.equals(compactDeserializer.deserialize(TOPIC, compact));
+
+            // Warm up, then measure
+            for (int round = 0; round < 2; round++) {
+                double jsonSer = nanosPerOp(iterations, () -> jsonSerializer.serialize(TOPIC, event));
+                double compactSer = nanosPerOp(iterations, () -> compactSerializer.serialize(TOPIC, event));
+                double jsonDeser = nanosPerOp(iterations, () -> jsonDeserializer.deserialize(TOPIC, json));
+                double compactDeser = nanosPerOp(iterations, () -> compactDeserializer.deserialize(TOPIC, compact));
+                if (round == 1) {
+                    System.out.printf("%-18s %10d %10d %6.0f%% %9.0f ns %9.0f ns %9.0f ns %10.0f ns %9s%n",
+                            event.getClass().getSimpleName(), json.length, compact.length,
+                            100.0 * compact.length / json.length,
+                            jsonSer, compactSer, jsonDeser, compactDeser, roundTrip ? "ok" : "MISMATCH");
+                }
+            }
+        }
+    }
+
+    private static double nanosPerOp(int iterations, Runnable op) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+
+    private static List<BaseEvent> sampleEvents() {
+        OrderEvent order = OrderEvent.created(41_234L, "ORD-20251111-004211", 90_311L, 1_207L, 318L, 2,
+                new BigDecimal("50.00"), new BigDecimal("2.50"), new BigDecimal("47.50"));
+
+        PaymentEvent payment = PaymentEvent.builder()
+                .orderId(41_234L)
+                .paymentId("PAY-8f2c1a7e")
+                .paymentMethod("ABA_PAYWAY")
+                .amount(new BigDecimal("50.00"))
+                .currency("USD")
+                .status("SUCCESS")
+                .gatewayResponse("{\"status\":0,\"description\":\"approved\"}")
+                .userId(90_311L)
+                .build();
+        payment.initDefaults(PaymentEvent.PAYMENT_SUCCESS, "order-service");
+
+        NotificationEvent notification = NotificationEvent.builder()
+                .userId(90_311L)
+                .notificationType("VOUCHER_RECEIVED")
+                .title("Voucher Received!")
+                .message("Your 2 vouchers are ready in your wallet")
+                .channels(List.of("PUSH", "EMAIL"))
+                .entityType("ORDER")
+                .entityId(41_234L)
+                .data(Map.of("quantity", 2, "walletVoucherIds", List.of(88_001L, 88_002L)))
+                .build();
+        notification.initDefaults("VOUCHER_RECEIVED", "wallet-service");
+
+        RedemptionEvent redemption = RedemptionEvent.builder()
+                .redemptionId(7_001L)
+                .walletVoucherId(88_001L)
+                .voucherCode("KADO-QWER-1234")
+                .merchantId(318L)
+                .merchantName("Brown Coffee")
+                .consumerId(90_311L)
+                .scannedBy(5_120L)
+                .redemptionAmount(new BigDecimal("25.00"))
+                .location("Phnom Penh")
+                .latitude(11.5564)
+                .longitude(104.9282)
+                .redemptionMethod("QR_SCAN_MERCHANT")
+                .build();
+        redemption.initDefaults(RedemptionEvent.REDEMPTION_COMPLETED, "redemption-service");
+
+        AnalyticsEvent analytics = AnalyticsEvent.builder()
+                .userId(90_311L)
+                .voucherId(1_207L)
+                .merchantId(318L)
+                .action("VIEW")
+                .category("FOOD_AND_DRINK")
+                .properties(Map.of("source", "home_feed", "position", 3))
+                .sessionId("5b0d6c1e-2f7a-4c55-9d1e-7c4e0b8f9a21")
+                .deviceType("ANDROID")
+                .ipAddress("203.144.71.18")
+                .build();
+        analytics.initDefaults(AnalyticsEvent.VOUCHER_VIEWED, "voucher-service");
+
+        AuditEvent audit = AuditEvent.builder()
+                .userId(1L)
+                .action(AuditEvent.APPROVE)
+                .entityType("MERCHANT")
+                .entityId(318L)
+                .oldValues(Map.of("verificationStatus", "PENDING"))
+                .newValues(Map.of("verificationStatus", "APPROVED"))
+                .ipAddress("10.0.3.7")
+                .userAgent("Mozilla/5.0 (Macintosh; Intel Mac OS X 14_4)")
+                .build();
+        audit.initDefaults(AuditEvent.APPROVE, "admin-portal-backend");
+
+        return List.of(order, payment, notification, redemption, analytics, audit);
+    }
+}
@@ -0,0 +1,121 @@
+package com.kado24.kafka.local;
+
+import com.kado24.kafka.event.AnalyticsEvent;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivery latency and throughput of {@link LocalEventBus}, without and with the append log.
+ *
+ * Latency: one publisher sends an event every 20 us and the subscriber records publish-to-handler
+ * time. Throughput: several publishers send as fast as they can.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass="com.kado24.kafka.local.LocalEventBusBenchmark"
+ *      [-Dexec.args="publishers eventsPerPublisher"]
+ */
+public class LocalEventBusBenchmark {
+
+    private static final String TOPIC = "analytics-events";
+
+    public static void main(String[] args) throws Exception {
+        int publishers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int eventsPerPublisher = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        System.out.println("========================================");
+        System.out.println("Local event bus benchmark");
+        System.out.println("Publishers: " + publishers + ", events per publisher: " + eventsPerPublisher);
+        System.out.println("========================================");
+
+        Path logFile = Files.createTempFile("local-events", ".log");
+        for (int round = 1; round <= 2; round++) {
+            System.out.println("Round " + round);
+            latency("No log", null);
+            latency("Append log", new LocalEventLog(logFile, JacksonUtils.enhancedObjectMapper(), 64 << 20, false));
+            throughput("No log", null, publishers, eventsPerPublisher);
+            throughput("Append log", new LocalEventLog(logFile, JacksonUtils.enhancedObjectMapper(), 64 << 20, false),
+                    publishers, eventsPerPublisher / 10);
+        }
+        Files.deleteIfExists(logFile);
+        Files.deleteIfExists(Path.of(logFile + ".delivered"));
+    }
+
+    private static void latency(String name, LocalEventLog eventLog) {
+        int samples = 50_000;
+        long[] latencies = new long[samples];
+        LocalEventBus bus = new LocalEventBus(65536, 1024, eventLog);
+        int[] received = {0};
+        bus.subscribe(TOPIC, AnalyticsEvent.class, (List<AnalyticsEvent> events) -> {
+            long now = System.nanoTime();
+            for (AnalyticsEvent event : events) {
+                latencies[received[0]++] = now - (Long) event.getProperties().get("sentAt");
+            }
+        }, "latency");
+        bus.start();
+
+        long last = 0;
+        for (int i = 0; i < samples; i++) {
+            LockSupport.parkNanos(20_000);
+            last = bus.publish(TOPIC, null, event(System.nanoTime()));
+        }
+        bus.awaitDelivered(last, Duration.ofSeconds(10));
+        bus.close();
+
+        Arrays.sort(latencies);
+        System.out.printf("  %-12s latency p50 %,6d ns, p99 %,8d ns, p99.9 %,9d ns%n", name,
+                latencies[samples / 2], latencies[samples * 99 / 100], latencies[samples * 999 / 1000]);
+    }
+
+    private static void throughput(String name, LocalEventLog eventLog, int publishers, int eventsPerPublisher)
+            throws InterruptedException {
+        LocalEventBus bus = new LocalEventBus(65536, 1024, eventLog);
+        LongAdder delivered = new LongAdder();
+        bus.subscribe(TOPIC, AnalyticsEvent.class, (List<AnalyticsEvent> events) -> delivered.add(events.size()), "count");
+        bus.start();
+
+        AnalyticsEvent event = event(0);
+        ExecutorService pool = Executors.newFixedThreadPool(publishers);
+        CountDownLatch done = new CountDownLatch(publishers);
+        long start = System.nanoTime();
+        long[] lastSequence = new long[publishers];
+        for (int p = 0; p < publishers; p++) {
+            int publisher = p;
+            pool.execute(() -> {
+                for (int i = 0; i < eventsPerPublisher; i++) {
+                    lastSequence[publisher] = bus.publish(TOPIC, null, event);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        bus.awaitDelivered(Arrays.stream(lastSequence).max().orElse(0), Duration.ofMinutes(1));
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        bus.close();
+
+        System.out.printf("  %-12s throughput %,12d events/s (%,d delivered)%n",
+                name, delivered.sum() * 1_000_000_000L / elapsed, delivered.sum());
+    }
+
+    private static AnalyticsEvent event(long sentAt) {
+        AnalyticsEvent event = AnalyticsEvent.builder()
+                .action("VIEW")
+                .userId(42L)
+                .properties(new HashMap<>(Map.of("sentAt", sentAt)))
+                .build();
+        event.initDefaults("VOUCHER_VIEWED", "benchmark");
+        return event;
+    }
+}
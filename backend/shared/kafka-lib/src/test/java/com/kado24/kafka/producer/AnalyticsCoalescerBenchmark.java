@@ -0,0 +1,65 @@
+package com.kado24.kafka.producer;
+
+import com.kado24.kafka.event.AnalyticsEvent;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records reaching the broker with and without coalescing, for a page-view storm over a catalog
+ * of vouchers, and the cost of counting an event.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass="com.kado24.kafka.producer.AnalyticsCoalescerBenchmark"
+ *      [-Dexec.args="threads vouchers seconds"]
+ */
+public class AnalyticsCoalescerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int vouchers = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.println("========================================");
+        System.out.println("Analytics coalescing benchmark");
+        System.out.println("Threads: " + threads + ", vouchers: " + vouchers + ", " + seconds + "s, 1s windows");
+        System.out.println("========================================");
+
+        LongAdder sent = new LongAdder();
+        AnalyticsEventCoalescer coalescer = new AnalyticsEventCoalescer(Set.of(AnalyticsEvent.VOUCHER_PURCHASED), 1, 10_000);
+        coalescer.start(summary -> sent.increment());
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        LongAdder offered = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    // Skewed popularity: a few vouchers get most of the views
+                    long voucherId = (long) (vouchers * Math.pow(random.nextDouble(), 3));
+                    AnalyticsEvent event = AnalyticsEvent.voucherViewed(voucherId, random.nextLong(100_000));
+                    if (!coalescer.offer(event)) {
+                        sent.increment();
+                    }
+                    offered.increment();
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        pool.shutdown();
+        coalescer.close();
+
+        long events = offered.sum();
+        System.out.printf("Events published: %,d (%,d per second, %,d ns per event per thread)%n",
+                events, events / seconds, TimeUnit.SECONDS.toNanos(seconds) * threads / events);
+        System.out.printf("Records sent:     %,d (%.1fx fewer)%n", sent.sum(), (double) events / sent.sum());
+    }
+}
@@ -0,0 +1,185 @@
+package com.kado24.kafka.retry;
+
+import com.kado24.kafka.constants.KafkaTopics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-drives dead-lettered records to the topic they were first consumed from, in bulk.
+ *
+ * Reads a dead-letter topic with its own consumer group ({@code kado24-dlt-replay} by default),
+ * so each record is replayed once however often the tool runs. Records are sent with their
+ * original key and value and the retry headers removed, so they start over at attempt 0. Offsets
+ * are committed after each polled batch is acked by the broker; a batch that fails is rewound and
+ * retried with a back-off doubling up to {@link #MAX_BACKOFF}, and the run stops after
+ * {@link #MAX_ATTEMPTS} failures in a row.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass="com.kado24.kafka.retry.DeadLetterReplayer"
+ *      -Dexec.args="bootstrapServers (topic|all) [maxRecords]"
+ */
+@Slf4j
+public class DeadLetterReplayer implements AutoCloseable {
+
+    public static final String DEFAULT_GROUP_ID = "kado24-dlt-replay";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final int MAX_EMPTY_POLLS = 3;
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+    private static final int MAX_ATTEMPTS = 6;
+    /** Bounds producer.flush() and each ack wait */
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(30);
+
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final KafkaProducer<String, byte[]> producer;
+
+    public DeadLetterReplayer(String bootstrapServers, String groupId) {
+        Properties consumerProps = new Properties();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1000);
+        this.consumer = new KafkaConsumer<>(consumerProps);
+
+        Properties producerProps = new Properties();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        producerProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, (int) DELIVERY_TIMEOUT.toMillis() / 2);
+        producerProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, (int) DELIVERY_TIMEOUT.toMillis());
+        this.producer = new KafkaProducer<>(producerProps);
+    }
+
+    /**
+     * Replay up to {@code maxRecords} records from the given dead-letter topics; returns how many were replayed
+     */
+    public long replay(List<String> deadLetterTopics, long maxRecords) throws Exception {
+        consumer.subscribe(deadLetterTopics);
+        long replayed = 0;
+        int emptyPolls = 0;
+        int failures = 0;
+        while (replayed < maxRecords && emptyPolls < MAX_EMPTY_POLLS) {
+            ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+            if (records.isEmpty()) {
+                emptyPolls++;
+                continue;
+            }
+            emptyPolls = 0;
+
+            List<Future<RecordMetadata>> sends = new ArrayList<>(records.count());
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            Map<TopicPartition, Long> firstOffsets = new HashMap<>();
+            for (ConsumerRecord<String, byte[]> record : records) {
+                if (replayed >= maxRecords) {
+                    break;
+                }
+                sends.add(producer.send(new ProducerRecord<>(
+                        targetTopic(record), null, record.key(), record.value(), replayHeaders(record.headers()))));
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                firstOffsets.putIfAbsent(partition, record.offset());
+                offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                replayed++;
+            }
+
+            try {
+                producer.flush();
+                for (Future<RecordMetadata> send : sends) {
+                    send.get(DELIVERY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } catch (Exception e) {
+                if (++failures >= MAX_ATTEMPTS) {
+                    // This batch stays uncommitted for the next run
+                    throw e;
+                }
+                long backoffMs = Math.min(MAX_BACKOFF.toMillis(), INITIAL_BACKOFF.toMillis() << (failures - 1));
+                log.warn("Replaying a batch of {} records failed (attempt {}), retrying in {} ms: {}",
+                        sends.size(), failures, backoffMs, e.getMessage());
+                firstOffsets.forEach(consumer::seek);
+                replayed -= sends.size();
+                Thread.sleep(backoffMs);
+                continue;
+            }
+            failures = 0;
+            consumer.commitSync(offsets);
+            log.info("Replayed {} dead-lettered records so far", replayed);
+        }
+        return replayed;
+    }
+
+    private static String targetTopic(ConsumerRecord<String, byte[]> record) {
+        String originalTopic = RetryHeaders.get(record.headers(), RetryHeaders.ORIGINAL_TOPIC);
+        return originalTopic != null ? KafkaTopics.baseTopic(originalTopic) : KafkaTopics.baseTopic(record.topic());
+    }
+
+    private static Headers replayHeaders(Headers headers) {
+        Set<String> retryHeaders = Set.of(RetryHeaders.ALL);
+        Headers replay = new RecordHeaders();
+        for (Header header : headers) {
+            if (!retryHeaders.contains(header.key())) {
+                replay.add(header);
+            }
+        }
+        return replay;
+    }
+
+    @Override
+    public void close() {
+        consumer.close();
+        producer.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            log.error("Usage: DeadLetterReplayer bootstrapServers (topic|all) [maxRecords]");
+            System.exit(1);
+        }
+        List<String> deadLetterTopics = new ArrayList<>();
+        if ("all".equals(args[1])) {
+            for (String topic : KafkaTopics.getAllTopics()) {
+                deadLetterTopics.add(KafkaTopics.deadLetterTopic(topic));
+            }
+        } else {
+            deadLetterTopics.add(KafkaTopics.deadLetterTopic(KafkaTopics.baseTopic(args[1])));
+        }
+        long maxRecords = args.length > 2 ? Long.parseLong(args[2]) : Long.MAX_VALUE;
+
+        try (DeadLetterReplayer replayer = new DeadLetterReplayer(args[0], DEFAULT_GROUP_ID)) {
+            long replayed = replayer.replay(deadLetterTopics, maxRecords);
+            log.info("Replayed {} records from {}", replayed, deadLetterTopics);
+        }
+    }
+}
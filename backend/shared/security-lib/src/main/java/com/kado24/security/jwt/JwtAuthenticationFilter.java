@@ -7,7 +7,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -15,9 +14,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * JWT Authentication Filter for validating and extracting JWT tokens from requests
@@ -28,6 +24,7 @@ import java.util.stream.Collectors;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,10 +33,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
-                String rolesStr = jwtTokenProvider.getRolesFromToken(jwt);
-                Long userId = jwtTokenProvider.getUserIdFromToken(jwt);
+            // Verified once per request (and not at all for recently seen tokens)
+            VerifiedToken token = StringUtils.hasText(jwt) ? jwtTokenProvider.verify(jwt) : null;
+
+            if (token != null) {
+                String username = token.getUsername();
+                Long userId = token.getUserId();
 
                 // Validate that userId exists in token - required for user-service endpoints
                 if (userId == null) {
@@ -50,17 +49,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     return;
                 }
 
-                // Convert roles string to authorities
-                List<SimpleGrantedAuthority> authorities = Arrays.stream(rolesStr.split(","))
-                        .map(String::trim)
-                        .filter(role -> !role.isEmpty())
-                        .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
-
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        new UsernamePasswordAuthenticationToken(username, null, token.getAuthorities());
+                authentication.setDetails(authenticationDetailsSource.buildDetails(request));
 
                 // Add userId to authentication details
                 request.setAttribute("userId", userId);
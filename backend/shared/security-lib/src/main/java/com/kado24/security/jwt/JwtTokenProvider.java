@@ -2,6 +2,7 @@ package com.kado24.security.jwt;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
 import java.util.stream.Collectors;
 
@@ -29,8 +31,84 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration:604800000}") // 7 days in milliseconds
     private long jwtRefreshExpirationMs;
 
+    @Value("${jwt.verified-cache.enabled:true}")
+    private boolean verifiedCacheEnabled;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.max-ttl-ms:300000}")
+    private long verifiedCacheMaxTtlMs;
+
+    // Built once; the parser is immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        if (verifiedCacheEnabled) {
+            verifiedTokenCache = new VerifiedTokenCache(verifiedCacheMaxSize, Duration.ofMillis(verifiedCacheMaxTtlMs));
+        }
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
+    }
+
+    private Claims parseClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verify a token once and return everything the authentication filter needs.
+     * Repeat tokens are served from the verified-token cache without any crypto.
+     *
+     * @return the verified token, or null if it is invalid, expired or carries no roles claim
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokenCache != null) {
+            VerifiedToken cached = verifiedTokenCache.get(token);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = parseClaims(token);
+        } catch (ExpiredJwtException ex) {
+            log.error("Expired JWT token: {}", ex.getMessage());
+            return null;
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Signature, malformed, unsupported and empty tokens
+            log.error("Invalid JWT token: {}", ex.getMessage());
+            return null;
+        }
+
+        // Every token this service issues carries roles; one without them is not authenticated
+        String roles = claims.get("roles", String.class);
+        if (roles == null) {
+            log.error("Invalid JWT token: no roles claim");
+            return null;
+        }
+
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                toUserId(claims),
+                roles,
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+
+        // Tokens without exp are not cached, so a cache entry never outlives its token
+        if (verifiedTokenCache != null && expiration != null) {
+            verifiedTokenCache.put(token, verified);
+        }
+        return verified;
     }
 
     /**
@@ -95,13 +173,7 @@ public class JwtTokenProvider {
      * Get username from JWT token
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.getSubject();
+        return parseClaims(token).getSubject();
     }
 
     /**
@@ -109,46 +181,33 @@ public class JwtTokenProvider {
      */
     public Long getUserIdFromToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            Object userIdObj = claims.get("userId");
-            
-            if (userIdObj == null) {
-                log.warn("JWT token missing userId claim. Available claims: {}", claims.keySet());
-                return null;
-            }
-            
-            if (userIdObj instanceof Long) {
-                return (Long) userIdObj;
-            } else if (userIdObj instanceof Integer) {
-                return ((Integer) userIdObj).longValue();
-            } else if (userIdObj instanceof Number) {
-                return ((Number) userIdObj).longValue();
-            } else {
-                log.warn("JWT token userId claim is not a number: {} (type: {})", userIdObj, userIdObj.getClass());
-                return null;
-            }
+            return toUserId(parseClaims(token));
         } catch (Exception e) {
             log.error("Error extracting userId from token: {}", e.getMessage(), e);
             return null;
         }
     }
 
+    private Long toUserId(Claims claims) {
+        Object userIdObj = claims.get("userId");
+
+        if (userIdObj == null) {
+            log.warn("JWT token missing userId claim. Available claims: {}", claims.keySet());
+            return null;
+        }
+
+        if (userIdObj instanceof Number number) {
+            return number.longValue();
+        }
+        log.warn("JWT token userId claim is not a number: {} (type: {})", userIdObj, userIdObj.getClass());
+        return null;
+    }
+
     /**
      * Get roles from JWT token
      */
     public String getRolesFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.get("roles", String.class);
+        return parseClaims(token).get("roles", String.class);
     }
 
     /**
@@ -156,10 +215,7 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            parseClaims(token);
             return true;
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature: {}", ex.getMessage());
@@ -180,13 +236,7 @@ public class JwtTokenProvider {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            return claims.getExpiration().before(new Date());
+            return parseClaims(token).getExpiration().before(new Date());
         } catch (Exception e) {
             return true;
         }
@@ -196,24 +246,14 @@ public class JwtTokenProvider {
      * Get expiration date from token
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.getExpiration();
+        return parseClaims(token).getExpiration();
     }
 
     /**
      * Get all claims from token
      */
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseClaims(token);
     }
 }
 
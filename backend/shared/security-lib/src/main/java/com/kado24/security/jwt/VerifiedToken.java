@@ -0,0 +1,45 @@
+package com.kado24.security.jwt;
+
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Result of verifying an access token once: the claims the authentication filter needs,
+ * with roles already converted to authorities.
+ *
+ * Immutable, so one instance can be shared by every request presenting the same token.
+ */
+@Getter
+public class VerifiedToken {
+
+    private final String username;
+    private final Long userId;
+    private final String roles;
+    private final List<SimpleGrantedAuthority> authorities;
+    private final long expiresAtMillis;
+
+    public VerifiedToken(String username, Long userId, String roles, long expiresAtMillis) {
+        this.username = username;
+        this.userId = userId;
+        this.roles = Objects.requireNonNull(roles, "roles");
+        this.authorities = toAuthorities(roles);
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    private static List<SimpleGrantedAuthority> toAuthorities(String roles) {
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+}
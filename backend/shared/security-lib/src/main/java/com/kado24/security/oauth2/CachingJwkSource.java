@@ -0,0 +1,121 @@
+package com.kado24.security.oauth2;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWK set cache for resource servers.
+ *
+ * The set is fetched in the background right after startup and then on a fixed interval, so
+ * requests never wait on auth-service. A token signed with an unknown {@code kid} (key rotation)
+ * triggers one synchronous refetch, rate limited by {@code minRefetchInterval}. When auth-service
+ * is unreachable the last good set keeps being served (stale-while-revalidate); only a service
+ * that has never fetched the set fails verification.
+ */
+@Slf4j
+public class CachingJwkSource implements JWKSource<SecurityContext>, AutoCloseable {
+
+    private static final int SIZE_LIMIT_BYTES = 64 * 1024;
+
+    private final URL jwkSetUrl;
+    private final ResourceRetriever retriever;
+    private final long minRefetchIntervalMs;
+    private final ScheduledExecutorService scheduler;
+    private final Object fetchLock = new Object();
+
+    private volatile JWKSet jwkSet;
+    private volatile long lastFetchAttemptAt;
+
+    public CachingJwkSource(String jwkSetUri,
+                            Duration refreshInterval,
+                            Duration minRefetchInterval,
+                            Duration connectTimeout,
+                            Duration readTimeout) {
+        try {
+            this.jwkSetUrl = new URL(jwkSetUri);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid JWK set URI: " + jwkSetUri, e);
+        }
+        this.retriever = new DefaultResourceRetriever(
+                (int) connectTimeout.toMillis(), (int) readTimeout.toMillis(), SIZE_LIMIT_BYTES);
+        this.minRefetchIntervalMs = minRefetchInterval.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        if (current == null) {
+            current = refresh(minRefetchIntervalMs);
+        }
+        List<JWK> matches = jwkSelector.select(current);
+        if (matches.isEmpty()) {
+            // Unknown kid: auth-service may have rotated its keys
+            matches = jwkSelector.select(refresh(minRefetchIntervalMs));
+        }
+        return matches;
+    }
+
+    /**
+     * Fetch the set unless a fetch was attempted within {@code minIntervalMs}.
+     * Falls back to the cached set when auth-service cannot be reached.
+     */
+    private JWKSet refresh(long minIntervalMs) throws KeySourceException {
+        synchronized (fetchLock) {
+            JWKSet current = jwkSet;
+            if (System.currentTimeMillis() - lastFetchAttemptAt < minIntervalMs) {
+                if (current != null) {
+                    return current;
+                }
+                // Fail fast instead of queueing every request behind a dead auth-service
+                throw new KeySourceException("JWK set from " + jwkSetUrl + " not available yet");
+            }
+            lastFetchAttemptAt = System.currentTimeMillis();
+            try {
+                JWKSet fetched = JWKSet.parse(retriever.retrieveResource(jwkSetUrl).getContent());
+                jwkSet = fetched;
+                log.debug("Fetched {} signing keys from {}", fetched.getKeys().size(), jwkSetUrl);
+                return fetched;
+            } catch (Exception e) {
+                if (current != null) {
+                    log.warn("Failed to refresh JWK set from {}, serving cached keys: {}", jwkSetUrl, e.getMessage());
+                    return current;
+                }
+                throw new KeySourceException("Couldn't retrieve JWK set from " + jwkSetUrl + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh(0);
+        } catch (KeySourceException e) {
+            log.warn("JWK set not available yet: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
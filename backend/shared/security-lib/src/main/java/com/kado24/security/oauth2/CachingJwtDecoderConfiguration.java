@@ -0,0 +1,66 @@
+package com.kado24.security.oauth2;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.time.Duration;
+
+/**
+ * Shared JwtDecoder for OAuth2 resource servers: RS256 against a {@link CachingJwkSource},
+ * wrapped in a {@link MemoizingJwtDecoder}.
+ *
+ * Deliberately not a {@code @Configuration}: services scanning {@code com.kado24.security}
+ * would otherwise all get a decoder. Resource servers opt in with
+ * {@code @Import(CachingJwtDecoderConfiguration.class)}.
+ */
+public class CachingJwtDecoderConfiguration {
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:http://auth-service:8081/oauth2/jwks}")
+    private String jwkSetUri;
+
+    @Value("${jwt.decoder.jwks-refresh-interval-ms:300000}")
+    private long jwksRefreshIntervalMs;
+
+    @Value("${jwt.decoder.jwks-min-refetch-interval-ms:10000}")
+    private long jwksMinRefetchIntervalMs;
+
+    @Value("${jwt.decoder.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${jwt.decoder.read-timeout-ms:2000}")
+    private long readTimeoutMs;
+
+    @Value("${jwt.decoder.memo.max-size:10000}")
+    private long memoMaxSize;
+
+    @Value("${jwt.decoder.memo.max-ttl-ms:300000}")
+    private long memoMaxTtlMs;
+
+    @Bean(destroyMethod = "close")
+    public CachingJwkSource cachingJwkSource() {
+        return new CachingJwkSource(
+                jwkSetUri,
+                Duration.ofMillis(jwksRefreshIntervalMs),
+                Duration.ofMillis(jwksMinRefetchIntervalMs),
+                Duration.ofMillis(connectTimeoutMs),
+                Duration.ofMillis(readTimeoutMs));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(CachingJwkSource cachingJwkSource) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, cachingJwkSource));
+        // Claims are validated by NimbusJwtDecoder's default validators (exp/nbf with clock skew)
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder nimbusJwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        return new MemoizingJwtDecoder(nimbusJwtDecoder, memoMaxSize, Duration.ofMillis(memoMaxTtlMs));
+    }
+}
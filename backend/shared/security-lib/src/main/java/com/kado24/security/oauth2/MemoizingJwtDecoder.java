@@ -0,0 +1,90 @@
+package com.kado24.security.oauth2;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jwt.JWTParser;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtDecoder that remembers successfully decoded tokens by {@code jti}, so clients that reuse
+ * one access token skip RS256 verification on every request after the first.
+ *
+ * A hit is only served when the presented token is byte-for-byte the token that was verified
+ * (a forged token reusing a known jti still goes through the delegate) and has not expired.
+ * Entries expire with the token, capped by {@code maxTtl}; tokens without jti or exp are never
+ * memoized.
+ */
+public class MemoizingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> verified;
+
+    public MemoizingJwtDecoder(JwtDecoder delegate, long maxSize, Duration maxTtl) {
+        this.delegate = delegate;
+        long maxTtlNanos = maxTtl.toNanos();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String jti, Jwt jwt, long currentTime) {
+                        long remaining = TimeUnit.MILLISECONDS.toNanos(
+                                jwt.getExpiresAt().toEpochMilli() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(remaining, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String jti, Jwt jwt, long currentTime, long currentDuration) {
+                        return expireAfterCreate(jti, jwt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String jti, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String jti = peekJti(token);
+        if (jti != null) {
+            Jwt cached = verified.getIfPresent(jti);
+            if (cached != null
+                    && Instant.now().isBefore(cached.getExpiresAt())
+                    && MessageDigest.isEqual(
+                            cached.getTokenValue().getBytes(StandardCharsets.UTF_8),
+                            token.getBytes(StandardCharsets.UTF_8))) {
+                return cached;
+            }
+        }
+
+        Jwt jwt = delegate.decode(token);
+        if (jti != null && jti.equals(jwt.getId()) && jwt.getExpiresAt() != null) {
+            verified.put(jti, jwt);
+        }
+        return jwt;
+    }
+
+    /**
+     * Read the jti without verifying anything; only used as a cache key
+     */
+    private static String peekJti(String token) {
+        try {
+            return JWTParser.parse(token).getJWTClaimsSet().getJWTID();
+        } catch (ParseException e) {
+            throw new BadJwtException("Malformed token: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.kado24.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput benchmark for the JWT authentication filter.
+ *
+ * Compares the previous filter (four full parses per request, rebuilding the HMAC key and parser
+ * each time) with {@link JwtAuthenticationFilter} verifying once, with and without the
+ * verified-token cache. Requests cycle through a pool of distinct tokens, as repeat callers do.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass="com.kado24.security.jwt.JwtFilterBenchmark"
+ *      [-Dexec.args="threads distinctTokens seconds"]
+ */
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "kado24-secret-key-change-this-in-production-minimum-256-bits";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int distinctTokens = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        JwtTokenProvider uncached = provider(false);
+        JwtTokenProvider cached = provider(true);
+        String[] tokens = new String[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            tokens[i] = cached.generateAccessToken("user" + i, "CONSUMER", (long) i);
+        }
+
+        System.out.println("========================================");
+        System.out.println("JWT authentication filter benchmark");
+        System.out.println("Threads: " + threads + ", distinct tokens: " + distinctTokens + ", " + seconds + "s per run");
+        System.out.println("========================================");
+
+        for (int round = 1; round <= 3; round++) {
+            System.out.println("Round " + round);
+            run("Four parses per request (before)", new LegacyJwtFilter(), tokens, threads, seconds);
+            run("Single parse", new JwtAuthenticationFilter(uncached), tokens, threads, seconds);
+            run("Single parse + verified cache", new JwtAuthenticationFilter(cached), tokens, threads, seconds);
+        }
+    }
+
+    private static JwtTokenProvider provider(boolean cacheEnabled) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 86_400_000L);
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpirationMs", 604_800_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxTtlMs", 300_000L);
+        provider.init();
+        return provider;
+    }
+
+    private static void run(String name, Filter filter, String[] tokens, int threads, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        LongAdder requests = new LongAdder();
+        LongAdder authenticated = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    int i = offset;
+                    while (System.nanoTime() < deadline) {
+                        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/wallet");
+                        request.addHeader("Authorization", "Bearer " + tokens[i++ % tokens.length]);
+                        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                        if (request.getAttribute("userId") != null) {
+                            authenticated.increment();
+                        }
+                        SecurityContextHolder.clearContext();
+                        requests.increment();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        done.await();
+        pool.shutdown();
+
+        long total = requests.sum();
+        System.out.printf("  %-36s %,12d req/s  (authenticated %,d of %,d)%n",
+                name, total / seconds, authenticated.sum(), total);
+    }
+
+    /**
+     * The filter as it was: validate, then parse again for username, roles and userId
+     */
+    private static class LegacyJwtFilter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws java.io.IOException, jakarta.servlet.ServletException {
+            String jwt = request.getHeader("Authorization").substring(7);
+            parse(jwt);
+            String username = parse(jwt).getSubject();
+            String roles = parse(jwt).get("roles", String.class);
+            Long userId = ((Number) parse(jwt).get("userId")).longValue();
+
+            List<SimpleGrantedAuthority> authorities = Arrays.stream(roles.split(","))
+                    .map(String::trim)
+                    .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                    .map(SimpleGrantedAuthority::new)
+                    .toList();
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(username, null, authorities));
+            request.setAttribute("userId", userId);
+            filterChain.doFilter(request, response);
+        }
+
+        private static Claims parse(String token) {
+            return Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        }
+    }
+}
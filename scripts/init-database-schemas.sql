@@ -129,6 +129,7 @@ CREATE INDEX idx_auth_users_phone ON auth_schema.users(phone_number);
 CREATE INDEX idx_auth_users_email ON auth_schema.users(email);
 CREATE INDEX idx_auth_users_role ON auth_schema.users(role);
 CREATE INDEX idx_auth_users_status ON auth_schema.users(status);
+CREATE INDEX idx_auth_users_created_at ON auth_schema.users(created_at);
 
 COMMENT ON TABLE auth_schema.users IS 'Core user authentication table (owned by auth-service)';
 
@@ -347,6 +348,7 @@ CREATE TABLE merchant_schema.merchants (
 CREATE INDEX idx_merchants_user ON merchant_schema.merchants(user_id);
 CREATE INDEX idx_merchants_status ON merchant_schema.merchants(status);
 CREATE INDEX idx_merchants_location ON merchant_schema.merchants(latitude, longitude);
+CREATE INDEX idx_merchants_created_at ON merchant_schema.merchants(created_at);
 
 COMMENT ON TABLE merchant_schema.merchants IS 'Merchant business information (owned by merchant-service)';
 
@@ -503,6 +505,8 @@ CREATE INDEX idx_orders_merchant ON order_schema.orders(merchant_id);
 CREATE INDEX idx_orders_status ON order_schema.orders(status);
 CREATE INDEX idx_orders_payment_status ON order_schema.orders(payment_status);
 CREATE INDEX idx_orders_number ON order_schema.orders(order_number);
+CREATE INDEX idx_orders_paid_at ON order_schema.orders(paid_at);
+CREATE INDEX idx_orders_payment_status_updated ON order_schema.orders(payment_status, updated_at);
 
 COMMENT ON TABLE order_schema.orders IS 'Purchase orders (owned by order-service)';
 
@@ -559,6 +563,9 @@ CREATE INDEX idx_wallet_code ON wallet_schema.wallet_vouchers(voucher_code);
 CREATE INDEX idx_wallet_status ON wallet_schema.wallet_vouchers(status);
 CREATE INDEX idx_wallet_expires ON wallet_schema.wallet_vouchers(expires_at);
 
+-- wallet-service allocates ids in blocks of 50 (pooled sequence) for batch inserts
+ALTER SEQUENCE wallet_schema.wallet_vouchers_id_seq INCREMENT BY 50;
+
 COMMENT ON TABLE wallet_schema.wallet_vouchers IS 'User voucher wallet (owned by wallet-service)';
 
 -- =============================================
@@ -642,6 +649,9 @@ CREATE INDEX idx_notifications_status ON notification_schema.notifications(statu
 CREATE INDEX idx_notifications_channel ON notification_schema.notifications(channel);
 CREATE INDEX idx_notifications_created ON notification_schema.notifications(created_at);
 
+-- notification-service allocates ids in blocks of 50 (pooled sequence) for batch inserts
+ALTER SEQUENCE notification_schema.notifications_id_seq INCREMENT BY 50;
+
 COMMENT ON TABLE notification_schema.notifications IS 'Email, SMS, Push notifications (owned by notification-service)';
 
 CREATE TABLE notification_schema.support_tickets (